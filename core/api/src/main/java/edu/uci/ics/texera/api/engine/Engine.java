@@ -26,9 +26,13 @@ public class Engine {
 
     public void evaluate(Plan plan) throws TexeraException {
         ISink root = plan.getRoot();
-        root.open();
-        root.processTuples();
-        root.close();
+        try {
+            root.open();
+            root.processTuples();
+            root.close();
+        } finally {
+            plan.close();
+        }
     }
 
     ;
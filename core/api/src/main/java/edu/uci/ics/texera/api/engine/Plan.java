@@ -1,16 +1,24 @@
 package edu.uci.ics.texera.api.engine;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import edu.uci.ics.texera.api.dataflow.ISink;
+import edu.uci.ics.texera.api.exception.TexeraException;
 
 /**
  * Created by chenli on 5/11/16.
  * <p>
  * A query plan is a tree of operators except the root, which is an ISink object
  * that consumes all the tuples generated by its subtree.
+ * <p>
+ * A plan can hold resources shared by its operators, such as a snapshot of the tables read by the plan.
+ * The resources are released by close() after the plan is executed.
  */
 public class Plan {
 
     private final ISink root;
+    private final List<AutoCloseable> resources = new ArrayList<>();
 
     public Plan(ISink root) {
         this.root = root;
@@ -19,4 +27,28 @@ public class Plan {
     public ISink getRoot() {
         return root;
     }
+    
+    public void addResource(AutoCloseable resource) {
+        resources.add(resource);
+    }
+    
+    /**
+     * Releases the resources held by the plan.
+     * 
+     * @throws TexeraException
+     */
+    public void close() throws TexeraException {
+        Exception closeException = null;
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                closeException = e;
+            }
+        }
+        resources.clear();
+        if (closeException != null) {
+            throw new TexeraException(closeException);
+        }
+    }
 }
@@ -19,6 +19,8 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.schema.Schema.Builder;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.dataflow.common.IIndexAggregationSource;
+import edu.uci.ics.texera.storage.DataReader;
 
 /**
  * Aggregator operator is used to perform aggregation (like sum, count, min, max, average) operations on a column. The attribute types supported for
@@ -27,6 +29,10 @@ import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
  * aggregations at a time i.e. MIN on a attribute A and SUM on attribute B. This is supported as AggregatorPredicate accepts a list of aggregations as
  * input.
  *
+ * If the input operator is a source whose results are exactly the tuples of its DataReader (see IIndexAggregationSource),
+ * and all the aggregations are COUNT, or MIN and MAX on INTEGER, DOUBLE, DATE and DATETIME attributes, the aggregations
+ * are computed from the index of the DataReader without reading the tuples.
+ *
  * @author avinash
  */
 public class Aggregator extends AbstractSingleInputOperator {
@@ -119,7 +125,14 @@ public class Aggregator extends AbstractSingleInputOperator {
             return null;
         }
         Tuple resultTuple = null;
-        List<IField> aggregatedResults = processAllTuples(inputOperator);
+        List<IField> aggregatedResults = null;
+        DataReader indexAggregationReader = getIndexAggregationReader();
+        if (indexAggregationReader != null) {
+            aggregatedResults = processAllTuplesFromIndex(indexAggregationReader);
+        }
+        if (aggregatedResults == null) {
+            aggregatedResults = processAllTuples(inputOperator);
+        }
         resultTuple = putResultsIntoTuple(aggregatedResults);
         cursor++;
         return resultTuple;
@@ -184,6 +197,62 @@ public class Aggregator extends AbstractSingleInputOperator {
         return aggregatedResults;
     }
 
+    /*
+     * Gets the DataReader of the input operator if all the aggregations can be computed from its index,
+     *   otherwise returns null.
+     */
+    private DataReader getIndexAggregationReader() {
+        if (! (inputOperator instanceof IIndexAggregationSource)) {
+            return null;
+        }
+        for (AggregationAttributeAndResult aggregationItem : predicate.getAttributeAggregateResultList()) {
+            AttributeType attributeType = inputSchema.getAttribute(aggregationItem.getAttributeName()).getType();
+            switch (aggregationItem.getAggregatorType()) {
+                case COUNT:
+                    break;
+                case MIN:
+                case MAX:
+                    if (! Arrays.asList(AttributeType.INTEGER, AttributeType.DOUBLE, AttributeType.DATE, AttributeType.DATETIME).contains(attributeType)) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return ((IIndexAggregationSource) inputOperator).getIndexAggregationReader();
+    }
+
+    /**
+     * Computes the aggregations from the index of the DataReader of the input operator, without reading the tuples.
+     * If the input is empty, it returns null, and the aggregations are computed by processAllTuples as usual.
+     * @param dataReader
+     * @return List<IField>
+     */
+    private List<IField> processAllTuplesFromIndex(DataReader dataReader) {
+        int matchingTuplesCount = dataReader.countMatchingTuples();
+        if (matchingTuplesCount == 0) {
+            return null;
+        }
+        rowsCount = matchingTuplesCount;
+
+        List<IField> aggregatedResults = new ArrayList<IField>();
+        for (AggregationAttributeAndResult aggregationItem : predicate.getAttributeAggregateResultList()) {
+            switch (aggregationItem.getAggregatorType()) {
+                case MIN:
+                    aggregatedResults.add(dataReader.getMinValue(aggregationItem.getAttributeName()));
+                    break;
+                case MAX:
+                    aggregatedResults.add(dataReader.getMaxValue(aggregationItem.getAttributeName()));
+                    break;
+                default:
+                    aggregatedResults.add(new IntegerField(matchingTuplesCount));
+                    break;
+            }
+        }
+        return aggregatedResults;
+    }
+
     /**
      * Takes the aggregates generated after processing all the tuples and puts it into a Tuple which is sent to next operator.
      * @param aggregatedResults
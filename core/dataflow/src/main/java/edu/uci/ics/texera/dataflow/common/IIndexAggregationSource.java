@@ -0,0 +1,22 @@
+package edu.uci.ics.texera.dataflow.common;
+
+import edu.uci.ics.texera.api.dataflow.ISourceOperator;
+import edu.uci.ics.texera.storage.DataReader;
+
+/**
+ * IIndexAggregationSource is a source operator whose results can be exactly the tuples of its DataReader.
+ * 
+ * If they are, the aggregations over the results (such as COUNT, MIN and MAX in Aggregator) 
+ *   can be computed from the index of the DataReader, without reading the tuples.
+ */
+public interface IIndexAggregationSource extends ISourceOperator {
+
+    /**
+     * Gets the opened DataReader whose tuples are exactly the results of this operator, 
+     *   or null if the results are verified or changed after they are read from the DataReader.
+     * 
+     * @return
+     */
+    DataReader getIndexAggregationReader();
+
+}
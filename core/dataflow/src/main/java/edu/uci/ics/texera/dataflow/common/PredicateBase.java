@@ -17,14 +17,19 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.api.dataflow.IPredicate;
 import edu.uci.ics.texera.dataflow.comparablematcher.ComparablePredicate;
+import edu.uci.ics.texera.dataflow.comparablematcher.ComparableSourcePredicate;
 import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionaryPredicate;
 import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionarySourcePredicate;
 import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenPredicate;
 import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenSourcePredicate;
 import edu.uci.ics.texera.dataflow.join.JoinDistancePredicate;
 import edu.uci.ics.texera.dataflow.join.SimilarityJoinPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.FuzzyKeywordPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.FuzzyKeywordSourcePredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordPredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordSourcePredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.MultiKeywordPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.MultiKeywordSourcePredicate;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityPredicate;
 import edu.uci.ics.texera.dataflow.nlp.sentiment.EmojiSentimentPredicate;
 import edu.uci.ics.texera.dataflow.nlp.sentiment.NlpSentimentPredicate;
@@ -67,6 +72,10 @@ import edu.uci.ics.texera.dataflow.wordcount.WordCountOperatorPredicate;
         @Type(value = FuzzyTokenSourcePredicate.class, name = "FuzzyTokenSource"), 
         @Type(value = KeywordPredicate.class, name = "KeywordMatcher"), 
         @Type(value = KeywordSourcePredicate.class, name = "KeywordSource"), 
+        @Type(value = MultiKeywordPredicate.class, name = "MultiKeywordMatcher"), 
+        @Type(value = MultiKeywordSourcePredicate.class, name = "MultiKeywordSource"), 
+        @Type(value = FuzzyKeywordPredicate.class, name = "FuzzyKeywordMatcher"), 
+        @Type(value = FuzzyKeywordSourcePredicate.class, name = "FuzzyKeywordSource"), 
         @Type(value = RegexPredicate.class, name = "RegexMatcher"), 
         @Type(value = RegexSourcePredicate.class, name = "RegexSource"), 
         
@@ -86,6 +95,7 @@ import edu.uci.ics.texera.dataflow.wordcount.WordCountOperatorPredicate;
         // remove comparable matcher because of the json schema "any" issue
         // TODO: fix the problem and add Comparable matcher back later
          @Type(value = ComparablePredicate.class, name = "Comparison"),
+         @Type(value = ComparableSourcePredicate.class, name = "ComparisonSource"),
         
         @Type(value = AsterixSourcePredicate.class, name = "AsterixSource"),        
         @Type(value = TwitterJsonConverterPredicate.class, name = "TwitterJsonConverter"),
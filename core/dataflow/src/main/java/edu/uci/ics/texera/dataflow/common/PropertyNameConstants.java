@@ -47,6 +47,8 @@ public class PropertyNameConstants {
     // related to keyword matcher
     public static final String KEYWORD_QUERY = "query";
     public static final String KEYWORD_MATCHING_TYPE = "matchingType";
+    public static final String KEYWORD_PREDICATES = "keywordPredicates";
+    public static final String FUZZY_KEYWORD_MAX_EDIT_DISTANCE = "maxEditDistance";
     
     // related to dictionary matcher
     public static final String DICTIONARY = "dictionary";
@@ -56,10 +58,12 @@ public class PropertyNameConstants {
     public static final String REGEX = "regex";
     public static final String REGEX_IGNORE_CASE = "regexIgnoreCase";
     public static final String REGEX_USE_INDEX = "regexUseIndex";
+    public static final String REGEX_ENGINE = "regexEngine";
     
     // related to fuzzy token matcher
     public static final String FUZZY_TOKEN_QUERY = "query";
     public static final String FUZZY_TOKEN_THRESHOLD_RATIO = "thresholdRatio";
+    public static final String FUZZY_TOKEN_TOP_K = "topK";
     
     // related to nlp extractor
     public static final String NLP_ENTITY_TYPE = "nlpEntityType";
@@ -133,8 +137,12 @@ public class PropertyNameConstants {
     public static final String EMPTY_NAME_EXCEPTION = "Table Name Cannot be Empty";
     public static final String EMPTY_REGEX_EXCEPTION = "regex should not be empty";
     public static final String EMPTY_QUERY_EXCEPTION = "query should not be empty";
+    public static final String EMPTY_KEYWORD_PREDICATES_EXCEPTION = "keyword predicates should not be empty";
+    public static final String DUPLICATE_SPAN_LIST_NAME_EXCEPTION = "span list names of the keyword predicates should be different";
     public static final String NAME_NOT_MATCH_EXCEPTION = "inner attribute name and outer attribute name are different";
     public static final String INVALID_THRESHOLD_EXCEPTION = "threshold ratio should be between 0.0 and 1.0";
+    public static final String INVALID_TOP_K_EXCEPTION = "top k should be greater than 0";
+    public static final String INVALID_EDIT_DISTANCE_EXCEPTION = "max edit distance should be between 0 and 2";
     public static final String INVALID_SAMPLE_SIZE_EXCEPTION = "Sample size should be greater than 0.";
     public static final String INVALID_LIMIT_EXCEPTION = "limit must be greater than or equal to 0";
     public static final String INVALID_OFFSET_EXCEPTION = "offset must be greater than or equal to 0";
@@ -0,0 +1,318 @@
+package edu.uci.ics.texera.dataflow.comparablematcher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.Query;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.dataflow.common.IIndexAggregationSource;
+import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.DataStore;
+import edu.uci.ics.texera.storage.RelationManager;
+import edu.uci.ics.texera.storage.utils.StorageUtils;
+
+/**
+ * ComparableMatcherSourceOperator is a source operator with a comparison query.
+ * 
+ * For INTEGER, DOUBLE, DATE and DATETIME attributes, the comparison is translated to 
+ *   a Lucene numeric range query, so that only the tuples in the range are read from the table.
+ * The range query may return a superset of the results (for example, when an INTEGER attribute 
+ *   is compared to a decimal number), so the tuples are verified by a ComparableMatcher afterwards.
+ * 
+ * Other attribute types and the "≠" comparison fall back to scanning the table.
+ * 
+ * If the table is time-partitioned on the compared attribute, the partitions outside of 
+ *   the date range of the comparison are not read.
+ * 
+ * If the range query is exact, the aggregations over the results can be computed from the index 
+ *   (see IIndexAggregationSource).
+ */
+public class ComparableMatcherSourceOperator extends AbstractSingleInputOperator implements IIndexAggregationSource {
+    
+    private final ComparableSourcePredicate predicate;
+    
+    private final DataReader dataReader;
+    private final ComparableMatcher comparableMatcher;
+    
+    private final Schema inputSchema;
+    
+    public ComparableMatcherSourceOperator(ComparableSourcePredicate predicate) 
+            throws DataflowException, StorageException {
+        this.predicate = predicate;
+        
+        // input schema must be specified before creating query
+        DataStore tableDataStore = RelationManager.getInstance().getTableDataStore(predicate.getTableName());
+        this.inputSchema = tableDataStore.getSchema();
+        if (! inputSchema.containsAttribute(predicate.getAttributeName())) {
+            throw new DataflowException(String.format("attribute %s not contained in table schema %s",
+                    predicate.getAttributeName(), inputSchema.getAttributeNames()));
+        }
+        
+        this.dataReader = RelationManager.getInstance().getTableDataReader(predicate.getTableName(), 
+                createLuceneQuery());
+        this.dataReader.setPayloadAdded(false);
+        if (tableDataStore.isPartitioned() 
+                && tableDataStore.getPartitionAttribute().equalsIgnoreCase(predicate.getAttributeName())) {
+            setPartitionRange();
+        }
+        
+        this.comparableMatcher = new ComparableMatcher(predicate);
+        this.comparableMatcher.setInputOperator(dataReader);
+        
+        this.inputOperator = this.comparableMatcher;
+    }
+
+    @Override
+    protected void setUp() throws TexeraException {
+        this.outputSchema = comparableMatcher.getOutputSchema();
+    }
+
+    @Override
+    protected Tuple computeNextMatchingTuple() throws TexeraException {
+        return this.comparableMatcher.getNextTuple();
+    }
+
+    @Override
+    public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        return this.comparableMatcher.processOneInputTuple(inputTuple);
+    }
+
+    @Override
+    protected void cleanUp() throws TexeraException {
+    }
+    
+    /**
+     * Source Operator doesn't need an input operator. Calling setInputOperator
+     * won't have any effects.
+     */
+    @Override
+    public void setInputOperator(IOperator inputOperator) {
+    }
+    
+    public ComparableSourcePredicate getPredicate() {
+        return this.predicate;
+    }
+    
+    @Override
+    public DataReader getIndexAggregationReader() {
+        if (cursor == CLOSED || limit != Integer.MAX_VALUE || offset != 0 || ! isLuceneQueryExact()) {
+            return null;
+        }
+        return dataReader;
+    }
+    
+    /*
+     * Checks if the range query only matches the tuples that satisfy the comparison,
+     *   so that ComparableMatcher doesn't filter out any of them.
+     */
+    private boolean isLuceneQueryExact() throws DataflowException {
+        ComparisonType comparisonType = predicate.getComparisonType();
+        Object compareToObject = predicate.getCompareToValue();
+        if (comparisonType == ComparisonType.NOT_EQUAL_TO || ! (compareToObject instanceof Integer 
+                || compareToObject instanceof Double || compareToObject instanceof String)) {
+            return false;
+        }
+        boolean inclusive = comparisonType == ComparisonType.EQUAL_TO 
+                || comparisonType == ComparisonType.GREATER_THAN_OR_EQUAL_TO
+                || comparisonType == ComparisonType.LESS_THAN_OR_EQUAL_TO;
+        switch (inputSchema.getAttribute(predicate.getAttributeName()).getType()) {
+        case INTEGER:
+            // the range of a decimal number is widened to the enclosing integers
+            double value = getCompareToNumber();
+            return inclusive && value == Math.floor(value) 
+                    && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+        case DOUBLE:
+            return true;
+        case DATE:
+            // a DATE attribute is compared to the date part of the compare to value
+            return inclusive;
+        default:
+            return false;
+        }
+    }
+    
+    /*
+     * Translates the comparison predicate to a Lucene query.
+     */
+    private Query createLuceneQuery() throws DataflowException {
+        if (predicate.getComparisonType() == ComparisonType.NOT_EQUAL_TO) {
+            return new MatchAllDocsQuery();
+        }
+        String attributeName = inputSchema.getAttribute(predicate.getAttributeName()).getName();
+        AttributeType attributeType = inputSchema.getAttribute(predicate.getAttributeName()).getType();
+        switch (attributeType) {
+        case INTEGER:
+            return createIntRangeQuery(attributeName);
+        case DOUBLE:
+            return createDoubleRangeQuery(attributeName);
+        case DATE:
+            return createDateRangeQuery(attributeName);
+        case DATETIME:
+            return createDateTimeRangeQuery(attributeName);
+        default:
+            return new MatchAllDocsQuery();
+        }
+    }
+    
+    /*
+     * The compare to value could be a decimal number, 
+     *   the range is widened to the enclosing integers and the exact comparison is done by ComparableMatcher.
+     */
+    private Query createIntRangeQuery(String attributeName) throws DataflowException {
+        double value = getCompareToNumber();
+        int floor = (int) Math.max(Integer.MIN_VALUE, Math.floor(value));
+        int ceil = (int) Math.min(Integer.MAX_VALUE, Math.ceil(value));
+        switch (predicate.getComparisonType()) {
+        case EQUAL_TO:
+            return NumericRangeQuery.newIntRange(attributeName, floor, ceil, true, true);
+        case GREATER_THAN:
+        case GREATER_THAN_OR_EQUAL_TO:
+            return NumericRangeQuery.newIntRange(attributeName, floor, null, true, false);
+        case LESS_THAN:
+        case LESS_THAN_OR_EQUAL_TO:
+            return NumericRangeQuery.newIntRange(attributeName, null, ceil, false, true);
+        default:
+            return new MatchAllDocsQuery();
+        }
+    }
+    
+    private Query createDoubleRangeQuery(String attributeName) throws DataflowException {
+        double value = getCompareToNumber();
+        switch (predicate.getComparisonType()) {
+        case EQUAL_TO:
+            return NumericRangeQuery.newDoubleRange(attributeName, value, value, true, true);
+        case GREATER_THAN:
+            return NumericRangeQuery.newDoubleRange(attributeName, value, null, false, false);
+        case GREATER_THAN_OR_EQUAL_TO:
+            return NumericRangeQuery.newDoubleRange(attributeName, value, null, true, false);
+        case LESS_THAN:
+            return NumericRangeQuery.newDoubleRange(attributeName, null, value, false, false);
+        case LESS_THAN_OR_EQUAL_TO:
+            return NumericRangeQuery.newDoubleRange(attributeName, null, value, false, true);
+        default:
+            return new MatchAllDocsQuery();
+        }
+    }
+    
+    /*
+     * A DATE attribute is compared to the date part of the compare to value (same as ComparableMatcher).
+     */
+    private Query createDateRangeQuery(String attributeName) throws DataflowException {
+        LocalDate date = parseCompareToDate();
+        long dateValue = StorageUtils.getDateIndexValue(date);
+        return createLongRangeQuery(attributeName, dateValue, dateValue);
+    }
+    
+    /*
+     * If the compare to value is a date (without time), ComparableMatcher compares it to the date part
+     *   of a DATETIME attribute, so the range covers the whole day.
+     */
+    private Query createDateTimeRangeQuery(String attributeName) throws DataflowException {
+        String compareToString = predicate.getCompareToValue().toString();
+        try {
+            long dateTimeValue = StorageUtils.getDateTimeIndexValue(LocalDateTime.parse(compareToString));
+            return createLongRangeQuery(attributeName, dateTimeValue, dateTimeValue);
+        } catch (DateTimeParseException e) {
+            LocalDate date = parseCompareToDate();
+            return createLongRangeQuery(attributeName, 
+                    StorageUtils.getDateTimeIndexValue(date.atStartOfDay()),
+                    StorageUtils.getDateTimeIndexValue(date.plusDays(1).atStartOfDay()) - 1);
+        }
+    }
+    
+    /*
+     * Creates a range query on a long field. 
+     * [lower, upper] is the range of index values that are equal to the compare to value.
+     * 
+     * The bounds are inclusive because DATETIME index values are truncated to milliseconds,
+     *   values at the bounds are checked by ComparableMatcher.
+     */
+    private Query createLongRangeQuery(String attributeName, long lower, long upper) {
+        switch (predicate.getComparisonType()) {
+        case EQUAL_TO:
+            return NumericRangeQuery.newLongRange(attributeName, lower, upper, true, true);
+        case GREATER_THAN:
+            return NumericRangeQuery.newLongRange(attributeName, upper, null, true, false);
+        case GREATER_THAN_OR_EQUAL_TO:
+            return NumericRangeQuery.newLongRange(attributeName, lower, null, true, false);
+        case LESS_THAN:
+            return NumericRangeQuery.newLongRange(attributeName, null, lower, false, true);
+        case LESS_THAN_OR_EQUAL_TO:
+            return NumericRangeQuery.newLongRange(attributeName, null, upper, false, true);
+        default:
+            return new MatchAllDocsQuery();
+        }
+    }
+    
+    /*
+     * Skips the partitions that can't contain a tuple satisfying the comparison,
+     *   a partition is determined by the date part of the partition attribute.
+     */
+    private void setPartitionRange() throws DataflowException {
+        switch (predicate.getComparisonType()) {
+        case EQUAL_TO:
+            LocalDate date = parseCompareToDate();
+            dataReader.setPartitionRange(date, date);
+            break;
+        case GREATER_THAN:
+        case GREATER_THAN_OR_EQUAL_TO:
+            dataReader.setPartitionRange(parseCompareToDate(), null);
+            break;
+        case LESS_THAN:
+        case LESS_THAN_OR_EQUAL_TO:
+            dataReader.setPartitionRange(null, parseCompareToDate());
+            break;
+        default:
+            break;
+        }
+    }
+    
+    private double getCompareToNumber() throws DataflowException {
+        Object compareToObject = predicate.getCompareToValue();
+        if (compareToObject instanceof Number) {
+            return ((Number) compareToObject).doubleValue();
+        }
+        try {
+            return Double.parseDouble(compareToObject.toString());
+        } catch (NumberFormatException e) {
+            throw new DataflowException("Unable to parse to number " + e.getMessage());
+        }
+    }
+    
+    private LocalDate parseCompareToDate() throws DataflowException {
+        String compareToString = predicate.getCompareToValue().toString();
+        try {
+            return LocalDate.parse(compareToString);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(compareToString).toLocalDate();
+            } catch (DateTimeParseException e2) {
+                throw new DataflowException("Unable to parse date or time: " + compareToString);
+            }
+        }
+    }
+
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        if (inputSchema == null || inputSchema.length == 0) {
+            if (outputSchema == null) {
+                open();
+                close();
+            }
+            return getOutputSchema();
+        }
+        throw new TexeraException(ErrorMessages.INVALID_INPUT_SCHEMA_FOR_SOURCE);
+    }
+
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableMap;
 
+import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
@@ -54,7 +55,7 @@ public class ComparablePredicate extends PredicateBase {
     }
 
     @Override
-    public ComparableMatcher newOperator() {
+    public IOperator newOperator() {
         return new ComparableMatcher(this);
     }
     
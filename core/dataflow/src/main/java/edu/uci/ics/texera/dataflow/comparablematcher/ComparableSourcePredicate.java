@@ -0,0 +1,58 @@
+package edu.uci.ics.texera.dataflow.comparablematcher;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+
+/**
+ * ComparableSourcePredicate is the predicate used by ComparableMatcherSourceOperator.
+ * This predicate is based on ComparablePredicate, with an additional member "tableName".
+ */
+public class ComparableSourcePredicate extends ComparablePredicate {
+    
+    private final String tableName;
+    
+    @JsonCreator
+    public ComparableSourcePredicate(
+            @JsonProperty(value = PropertyNameConstants.ATTRIBUTE_NAME, required = true)
+            String attributeName,
+            @JsonProperty(value = PropertyNameConstants.COMPARISON_TYPE, required = true)
+            ComparisonType matchingType,
+            @JsonProperty(value = PropertyNameConstants.COMPARE_TO_VALUE, required = true)
+            Object compareToValue,
+            @JsonProperty(value = PropertyNameConstants.TABLE_NAME, required = true)
+            String tableName) {
+        
+        super(attributeName, matchingType, compareToValue);
+        
+        if (tableName == null || tableName.isEmpty()) {
+            throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
+        }
+        this.tableName = tableName;
+    }
+    
+    @JsonProperty(PropertyNameConstants.TABLE_NAME)
+    public String getTableName() {
+        return this.tableName;
+    }
+    
+    @Override
+    public ComparableMatcherSourceOperator newOperator() {
+        return new ComparableMatcherSourceOperator(this);
+    }
+    
+    public static Map<String, Object> getOperatorMetadata() {
+        return ImmutableMap.<String, Object>builder()
+            .put(PropertyNameConstants.USER_FRIENDLY_NAME, "Source: Comparison")
+            .put(PropertyNameConstants.OPERATOR_DESCRIPTION, "Perform an index-based range search on a table (>, <, =, ..)")
+            .put(PropertyNameConstants.OPERATOR_GROUP_NAME, OperatorGroupConstants.SOURCE_GROUP)
+            .build();
+    }
+
+}
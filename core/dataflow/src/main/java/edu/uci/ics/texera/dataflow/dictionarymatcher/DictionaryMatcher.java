@@ -12,6 +12,7 @@ import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
+import edu.uci.ics.texera.dataflow.keywordmatcher.PhraseMatcher;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 
 import java.util.*;
@@ -36,6 +37,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
 
     private Schema inputSchema;
     private ACTrie dictionaryTrie;
+    private List<PhraseMatcher> phraseMatchers;
 
     @Override
     protected void setUp() throws TexeraException {
@@ -62,6 +64,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
             predicate.getDictionary().setDictionaryTokenListWithStopwords(predicate.getAnalyzerString());
             predicate.getDictionary().setDictionaryTokenSetList(predicate.getAnalyzerString());
+            preprocessPhraseMatchers();
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.REGEX) {
             predicate.getDictionary().setPatternList();
         } else {
@@ -76,6 +79,15 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
         dictionaryTrie.constructFailureTransactions();
     }
 
+    private void preprocessPhraseMatchers() {
+        phraseMatchers = new ArrayList<>();
+        for (int i = 0; i < predicate.getDictionary().getDictionaryEntries().size(); i++) {
+            phraseMatchers.add(new PhraseMatcher(predicate.getDictionary().getDictionaryEntries().get(i),
+                    predicate.getDictionary().getTokenListsNoStopwords().get(i),
+                    predicate.getDictionary().getTokenListsWithStopwords().get(i)));
+        }
+    }
+
     @Override
     protected Tuple computeNextMatchingTuple() throws TexeraException {
         Tuple inputTuple;
@@ -116,11 +128,9 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
 
             ArrayList<String> dictionaryEntries = predicate.getDictionary().getDictionaryEntries();
-            ArrayList<List<String>> tokenListsNoStopwords = predicate.getDictionary().getTokenListsNoStopwords();
-            ArrayList<List<String>> tokenListsWithStopwords = predicate.getDictionary().getTokenListsWithStopwords();
             ArrayList<Set<String>> tokenSetsNoStopwords = predicate.getDictionary().getTokenSetsNoStopwords();
 
-            matchingResults = appendPhraseMatchingSpans4Dictionary(inputTuple, predicate.getAttributeNames(), tokenListsNoStopwords, tokenSetsNoStopwords, tokenListsWithStopwords, dictionaryEntries);
+            matchingResults = appendPhraseMatchingSpans4Dictionary(inputTuple, predicate.getAttributeNames(), phraseMatchers, tokenSetsNoStopwords, dictionaryEntries);
 
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
             matchingResults = new ArrayList<Span>();
@@ -217,7 +227,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
         return matchingResults;
     }
 
-    public List<Span> appendPhraseMatchingSpans4Dictionary(Tuple inputTuple, List<String> attributeNames, List<List<String>> queryTokenList, List<Set<String>> queryTokenSetList, List<List<String>> queryTokenListWithStopwords, List<String> queryList) throws DataflowException {
+    public List<Span> appendPhraseMatchingSpans4Dictionary(Tuple inputTuple, List<String> attributeNames, List<PhraseMatcher> phraseMatchers, List<Set<String>> queryTokenSetList, List<String> queryList) throws DataflowException {
         List<Span> matchingResults = new ArrayList<>();
         ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
         List<Span> payload = payloadField.getValue();
@@ -242,12 +252,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
             // for TEXT type, spans need to be reconstructed according to the phrase query.
             if (attributeType == AttributeType.TEXT) {
                 for (int index : relevantSpansMap.keySet()) {
-                    List<Span> fieldSpanList = relevantSpansMap.get(index).stream().filter(span -> span.getAttributeName().equals(attributeName))
-                            .collect(Collectors.toList());
-                    if (fieldSpanList.isEmpty() || !DataflowUtils.isAllQueryTokensPresent(fieldSpanList, queryTokenSetList.get(index))) {
-                        continue;
-                    }
-                    matchingResults.addAll(DataflowUtils.constructPhraseMatchingSpans(attributeName, fieldValue, queryList.get(index), fieldSpanList, queryTokenListWithStopwords.get(index), queryTokenList.get(index)));
+                    matchingResults.addAll(phraseMatchers.get(index).computeMatchingSpans(attributeName, fieldValue, relevantSpansMap.get(index)));
                 }
             }
         }
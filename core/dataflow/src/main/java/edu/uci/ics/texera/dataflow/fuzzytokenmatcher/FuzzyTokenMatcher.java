@@ -1,9 +1,14 @@
 package edu.uci.ics.texera.dataflow.fuzzytokenmatcher;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
@@ -21,8 +26,16 @@ import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
  *  @author Zuozhi Wang (zuozhiw)
  *  @author Parag Saraogi
  *  @author Varun Bharill
- *  
+ *
  *  This class provides token based fuzzy matching.
+ *
+ *  The matching tokens of a tuple are counted in one pass over its payload,
+ *    the query tokens are looked up in a hash set.
+ *  The pass stops as soon as the remaining spans of the payload can't make any attribute reach the threshold.
+ *
+ *  If the predicate has topK, all the input tuples are consumed, and the k tuples with the most matching tokens
+ *    are returned, ordered by the number of matching tokens (the earlier input tuple first in a tie).
+ *  When k tuples are kept, a tuple also stops being counted when it can't have more matching tokens than them.
  */
 public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
     
@@ -32,7 +45,13 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
     
     private boolean addPayload = false;
     private boolean addResultAttribute = false;
-    
+
+    private Set<String> queryTokenSet;
+    // the index of each attribute in the predicate's attribute names
+    private Map<String, Integer> attributeIndexMap;
+
+    private Iterator<Tuple> topKResultIterator;
+
     public FuzzyTokenMatcher(FuzzyTokenPredicate predicate) {
         this.predicate = predicate;
     }
@@ -48,16 +67,35 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
         if (addResultAttribute) {
             Schema.checkAttributeNotExists(inputSchema, predicate.getSpanListName());
         }
-
+        
+        this.attributeIndexMap = new HashMap<>();
+        for (String attributeName : predicate.getAttributeNames()) {
+            AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getType();
+            
+            // types other than TEXT and STRING: throw Exception for now
+            if (attributeType != AttributeType.TEXT && attributeType != AttributeType.STRING) {
+                throw new DataflowException("FuzzyTokenMatcher: Fields other than TEXT or STRING are not supported");
+            }
+            attributeIndexMap.putIfAbsent(attributeName, attributeIndexMap.size());
+        }
+        this.queryTokenSet = new HashSet<>(predicate.getQueryTokens());
+        
         outputSchema = transformToOutputSchema(inputOperator.getOutputSchema());
     }
 
     @Override
     protected Tuple computeNextMatchingTuple() throws TexeraException {
+        if (predicate.getTopK() != null) {
+            if (topKResultIterator == null) {
+                topKResultIterator = computeTopKResults().iterator();
+            }
+            return topKResultIterator.hasNext() ? topKResultIterator.next() : null;
+        }
+        
         Tuple inputTuple = null;
         Tuple resultTuple = null;
         
-        while ((inputTuple = inputOperator.getNextTuple()) != null) {          
+        while ((inputTuple = inputOperator.getNextTuple()) != null) {
             resultTuple = processOneInputTuple(inputTuple);
             if (resultTuple != null) {
                 break;
@@ -68,6 +106,50 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
 
     @Override
     public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        inputTuple = addPayloadIfNeeded(inputTuple);
+        
+        List<Span> matchingResults = computeMatchingResults(inputTuple, 0);
+        if (matchingResults == null) {
+            return null;
+        }
+        return buildResultTuple(inputTuple, matchingResults);
+    }
+
+    /*
+     * Consumes all the input tuples and keeps the k results with the most matching tokens in a min-heap.
+     */
+    private List<Tuple> computeTopKResults() throws TexeraException {
+        int topK = predicate.getTopK();
+        // the head is the result to be replaced first: the fewest matching tokens, then the latest input
+        PriorityQueue<RankedResult> topKHeap = new PriorityQueue<>(
+                (result1, result2) -> result1.score != result2.score ?
+                        Integer.compare(result1.score, result2.score) : Long.compare(result2.order, result1.order));
+        
+        Tuple inputTuple;
+        long order = 0;
+        while ((inputTuple = inputOperator.getNextTuple()) != null) {
+            inputTuple = addPayloadIfNeeded(inputTuple);
+            // when the heap is full, a tuple must have more matching tokens than the head to replace it
+            int minScore = topKHeap.size() < topK ? 0 : topKHeap.peek().score + 1;
+            List<Span> matchingResults = computeMatchingResults(inputTuple, minScore);
+            if (matchingResults == null || matchingResults.size() < minScore) {
+                continue;
+            }
+            if (topKHeap.size() == topK) {
+                topKHeap.poll();
+            }
+            topKHeap.add(new RankedResult(buildResultTuple(inputTuple, matchingResults), matchingResults.size(), order++));
+        }
+        
+        List<Tuple> topKResults = new ArrayList<>();
+        while (! topKHeap.isEmpty()) {
+            topKResults.add(topKHeap.poll().tuple);
+        }
+        Collections.reverse(topKResults);
+        return topKResults;
+    }
+
+    private Tuple addPayloadIfNeeded(Tuple inputTuple) {
         // add payload if needed before passing it to the matching functions
         if (addPayload) {
             Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
@@ -75,59 +157,68 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
                     DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerStr())));
             inputTuple = tupleBuilderPayload.build();
         }
-        
-        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
-        List<Span> relevantSpans = filterRelevantSpans(payloadField.getValue());
-        List<Span> matchingResults = new ArrayList<>();
+        return inputTuple;
+    }
 
-        /*
-         * The source operator returns spans even for those fields which did not
-         * satisfy the threshold criterion. So if two attributes A,B have 10 and
-         * 5 matching tokens, and we set threshold to 10, the number of spans
-         * returned is 15. So we need to filter those 5 spans for attribute B.
-         */
-        for (String attributeName : this.predicate.getAttributeNames()) {
-            AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getType();
-            
-            // types other than TEXT and STRING: throw Exception for now
-            if (attributeType != AttributeType.TEXT && attributeType != AttributeType.STRING) {
-                throw new DataflowException("FuzzyTokenMatcher: Fields other than TEXT or STRING are not supported");
+    /*
+     * Counts the spans of the query tokens in each attribute in one pass over the payload.
+     *
+     * The source operator returns spans even for those fields which did not
+     * satisfy the threshold criterion. So if two attributes A,B have 10 and
+     * 5 matching tokens, and we set threshold to 10, the number of spans
+     * returned is 15. So we need to filter those 5 spans for attribute B.
+     *
+     * Returns null as soon as no attribute can reach the threshold,
+     *   or the total number of matching tokens can't reach minScore.
+     */
+    private List<Span> computeMatchingResults(Tuple inputTuple, int minScore) {
+        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
+        List<Span> payload = payloadField.getValue();
+        int threshold = predicate.getThreshold();
+        
+        List<List<Span>> fieldSpansList = new ArrayList<>(attributeIndexMap.size());
+        for (int i = 0; i < attributeIndexMap.size(); i++) {
+            fieldSpansList.add(new ArrayList<>());
+        }
+        int maxFieldCount = 0;
+        int totalCount = 0;
+        int remainingSpans = payload.size();
+        
+        for (Span span : payload) {
+            remainingSpans--;
+            if (queryTokenSet.contains(span.getKey())) {
+                Integer attributeIndex = attributeIndexMap.get(span.getAttributeName());
+                if (attributeIndex != null) {
+                    List<Span> fieldSpans = fieldSpansList.get(attributeIndex);
+                    fieldSpans.add(span);
+                    maxFieldCount = Math.max(maxFieldCount, fieldSpans.size());
+                    totalCount++;
+                }
             }
-            
-            List<Span> fieldSpans = 
-                    relevantSpans.stream()
-                    .filter(span -> span.getAttributeName().equals(attributeName))
-                    .filter(span -> predicate.getQueryTokens().contains(span.getKey()))
-                    .collect(Collectors.toList());
-            
-            if (fieldSpans.size() >= predicate.getThreshold()) {
+            if (maxFieldCount + remainingSpans < threshold || totalCount + remainingSpans < minScore) {
+                return null;
+            }
+        }
+        
+        List<Span> matchingResults = new ArrayList<>();
+        for (List<Span> fieldSpans : fieldSpansList) {
+            if (fieldSpans.size() >= threshold) {
                 matchingResults.addAll(fieldSpans);
             }
         }
-
         if (matchingResults.isEmpty()) {
             return null;
         }
-        
+        return matchingResults;
+    }
+
+    private Tuple buildResultTuple(Tuple inputTuple, List<Span> matchingResults) {
         Tuple.Builder tupleBuilder = new Tuple.Builder(inputTuple);
         if (addResultAttribute) {
             tupleBuilder.add(predicate.getSpanListName(), AttributeType.LIST, new ListField<Span>(matchingResults));
         }
-
         return tupleBuilder.build();
     }
-    
-    private List<Span> filterRelevantSpans(List<Span> spanList) {
-        List<Span> relevantSpans = new ArrayList<>();
-        Iterator<Span> iterator = spanList.iterator();
-        while (iterator.hasNext()) {
-            Span span = iterator.next();
-            if (predicate.getQueryTokens().contains(span.getKey())) {
-                relevantSpans.add(span);
-            }
-        }
-        return relevantSpans;
-    }
 
     public Schema transformToOutputSchema(Schema... inputSchema) {
         if (inputSchema.length != 1)
@@ -144,11 +235,27 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
     }
 
     @Override
-    protected void cleanUp() throws DataflowException {        
+    protected void cleanUp() throws DataflowException {
+        topKResultIterator = null;
     }
 
     public FuzzyTokenPredicate getPredicate() {
         return this.predicate;
     }
 
+    /*
+     * A result tuple with its number of matching tokens and its position in the input.
+     */
+    private static class RankedResult {
+        private final Tuple tuple;
+        private final int score;
+        private final long order;
+        
+        RankedResult(Tuple tuple, int score, long order) {
+            this.tuple = tuple;
+            this.score = score;
+            this.order = order;
+        }
+    }
+
 }
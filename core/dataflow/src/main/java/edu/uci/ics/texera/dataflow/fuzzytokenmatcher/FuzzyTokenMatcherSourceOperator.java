@@ -5,6 +5,7 @@ import edu.uci.ics.texera.api.schema.Schema;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.BooleanClause.Occur;
 
@@ -77,10 +78,13 @@ public class FuzzyTokenMatcherSourceOperator extends AbstractSingleInputOperator
             /*
              * By default the boolean query takes 1024 # of clauses as the max
              * limit. Since our input query has no limitaion on the number of
-             * tokens, we have to put a check.
+             * tokens, all the documents are read if the query has too many tokens,
+             * and the threshold is only checked by the FuzzyTokenMatcher.
+             * The global max clause count is not changed.
              */
-            if (predicate.getThreshold() > 1024)
-                BooleanQuery.setMaxClauseCount(predicate.getThreshold()  + 1);
+            if (predicate.getQueryTokens().size() > BooleanQuery.getMaxClauseCount()) {
+                return new MatchAllDocsQuery();
+            }
             BooleanQuery.Builder builder = new BooleanQuery.Builder();
             builder.setMinimumNumberShouldMatch(predicate.getThreshold());
             MultiFieldQueryParser qp = new MultiFieldQueryParser(
@@ -25,6 +25,9 @@ import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
  * This class builds the query to perform boolean searches in a lucene index. 
  * The threshold for boolean searches is taken input as a ratio with is converted to integer. 
  * In the worst case if this integer becomes 0, we will set it to 1. 
+ * 
+ * If topK is set, only the k results with the most matching tokens are returned, 
+ *   ordered by the number of matching tokens. 
  */
 public class FuzzyTokenPredicate extends PredicateBase {
 
@@ -33,10 +36,19 @@ public class FuzzyTokenPredicate extends PredicateBase {
     private final String luceneAnalyzerStr;
     private final Double thresholdRatio;
     private final String spanListName;
+    private final Integer topK;
     
     // fields not included in json properties
     private final List<String> queryTokens;
     private final Integer threshold;
+    
+    /*
+     * This constructor is only for internal use, all the results are returned.
+     */
+    public FuzzyTokenPredicate(String query, List<String> attributeNames, String luceneAnalyzerStr,
+            double thresholdRatio, String spanListName) {
+        this(query, attributeNames, luceneAnalyzerStr, thresholdRatio, null, spanListName);
+    }
 
     @JsonCreator
     public FuzzyTokenPredicate(
@@ -54,6 +66,10 @@ public class FuzzyTokenPredicate extends PredicateBase {
             @JsonProperty(value = PropertyNameConstants.FUZZY_TOKEN_THRESHOLD_RATIO, required = true)
             double thresholdRatio,
             
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.FUZZY_TOKEN_TOP_K, required = false)
+            Integer topK,
+            
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = true)
             String spanListName) {
         
@@ -63,11 +79,15 @@ public class FuzzyTokenPredicate extends PredicateBase {
         if (thresholdRatio < 0.0 || thresholdRatio > 1.0) {
             throw new TexeraException(PropertyNameConstants.INVALID_THRESHOLD_EXCEPTION);
         }
+        if (topK != null && topK <= 0) {
+            throw new TexeraException(PropertyNameConstants.INVALID_TOP_K_EXCEPTION);
+        }
         
         this.query = query;
         this.attributeNames = attributeNames;
         this.luceneAnalyzerStr = luceneAnalyzerStr;
         this.thresholdRatio = thresholdRatio;
+        this.topK = topK;
         
         if (spanListName == null || spanListName.trim().isEmpty()) {
             this.spanListName = null;
@@ -104,6 +124,11 @@ public class FuzzyTokenPredicate extends PredicateBase {
         return this.spanListName;
     }
     
+    @JsonProperty(value = PropertyNameConstants.FUZZY_TOKEN_TOP_K)
+    public Integer getTopK() {
+        return this.topK;
+    }
+    
     @JsonIgnore
     protected Collection<String> getQueryTokens() {
         return this.queryTokens;
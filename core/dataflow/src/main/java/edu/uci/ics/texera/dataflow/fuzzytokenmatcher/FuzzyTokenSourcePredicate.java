@@ -16,6 +16,14 @@ import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 public class FuzzyTokenSourcePredicate extends FuzzyTokenPredicate {
     
     private final String tableName;
+    
+    /*
+     * This constructor is only for internal use, all the results are returned.
+     */
+    public FuzzyTokenSourcePredicate(String query, List<String> attributeNames, String luceneAnalyzerStr,
+            Double thresholdRatio, String tableName, String spanListName) {
+        this(query, attributeNames, luceneAnalyzerStr, thresholdRatio, null, tableName, spanListName);
+    }
 
     @JsonCreator
     public FuzzyTokenSourcePredicate(
@@ -33,12 +41,16 @@ public class FuzzyTokenSourcePredicate extends FuzzyTokenPredicate {
             @JsonProperty(value = PropertyNameConstants.FUZZY_TOKEN_THRESHOLD_RATIO, required = true)
             Double thresholdRatio,
             
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.FUZZY_TOKEN_TOP_K, required = false)
+            Integer topK,
+            
             @JsonProperty(value = PropertyNameConstants.TABLE_NAME, required = true)
             String tableName,
             
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = true)
             String spanListName) {
-        super(query, attributeNames, luceneAnalyzerStr, thresholdRatio, spanListName);
+        super(query, attributeNames, luceneAnalyzerStr, thresholdRatio, topK, spanListName);
 
         if (tableName == null || tableName.isEmpty()) {
             throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
@@ -0,0 +1,92 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.Arrays;
+
+/**
+ * CaseInsensitiveSubstringSearcher finds the occurrences of a keyword in a text, ignoring the case,
+ *   with the Boyer-Moore-Horspool algorithm.
+ *
+ * The keyword is preprocessed once, and the text is scanned in place without being copied or lower-cased.
+ * Two characters are equal if their case-folded forms (the lower case of the upper case, same as
+ *   String.equalsIgnoreCase) are equal, which doesn't depend on the default locale.
+ * Since the characters are compared one by one, an occurrence always has the same length as the keyword.
+ */
+public class CaseInsensitiveSubstringSearcher {
+
+    // the shift table is indexed by the low bits of a folded character,
+    //   characters sharing a slot keep the smallest shift, which never skips an occurrence
+    private static final int SHIFT_TABLE_SIZE = 256;
+
+    private final String keyword;
+    private final char[] foldedKeyword;
+    private final int[] shiftTable;
+
+    public CaseInsensitiveSubstringSearcher(String keyword) {
+        this.keyword = keyword;
+        this.foldedKeyword = new char[keyword.length()];
+        for (int i = 0; i < keyword.length(); i++) {
+            foldedKeyword[i] = foldCase(keyword.charAt(i));
+        }
+
+        int keywordLength = foldedKeyword.length;
+        this.shiftTable = new int[SHIFT_TABLE_SIZE];
+        Arrays.fill(shiftTable, Math.max(keywordLength, 1));
+        for (int i = 0; i < keywordLength - 1; i++) {
+            int slot = foldedKeyword[i] & (SHIFT_TABLE_SIZE - 1);
+            shiftTable[slot] = Math.min(shiftTable[slot], keywordLength - 1 - i);
+        }
+    }
+
+    public String getKeyword() {
+        return this.keyword;
+    }
+
+    public int getKeywordLength() {
+        return this.foldedKeyword.length;
+    }
+
+    /**
+     * Finds the first occurrence of the keyword in the text, starting from an index.
+     *
+     * @param text
+     * @param fromIndex, the index to start the search from
+     * @return the index of the occurrence, or -1 if the keyword doesn't occur
+     */
+    public int indexOf(String text, int fromIndex) {
+        int keywordLength = foldedKeyword.length;
+        int start = Math.max(fromIndex, 0);
+        if (keywordLength == 0) {
+            return start <= text.length() ? start : -1;
+        }
+        int lastIndex = keywordLength - 1;
+        char lastKeywordChar = foldedKeyword[lastIndex];
+
+        while (start + lastIndex < text.length()) {
+            char lastTextChar = foldCase(text.charAt(start + lastIndex));
+            if (lastTextChar == lastKeywordChar) {
+                int i = lastIndex - 1;
+                while (i >= 0 && foldCase(text.charAt(start + i)) == foldedKeyword[i]) {
+                    i--;
+                }
+                if (i < 0) {
+                    return start;
+                }
+            }
+            start += shiftTable[lastTextChar & (SHIFT_TABLE_SIZE - 1)];
+        }
+        return -1;
+    }
+
+    /*
+     * Folds the case of a character in a locale-independent way.
+     * Both directions are needed for the characters whose upper cases are the same
+     *   but lower cases are not (such as the Kelvin sign and 'k', or the final sigma).
+     */
+    private static char foldCase(char c) {
+        if (c < 128) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+}
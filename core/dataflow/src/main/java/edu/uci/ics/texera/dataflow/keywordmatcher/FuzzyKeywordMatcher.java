@@ -0,0 +1,202 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+
+/**
+ * FuzzyKeywordMatcher finds the tokens of the fields within an edit distance of the query tokens (see FuzzyKeywordPredicate).
+ *
+ * The tokens are the keys of the payload spans, each token is run by the Levenshtein automata of the query tokens.
+ * The key of a result span is the query token and the edit distance separated by "~", for example, "aspirin~1"
+ *   (see getEditDistance()), the value is the original text of the token.
+ */
+public class FuzzyKeywordMatcher extends AbstractSingleInputOperator {
+
+    public static final String EDIT_DISTANCE_SEPARATOR = "~";
+
+    private final FuzzyKeywordPredicate predicate;
+
+    private List<LevenshteinTokenMatcher> tokenMatchers;
+
+    private boolean addPayload = false;
+    private boolean addResultAttribute = false;
+
+    public FuzzyKeywordMatcher(FuzzyKeywordPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected void setUp() throws TexeraException {
+        if (inputOperator == null) {
+            throw new DataflowException(ErrorMessages.INPUT_OPERATOR_NOT_SPECIFIED);
+        }
+
+        Schema inputSchema = inputOperator.getOutputSchema();
+
+        this.addPayload = ! inputSchema.containsAttribute(SchemaConstants.PAYLOAD);
+        this.addResultAttribute = predicate.getSpanListName() != null;
+
+        Schema.checkAttributeExists(inputSchema, predicate.getAttributeNames());
+        if (addResultAttribute) {
+            Schema.checkAttributeNotExists(inputSchema, predicate.getSpanListName());
+        }
+        // the payload only has the tokens of the TEXT fields
+        for (String attributeName : predicate.getAttributeNames()) {
+            if (inputSchema.getAttribute(attributeName).getType() != AttributeType.TEXT) {
+                throw new DataflowException("FuzzyKeywordMatcher: Fields other than TEXT are not supported");
+            }
+        }
+
+        outputSchema = transformToOutputSchema(inputSchema);
+
+        tokenMatchers = createTokenMatchers(predicate);
+    }
+
+    /*
+     * Builds the automata of each distinct token of the query.
+     */
+    static List<LevenshteinTokenMatcher> createTokenMatchers(FuzzyKeywordPredicate predicate) {
+        List<LevenshteinTokenMatcher> tokenMatchers = new ArrayList<>();
+        for (String queryToken : new LinkedHashSet<>(
+                DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery()))) {
+            tokenMatchers.add(new LevenshteinTokenMatcher(queryToken, predicate.getMaxEditDistance()));
+        }
+        return tokenMatchers;
+    }
+
+    @Override
+    protected Tuple computeNextMatchingTuple() throws TexeraException {
+        Tuple inputTuple = null;
+        Tuple resultTuple = null;
+
+        while ((inputTuple = inputOperator.getNextTuple()) != null) {
+            resultTuple = processOneInputTuple(inputTuple);
+
+            if (resultTuple != null) {
+                break;
+            }
+        }
+        return resultTuple;
+    }
+
+    @Override
+    public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        // add payload if needed before passing it to the matching functions
+        if (addPayload) {
+            Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
+            tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
+                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerString())));
+            inputTuple = tupleBuilderPayload.build();
+        }
+
+        List<Span> matchingResults = computeMatchingSpans(inputTuple);
+
+        if (matchingResults.isEmpty()) {
+            return null;
+        }
+
+        Tuple.Builder tupleBuilder = new Tuple.Builder(inputTuple);
+        if (addResultAttribute) {
+            tupleBuilder.add(predicate.getSpanListName(), AttributeType.LIST, new ListField<Span>(matchingResults));
+        }
+        return tupleBuilder.build();
+    }
+
+    /*
+     * Computes the spans of the fields where every query token matches some tokens,
+     *   the spans of a field are sorted by the position.
+     */
+    private List<Span> computeMatchingSpans(Tuple inputTuple) {
+        List<Span> matchingResults = new ArrayList<>();
+        if (tokenMatchers.isEmpty()) {
+            return matchingResults;
+        }
+
+        Map<String, List<Span>> fieldSpanMap = new LinkedHashMap<>();
+        Map<String, BitSet> fieldMatchedTokenMap = new LinkedHashMap<>();
+        for (String attributeName : predicate.getAttributeNames()) {
+            fieldSpanMap.put(attributeName, new ArrayList<>());
+            fieldMatchedTokenMap.put(attributeName, new BitSet(tokenMatchers.size()));
+        }
+
+        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
+        for (Span span : payloadField.getValue()) {
+            List<Span> fieldSpans = fieldSpanMap.get(span.getAttributeName());
+            if (fieldSpans == null) {
+                continue;
+            }
+            for (int i = 0; i < tokenMatchers.size(); i++) {
+                LevenshteinTokenMatcher tokenMatcher = tokenMatchers.get(i);
+                int editDistance = tokenMatcher.getEditDistance(span.getKey());
+                if (editDistance < 0) {
+                    continue;
+                }
+                fieldSpans.add(new Span(span.getAttributeName(), span.getStart(), span.getEnd(),
+                        tokenMatcher.getQueryToken() + EDIT_DISTANCE_SEPARATOR + editDistance,
+                        span.getValue(), span.getTokenOffset()));
+                fieldMatchedTokenMap.get(span.getAttributeName()).set(i);
+            }
+        }
+
+        for (String attributeName : fieldSpanMap.keySet()) {
+            if (fieldMatchedTokenMap.get(attributeName).cardinality() < tokenMatchers.size()) {
+                continue;
+            }
+            List<Span> fieldSpans = fieldSpanMap.get(attributeName);
+            fieldSpans.sort((span1, span2) -> span1.getStart() != span2.getStart() ?
+                    Integer.compare(span1.getStart(), span2.getStart()) : span1.getKey().compareTo(span2.getKey()));
+            matchingResults.addAll(fieldSpans);
+        }
+        return matchingResults;
+    }
+
+    /**
+     * Gets the edit distance of a result span of FuzzyKeywordMatcher from its key.
+     *
+     * @param span
+     * @return
+     */
+    public static int getEditDistance(Span span) {
+        String key = span.getKey();
+        return Integer.parseInt(key.substring(key.lastIndexOf(EDIT_DISTANCE_SEPARATOR) + 1));
+    }
+
+    @Override
+    protected void cleanUp() {
+    }
+
+    public FuzzyKeywordPredicate getPredicate() {
+        return this.predicate;
+    }
+
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        if (inputSchema.length != 1)
+            throw new TexeraException(String.format(ErrorMessages.NUMBER_OF_ARGUMENTS_DOES_NOT_MATCH, 1, inputSchema.length));
+
+        Schema.Builder outputSchemaBuilder = new Schema.Builder(inputSchema[0]);
+        if (! inputSchema[0].containsAttribute(SchemaConstants.PAYLOAD)) {
+            outputSchemaBuilder.add(SchemaConstants.PAYLOAD_ATTRIBUTE);
+        }
+        if (predicate.getSpanListName() != null) {
+            outputSchemaBuilder.add(predicate.getSpanListName(), AttributeType.LIST);
+        }
+        return outputSchemaBuilder.build();
+    }
+
+}
@@ -0,0 +1,152 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.dataflow.ISourceOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.RelationManager;
+
+/**
+ * FuzzyKeywordMatcherSourceOperator is a source operator with a fuzzy keyword query.
+ *
+ * The Levenshtein automaton of each query token is intersected with the terms dictionary of each attribute,
+ *   only the terms within the edit distance are read from the dictionary.
+ * The table is searched with the postings of these terms: a tuple is read if, in one of the attributes,
+ *   every query token has a matching term. The tuples are then matched by a FuzzyKeywordMatcher.
+ */
+public class FuzzyKeywordMatcherSourceOperator extends AbstractSingleInputOperator implements ISourceOperator {
+
+    private final FuzzyKeywordSourcePredicate predicate;
+
+    private final DataReader dataReader;
+    private final FuzzyKeywordMatcher fuzzyKeywordMatcher;
+
+    public FuzzyKeywordMatcherSourceOperator(FuzzyKeywordSourcePredicate predicate)
+            throws DataflowException, StorageException {
+        this.predicate = predicate;
+
+        // generate dataReader
+        Query luceneQuery = createLuceneQueryObject();
+        this.dataReader = RelationManager.getInstance().getTableDataReader(predicate.getTableName(), luceneQuery);
+        this.dataReader.setPayloadAdded(true);
+
+        // generate FuzzyKeywordMatcher
+        fuzzyKeywordMatcher = new FuzzyKeywordMatcher(predicate);
+        fuzzyKeywordMatcher.setInputOperator(dataReader);
+
+        this.inputOperator = this.fuzzyKeywordMatcher;
+    }
+
+    /*
+     * Creates the disjunction over the attributes of the conjunction over the query tokens,
+     *   a query token is the disjunction of its matching terms in the attribute.
+     * If a query token has too many matching terms for a boolean query, the whole table is read.
+     */
+    private Query createLuceneQueryObject() throws StorageException {
+        List<LevenshteinTokenMatcher> tokenMatchers = FuzzyKeywordMatcher.createTokenMatchers(predicate);
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+        if (tokenMatchers.isEmpty()) {
+            return booleanQueryBuilder.build();
+        }
+        if (tokenMatchers.size() >= BooleanQuery.getMaxClauseCount()) {
+            return new MatchAllDocsQuery();
+        }
+
+        // the terms dictionaries of the table are read once for all the attributes and query tokens
+        Map<String, List<List<String>>> matchingTermsMap = RelationManager.getInstance().getTableMatchingTerms(
+                predicate.getTableName(), predicate.getAttributeNames(), 
+                tokenMatchers.stream().map(LevenshteinTokenMatcher::getCompiledAutomaton).collect(Collectors.toList()));
+
+        for (String attributeName : predicate.getAttributeNames()) {
+            BooleanQuery.Builder fieldQueryBuilder = new BooleanQuery.Builder();
+            boolean fieldMatched = true;
+            for (int i = 0; i < tokenMatchers.size(); i++) {
+                LevenshteinTokenMatcher tokenMatcher = tokenMatchers.get(i);
+                List<String> matchingTerms = matchingTermsMap.get(attributeName).get(i)
+                        .stream().filter(term -> tokenMatcher.getEditDistance(term) >= 0)
+                        .collect(Collectors.toList());
+                if (matchingTerms.isEmpty()) {
+                    fieldMatched = false;
+                    break;
+                }
+                if (matchingTerms.size() >= BooleanQuery.getMaxClauseCount()) {
+                    return new MatchAllDocsQuery();
+                }
+                BooleanQuery.Builder tokenQueryBuilder = new BooleanQuery.Builder();
+                for (String term : matchingTerms) {
+                    tokenQueryBuilder.add(new TermQuery(new Term(attributeName, term)), BooleanClause.Occur.SHOULD);
+                }
+                fieldQueryBuilder.add(tokenQueryBuilder.build(), BooleanClause.Occur.MUST);
+            }
+            if (fieldMatched) {
+                booleanQueryBuilder.add(fieldQueryBuilder.build(), BooleanClause.Occur.SHOULD);
+            }
+        }
+        return booleanQueryBuilder.build();
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return this.outputSchema;
+    }
+
+    @Override
+    protected void setUp() throws DataflowException {
+        this.outputSchema = fuzzyKeywordMatcher.getOutputSchema();
+    }
+
+    @Override
+    protected Tuple computeNextMatchingTuple() throws TexeraException {
+        return this.fuzzyKeywordMatcher.getNextTuple();
+    }
+
+    @Override
+    public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        return this.fuzzyKeywordMatcher.processOneInputTuple(inputTuple);
+    }
+
+    @Override
+    protected void cleanUp() throws DataflowException {
+    }
+
+    /**
+     * Source Operator doesn't need an input operator. Calling setInputOperator
+     * won't have any effects.
+     */
+    @Override
+    public void setInputOperator(IOperator inputOperator) {
+    }
+
+    public FuzzyKeywordSourcePredicate getPredicate() {
+        return this.predicate;
+    }
+
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        if (inputSchema == null || inputSchema.length == 0) {
+            if (outputSchema == null) {
+                open();
+                close();
+            }
+            return getOutputSchema();
+        }
+        throw new TexeraException(ErrorMessages.INVALID_INPUT_SCHEMA_FOR_SOURCE);
+    }
+
+}
@@ -0,0 +1,134 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.util.automaton.LevenshteinAutomata;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.dataflow.annotation.AdvancedOption;
+import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
+import edu.uci.ics.texera.dataflow.common.PredicateBase;
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * FuzzyKeywordPredicate is the predicate for FuzzyKeywordMatcher.
+ *
+ * Each token of the query matches the tokens within the maximum edit distance of it (typos of the token),
+ *   a field matches if every token of the query matches some tokens in the field.
+ */
+public class FuzzyKeywordPredicate extends PredicateBase {
+
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+
+    private final String query;
+    private final List<String> attributeNames;
+    private final String luceneAnalyzerString;
+    private final Integer maxEditDistance;
+    private final String spanListName;
+
+    /**
+     * Construct a FuzzyKeywordPredicate.
+     *
+     * @param query, the keyword query
+     * @param attributeNames, a list of TEXT attribute names to perform the fuzzy keyword search on
+     * @param luceneAnalyzerString, optional, the lucene analyzer of the query, default value "standard"
+     * @param maxEditDistance, optional, the maximum edit distance (0, 1, or 2) of a token to a query token, default 2
+     * @param spanListName, optional, the name of the attribute where the results (a list of spans) will be in,
+     *          default value is the id of the predicate
+     */
+    @JsonCreator
+    public FuzzyKeywordPredicate(
+            @JsonProperty(value = PropertyNameConstants.KEYWORD_QUERY, required = true)
+            String query,
+
+            @JsonProperty(value = PropertyNameConstants.ATTRIBUTE_NAMES, required = true)
+            List<String> attributeNames,
+
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.LUCENE_ANALYZER_STRING, required = false,
+                    defaultValue = LuceneAnalyzerConstants.STANDARD_ANALYZER)
+            String luceneAnalyzerString,
+
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.FUZZY_KEYWORD_MAX_EDIT_DISTANCE, required = false,
+                    defaultValue = "2")
+            Integer maxEditDistance,
+
+            @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = false)
+            String spanListName) {
+
+        if (query.trim().isEmpty()) {
+            throw new TexeraException(PropertyNameConstants.EMPTY_QUERY_EXCEPTION);
+        }
+        if (maxEditDistance != null
+                && (maxEditDistance < 0 || maxEditDistance > LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE)) {
+            throw new TexeraException(PropertyNameConstants.INVALID_EDIT_DISTANCE_EXCEPTION);
+        }
+
+        this.query = query;
+        this.attributeNames = Collections.unmodifiableList(attributeNames);
+        if (luceneAnalyzerString == null) {
+            this.luceneAnalyzerString = LuceneAnalyzerConstants.standardAnalyzerString();
+        } else {
+            this.luceneAnalyzerString = luceneAnalyzerString;
+        }
+        if (maxEditDistance == null) {
+            this.maxEditDistance = DEFAULT_MAX_EDIT_DISTANCE;
+        } else {
+            this.maxEditDistance = maxEditDistance;
+        }
+
+        if (spanListName == null || spanListName.trim().isEmpty()) {
+            this.spanListName = this.getID();
+        } else {
+            this.spanListName = spanListName.trim();
+        }
+    }
+
+    @JsonProperty(PropertyNameConstants.KEYWORD_QUERY)
+    public String getQuery() {
+        return query;
+    }
+
+    @JsonProperty(PropertyNameConstants.ATTRIBUTE_NAMES)
+    public List<String> getAttributeNames() {
+        return attributeNames;
+    }
+
+    @JsonProperty(PropertyNameConstants.LUCENE_ANALYZER_STRING)
+    public String getLuceneAnalyzerString() {
+        return luceneAnalyzerString;
+    }
+
+    @JsonProperty(PropertyNameConstants.FUZZY_KEYWORD_MAX_EDIT_DISTANCE)
+    public Integer getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    @JsonProperty(PropertyNameConstants.SPAN_LIST_NAME)
+    public String getSpanListName() {
+        return spanListName;
+    }
+
+    @Override
+    public IOperator newOperator() {
+        return new FuzzyKeywordMatcher(this);
+    }
+
+    public static Map<String, Object> getOperatorMetadata() {
+        return ImmutableMap.<String, Object>builder()
+            .put(PropertyNameConstants.USER_FRIENDLY_NAME, "Fuzzy Keyword Search")
+            .put(PropertyNameConstants.OPERATOR_DESCRIPTION, "Search the documents using a keyword, allowing typos in the words")
+            .put(PropertyNameConstants.OPERATOR_GROUP_NAME, OperatorGroupConstants.SEARCH_GROUP)
+            .build();
+    }
+
+}
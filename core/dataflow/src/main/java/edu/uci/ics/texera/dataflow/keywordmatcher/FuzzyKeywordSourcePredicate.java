@@ -0,0 +1,74 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.dataflow.annotation.AdvancedOption;
+import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * FuzzyKeywordSourcePredicate is the predicate used by FuzzyKeywordMatcherSourceOperator.
+ * This predicate is based on FuzzyKeywordPredicate, with an additional member "tableName".
+ */
+public class FuzzyKeywordSourcePredicate extends FuzzyKeywordPredicate {
+
+    private final String tableName;
+
+    @JsonCreator
+    public FuzzyKeywordSourcePredicate(
+            @JsonProperty(value = PropertyNameConstants.KEYWORD_QUERY, required = true)
+            String query,
+
+            @JsonProperty(value = PropertyNameConstants.ATTRIBUTE_NAMES, required = true)
+            List<String> attributeNames,
+
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.LUCENE_ANALYZER_STRING, required = false,
+                    defaultValue = LuceneAnalyzerConstants.STANDARD_ANALYZER)
+            String luceneAnalyzerString,
+
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.FUZZY_KEYWORD_MAX_EDIT_DISTANCE, required = false,
+                    defaultValue = "2")
+            Integer maxEditDistance,
+
+            @JsonProperty(value = PropertyNameConstants.TABLE_NAME, required = true)
+            String tableName,
+
+            @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = false)
+            String spanListName) {
+
+        super(query, attributeNames, luceneAnalyzerString, maxEditDistance, spanListName);
+
+        if (tableName == null || tableName.isEmpty()) {
+            throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
+        }
+        this.tableName = tableName;
+    }
+
+    @JsonProperty(PropertyNameConstants.TABLE_NAME)
+    public String getTableName() {
+        return tableName;
+    }
+
+    @Override
+    public FuzzyKeywordMatcherSourceOperator newOperator() {
+        return new FuzzyKeywordMatcherSourceOperator(this);
+    }
+
+    public static Map<String, Object> getOperatorMetadata() {
+        return ImmutableMap.<String, Object>builder()
+            .put(PropertyNameConstants.USER_FRIENDLY_NAME, "Source: Fuzzy Keyword")
+            .put(PropertyNameConstants.OPERATOR_DESCRIPTION, "Perform an index-based search on a table using a keyword, allowing typos in the words")
+            .put(PropertyNameConstants.OPERATOR_GROUP_NAME, OperatorGroupConstants.SOURCE_GROUP)
+            .build();
+    }
+
+}
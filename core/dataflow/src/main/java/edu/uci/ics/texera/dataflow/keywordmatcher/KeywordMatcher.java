@@ -21,8 +21,8 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
 
     private Schema inputSchema;
     private Set<String> queryTokenSet;
-    private ArrayList<String> queryTokenList;
-    private ArrayList<String> queryTokenWithStopwordsList;
+    private PhraseMatcher phraseMatcher;
+    private CaseInsensitiveSubstringSearcher substringSearcher;
     
     private boolean addPayload = false;
     private boolean addResultAttribute = false;
@@ -49,10 +49,19 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
 
         outputSchema = transformToOutputSchema(inputOperator.getOutputSchema());
         
+        prepareQuery();
+    }
+    
+    /*
+     * Pre-processes the query of the predicate once, before any tuple is matched.
+     */
+    void prepareQuery() {
         if (this.predicate.getMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
             preProcessKeywordTokens();
         } else if (this.predicate.getMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
             preProcessKeywordTokensWithStopwords();
+        } else if (this.predicate.getMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
+            substringSearcher = new CaseInsensitiveSubstringSearcher(predicate.getQuery());
         }
     }
 
@@ -61,9 +70,9 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
     }
 
     private void preProcessKeywordTokensWithStopwords() {
-        queryTokenList = DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery());
-        queryTokenWithStopwordsList = DataflowUtils.tokenizeQueryWithStopwords(
-                predicate.getLuceneAnalyzerString(), predicate.getQuery());
+        phraseMatcher = new PhraseMatcher(predicate.getQuery(),
+                DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery()),
+                DataflowUtils.tokenizeQueryWithStopwords(predicate.getLuceneAnalyzerString(), predicate.getQuery()));
     }
 
     @Override
@@ -92,16 +101,7 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         }
         
         // compute the keyword matching results
-        List<Span> matchingResults = null;
-        if (this.predicate.getMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
-           matchingResults =  appendConjunctionMatchingSpans(inputTuple, predicate.getAttributeNames(), queryTokenSet, predicate.getQuery());
-        }
-        if (this.predicate.getMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
-            matchingResults = appendPhraseMatchingSpans(inputTuple, predicate.getAttributeNames(), queryTokenList, queryTokenWithStopwordsList, predicate.getQuery());
-        }
-        if (this.predicate.getMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
-            matchingResults = appendSubstringMatchingSpans(inputTuple, predicate.getAttributeNames(), predicate.getQuery());
-        }
+        List<Span> matchingResults = computeMatchingSpans(inputTuple);
         
         if (matchingResults.isEmpty()) {
             return null;
@@ -113,12 +113,29 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         }
         return tupleBuilder.build();
     }
+    
+    /*
+     * Computes the spans of the predicate in a tuple with the payload, the query must be prepared.
+     */
+    List<Span> computeMatchingSpans(Tuple inputTuple) throws TexeraException {
+        List<Span> matchingResults = null;
+        if (this.predicate.getMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
+           matchingResults =  appendConjunctionMatchingSpans(inputTuple, predicate.getAttributeNames(), queryTokenSet, predicate.getQuery());
+        }
+        if (this.predicate.getMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
+            matchingResults = appendPhraseMatchingSpans(inputTuple, predicate.getAttributeNames(), phraseMatcher, predicate.getQuery());
+        }
+        if (this.predicate.getMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
+            matchingResults = appendSubstringMatchingSpans(inputTuple, predicate.getAttributeNames(), substringSearcher);
+        }
+        return matchingResults;
+    }
 
     @Override
     protected void cleanUp() {
     }
 
-    private List<Span> appendPhraseMatchingSpans(Tuple inputTuple, List<String> attributeNames, List<String> queryTokenList, List<String> queryTokenListWithStopwords, String queryKeyword) throws DataflowException {
+    private List<Span> appendPhraseMatchingSpans(Tuple inputTuple, List<String> attributeNames, PhraseMatcher phraseMatcher, String queryKeyword) throws DataflowException {
         ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
         List<Span> payload = payloadField.getValue();
         List<Span> matchingResults = new ArrayList<>();
@@ -142,17 +159,7 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
             // for TEXT type, spans need to be reconstructed according to the
             // phrase query
             if (attributeType == AttributeType.TEXT) {
-                Set<String> queryTokenSet = new HashSet<>(queryTokenList);
-                List<Span> relevantSpans = filterRelevantSpans(payload, queryTokenSet);
-                List<Span> fieldSpanList = relevantSpans.stream().filter(span -> span.getAttributeName().equals(attributeName))
-                        .collect(Collectors.toList());
-
-                if (!DataflowUtils.isAllQueryTokensPresent(fieldSpanList, queryTokenSet)) {
-                    // move on to next field if not all query tokens are present
-                    // in the spans
-                    continue;
-                }
-                matchingResults.addAll(DataflowUtils.constructPhraseMatchingSpans(attributeName, fieldValue, queryKeyword, fieldSpanList, queryTokenListWithStopwords, queryTokenList));
+                matchingResults.addAll(phraseMatcher.computeMatchingSpans(attributeName, fieldValue, payload));
             }
         }
         return matchingResults;
@@ -194,7 +201,9 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         return matchingResults;
     }
 
-    private List<Span> appendSubstringMatchingSpans(Tuple inputTuple, List<String> attributeNames, String queryKeyword) throws DataflowException {
+    private List<Span> appendSubstringMatchingSpans(Tuple inputTuple, List<String> attributeNames, 
+            CaseInsensitiveSubstringSearcher substringSearcher) throws DataflowException {
+        String queryKeyword = substringSearcher.getKeyword();
         List<Span> matchingResults = new ArrayList<>();
         for (String attributeName : attributeNames) {
             //  AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getAttributeType();
@@ -212,21 +221,14 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
                 }
             }
 
+            // for TEXT type, every case-insensitive occurrence of the query is a match, including the overlapping ones
             if (attributeType == AttributeType.TEXT) {
-
-                String fieldValueLowerCase = fieldValue.toLowerCase();
-                String queryKeywordLowerCase = queryKeyword.toLowerCase();
-                for (int i = 0; i < fieldValueLowerCase.length(); i++) {
-                    int index = -1;
-                    if ((index = fieldValueLowerCase.indexOf(queryKeywordLowerCase, i)) != -1) {
-                        matchingResults.add(new Span(attributeName, index, index + queryKeyword.length(), queryKeyword,
-                                fieldValue.substring(index, index + queryKeyword.length())));
-                        i = index + 1;
-                    } else {
-                        break;
-                    }
+                int index = substringSearcher.indexOf(fieldValue, 0);
+                while (index != -1 && index < fieldValue.length()) {
+                    matchingResults.add(new Span(attributeName, index, index + queryKeyword.length(), queryKeyword,
+                            fieldValue.substring(index, index + queryKeyword.length())));
+                    index = substringSearcher.indexOf(fieldValue, index + 1);
                 }
-
             }
         }
         return matchingResults;
@@ -0,0 +1,194 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.DataStore;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * KeywordQueryBuilder translates a keyword predicate to the Lucene query that finds 
+ *   the candidate tuples of the predicate in a table.
+ * It's shared by the source operators that read the tuples of keyword predicates from a table.
+ * 
+ * @author Zuozhi Wang
+ * @author Zhenfeng Qi
+ *
+ */
+class KeywordQueryBuilder {
+    
+    private final KeywordPredicate predicate;
+    
+    private final Schema inputSchema;
+    private final Set<String> gramAttributes;
+    
+    private final ArrayList<String> queryTokenList;
+    private final HashSet<String> queryTokenSet;
+    private final ArrayList<String> queryTokensWithStopwords;
+    
+    /**
+     * Construct a KeywordQueryBuilder.
+     * 
+     * @param predicate, the keyword predicate
+     * @param tableDataStore, the data store of the table to search
+     * @param tableAnalyzerString, the lucene analyzer of the table
+     */
+    KeywordQueryBuilder(KeywordPredicate predicate, DataStore tableDataStore, String tableAnalyzerString) {
+        this.predicate = predicate;
+        this.inputSchema = tableDataStore.getSchema();
+        this.gramAttributes = tableDataStore.getGramAttributes();
+        
+        this.queryTokenList = DataflowUtils.tokenizeQuery(predicate.getLuceneAnalyzerString(), predicate.getQuery());
+        this.queryTokenSet = new HashSet<>(this.queryTokenList);
+        this.queryTokensWithStopwords = DataflowUtils.tokenizeQueryWithStopwords(
+                tableAnalyzerString, predicate.getQuery());
+    }
+
+    /**
+     * Creates a Query object as a boolean Query on all attributes Example: For
+     * creating a query like (TestConstants.DESCRIPTION + ":lin" + " AND " +
+     * TestConstants.LAST_NAME + ":lin") we provide a list of AttributeFields
+     * (Description, Last_name) to search on and a query string (lin)
+     *
+     * @return Query
+     * @throws DataflowException
+     */
+    public Query createLuceneQueryObject() throws DataflowException {
+        Query query = null;
+        if (this.predicate.getMatchingType() == KeywordMatchingType.CONJUNCTION_INDEXBASED) {
+            query = buildConjunctionQuery();
+        }
+        if (this.predicate.getMatchingType() == KeywordMatchingType.PHRASE_INDEXBASED) {
+            query = buildPhraseQuery();
+        }
+        if (this.predicate.getMatchingType() == KeywordMatchingType.SUBSTRING_SCANBASED) {
+            query = buildScanQuery();
+        }
+
+        return query;
+    }
+
+    private Query buildConjunctionQuery() throws DataflowException {
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+
+        for (String attributeName : this.predicate.getAttributeNames()) {
+            AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getType();
+
+            // types other than TEXT and STRING: throw Exception for now
+            if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
+                throw new DataflowException(
+                        "KeywordPredicate: Fields other than STRING and TEXT are not supported yet");
+            }
+
+            if (attributeType == AttributeType.STRING) {
+                Query termQuery = new TermQuery(new Term(attributeName, predicate.getQuery()));
+                booleanQueryBuilder.add(termQuery, BooleanClause.Occur.SHOULD);
+            }
+            if (attributeType == AttributeType.TEXT) {
+                BooleanQuery.Builder fieldQueryBuilder = new BooleanQuery.Builder();
+                for (String token : queryTokenSet) {
+                    Query termQuery = new TermQuery(new Term(attributeName, token.toLowerCase()));
+                    fieldQueryBuilder.add(termQuery, BooleanClause.Occur.MUST);
+                }
+                booleanQueryBuilder.add(fieldQueryBuilder.build(), BooleanClause.Occur.SHOULD);
+            }
+
+        }
+
+        return booleanQueryBuilder.build();
+    }
+
+    private Query buildPhraseQuery() throws DataflowException {
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+
+        for (String attributeName : this.predicate.getAttributeNames()) {
+            AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getType();
+
+            // types other than TEXT and STRING: throw Exception for now
+            if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
+                throw new DataflowException(
+                        "KeywordPredicate: Fields other than STRING and TEXT are not supported yet");
+            }
+
+            if (attributeType == AttributeType.STRING) {
+                Query termQuery = new TermQuery(new Term(attributeName, predicate.getQuery()));
+                booleanQueryBuilder.add(termQuery, BooleanClause.Occur.SHOULD);
+            }
+            if (attributeType == AttributeType.TEXT) {
+                if (queryTokenList.size() == 1) {
+                    Query termQuery = new TermQuery(new Term(attributeName, predicate.getQuery().toLowerCase()));
+                    booleanQueryBuilder.add(termQuery, BooleanClause.Occur.SHOULD);
+                } else {
+                    PhraseQuery.Builder phraseQueryBuilder = new PhraseQuery.Builder();
+                    for (int i = 0; i < queryTokensWithStopwords.size(); i++) {
+                        if (!StandardAnalyzer.STOP_WORDS_SET
+                                .contains(queryTokensWithStopwords.get(i))) {
+                            phraseQueryBuilder.add(new Term(attributeName,
+                                    queryTokensWithStopwords.get(i).toLowerCase()), i);
+                        }
+                    }
+                    PhraseQuery phraseQuery = phraseQueryBuilder.build();
+                    booleanQueryBuilder.add(phraseQuery, BooleanClause.Occur.SHOULD);
+                }
+            }
+
+        }
+
+        return booleanQueryBuilder.build();
+    }
+
+    /*
+     * If all the attributes have a companion trigram index, the candidate tuples of a substring are the tuples
+     *   that contain all the grams of the keyword in one of the attributes, 
+     *   otherwise all the tuples have to be scanned.
+     * The grams are lower case, so the candidates are a superset of the matching tuples in any case.
+     */
+    private Query buildScanQuery() throws DataflowException {
+        boolean gramIndexed = true;
+        for (String attributeName : this.predicate.getAttributeNames()) {
+            AttributeType attributeType = this.inputSchema.getAttribute(attributeName).getType();
+
+            // types other than TEXT and STRING: throw Exception for now
+            if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
+                throw new DataflowException(
+                        "KeywordPredicate: Fields other than STRING and TEXT are not supported yet");
+            }
+            if (! this.gramAttributes.contains(attributeName)) {
+                gramIndexed = false;
+            }
+        }
+        
+        Set<String> queryGrams = new LinkedHashSet<>(DataflowUtils.tokenizeQuery(
+                LuceneAnalyzerConstants.nGramAnalyzerString(DataStore.GRAM_LENGTH), predicate.getQuery()));
+        if (! gramIndexed || queryGrams.isEmpty() || queryGrams.size() >= BooleanQuery.getMaxClauseCount()) {
+            return new MatchAllDocsQuery();
+        }
+        
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+        for (String attributeName : this.predicate.getAttributeNames()) {
+            BooleanQuery.Builder fieldQueryBuilder = new BooleanQuery.Builder();
+            for (String gram : queryGrams) {
+                fieldQueryBuilder.add(new TermQuery(new Term(DataStore.getGramFieldName(attributeName), gram)), 
+                        BooleanClause.Occur.MUST);
+            }
+            booleanQueryBuilder.add(fieldQueryBuilder.build(), BooleanClause.Occur.SHOULD);
+        }
+        return booleanQueryBuilder.build();
+    }
+
+}
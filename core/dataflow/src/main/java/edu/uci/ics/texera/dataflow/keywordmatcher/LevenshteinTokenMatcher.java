@@ -0,0 +1,80 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.LevenshteinAutomata;
+
+/**
+ * LevenshteinTokenMatcher matches the tokens within a maximum edit distance of a query token,
+ *   with the Levenshtein automata of the query token.
+ * An edit is an insertion, a deletion, a substitution, or a transposition of two adjacent characters.
+ *
+ * The automaton of the maximum edit distance is compiled to walk the terms dictionary of a table
+ *   (see RelationManager.getTableMatchingTerms()),
+ *   the automata of the smaller distances compute the edit distance of a matching token.
+ *
+ * The same as Lucene's FuzzyQuery, a token with some edits only matches if the edit distance is less than
+ *   the length of the shorter one of the token and the query token, so a short query token doesn't match every short word.
+ */
+class LevenshteinTokenMatcher {
+
+    private final String queryToken;
+    private final int queryTokenLength;
+
+    // the automaton of each edit distance, from 0 to the maximum edit distance
+    private final CharacterRunAutomaton[] runAutomata;
+    private final CompiledAutomaton compiledAutomaton;
+
+    /**
+     * Builds the automata of a query token.
+     *
+     * @param queryToken, the analyzed query token
+     * @param maxEditDistance, at most LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE
+     */
+    LevenshteinTokenMatcher(String queryToken, int maxEditDistance) {
+        this.queryToken = queryToken;
+        this.queryTokenLength = queryToken.codePointCount(0, queryToken.length());
+
+        LevenshteinAutomata levenshteinAutomata = new LevenshteinAutomata(queryToken, true);
+        this.runAutomata = new CharacterRunAutomaton[maxEditDistance + 1];
+        Automaton automaton = null;
+        for (int editDistance = 0; editDistance <= maxEditDistance; editDistance++) {
+            automaton = levenshteinAutomata.toAutomaton(editDistance);
+            runAutomata[editDistance] = new CharacterRunAutomaton(automaton);
+        }
+        this.compiledAutomaton = new CompiledAutomaton(automaton, true, false);
+    }
+
+    String getQueryToken() {
+        return queryToken;
+    }
+
+    /*
+     * The automaton accepting the tokens within the maximum edit distance,
+     *   including the short tokens rejected by getEditDistance().
+     */
+    CompiledAutomaton getCompiledAutomaton() {
+        return compiledAutomaton;
+    }
+
+    /**
+     * Computes the edit distance between a token and the query token.
+     *
+     * @param token
+     * @return the edit distance, or -1 if the token doesn't match
+     */
+    int getEditDistance(String token) {
+        for (int editDistance = 0; editDistance < runAutomata.length; editDistance++) {
+            if (runAutomata[editDistance].run(token)) {
+                if (editDistance == 0
+                        || editDistance < Math.min(queryTokenLength, token.codePointCount(0, token.length()))) {
+                    return editDistance;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,140 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+
+/**
+ * MultiKeywordMatcher evaluates multiple keyword predicates in one pass over the input tuples.
+ *
+ * Each tuple is tokenized once (once for each distinct lucene analyzer of the predicates) to build the payload,
+ *   which is shared by all the predicates, instead of running a KeywordMatcher for each predicate.
+ * A tuple is returned if it matches at least one of the predicates, the results of each predicate
+ *   are in the attribute named by its span list name (an empty list if the predicate doesn't match).
+ */
+public class MultiKeywordMatcher extends AbstractSingleInputOperator {
+
+    private final MultiKeywordPredicate predicate;
+
+    private List<KeywordMatcher> keywordMatchers;
+    private boolean addPayload = false;
+
+    public MultiKeywordMatcher(MultiKeywordPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    @Override
+    protected void setUp() throws TexeraException {
+        if (inputOperator == null) {
+            throw new DataflowException(ErrorMessages.INPUT_OPERATOR_NOT_SPECIFIED);
+        }
+
+        Schema inputSchema = inputOperator.getOutputSchema();
+        this.addPayload = ! inputSchema.containsAttribute(SchemaConstants.PAYLOAD);
+
+        for (KeywordPredicate keywordPredicate : predicate.getKeywordPredicates()) {
+            Schema.checkAttributeExists(inputSchema, keywordPredicate.getAttributeNames());
+            Schema.checkAttributeNotExists(inputSchema, keywordPredicate.getSpanListName());
+        }
+
+        outputSchema = transformToOutputSchema(inputSchema);
+
+        // the queries are pre-processed once, the matchers are only used to compute the spans
+        keywordMatchers = new ArrayList<>();
+        for (KeywordPredicate keywordPredicate : predicate.getKeywordPredicates()) {
+            KeywordMatcher keywordMatcher = new KeywordMatcher(keywordPredicate);
+            keywordMatcher.prepareQuery();
+            keywordMatchers.add(keywordMatcher);
+        }
+    }
+
+    @Override
+    protected Tuple computeNextMatchingTuple() throws TexeraException {
+        Tuple inputTuple = null;
+        Tuple resultTuple = null;
+
+        while ((inputTuple = inputOperator.getNextTuple()) != null) {
+            resultTuple = processOneInputTuple(inputTuple);
+
+            if (resultTuple != null) {
+                break;
+            }
+        }
+        return resultTuple;
+    }
+
+    @Override
+    public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        // the tuple with the payload of each lucene analyzer, built when a predicate first needs it
+        Map<String, Tuple> payloadTuples = new HashMap<>();
+
+        List<List<Span>> matchingResultsList = new ArrayList<>();
+        boolean matched = false;
+        for (KeywordMatcher keywordMatcher : keywordMatchers) {
+            Tuple payloadTuple = inputTuple;
+            if (addPayload) {
+                payloadTuple = payloadTuples.computeIfAbsent(keywordMatcher.getPredicate().getLuceneAnalyzerString(),
+                        analyzerString -> addPayload(inputTuple, analyzerString));
+            }
+            List<Span> matchingResults = keywordMatcher.computeMatchingSpans(payloadTuple);
+            matched = matched || ! matchingResults.isEmpty();
+            matchingResultsList.add(matchingResults);
+        }
+
+        if (! matched) {
+            return null;
+        }
+
+        // the output payload is the payload of the first predicate's analyzer
+        Tuple.Builder tupleBuilder = new Tuple.Builder(addPayload ?
+                payloadTuples.get(keywordMatchers.get(0).getPredicate().getLuceneAnalyzerString()) : inputTuple);
+        for (int i = 0; i < keywordMatchers.size(); i++) {
+            tupleBuilder.add(keywordMatchers.get(i).getPredicate().getSpanListName(), AttributeType.LIST,
+                    new ListField<Span>(matchingResultsList.get(i)));
+        }
+        return tupleBuilder.build();
+    }
+
+    private static Tuple addPayload(Tuple inputTuple, String luceneAnalyzerString) {
+        Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
+        tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
+                DataflowUtils.generatePayloadFromTuple(inputTuple, luceneAnalyzerString)));
+        return tupleBuilderPayload.build();
+    }
+
+    @Override
+    protected void cleanUp() {
+    }
+
+    public MultiKeywordPredicate getPredicate() {
+        return this.predicate;
+    }
+
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        if (inputSchema.length != 1)
+            throw new TexeraException(String.format(ErrorMessages.NUMBER_OF_ARGUMENTS_DOES_NOT_MATCH, 1, inputSchema.length));
+
+        Schema.Builder outputSchemaBuilder = new Schema.Builder(inputSchema[0]);
+        if (! inputSchema[0].containsAttribute(SchemaConstants.PAYLOAD)) {
+            outputSchemaBuilder.add(SchemaConstants.PAYLOAD_ATTRIBUTE);
+        }
+        for (KeywordPredicate keywordPredicate : predicate.getKeywordPredicates()) {
+            outputSchemaBuilder.add(keywordPredicate.getSpanListName(), AttributeType.LIST);
+        }
+        return outputSchemaBuilder.build();
+    }
+
+}
@@ -0,0 +1,122 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+
+import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.dataflow.ISourceOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
+import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.DataStore;
+import edu.uci.ics.texera.storage.RelationManager;
+
+/**
+ * MultiKeywordMatcherSourceOperator is a source operator with multiple keyword queries.
+ *
+ * The table is searched once with the disjunction of the Lucene queries of all the keyword predicates,
+ *   and the candidate tuples (with the payload from the index) are matched by a MultiKeywordMatcher.
+ */
+public class MultiKeywordMatcherSourceOperator extends AbstractSingleInputOperator implements ISourceOperator {
+
+    private final MultiKeywordSourcePredicate predicate;
+
+    private final DataReader dataReader;
+    private final MultiKeywordMatcher multiKeywordMatcher;
+
+    public MultiKeywordMatcherSourceOperator(MultiKeywordSourcePredicate predicate)
+            throws DataflowException, StorageException {
+        this.predicate = predicate;
+
+        // input schema must be specified before creating query
+        DataStore tableDataStore = RelationManager.getInstance().getTableDataStore(predicate.getTableName());
+        String tableAnalyzerString = RelationManager.getInstance().getTableAnalyzerString(predicate.getTableName());
+
+        // generate dataReader
+        Query luceneQuery = createLuceneQueryObject(tableDataStore, tableAnalyzerString);
+        this.dataReader = RelationManager.getInstance().getTableDataReader(predicate.getTableName(), luceneQuery);
+        this.dataReader.setPayloadAdded(true);
+
+        // generate MultiKeywordMatcher
+        multiKeywordMatcher = new MultiKeywordMatcher(predicate);
+        multiKeywordMatcher.setInputOperator(dataReader);
+
+        this.inputOperator = this.multiKeywordMatcher;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return this.outputSchema;
+    }
+
+    @Override
+    protected void setUp() throws DataflowException {
+        this.outputSchema = multiKeywordMatcher.getOutputSchema();
+    }
+
+    @Override
+    protected Tuple computeNextMatchingTuple() throws TexeraException {
+        return this.multiKeywordMatcher.getNextTuple();
+    }
+
+    @Override
+    public Tuple processOneInputTuple(Tuple inputTuple) throws TexeraException {
+        return this.multiKeywordMatcher.processOneInputTuple(inputTuple);
+    }
+
+    @Override
+    protected void cleanUp() throws DataflowException {
+    }
+
+    /**
+     * Source Operator doesn't need an input operator. Calling setInputOperator
+     * won't have any effects.
+     */
+    @Override
+    public void setInputOperator(IOperator inputOperator) {
+    }
+
+    public MultiKeywordSourcePredicate getPredicate() {
+        return this.predicate;
+    }
+
+    /*
+     * Creates the disjunction of the queries of the keyword predicates.
+     * If one of them has to scan the table, the whole table is scanned once.
+     */
+    private Query createLuceneQueryObject(DataStore tableDataStore, String tableAnalyzerString)
+            throws DataflowException {
+        if (predicate.getKeywordPredicates().size() >= BooleanQuery.getMaxClauseCount()) {
+            return new MatchAllDocsQuery();
+        }
+        BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
+        for (KeywordPredicate keywordPredicate : predicate.getKeywordPredicates()) {
+            Query keywordQuery = new KeywordQueryBuilder(keywordPredicate, tableDataStore, tableAnalyzerString)
+                    .createLuceneQueryObject();
+            if (keywordQuery instanceof MatchAllDocsQuery) {
+                return keywordQuery;
+            }
+            booleanQueryBuilder.add(keywordQuery, BooleanClause.Occur.SHOULD);
+        }
+        return booleanQueryBuilder.build();
+    }
+
+    public Schema transformToOutputSchema(Schema... inputSchema) {
+        if (inputSchema == null || inputSchema.length == 0) {
+            if (outputSchema == null) {
+                open();
+                close();
+            }
+            return getOutputSchema();
+        }
+        throw new TexeraException(ErrorMessages.INVALID_INPUT_SCHEMA_FOR_SOURCE);
+    }
+
+}
@@ -0,0 +1,72 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
+import edu.uci.ics.texera.dataflow.common.PredicateBase;
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+
+/**
+ * MultiKeywordPredicate is the predicate for MultiKeywordMatcher,
+ *   which evaluates multiple keyword predicates in one pass over the tuples.
+ *
+ * The results of each keyword predicate are in the attribute named by its span list name,
+ *   so the span list names of the keyword predicates must be different.
+ */
+public class MultiKeywordPredicate extends PredicateBase {
+
+    private final List<KeywordPredicate> keywordPredicates;
+
+    /**
+     * Construct a MultiKeywordPredicate.
+     *
+     * @param keywordPredicates, the keyword predicates to evaluate, the span list names must be different
+     */
+    @JsonCreator
+    public MultiKeywordPredicate(
+            @JsonProperty(value = PropertyNameConstants.KEYWORD_PREDICATES, required = true)
+            List<KeywordPredicate> keywordPredicates) {
+
+        if (keywordPredicates == null || keywordPredicates.isEmpty()) {
+            throw new TexeraException(PropertyNameConstants.EMPTY_KEYWORD_PREDICATES_EXCEPTION);
+        }
+        Set<String> spanListNames = new HashSet<>();
+        for (KeywordPredicate keywordPredicate : keywordPredicates) {
+            if (! spanListNames.add(keywordPredicate.getSpanListName().toLowerCase())) {
+                throw new TexeraException(PropertyNameConstants.DUPLICATE_SPAN_LIST_NAME_EXCEPTION);
+            }
+        }
+
+        this.keywordPredicates = Collections.unmodifiableList(new ArrayList<>(keywordPredicates));
+    }
+
+    @JsonProperty(PropertyNameConstants.KEYWORD_PREDICATES)
+    public List<KeywordPredicate> getKeywordPredicates() {
+        return keywordPredicates;
+    }
+
+    @Override
+    public IOperator newOperator() {
+        return new MultiKeywordMatcher(this);
+    }
+
+    public static Map<String, Object> getOperatorMetadata() {
+        return ImmutableMap.<String, Object>builder()
+            .put(PropertyNameConstants.USER_FRIENDLY_NAME, "Multi-Keyword Search")
+            .put(PropertyNameConstants.OPERATOR_DESCRIPTION, "Search the documents using multiple keywords in one pass")
+            .put(PropertyNameConstants.OPERATOR_GROUP_NAME, OperatorGroupConstants.SEARCH_GROUP)
+            .build();
+    }
+
+}
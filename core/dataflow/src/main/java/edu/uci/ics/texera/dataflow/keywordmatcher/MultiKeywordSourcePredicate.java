@@ -0,0 +1,56 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
+import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+
+/**
+ * MultiKeywordSourcePredicate is the predicate used by MultiKeywordMatcherSourceOperator.
+ * This predicate is based on MultiKeywordPredicate, with an additional member "tableName".
+ */
+public class MultiKeywordSourcePredicate extends MultiKeywordPredicate {
+
+    private final String tableName;
+
+    @JsonCreator
+    public MultiKeywordSourcePredicate(
+            @JsonProperty(value = PropertyNameConstants.KEYWORD_PREDICATES, required = true)
+            List<KeywordPredicate> keywordPredicates,
+            @JsonProperty(value = PropertyNameConstants.TABLE_NAME, required = true)
+            String tableName) {
+
+        super(keywordPredicates);
+
+        if (tableName == null || tableName.isEmpty()) {
+            throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
+        }
+        this.tableName = tableName;
+    }
+
+    @JsonProperty(PropertyNameConstants.TABLE_NAME)
+    public String getTableName() {
+        return tableName;
+    }
+
+    @Override
+    public MultiKeywordMatcherSourceOperator newOperator() {
+        return new MultiKeywordMatcherSourceOperator(this);
+    }
+
+    public static Map<String, Object> getOperatorMetadata() {
+        return ImmutableMap.<String, Object>builder()
+            .put(PropertyNameConstants.USER_FRIENDLY_NAME, "Source: Multi-Keyword")
+            .put(PropertyNameConstants.OPERATOR_DESCRIPTION,
+                    "Perform an index-based search on a table using multiple keywords in one pass")
+            .put(PropertyNameConstants.OPERATOR_GROUP_NAME, OperatorGroupConstants.SOURCE_GROUP)
+            .build();
+    }
+
+}
@@ -0,0 +1,152 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uci.ics.texera.api.span.Span;
+
+/**
+ * PhraseMatcher finds the occurrences of a phrase in the analyzed tokens (the payload) of a field,
+ *   with the Knuth-Morris-Pratt algorithm over the token sequence.
+ *
+ * The phrase is compiled once into a sequence of token IDs and the position gaps between them
+ *   (a gap is larger than 1 if there are stopwords between two tokens in the phrase).
+ * The tokens of the field which are in the phrase are scanned once in the order of their positions,
+ *   a token after the first one of the phrase matches only if both its ID and its gap are the same.
+ * The occurrences don't overlap, the same as the previous window-based matching.
+ *
+ * PhraseMatcher is used by both KeywordMatcher and DictionaryMatcher for PHRASE_INDEXBASED matching.
+ */
+public class PhraseMatcher {
+
+    private final String phrase;
+
+    // the ID of each distinct token in the phrase
+    private final Map<String, Integer> tokenIDs;
+    // the token IDs of the phrase, and the position gap of each token to the previous one
+    private final int[] phraseTokenIDs;
+    private final int[] phraseGaps;
+    // failure[i] is the length of the longest proper prefix of phrase[0..i] which is also a suffix of it
+    private final int[] failure;
+
+    /**
+     * Compiles a phrase.
+     *
+     * @param phrase, the phrase, used as the key of the result spans
+     * @param queryTokenList, the analyzed tokens of the phrase without stopwords
+     * @param queryTokenListWithStopwords, the tokens of the phrase with stopwords
+     */
+    public PhraseMatcher(String phrase, List<String> queryTokenList, List<String> queryTokenListWithStopwords) {
+        this.phrase = phrase;
+
+        int phraseLength = queryTokenList.size();
+        this.tokenIDs = new HashMap<>();
+        this.phraseTokenIDs = new int[phraseLength];
+        for (int i = 0; i < phraseLength; i++) {
+            Integer tokenID = tokenIDs.get(queryTokenList.get(i));
+            if (tokenID == null) {
+                tokenID = tokenIDs.size();
+                tokenIDs.put(queryTokenList.get(i), tokenID);
+            }
+            phraseTokenIDs[i] = tokenID;
+        }
+
+        // find the position of each token in the tokens with stopwords, in order
+        this.phraseGaps = new int[phraseLength];
+        int position = 0;
+        int previousPosition = -1;
+        for (int i = 0; i < phraseLength; i++) {
+            while (position < queryTokenListWithStopwords.size()
+                    && ! queryTokenListWithStopwords.get(position).equalsIgnoreCase(queryTokenList.get(i))) {
+                position++;
+            }
+            // a token not found in the tokens with stopwords is assumed to follow the previous token
+            int tokenPosition = position < queryTokenListWithStopwords.size() ? position : previousPosition + 1;
+            phraseGaps[i] = tokenPosition - previousPosition;
+            previousPosition = tokenPosition;
+            position = tokenPosition + 1;
+        }
+
+        this.failure = new int[phraseLength];
+        int matched = 0;
+        for (int i = 1; i < phraseLength; i++) {
+            while (matched > 0 && ! matches(matched, phraseTokenIDs[i], phraseGaps[i])) {
+                matched = failure[matched - 1];
+            }
+            if (matches(matched, phraseTokenIDs[i], phraseGaps[i])) {
+                matched++;
+            }
+            failure[i] = matched;
+        }
+    }
+
+    public String getPhrase() {
+        return this.phrase;
+    }
+
+    /**
+     * Finds the occurrences of the phrase in a field.
+     *
+     * @param attributeName, the name of the field
+     * @param fieldValue, the value of the field
+     * @param spanList, the payload spans, spans of other fields and tokens not in the phrase are ignored
+     * @return the spans of the occurrences
+     */
+    public List<Span> computeMatchingSpans(String attributeName, String fieldValue, List<Span> spanList) {
+        List<Span> matchingResults = new ArrayList<>();
+        if (phraseTokenIDs.length == 0) {
+            return matchingResults;
+        }
+
+        // the spans of the field with a token in the phrase, usually already in the order of positions
+        List<Span> fieldSpanList = new ArrayList<>();
+        boolean isSorted = true;
+        for (Span span : spanList) {
+            if (span.getAttributeName().equals(attributeName) && tokenIDs.containsKey(span.getKey())) {
+                if (! fieldSpanList.isEmpty()
+                        && fieldSpanList.get(fieldSpanList.size() - 1).getTokenOffset() > span.getTokenOffset()) {
+                    isSorted = false;
+                }
+                fieldSpanList.add(span);
+            }
+        }
+        if (fieldSpanList.size() < phraseTokenIDs.length) {
+            return matchingResults;
+        }
+        if (! isSorted) {
+            fieldSpanList.sort((span1, span2) -> span1.getTokenOffset() - span2.getTokenOffset());
+        }
+
+        int matched = 0;
+        for (int i = 0; i < fieldSpanList.size(); i++) {
+            Span span = fieldSpanList.get(i);
+            int tokenID = tokenIDs.get(span.getKey());
+            int gap = i == 0 ? 0 : span.getTokenOffset() - fieldSpanList.get(i - 1).getTokenOffset();
+
+            while (matched > 0 && ! matches(matched, tokenID, gap)) {
+                matched = failure[matched - 1];
+            }
+            if (matches(matched, tokenID, gap)) {
+                matched++;
+            }
+            if (matched == phraseTokenIDs.length) {
+                int start = fieldSpanList.get(i - matched + 1).getStart();
+                int end = span.getEnd();
+                matchingResults.add(new Span(attributeName, start, end, phrase, fieldValue.substring(start, end)));
+                // the next occurrence starts after this one
+                matched = 0;
+            }
+        }
+        return matchingResults;
+    }
+
+    /*
+     * Checks if a token matches the phrase token at an index, the gap of the first token is not compared.
+     */
+    private boolean matches(int index, int tokenID, int gap) {
+        return phraseTokenIDs[index] == tokenID && (index == 0 || phraseGaps[index] == gap);
+    }
+
+}
@@ -17,7 +17,11 @@ import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
 import edu.uci.ics.texera.dataflow.connector.OneToNBroadcastConnector;
 import edu.uci.ics.texera.dataflow.join.Join;
+import edu.uci.ics.texera.dataflow.projection.ProjectionPredicate;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
 import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.storage.RelationManager;
+import edu.uci.ics.texera.storage.Snapshot;
 
 
 /**
@@ -242,19 +246,33 @@ public class LogicalPlan {
     /**
      * Builds and returns the query plan from the operator graph.
      * 
+     * The source operators of the plan read the tables in one snapshot, 
+     *   so that they see the same version of a table even if it's changed during the execution.
+     * The snapshot is released when the plan is closed.
+     * 
      * @return the plan generated from the operator graph
      * @throws PlanGenException, if the operator graph is invalid.
      */
     public Plan buildQueryPlan() throws PlanGenException {
-
-        buildOperators();
-        validateOperatorGraph();
-        connectOperators(operatorObjectMap);
-
-        ISink sink = findSinkOperator(operatorObjectMap);
-        
-        Plan queryPlan = new Plan(sink);
-        return queryPlan;
+        Snapshot snapshot = RelationManager.getInstance().openSnapshot();
+        try {
+            // the DataReaders created by the operators are in the snapshot
+            try (Snapshot.Binding binding = snapshot.bind()) {
+                buildOperators();
+            }
+            validateOperatorGraph();
+            connectOperators(operatorObjectMap);
+            pushDownProjections();
+            
+            ISink sink = findSinkOperator(operatorObjectMap);
+            
+            Plan queryPlan = new Plan(sink);
+            queryPlan.addResource(snapshot);
+            return queryPlan;
+        } catch (RuntimeException e) {
+            snapshot.close();
+            throw e;
+        }
     }
     
     /*
@@ -506,6 +524,27 @@ public class LogicalPlan {
         }
     }
      
+    /*
+     * Pushes projections down into the scan source operators.
+     * 
+     * If a scan source's only output is a projection, then the scan source only needs 
+     *   to read the projected attributes from the table, instead of loading every stored field.
+     */
+    private void pushDownProjections() {
+        for (String vertex : adjacencyList.keySet()) {
+            IOperator currentOperator = operatorObjectMap.get(vertex);
+            if (! (currentOperator instanceof ScanBasedSourceOperator) || adjacencyList.get(vertex).size() != 1) {
+                continue;
+            }
+            String adjacentVertex = adjacencyList.get(vertex).iterator().next();
+            PredicateBase adjacentPredicate = operatorPredicateMap.get(adjacentVertex);
+            if (adjacentPredicate instanceof ProjectionPredicate) {
+                List<String> projectionFields = ((ProjectionPredicate) adjacentPredicate).getProjectionFields();
+                ((ScanBasedSourceOperator) currentOperator).setProjectedAttributes(projectionFields);
+            }
+        }
+    }
+     
     /*
      * Finds the sink operator in the operator graph.
      * 
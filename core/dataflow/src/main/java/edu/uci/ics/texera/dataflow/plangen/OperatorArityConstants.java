@@ -7,14 +7,19 @@ import edu.uci.ics.texera.api.exception.PlanGenException;
 import edu.uci.ics.texera.dataflow.aggregator.AggregatorPredicate;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.comparablematcher.ComparablePredicate;
+import edu.uci.ics.texera.dataflow.comparablematcher.ComparableSourcePredicate;
 import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionaryPredicate;
 import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionarySourcePredicate;
 import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenPredicate;
 import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenSourcePredicate;
 import edu.uci.ics.texera.dataflow.join.JoinDistancePredicate;
 import edu.uci.ics.texera.dataflow.join.SimilarityJoinPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.FuzzyKeywordPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.FuzzyKeywordSourcePredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordPredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordSourcePredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.MultiKeywordPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.MultiKeywordSourcePredicate;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityPredicate;
 import edu.uci.ics.texera.dataflow.nlp.sentiment.EmojiSentimentPredicate;
 import edu.uci.ics.texera.dataflow.nlp.sentiment.NlpSentimentPredicate;
@@ -52,6 +57,10 @@ public class OperatorArityConstants {
         fixedInputArityMap.put(FuzzyTokenSourcePredicate.class, 0); 
         fixedInputArityMap.put(KeywordPredicate.class, 1); 
         fixedInputArityMap.put(KeywordSourcePredicate.class, 0); 
+        fixedInputArityMap.put(MultiKeywordPredicate.class, 1); 
+        fixedInputArityMap.put(MultiKeywordSourcePredicate.class, 0); 
+        fixedInputArityMap.put(FuzzyKeywordPredicate.class, 1); 
+        fixedInputArityMap.put(FuzzyKeywordSourcePredicate.class, 0); 
         fixedInputArityMap.put(RegexPredicate.class, 1); 
         fixedInputArityMap.put(RegexSourcePredicate.class, 0); 
 
@@ -69,6 +78,7 @@ public class OperatorArityConstants {
         fixedInputArityMap.put(WordCountIndexSourcePredicate.class, 0);
         fixedInputArityMap.put(WordCountOperatorPredicate.class, 1);
         fixedInputArityMap.put(ComparablePredicate.class, 1);
+        fixedInputArityMap.put(ComparableSourcePredicate.class, 0);
         fixedInputArityMap.put(AggregatorPredicate.class, 1);
 
         fixedInputArityMap.put(AsterixSourcePredicate.class, 0);
@@ -93,6 +103,10 @@ public class OperatorArityConstants {
         fixedOutputArityMap.put(FuzzyTokenSourcePredicate.class, 1); 
         fixedOutputArityMap.put(KeywordPredicate.class, 1); 
         fixedOutputArityMap.put(KeywordSourcePredicate.class, 1); 
+        fixedOutputArityMap.put(MultiKeywordPredicate.class, 1); 
+        fixedOutputArityMap.put(MultiKeywordSourcePredicate.class, 1); 
+        fixedOutputArityMap.put(FuzzyKeywordPredicate.class, 1); 
+        fixedOutputArityMap.put(FuzzyKeywordSourcePredicate.class, 1); 
         fixedOutputArityMap.put(RegexPredicate.class, 1); 
         fixedOutputArityMap.put(RegexSourcePredicate.class, 1); 
 
@@ -110,6 +124,7 @@ public class OperatorArityConstants {
         fixedOutputArityMap.put(WordCountIndexSourcePredicate.class, 1);
         fixedOutputArityMap.put(WordCountOperatorPredicate.class, 1);
         fixedOutputArityMap.put(ComparablePredicate.class, 1);
+        fixedOutputArityMap.put(ComparableSourcePredicate.class, 1);
         fixedOutputArityMap.put(AggregatorPredicate.class, 1);
 
         fixedOutputArityMap.put(AsterixSourcePredicate.class, 1);
@@ -0,0 +1,176 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+
+/**
+ * CompiledRegex is a regex compiled by one of the regex engines.
+ * 
+ * It hides the difference between the engines from the operators:
+ *   java.util.regex.Pattern and com.google.re2j.Pattern have the same matcher methods, 
+ *   but they don't share an interface.
+ * A CompiledRegex is immutable and can be shared by multiple threads, 
+ *   use RegexCache to get the compiled regex of a regex.
+ */
+public class CompiledRegex {
+    
+    /**
+     * The matcher of a compiled regex on a text, which is not thread-safe.
+     */
+    public interface Matcher {
+        
+        /**
+         * Finds the next match after the previous match.
+         */
+        boolean find();
+        
+        /**
+         * Resets the matcher (and its region) and finds the next match starting from an index.
+         */
+        boolean find(int fromIndex);
+        
+        /**
+         * Limits the matches to a region of the text, the offsets of the matches are still in the whole text.
+         * With the java engine, the characters outside the region are visible to 
+         *   the look-arounds, boundaries and anchors (see CompiledRegex.supportsRegions()).
+         * The re2j engine matches the substring of the region, 
+         *   so the boundaries and anchors see the ends of the region as the ends of the text.
+         */
+        void region(int start, int end);
+        
+        int start();
+        
+        int end();
+    }
+    
+    private final String regex;
+    private final boolean ignoreCase;
+    private final RegexEngine regexEngine;
+    
+    private final java.util.regex.Pattern javaPattern;
+    private final com.google.re2j.Pattern re2jPattern;
+    
+    /**
+     * Compiles a regex.
+     * 
+     * @param regex
+     * @param ignoreCase
+     * @param regexEngine
+     * @throws DataflowException if the regex is invalid in the syntax of the engine
+     */
+    public CompiledRegex(String regex, boolean ignoreCase, RegexEngine regexEngine) throws DataflowException {
+        this.regex = regex;
+        this.ignoreCase = ignoreCase;
+        this.regexEngine = regexEngine;
+        
+        if (regexEngine == RegexEngine.RE2J) {
+            try {
+                this.re2jPattern = ignoreCase ? 
+                        com.google.re2j.Pattern.compile(regex, com.google.re2j.Pattern.CASE_INSENSITIVE)
+                        : com.google.re2j.Pattern.compile(regex);
+            } catch (com.google.re2j.PatternSyntaxException e) {
+                throw new DataflowException("regex " + regex + " is not supported by the re2j engine: "
+                        + e.getMessage(), e);
+            }
+            this.javaPattern = null;
+        } else {
+            try {
+                this.javaPattern = ignoreCase ? 
+                        java.util.regex.Pattern.compile(regex, java.util.regex.Pattern.CASE_INSENSITIVE)
+                        : java.util.regex.Pattern.compile(regex);
+            } catch (java.util.regex.PatternSyntaxException e) {
+                throw new DataflowException("regex " + regex + " is not supported by the java engine: "
+                        + e.getMessage(), e);
+            }
+            this.re2jPattern = null;
+        }
+    }
+    
+    public String getRegex() {
+        return this.regex;
+    }
+    
+    public boolean isIgnoreCase() {
+        return this.ignoreCase;
+    }
+    
+    public RegexEngine getRegexEngine() {
+        return this.regexEngine;
+    }
+    
+    /**
+     * Checks if matching a region of a text finds the same matches as matching the whole text in that region,
+     *   which is only true if the characters outside the region are visible to the matcher.
+     * 
+     * @return true if the engine of the regex supports the regions
+     */
+    public boolean supportsRegions() {
+        return this.regexEngine == RegexEngine.JAVA;
+    }
+    
+    public Matcher matcher(CharSequence text) {
+        if (regexEngine == RegexEngine.RE2J) {
+            return new Matcher() {
+                private com.google.re2j.Matcher re2jMatcher = re2jPattern.matcher(text);
+                // the re2j matcher of a region matches the substring of the region, 
+                //   its offsets are shifted by the start of the region
+                private boolean regionSet = false;
+                private int regionStart = 0;
+                
+                @Override
+                public boolean find() {
+                    return re2jMatcher.find();
+                }
+                @Override
+                public boolean find(int fromIndex) {
+                    if (regionSet) {
+                        re2jMatcher = re2jPattern.matcher(text);
+                        regionSet = false;
+                        regionStart = 0;
+                    }
+                    return re2jMatcher.find(fromIndex);
+                }
+                @Override
+                public void region(int start, int end) {
+                    re2jMatcher = re2jPattern.matcher(text.subSequence(start, end));
+                    regionSet = true;
+                    regionStart = start;
+                }
+                @Override
+                public int start() {
+                    return re2jMatcher.start() + regionStart;
+                }
+                @Override
+                public int end() {
+                    return re2jMatcher.end() + regionStart;
+                }
+            };
+        } else {
+            java.util.regex.Matcher javaMatcher = javaPattern.matcher(text);
+            javaMatcher.useTransparentBounds(true);
+            javaMatcher.useAnchoringBounds(false);
+            return new Matcher() {
+                @Override
+                public boolean find() {
+                    return javaMatcher.find();
+                }
+                @Override
+                public boolean find(int fromIndex) {
+                    return javaMatcher.find(fromIndex);
+                }
+                @Override
+                public void region(int start, int end) {
+                    javaMatcher.region(start, end);
+                }
+                @Override
+                public int start() {
+                    return javaMatcher.start();
+                }
+                @Override
+                public int end() {
+                    return javaMatcher.end();
+                }
+            };
+        }
+    }
+
+}
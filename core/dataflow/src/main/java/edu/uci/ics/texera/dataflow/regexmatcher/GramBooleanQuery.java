@@ -154,14 +154,15 @@ public class GramBooleanQuery {
      * and returns the result as a new tree. <br>
      */
     static GramBooleanQuery computeDisjunction(GramBooleanQuery left, GramBooleanQuery right) {
-        if (right.operator == QueryOp.ANY) {
-            return deepCopy(right);
+        // a simplified DNF tree without any sub query matches everything
+        if (right.operator == QueryOp.ANY || isEmptyDNF(right)) {
+            return new GramBooleanQuery(QueryOp.ANY);
         }
         if (right.operator == QueryOp.NONE) {
             return deepCopy(left);
         }
-        if (left.operator == QueryOp.ANY) {
-            return deepCopy(left);
+        if (left.operator == QueryOp.ANY || isEmptyDNF(left)) {
+            return new GramBooleanQuery(QueryOp.ANY);
         }
         if (left.operator == QueryOp.NONE) {
             return deepCopy(right);
@@ -182,6 +183,14 @@ public class GramBooleanQuery {
         }
     }
 
+    /*
+     * Checks if a query is an AND or OR without any sub query, 
+     *   which is how a DNF tree (see toDNF) represents a query matching everything.
+     */
+    private static boolean isEmptyDNF(GramBooleanQuery query) {
+        return (query.operator == QueryOp.AND || query.operator == QueryOp.OR) && query.subQuerySet.isEmpty();
+    }
+
     /*
      * Helper function to merge subQuerySet from src query tree to dest query
      * tree. If src is a LEAF, it will be added to dest. If src is not a LEAF,
@@ -236,7 +245,12 @@ public class GramBooleanQuery {
         }
         if (query.operator == QueryOp.OR) {
             for (GramBooleanQuery subQuery : query.subQuerySet) {
-                result.subQuerySet.addAll(toDNF(subQuery).subQuerySet);
+                GramBooleanQuery subDNF = toDNF(subQuery);
+                // a sub query matching everything makes the disjunction match everything
+                if (subDNF.subQuerySet.isEmpty()) {
+                    return new GramBooleanQuery(QueryOp.OR);
+                }
+                result.subQuerySet.addAll(subDNF.subQuerySet);
             }
         }
         if (query.operator == QueryOp.LEAF) {
@@ -0,0 +1,135 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+
+/**
+ * RegexCache is the process-wide cache of the compiled regexes, the translated gram queries
+ *   and the literal prefilters, so that the same regex used by multiple operators or queries
+ *   is only compiled and translated once.
+ *
+ * The compiled regexes are keyed by (regex, ignoreCase, engine),
+ *   the gram queries are keyed by (regex, gram length), the prefilters are keyed by (regex, engine).
+ * Each cache keeps the most recently used MAX_CACHE_SIZE entries.
+ *
+ * The cached objects are shared, the callers must not modify a cached GramBooleanQuery.
+ */
+public class RegexCache {
+
+    public static final int MAX_CACHE_SIZE = 1000;
+
+    private static final Map<List<Object>, CompiledRegex> compiledRegexCache = createLRUMap();
+    private static final Map<List<Object>, GramBooleanQuery> gramQueryCache = createLRUMap();
+    private static final Map<List<Object>, RegexPrefilter> prefilterCache = createLRUMap();
+
+    // the translator sets the gram length in a static variable, the regexes are translated one by one
+    private static final Object translatorLock = new Object();
+
+    private static <V> Map<List<Object>, V> createLRUMap() {
+        return new LinkedHashMap<List<Object>, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, V> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * Gets the compiled regex from the cache, compiles it if it's not in the cache.
+     *
+     * @param regex
+     * @param ignoreCase
+     * @param regexEngine
+     * @return
+     * @throws DataflowException if the regex is invalid in the syntax of the engine
+     */
+    public static CompiledRegex getCompiledRegex(String regex, boolean ignoreCase, RegexEngine regexEngine)
+            throws DataflowException {
+        List<Object> key = Arrays.asList(regex, ignoreCase, regexEngine);
+        synchronized (compiledRegexCache) {
+            CompiledRegex compiledRegex = compiledRegexCache.get(key);
+            if (compiledRegex != null) {
+                return compiledRegex;
+            }
+        }
+        // compile the regex outside the lock, a regex compiled twice by two threads is harmless
+        CompiledRegex compiledRegex = new CompiledRegex(regex, ignoreCase, regexEngine);
+        synchronized (compiledRegexCache) {
+            compiledRegexCache.put(key, compiledRegex);
+        }
+        return compiledRegex;
+    }
+
+    /**
+     * Gets the gram query of a regex from the cache, translates it if it's not in the cache.
+     *
+     * @param regex
+     * @return
+     * @throws com.google.re2j.PatternSyntaxException if the regex can't be translated
+     */
+    public static GramBooleanQuery getGramQuery(String regex) throws com.google.re2j.PatternSyntaxException {
+        return getGramQuery(regex, TranslatorUtils.DEFAULT_GRAM_LENGTH);
+    }
+
+    /**
+     * Gets the gram query of a regex with a custom gram length from the cache,
+     *   translates it if it's not in the cache.
+     *
+     * @param regex
+     * @param gramLength
+     * @return
+     * @throws com.google.re2j.PatternSyntaxException if the regex can't be translated
+     */
+    public static GramBooleanQuery getGramQuery(String regex, int gramLength)
+            throws com.google.re2j.PatternSyntaxException {
+        List<Object> key = Arrays.asList(regex, gramLength);
+        synchronized (translatorLock) {
+            GramBooleanQuery gramQuery = gramQueryCache.get(key);
+            if (gramQuery == null) {
+                gramQuery = RegexToGramQueryTranslator.translate(regex, gramLength);
+                gramQueryCache.put(key, gramQuery);
+            }
+            return gramQuery;
+        }
+    }
+
+    /**
+     * Gets the literal prefilter of a regex from the cache, creates it if it's not in the cache.
+     *
+     * @param regex
+     * @param regexEngine
+     * @return
+     */
+    public static RegexPrefilter getPrefilter(String regex, RegexEngine regexEngine) {
+        List<Object> key = Arrays.asList(regex, regexEngine);
+        // the prefilter translates the regex
+        synchronized (translatorLock) {
+            RegexPrefilter prefilter = prefilterCache.get(key);
+            if (prefilter == null) {
+                prefilter = new RegexPrefilter(regex, regexEngine);
+                prefilterCache.put(key, prefilter);
+            }
+            return prefilter;
+        }
+    }
+
+    /**
+     * Removes all the entries in the caches.
+     */
+    public static void clear() {
+        synchronized (compiledRegexCache) {
+            compiledRegexCache.clear();
+        }
+        synchronized (translatorLock) {
+            gramQueryCache.clear();
+            prefilterCache.clear();
+        }
+    }
+
+}
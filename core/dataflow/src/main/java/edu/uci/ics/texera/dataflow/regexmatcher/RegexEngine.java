@@ -0,0 +1,46 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * RegexEngine: the regex engine used to match a regex. <br>
+ * 
+ * JAVA: <br>
+ * java.util.regex, a backtracking engine which supports the full Java regex syntax,
+ * including back references and look-arounds,
+ * but a regex can take exponential time on some inputs. <br>
+ * 
+ * RE2J: <br>
+ * com.google.re2j, an automaton-based engine which matches in linear time of the input,
+ * it supports the <a href='https://github.com/google/re2/wiki/Syntax'>RE2 syntax</a>,
+ * which doesn't have back references or look-arounds. <br>
+ */
+public enum RegexEngine {
+    
+    JAVA(RegexEngineName.JAVA),
+    
+    RE2J(RegexEngineName.RE2J);
+    
+    private final String name;
+    
+    private RegexEngine(String name) {
+        this.name = name;
+    }
+    
+    // use the name string instead of enum string in JSON
+    @JsonValue
+    public String getName() {
+        return this.name;
+    }
+    
+    @Override
+    public String toString() {
+        return this.name;
+    }
+    
+    public class RegexEngineName {
+        public static final String JAVA = "java";
+        public static final String RE2J = "re2j";
+    }
+
+}
@@ -16,6 +16,7 @@ import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.regexmatcher.label.LabeledRegexProcessor;
 import edu.uci.ics.texera.dataflow.regexmatcher.label.LabledRegexNoQualifierProcessor;
+import edu.uci.ics.texera.storage.DataStore;
 
 /**
  * Created by chenli on 3/25/16.
@@ -57,11 +58,15 @@ public class RegexMatcher extends AbstractSingleInputOperator {
      */
     public static final String CHECK_REGEX_QUALIFIER = "[^a-zA-Z0-9<> ]";
     
+    private static final Pattern CHECK_REGEX_LABEL_PATTERN = Pattern.compile(CHECK_REGEX_LABEL);
+    private static final Pattern CHECK_REGEX_QUALIFIER_PATTERN = Pattern.compile(CHECK_REGEX_QUALIFIER);
+    
     
     private final RegexPredicate predicate;
     private RegexType regexType;
         
-    private Pattern regexPattern;
+    private CompiledRegex compiledRegex;
+    private RegexPrefilter regexPrefilter;
     LabeledRegexProcessor labeledRegexProcessor;
     LabledRegexNoQualifierProcessor labledRegexNoQualifierProcessor;
     
@@ -90,9 +95,9 @@ public class RegexMatcher extends AbstractSingleInputOperator {
         findRegexType();
         // Check if labeled or unlabeled
         if (this.regexType == RegexType.NO_LABELS) {
-            regexPattern = predicate.isIgnoreCase() ? 
-                    Pattern.compile(predicate.getRegex(), Pattern.CASE_INSENSITIVE)
-                    : Pattern.compile(predicate.getRegex());
+            compiledRegex = RegexCache.getCompiledRegex(predicate.getRegex(), predicate.isIgnoreCase(), 
+                    predicate.getRegexEngine());
+            regexPrefilter = RegexCache.getPrefilter(predicate.getRegex(), predicate.getRegexEngine());
         } else if (this.regexType == RegexType.LABELED_WITH_QUALIFIERS) {
             labeledRegexProcessor = new LabeledRegexProcessor(predicate);
         } else {
@@ -104,12 +109,12 @@ public class RegexMatcher extends AbstractSingleInputOperator {
      * Determines the type of the regex: no_label / labeled_with_qualifier / labeled_without_qualifier
      */
     private void findRegexType() {
-        Matcher labelMatcher = Pattern.compile(CHECK_REGEX_LABEL).matcher(predicate.getRegex());
+        Matcher labelMatcher = CHECK_REGEX_LABEL_PATTERN.matcher(predicate.getRegex());
         if (! labelMatcher.find()) {
             regexType = RegexType.NO_LABELS;
             return;
         }
-        Matcher qualifierMatcher = Pattern.compile(CHECK_REGEX_QUALIFIER).matcher(predicate.getRegex());
+        Matcher qualifierMatcher = CHECK_REGEX_QUALIFIER_PATTERN.matcher(predicate.getRegex());
         if (qualifierMatcher.find()) {
             regexType = RegexType.LABELED_WITH_QUALIFIERS;
         } else {
@@ -153,7 +158,7 @@ public class RegexMatcher extends AbstractSingleInputOperator {
 
         List<Span> matchingResults = null;
         if (this.regexType == RegexType.NO_LABELS) {
-            matchingResults = computeMatchingResultsWithPattern(inputTuple, predicate, regexPattern);
+            matchingResults = computeMatchingResultsWithPattern(inputTuple, predicate, compiledRegex, regexPrefilter);
         } else if (this.regexType == RegexType.LABELED_WITH_QUALIFIERS) {
             matchingResults = labeledRegexProcessor.computeMatchingResults(inputTuple);
         } else {
@@ -173,8 +178,25 @@ public class RegexMatcher extends AbstractSingleInputOperator {
         return tupleBuilder.build();
     }
 
-    public static List<Span> computeMatchingResultsWithPattern(Tuple inputTuple, RegexPredicate predicate, Pattern pattern) {
+    /**
+     * Computes the spans of a compiled regex in a tuple,
+     *   the fields which don't contain the literals required by the regex are skipped.
+     * 
+     * If the payload of the tuple has the positions of the regex's grams in the gram field of an attribute
+     *   (see DataReader.setGramPayloadAdded()), and the engine of the regex supports the regions,
+     *   the regex is only matched in the candidate regions around the grams 
+     *   (see RegexPrefilter.computeCandidateRegions()), instead of the whole field.
+     * 
+     * @param inputTuple
+     * @param predicate
+     * @param compiledRegex
+     * @param regexPrefilter, the prefilter of the regex
+     * @return
+     */
+    public static List<Span> computeMatchingResultsWithPattern(Tuple inputTuple, RegexPredicate predicate, 
+            CompiledRegex compiledRegex, RegexPrefilter regexPrefilter) {
         List<Span> matchingResults = new ArrayList<>();
+        Map<String, List<Span>> gramSpanMap = getGramSpans(inputTuple, compiledRegex, regexPrefilter);
 
         for (String attributeName : predicate.getAttributeNames()) {
             AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
@@ -185,18 +207,53 @@ public class RegexMatcher extends AbstractSingleInputOperator {
                 throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
             }
             
-            Matcher javaMatcher = pattern.matcher(fieldValue);
-            while (javaMatcher.find()) {
-                int start = javaMatcher.start();
-                int end = javaMatcher.end();
-                matchingResults.add(
-                        new Span(attributeName, start, end, predicate.getRegex(), fieldValue.substring(start, end)));
+            List<Span> gramSpans = gramSpanMap.get(DataStore.getGramFieldName(attributeName));
+            List<int[]> regions;
+            if (gramSpans != null) {
+                regions = regexPrefilter.computeCandidateRegions(gramSpans, fieldValue.length());
+            } else if (regexPrefilter.mayMatch(fieldValue)) {
+                regions = Arrays.asList(new int[] {0, fieldValue.length()});
+            } else {
+                continue;
+            }
+            
+            CompiledRegex.Matcher regexMatcher = compiledRegex.matcher(fieldValue);
+            for (int[] region : regions) {
+                if (gramSpans != null) {
+                    regexMatcher.region(region[0], region[1]);
+                }
+                while (regexMatcher.find()) {
+                    int start = regexMatcher.start();
+                    int end = regexMatcher.end();
+                    matchingResults.add(new Span(attributeName, start, end, predicate.getRegex(), 
+                            fieldValue.substring(start, end)));
+                }
             }
         }
         
         return matchingResults;
     }
     
+    /*
+     * Gets the spans of the grams in the payload of a tuple, grouped by the gram field,
+     *   the map is empty if the candidate regions can't be used.
+     */
+    private static Map<String, List<Span>> getGramSpans(Tuple inputTuple, CompiledRegex compiledRegex, 
+            RegexPrefilter regexPrefilter) {
+        Map<String, List<Span>> gramSpanMap = new HashMap<>();
+        if (! compiledRegex.supportsRegions() || ! regexPrefilter.isRegionEnabled()
+                || ! inputTuple.getSchema().containsAttribute(SchemaConstants.PAYLOAD)) {
+            return gramSpanMap;
+        }
+        ListField<Span> payloadField = inputTuple.getField(SchemaConstants.PAYLOAD);
+        for (Span span : payloadField.getValue()) {
+            if (span.getAttributeName().startsWith(DataStore.GRAM_FIELD_PREFIX)) {
+                gramSpanMap.computeIfAbsent(span.getAttributeName(), k -> new ArrayList<>()).add(span);
+            }
+        }
+        return gramSpanMap;
+    }
+    
     @Override
     protected void cleanUp() throws DataflowException {        
     }
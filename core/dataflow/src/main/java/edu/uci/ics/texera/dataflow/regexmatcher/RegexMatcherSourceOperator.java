@@ -1,7 +1,9 @@
 package edu.uci.ics.texera.dataflow.regexmatcher;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
+import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.schema.Schema;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -15,7 +17,9 @@ import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.DataStore;
 import edu.uci.ics.texera.storage.RelationManager;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 public class RegexMatcherSourceOperator extends AbstractSingleInputOperator implements ISourceOperator {
     
@@ -23,13 +27,19 @@ public class RegexMatcherSourceOperator extends AbstractSingleInputOperator impl
 
     private final DataReader dataReader;
     private final RegexMatcher regexMatcher;
+    // whether the positions of the grams are read from the trigram index, they are removed from the results
+    private final boolean gramPayloadAdded;
     
     public RegexMatcherSourceOperator(RegexSourcePredicate predicate) throws StorageException, DataflowException {
         this.predicate = predicate;
         
+        // if the index is used and the companion trigram index of the table covers all the attributes,
+        //   the regex is only verified around the positions of the grams of the regex found in the index
+        this.gramPayloadAdded = this.predicate.isUseIndex() && isGramIndexed(this.predicate);
         if (this.predicate.isUseIndex()) {
             this.dataReader = RelationManager.getInstance().getTableDataReader(this.predicate.getTableName(), 
-                    createLuceneQuery(this.predicate));
+                    createLuceneQuery(this.predicate, this.gramPayloadAdded));
+            this.dataReader.setGramPayloadAdded(this.gramPayloadAdded);
         } else {
             this.dataReader = RelationManager.getInstance().getTableDataReader(this.predicate.getTableName(), 
                     new MatchAllDocsQuery());
@@ -43,12 +53,19 @@ public class RegexMatcherSourceOperator extends AbstractSingleInputOperator impl
 
     @Override
     protected void setUp() throws TexeraException {
-        this.outputSchema = regexMatcher.getOutputSchema();        
+        this.outputSchema = regexMatcher.getOutputSchema();
+        if (gramPayloadAdded) {
+            this.outputSchema = new Schema.Builder(this.outputSchema).removeIfExists(SchemaConstants.PAYLOAD).build();
+        }
     }
 
     @Override
     protected Tuple computeNextMatchingTuple() throws TexeraException {
-        return this.regexMatcher.getNextTuple();
+        Tuple resultTuple = this.regexMatcher.getNextTuple();
+        if (resultTuple != null && gramPayloadAdded) {
+            resultTuple = new Tuple.Builder(resultTuple).removeIfExists(SchemaConstants.PAYLOAD).build();
+        }
+        return resultTuple;
     }
 
     @Override
@@ -60,23 +77,55 @@ public class RegexMatcherSourceOperator extends AbstractSingleInputOperator impl
     protected void cleanUp() throws TexeraException {
     }
     
+    /*
+     * Checks if all the attributes of the predicate have a companion trigram index.
+     */
+    private static boolean isGramIndexed(RegexSourcePredicate predicate) throws StorageException {
+        return RelationManager.getInstance().getTableGramAttributes(predicate.getTableName())
+                .containsAll(predicate.getAttributeNames());
+    }
+    
+    /**
+     * Creates the Lucene query that finds the candidate tuples of the regex with the gram query of the regex.
+     * If all the attributes have a companion trigram index, the gram query is run on the trigram fields,
+     *   otherwise it's run on the attributes with the analyzer of the table.
+     * 
+     * @param predicate
+     * @return
+     * @throws StorageException
+     */
     public static Query createLuceneQuery(RegexSourcePredicate predicate) throws StorageException {
+        return createLuceneQuery(predicate, isGramIndexed(predicate));
+    }
+    
+    /*
+     * Creates the Lucene query of the regex, 
+     *   the caller checks if all the attributes have a companion trigram index so that the catalog is read once.
+     */
+    private static Query createLuceneQuery(RegexSourcePredicate predicate, boolean gramIndexed) throws StorageException {
         Query luceneQuery;
         String queryString;
         
+        String[] queryFields = predicate.getAttributeNames().stream().toArray(String[]::new);
+        Analyzer queryAnalyzer;
+        if (gramIndexed) {
+            queryFields = predicate.getAttributeNames().stream()
+                    .map(attributeName -> DataStore.getGramFieldName(attributeName)).toArray(String[]::new);
+            queryAnalyzer = LuceneAnalyzerConstants.getNGramAnalyzer(DataStore.GRAM_LENGTH);
+        } else {
+            queryAnalyzer = RelationManager.getInstance().getTableAnalyzer(predicate.getTableName());
+        }
+        
         // Try to apply translator. If it fails, use scan query.
         try {
-            queryString = RegexToGramQueryTranslator.translate(predicate.getRegex()).getLuceneQueryString();
+            queryString = RegexCache.getGramQuery(predicate.getRegex()).getLuceneQueryString();
         } catch (com.google.re2j.PatternSyntaxException e) {
             queryString = DataflowUtils.LUCENE_SCAN_QUERY;
         }
 
         // Try to parse the query string. It if fails, raise an exception.
         try {
-            luceneQuery = new MultiFieldQueryParser(
-                    predicate.getAttributeNames().stream().toArray(String[]::new), 
-                    RelationManager.getInstance().getTableAnalyzer(predicate.getTableName()))
-                    .parse(queryString);
+            luceneQuery = new MultiFieldQueryParser(queryFields, queryAnalyzer).parse(queryString);
         } catch (ParseException e) {
             throw new StorageException (e);
         }
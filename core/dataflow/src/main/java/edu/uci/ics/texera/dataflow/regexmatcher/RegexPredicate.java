@@ -29,6 +29,7 @@ public class RegexPredicate extends PredicateBase {
     private final List<String> attributeNames;
     private final String spanListName;
     private final Boolean ignoreCase;
+    private final RegexEngine regexEngine;
     
     /*
      * This constructor is only for internal use.
@@ -36,6 +37,13 @@ public class RegexPredicate extends PredicateBase {
     public RegexPredicate(String regex, List<String> attributeNames, String spanListName) {
         this(regex, attributeNames, null, spanListName);
     }
+    
+    /*
+     * This constructor is only for internal use, the regex is matched by the default java engine.
+     */
+    public RegexPredicate(String regex, List<String> attributeNames, Boolean ignoreCase, String spanListName) {
+        this(regex, attributeNames, ignoreCase, null, spanListName);
+    }
 
     /**
      * RegexPredicate is used to create a RegexMatcher.
@@ -43,6 +51,7 @@ public class RegexPredicate extends PredicateBase {
      * @param regex, the regex to be used
      * @param attributeNames, a list of attribute names to match regex on
      * @param ignoreCase, optional, ignores regex case, default false
+     * @param regexEngine, optional, the regex engine (java or re2j), default java
      * @param spanListName, the name of the attribute where the results will be put in
      */
     @JsonCreator
@@ -58,6 +67,11 @@ public class RegexPredicate extends PredicateBase {
                     defaultValue = "false")
             Boolean ignoreCase,
             
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_ENGINE, required = false,
+                    defaultValue = RegexEngine.RegexEngineName.JAVA)
+            RegexEngine regexEngine,
+            
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = false)
             String spanListName) {
         
@@ -72,6 +86,11 @@ public class RegexPredicate extends PredicateBase {
         } else {
             this.ignoreCase = ignoreCase;
         }
+        if (regexEngine == null) {
+            this.regexEngine = RegexEngine.JAVA;
+        } else {
+            this.regexEngine = regexEngine;
+        }
         if (spanListName == null || spanListName.trim().isEmpty()) {
             this.spanListName = null;
         } else {
@@ -99,6 +118,11 @@ public class RegexPredicate extends PredicateBase {
         return this.ignoreCase;
     }
     
+    @JsonProperty(PropertyNameConstants.REGEX_ENGINE)
+    public RegexEngine getRegexEngine() {
+        return this.regexEngine;
+    }
+    
     @Override
     public IOperator newOperator() {
         return new RegexMatcher(this);
@@ -0,0 +1,293 @@
+package edu.uci.ics.texera.dataflow.regexmatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.google.re2j.PublicParser;
+import com.google.re2j.PublicRE2;
+import com.google.re2j.PublicRegexp;
+
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.ACTrie;
+
+/**
+ * RegexPrefilter checks if a text contains the literals required by a regex,
+ *   before the text is matched by the regex.
+ *
+ * The required literals are the lower-case grams of the boolean gram query of the regex,
+ *   from the same analysis of the regex AST as the gram index (RegexToGramQueryTranslator).
+ * All the grams are found in one pass over the text with an Aho-Corasick automaton,
+ *   then the boolean query is evaluated on the grams found.
+ * If a text doesn't satisfy the query, the regex can't match the text, and the regex matching is skipped.
+ *
+ * If the regex can't be translated, or it doesn't require any literal, the prefilter lets every text pass.
+ *
+ * The prefilter also computes the candidate regions of a text from the positions of the grams in it,
+ *   for example, the positions of the query's grams in the gram index of a table.
+ * If every match of the regex contains a gram of the query, and the length of the matches is bounded,
+ *   every match is in a region around a gram, and the regex only needs to be matched in these regions.
+ */
+public class RegexPrefilter {
+
+    /*
+     * The syntax which is only supported by java.util.regex, or has a different meaning in RE2 syntax,
+     *   for example, "\1" is a back reference in java but an octal character code in RE2,
+     *   "\v" is any vertical whitespace in java but only the vertical tab in RE2,
+     *   "&&" is an intersection in a java character class but two '&' characters in RE2.
+     * The atomic groups "(?>", the possessive quantifiers "*+", "++", "?+", "}+", 
+     *   and the java character classes "\p{java" are not parsed by RE2.
+     * The literals of these regexes aren't reliable for the java engine, so they are not filtered.
+     */
+    private static final Pattern JAVA_INCOMPATIBLE_SYNTAX = 
+            Pattern.compile("\\\\[0-9v]|&&|\\(\\?>|[*+?}]\\+|\\\\p\\{java");
+
+    // the gram query with the lower-case grams as the leaves, null if every text passes
+    private final GramBooleanQuery gramQuery;
+    private final ACTrie gramTrie;
+    // the maximum length of a match in chars, -1 if the regions can't be computed
+    private final int maxMatchLength;
+
+    /**
+     * Creates the prefilter of a regex.
+     *
+     * @param regex
+     * @param regexEngine, the regex engine the regex is matched by
+     */
+    public RegexPrefilter(String regex, RegexEngine regexEngine) {
+        GramBooleanQuery gramQuery = null;
+        if (regexEngine == RegexEngine.RE2J || ! JAVA_INCOMPATIBLE_SYNTAX.matcher(regex).find()) {
+            try {
+                gramQuery = RegexToGramQueryTranslator.translateToGrams(regex, TranslatorUtils.DEFAULT_GRAM_LENGTH);
+            } catch (com.google.re2j.PatternSyntaxException e) {
+                // the regex uses a syntax not supported by RE2, such as look-arounds
+                gramQuery = null;
+            }
+        }
+
+        Set<String> grams = new HashSet<>();
+        if (gramQuery != null) {
+            collectGrams(gramQuery, grams);
+        }
+        if (grams.isEmpty()) {
+            this.gramQuery = null;
+            this.gramTrie = null;
+        } else {
+            this.gramQuery = gramQuery;
+            this.gramTrie = new ACTrie();
+            this.gramTrie.setCaseInsensitive(true);
+            this.gramTrie.addKeywords(new ArrayList<>(grams));
+            this.gramTrie.constructFailureTransactions();
+        }
+        
+        if (this.gramQuery != null && requiresGram(this.gramQuery)) {
+            this.maxMatchLength = getMaxMatchLength(regex);
+        } else {
+            this.maxMatchLength = -1;
+        }
+    }
+
+    /**
+     * @return true if the regex requires some literals, false if every text passes the prefilter
+     */
+    public boolean isEnabled() {
+        return this.gramQuery != null;
+    }
+
+    /**
+     * Checks if a text contains the literals required by the regex.
+     *
+     * @param text
+     * @return false if the regex can't match the text, true if it may match
+     */
+    public boolean mayMatch(String text) {
+        if (gramQuery == null) {
+            return true;
+        }
+        Set<String> foundGrams = new HashSet<>();
+        for (ACTrie.Emit emit : gramTrie.parseText(text)) {
+            foundGrams.add(emit.getKeyword());
+        }
+        return evaluate(gramQuery, foundGrams);
+    }
+
+    /**
+     * @return true if the candidate regions of the regex can be computed from the positions of the grams
+     */
+    public boolean isRegionEnabled() {
+        return this.maxMatchLength >= 0;
+    }
+    
+    /**
+     * Computes the candidate regions of a text from the positions of the grams of the regex in it.
+     * Every match of the regex in the text is in one of the regions.
+     * 
+     * @param gramSpans, the spans of the query's grams in the text
+     * @param textLength
+     * @return the disjoint regions sorted by the position, each region is an array of {start, end}
+     */
+    public List<int[]> computeCandidateRegions(List<Span> gramSpans, int textLength) {
+        List<int[]> regions = new ArrayList<>();
+        if (! isRegionEnabled()) {
+            regions.add(new int[] {0, textLength});
+            return regions;
+        }
+        
+        int[] gramStarts = new int[gramSpans.size()];
+        for (int i = 0; i < gramSpans.size(); i++) {
+            gramStarts[i] = gramSpans.get(i).getStart();
+        }
+        Arrays.sort(gramStarts);
+        
+        // a match containing a gram starting at position p is in [p - maxMatchLength, p + maxMatchLength]
+        for (int gramStart : gramStarts) {
+            int start = Math.max(0, gramStart - maxMatchLength);
+            int end = Math.min(textLength, gramStart + maxMatchLength);
+            if (! regions.isEmpty() && regions.get(regions.size() - 1)[1] >= start) {
+                regions.get(regions.size() - 1)[1] = Math.max(regions.get(regions.size() - 1)[1], end);
+            } else {
+                regions.add(new int[] {start, end});
+            }
+        }
+        return regions;
+    }
+    
+    /*
+     * Checks if every text satisfying the query contains at least one of the grams.
+     */
+    private static boolean requiresGram(GramBooleanQuery query) {
+        switch (query.operator) {
+        case LEAF:
+            return query.leaf.length() >= TranslatorUtils.DEFAULT_GRAM_LENGTH;
+        case AND:
+            for (GramBooleanQuery subQuery : query.subQuerySet) {
+                if (requiresGram(subQuery)) {
+                    return true;
+                }
+            }
+            return false;
+        case OR:
+            for (GramBooleanQuery subQuery : query.subQuerySet) {
+                if (! requiresGram(subQuery)) {
+                    return false;
+                }
+            }
+            return ! query.subQuerySet.isEmpty();
+        default:
+            return false;
+        }
+    }
+    
+    /**
+     * Computes the maximum length in chars of the matches of a regex, from the RE2 syntax tree of the regex.
+     *
+     * @param regex
+     * @return the maximum length, or -1 if it's unbounded, or the regex isn't parsed the same way by RE2 and java
+     */
+    public static int getMaxMatchLength(String regex) {
+        if (JAVA_INCOMPATIBLE_SYNTAX.matcher(regex).find()) {
+            return -1;
+        }
+        int maxRuneLength;
+        try {
+            maxRuneLength = getMaxRuneLength(PublicParser.parse(regex, PublicRE2.PERL));
+        } catch (com.google.re2j.PatternSyntaxException e) {
+            maxRuneLength = -1;
+        }
+        // a rune is at most 2 chars
+        return maxRuneLength < 0 ? -1 : maxRuneLength * 2;
+    }
+    
+    /*
+     * Computes the maximum number of runes matched by a regex, -1 if it's unbounded.
+     */
+    private static int getMaxRuneLength(PublicRegexp re) {
+        switch (re.getOp()) {
+        case LITERAL:
+            return re.getRunes().length;
+        case CHAR_CLASS:
+        case ANY_CHAR_NOT_NL:
+        case ANY_CHAR:
+            return 1;
+        case CAPTURE:
+        case QUEST:
+            return getMaxRuneLength(re.getSubs()[0]);
+        case STAR:
+        case PLUS:
+            return getMaxRuneLength(re.getSubs()[0]) == 0 ? 0 : -1;
+        case REPEAT: {
+            int subLength = getMaxRuneLength(re.getSubs()[0]);
+            if (subLength == 0) {
+                return 0;
+            }
+            return subLength < 0 || re.getMax() < 0 ? -1 : subLength * re.getMax();
+        }
+        case CONCAT: {
+            int length = 0;
+            for (PublicRegexp sub : re.getSubs()) {
+                int subLength = getMaxRuneLength(sub);
+                if (subLength < 0) {
+                    return -1;
+                }
+                length += subLength;
+            }
+            return length;
+        }
+        case ALTERNATE: {
+            int length = 0;
+            for (PublicRegexp sub : re.getSubs()) {
+                int subLength = getMaxRuneLength(sub);
+                if (subLength < 0) {
+                    return -1;
+                }
+                length = Math.max(length, subLength);
+            }
+            return length;
+        }
+        default:
+            // the empty-width assertions
+            return 0;
+        }
+    }
+    
+    private static void collectGrams(GramBooleanQuery query, Set<String> grams) {
+        if (query.operator == GramBooleanQuery.QueryOp.LEAF) {
+            grams.add(query.leaf);
+        } else {
+            for (GramBooleanQuery subQuery : query.subQuerySet) {
+                collectGrams(subQuery, grams);
+            }
+        }
+    }
+
+    /*
+     * Evaluates the gram query on the grams in the text,
+     *   ANY and NONE are treated as true, the same as the query on the gram index.
+     */
+    private static boolean evaluate(GramBooleanQuery query, Set<String> foundGrams) {
+        switch (query.operator) {
+        case LEAF:
+            return foundGrams.contains(query.leaf);
+        case AND:
+            for (GramBooleanQuery subQuery : query.subQuerySet) {
+                if (! evaluate(subQuery, foundGrams)) {
+                    return false;
+                }
+            }
+            return true;
+        case OR:
+            for (GramBooleanQuery subQuery : query.subQuerySet) {
+                if (evaluate(subQuery, foundGrams)) {
+                    return true;
+                }
+            }
+            return query.subQuerySet.isEmpty();
+        default:
+            return true;
+        }
+    }
+
+}
@@ -27,6 +27,19 @@ public class RegexSourcePredicate extends RegexPredicate {
             String spanListName) {
         this(regex, attributeNames, null, tableName, null, spanListName);
     }
+    
+    /*
+     * This constructor is for internal use, the regex is matched by the default java engine.
+     */
+    public RegexSourcePredicate(
+            String regex, 
+            List<String> attributeNames, 
+            Boolean ignoreCase, 
+            String tableName,
+            Boolean useIndex,
+            String spanListName) {
+        this(regex, attributeNames, ignoreCase, null, tableName, useIndex, spanListName);
+    }
 
     /**
      * RegexSourcePredicate is used to create a RegexSourceOperator.
@@ -34,6 +47,7 @@ public class RegexSourcePredicate extends RegexPredicate {
      * @param regex, the regex to be used
      * @param attributeNames, a list of attribute names to match regex on
      * @param ignoreCase, optional, ignores regex case, default false
+     * @param regexEngine, optional, the regex engine (java or re2j), default java
      * @param tableName, the name of the source table
      * @param useIndex, optional, use the gram-based regex index query, default true
      * @param spanListName, the name of the attribute where the results will be put in
@@ -51,6 +65,11 @@ public class RegexSourcePredicate extends RegexPredicate {
                     defaultValue = "false")
             Boolean ignoreCase, 
             
+            @AdvancedOption
+            @JsonProperty(value = PropertyNameConstants.REGEX_ENGINE, required = false,
+                    defaultValue = RegexEngine.RegexEngineName.JAVA)
+            RegexEngine regexEngine,
+            
             @JsonProperty(value = PropertyNameConstants.TABLE_NAME, required = true)
             String tableName,
             
@@ -61,7 +80,7 @@ public class RegexSourcePredicate extends RegexPredicate {
             
             @JsonProperty(value = PropertyNameConstants.SPAN_LIST_NAME, required = true)
             String spanListName) {
-        super(regex, attributeNames, ignoreCase, spanListName);
+        super(regex, attributeNames, ignoreCase, regexEngine, spanListName);
 
         if (tableName == null || tableName.isEmpty()) {
             throw new TexeraException(PropertyNameConstants.EMPTY_NAME_EXCEPTION);
@@ -43,12 +43,34 @@ public class RegexToGramQueryTranslator {
     public static GramBooleanQuery translate(String regex, int gramLength)
             throws com.google.re2j.PatternSyntaxException {
 
+        GramBooleanQuery gramQuery = translateToGrams(regex, gramLength);
+
+        TranslatorUtils.escapeSpecialCharacters(gramQuery);
+
+        return gramQuery;
+    }
+
+    /**
+     * This method translates a regular expression to a boolean expression of
+     * n-grams, without escaping the special characters of Lucene. <br>
+     * The leaves of the query are the lower-case n-grams themselves, which can be
+     * checked against a text directly. <br>
+     * 
+     * @param regex,
+     *            the regex string to be translated.
+     * @param gramLength,
+     *            the length of the grams.
+     * @return GamBooleanQeruy, a boolean query of n-grams.
+     */
+    static GramBooleanQuery translateToGrams(String regex, int gramLength)
+            throws com.google.re2j.PatternSyntaxException {
+
         TranslatorUtils.GRAM_LENGTH = gramLength;
 
-        // Since the inverted index relies on lower-case grams, we need to
-        // convert the characters to lower case.
-        regex = regex.toLowerCase();
-        
+        // The regex is parsed as it is, because lower-casing it would change
+        // the meaning of escapes such as \D, \S and \W. Since the inverted
+        // index relies on lower-case grams, analyze() lower-cases the
+        // extracted literals instead.
         PublicRegexp re = PublicParser.parse(regex, PublicRE2.PERL);
         re = PublicSimplify.simplify(re);
 
@@ -57,8 +79,6 @@ public class RegexToGramQueryTranslator {
 
         TranslatorUtils.GRAM_LENGTH = TranslatorUtils.DEFAULT_GRAM_LENGTH;
 
-        TranslatorUtils.escapeSpecialCharacters(regexInfo.match);
-
         return regexInfo.match;
     }
 
@@ -72,8 +92,6 @@ public class RegexToGramQueryTranslator {
      */
     private static RegexInfo analyze(PublicRegexp re) {
         RegexInfo info = new RegexInfo();
-        // FOLD_CASE means case insensitive
-        boolean isCaseSensitive = (re.getFlags() & PublicRE2.FOLD_CASE) != PublicRE2.FOLD_CASE;
         switch (re.getOp()) {
         // NO_MATCH is a regex that doesn't match anything.
         // It's used to handle error cases, which shouldn't
@@ -113,23 +131,11 @@ public class RegexToGramQueryTranslator {
             if (re.getRunes().length == 0) {
                 return RegexInfo.matchNone();
             } else if (re.getRunes().length == 1) {
-                String exactStr;
-                if (isCaseSensitive) {
-                    exactStr = Character.toString((char) re.getRunes()[0]);
-                } else {
-                    exactStr = Character.toString((char) re.getRunes()[0]).toLowerCase();
-                }
-                info.exact.add(exactStr);
+                info.exact.add(Character.toString((char) re.getRunes()[0]).toLowerCase());
                 info.simplify(false);
                 return info;
             }
-            // convert all runes to lower case if not case sensitive
-            if (!isCaseSensitive) {
-                for (int i = 0; i < re.getRunes().length; i++) {
-                    re.getRunes()[i] = Character.toLowerCase(re.getRunes()[i]);
-                }
-            }
-            // add characters between two runes to exact
+            // add characters between two runes to exact, in lower case
             int count = 0;
             for (int i = 0; i < re.getRunes().length; i += 2) {
                 count += re.getRunes()[i + 1] - re.getRunes()[i];
@@ -139,7 +145,7 @@ public class RegexToGramQueryTranslator {
                 }
 
                 for (int codePoint = re.getRunes()[i]; codePoint <= re.getRunes()[i + 1]; codePoint++) {
-                    info.exact.add(Character.toString((char) codePoint));
+                    info.exact.add(Character.toString((char) codePoint).toLowerCase());
                 }
             }
             info.simplify(false);
@@ -149,16 +155,10 @@ public class RegexToGramQueryTranslator {
             if (re.getRunes().length == 0) {
                 return RegexInfo.emptyString();
             }
-            // convert runes to string
+            // convert runes to a lower case string
             String literal = "";
-            if (isCaseSensitive) { // case sensitive
-                for (int rune : re.getRunes()) {
-                    literal += Character.toString((char) rune);
-                }
-            } else {
-                for (int rune : re.getRunes()) {
-                    literal += Character.toString((char) rune).toLowerCase();
-                }
+            for (int rune : re.getRunes()) {
+                literal += Character.toString((char) rune).toLowerCase();
             }
             info = new RegexInfo();
             info.exact.add(literal);
@@ -0,0 +1,343 @@
+package edu.uci.ics.texera.dataflow.regexmatcher.label;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexPrefilter;
+
+/**
+ * CompiledLabeledRegex evaluates a labeled regex without compiling a pattern for each tuple.
+ *
+ * A labeled regex "F0 <label1> F1 <label2> ... Fn" is split into the labels and the regex fragments between them,
+ *   each fragment is compiled once.
+ * The spans of the labels are anchored positions in the field: a match is a chain of label spans
+ *   where each fragment matches exactly the text between two consecutive label spans,
+ *   the first fragment ends at the start of the first label span, and the last fragment starts at the end of the last one.
+ * A fragment of only letters, digits and spaces is compared directly without a regex.
+ *
+ * The labels must be at the top level of the regex: not in a group, a character class or an alternation,
+ *   and not followed by a quantifier. compile() returns null for the other labeled regexes.
+ */
+class CompiledLabeledRegex {
+
+    private static final Pattern LABEL_PATTERN = Pattern.compile(RegexMatcher.CHECK_REGEX_LABEL);
+
+    // back references, which can't be split between the fragments
+    private static final Pattern BACK_REFERENCE_PATTERN = Pattern.compile("\\\\[1-9]|\\\\k<");
+
+    private final List<String> labelList;
+    private final List<Fragment> fragmentList;
+
+    private CompiledLabeledRegex(List<String> labelList, List<Fragment> fragmentList) {
+        this.labelList = labelList;
+        this.fragmentList = fragmentList;
+    }
+
+    /**
+     * Compiles a labeled regex.
+     *
+     * @param regex
+     * @param ignoreCase
+     * @return the compiled regex, or null if a label is not at the top level of the regex
+     */
+    static CompiledLabeledRegex compile(String regex, boolean ignoreCase) {
+        if (BACK_REFERENCE_PATTERN.matcher(regex).find()) {
+            return null;
+        }
+
+        List<String> labelList = new ArrayList<>();
+        List<String> fragmentStrings = new ArrayList<>();
+
+        Matcher labelMatcher = LABEL_PATTERN.matcher(regex);
+        int depth = 0;
+        boolean inCharacterClass = false;
+        int fragmentStart = 0;
+        int i = 0;
+        while (i < regex.length()) {
+            if (labelMatcher.find(i) && labelMatcher.start() == i) {
+                int labelEnd = labelMatcher.end();
+                if (depth != 0 || inCharacterClass
+                        || (labelEnd < regex.length() && "*+?{".indexOf(regex.charAt(labelEnd)) >= 0)) {
+                    return null;
+                }
+                fragmentStrings.add(regex.substring(fragmentStart, i));
+                labelList.add(regex.substring(i + 1, labelEnd - 1).trim());
+                fragmentStart = labelEnd;
+                i = labelEnd;
+                continue;
+            }
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (inCharacterClass) {
+                inCharacterClass = c != ']';
+            } else if (c == '[') {
+                inCharacterClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return null;
+            }
+            i++;
+        }
+        fragmentStrings.add(regex.substring(fragmentStart));
+
+        if (labelList.isEmpty()) {
+            return null;
+        }
+
+        List<Fragment> fragmentList = new ArrayList<>();
+        try {
+            for (int k = 0; k < fragmentStrings.size(); k++) {
+                fragmentList.add(new Fragment(fragmentStrings.get(k), ignoreCase, k == 0));
+            }
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        return new CompiledLabeledRegex(labelList, fragmentList);
+    }
+
+    List<String> getLabelList() {
+        return Collections.unmodifiableList(labelList);
+    }
+
+    /**
+     * Fetches the spans of each label in a tuple, grouped by the attribute name and sorted by the start.
+     *
+     * @param inputTuple
+     * @return
+     */
+    Map<String, Map<String, List<Span>>> fetchLabelSpans(Tuple inputTuple) throws DataflowException {
+        Map<String, Map<String, List<Span>>> labelSpanMap = new HashMap<>();
+        for (String label : labelList) {
+            if (labelSpanMap.containsKey(label)) {
+                continue;
+            }
+            if (! inputTuple.getSchema().containsAttribute(label)) {
+                throw new DataflowException("label " + label + " does not exist");
+            }
+            ListField<Span> spanListField = inputTuple.getField(label);
+            Map<String, List<Span>> attributeSpanMap = new HashMap<>();
+            for (Span span : spanListField.getValue()) {
+                attributeSpanMap.computeIfAbsent(span.getAttributeName(), k -> new ArrayList<>()).add(span);
+            }
+            for (List<Span> spanList : attributeSpanMap.values()) {
+                spanList.sort((span1, span2) -> Integer.compare(span1.getStart(), span2.getStart()));
+            }
+            labelSpanMap.put(label, attributeSpanMap);
+        }
+        return labelSpanMap;
+    }
+
+    /**
+     * Computes all the matches of the labeled regex in a field, sorted by the start and then the end.
+     *
+     * @param attributeName
+     * @param fieldValue
+     * @param labelSpanMap, the label spans from fetchLabelSpans
+     * @return a list of matches, each match is an array of {start, end}
+     */
+    List<int[]> computeMatches(String attributeName, String fieldValue,
+            Map<String, Map<String, List<Span>>> labelSpanMap) {
+        List<int[]> partialMatches = new ArrayList<>();
+
+        // the first fragment must end at the start of a span of the first label
+        Fragment firstFragment = fragmentList.get(0);
+        for (Span span : getSpans(labelSpanMap, labelList.get(0), attributeName)) {
+            int start = firstFragment.findStartBefore(fieldValue, span.getStart());
+            if (start >= 0) {
+                partialMatches.add(new int[] {start, span.getEnd()});
+            }
+        }
+
+        // each following fragment must match exactly between the previous match and a span of the next label
+        for (int i = 1; i < labelList.size() && ! partialMatches.isEmpty(); i++) {
+            Fragment fragment = fragmentList.get(i);
+            List<Span> spanList = getSpans(labelSpanMap, labelList.get(i), attributeName);
+            Set<Long> newMatchKeys = new LinkedHashSet<>();
+            for (int[] partialMatch : partialMatches) {
+                int spanIndex = lowerBound(spanList, partialMatch[1] + Math.max(fragment.getFixedLength(), 0));
+                for (; spanIndex < spanList.size(); spanIndex++) {
+                    Span span = spanList.get(spanIndex);
+                    if (fragment.getFixedLength() >= 0 && span.getStart() != partialMatch[1] + fragment.getFixedLength()) {
+                        break;
+                    }
+                    if (fragment.matchesExactly(fieldValue, partialMatch[1], span.getStart())) {
+                        newMatchKeys.add(toKey(partialMatch[0], span.getEnd()));
+                    }
+                }
+            }
+            partialMatches = new ArrayList<>();
+            for (long key : newMatchKeys) {
+                partialMatches.add(fromKey(key));
+            }
+        }
+
+        // the last fragment must start at the end of the last label span
+        Fragment lastFragment = fragmentList.get(fragmentList.size() - 1);
+        Set<Long> matchKeys = new LinkedHashSet<>();
+        for (int[] partialMatch : partialMatches) {
+            int end = lastFragment.findEndAfter(fieldValue, partialMatch[1]);
+            if (end >= 0) {
+                matchKeys.add(toKey(partialMatch[0], end));
+            }
+        }
+
+        List<int[]> matches = new ArrayList<>();
+        for (long key : matchKeys) {
+            matches.add(fromKey(key));
+        }
+        matches.sort((match1, match2) -> match1[0] != match2[0] ?
+                Integer.compare(match1[0], match2[0]) : Integer.compare(match1[1], match2[1]));
+        return matches;
+    }
+
+    private static List<Span> getSpans(Map<String, Map<String, List<Span>>> labelSpanMap, String label,
+            String attributeName) {
+        List<Span> spanList = labelSpanMap.get(label).get(attributeName);
+        return spanList == null ? Collections.emptyList() : spanList;
+    }
+
+    /*
+     * Finds the index of the first span starting at or after a position in a list sorted by the start.
+     */
+    private static int lowerBound(List<Span> spanList, int position) {
+        int low = 0;
+        int high = spanList.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (spanList.get(mid).getStart() < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long toKey(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    private static int[] fromKey(long key) {
+        return new int[] {(int) (key >>> 32), (int) key};
+    }
+
+    /*
+     * A regex fragment between two labels, compiled once.
+     */
+    private static class Fragment {
+
+        private final String literal;
+        private final boolean ignoreCase;
+        // null if the fragment is a literal
+        private final Pattern pattern;
+        // the pattern of the first fragment which must end at the end of the region, null for the other fragments
+        private final Pattern endAnchoredPattern;
+        // the maximum length of the matches, only computed for the first fragment, -1 if it's unbounded
+        private final int maxLength;
+
+        Fragment(String fragment, boolean ignoreCase, boolean isFirst) throws PatternSyntaxException {
+            this.ignoreCase = ignoreCase;
+            if (fragment.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == ' ')) {
+                this.literal = fragment;
+                this.pattern = null;
+                this.endAnchoredPattern = null;
+                this.maxLength = fragment.length();
+            } else {
+                this.literal = null;
+                this.pattern = compilePattern(fragment, ignoreCase);
+                // the first fragment is searched in the text before the first label, and must end there
+                this.endAnchoredPattern = isFirst ? compilePattern("(?:" + fragment + ")\\z", ignoreCase) : null;
+                this.maxLength = isFirst ? RegexPrefilter.getMaxMatchLength(fragment) : -1;
+            }
+        }
+        
+        private static Pattern compilePattern(String regex, boolean ignoreCase) throws PatternSyntaxException {
+            return ignoreCase ? Pattern.compile(regex, Pattern.CASE_INSENSITIVE) : Pattern.compile(regex);
+        }
+
+        /*
+         * Returns the length of the text the fragment matches, or -1 if it's not fixed.
+         */
+        int getFixedLength() {
+            return literal == null ? -1 : literal.length();
+        }
+
+        /*
+         * Finds the leftmost start of the fragment which ends exactly at a position, returns -1 if it's not found.
+         * If the length of the matches is bounded, only the starts within the maximum length before the position
+         *   are tried, otherwise the fragment is searched from the start of the text.
+         */
+        int findStartBefore(String text, int end) {
+            if (literal != null) {
+                int start = end - literal.length();
+                return start >= 0 && text.regionMatches(ignoreCase, start, literal, 0, literal.length()) ? start : -1;
+            }
+            if (maxLength >= 0) {
+                Matcher matcher = pattern.matcher(text);
+                matcher.useTransparentBounds(true);
+                matcher.useAnchoringBounds(false);
+                for (int start = Math.max(0, end - maxLength); start <= end; start++) {
+                    matcher.region(start, end);
+                    if (matcher.matches()) {
+                        return start;
+                    }
+                }
+                return -1;
+            }
+            Matcher matcher = endAnchoredPattern.matcher(text);
+            matcher.useTransparentBounds(true);
+            matcher.region(0, end);
+            return matcher.find() ? matcher.start() : -1;
+        }
+
+        /*
+         * Checks if the fragment matches exactly the text between two positions.
+         */
+        boolean matchesExactly(String text, int start, int end) {
+            if (literal != null) {
+                return end - start == literal.length()
+                        && text.regionMatches(ignoreCase, start, literal, 0, literal.length());
+            }
+            Matcher matcher = pattern.matcher(text);
+            matcher.useTransparentBounds(true);
+            matcher.useAnchoringBounds(false);
+            matcher.region(start, end);
+            return matcher.matches();
+        }
+
+        /*
+         * Finds the end of the fragment which starts at a position, returns -1 if it doesn't match there.
+         */
+        int findEndAfter(String text, int start) {
+            if (literal != null) {
+                return text.regionMatches(ignoreCase, start, literal, 0, literal.length()) ?
+                        start + literal.length() : -1;
+            }
+            Matcher matcher = pattern.matcher(text);
+            matcher.useTransparentBounds(true);
+            matcher.useAnchoringBounds(false);
+            matcher.region(start, text.length());
+            return matcher.lookingAt() ? matcher.end() : -1;
+        }
+    }
+
+}
@@ -10,15 +10,25 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.regexmatcher.CompiledRegex;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexCache;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexEngine;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
 
 /**
  * Helper class for processing labeled regex.
  * 
+ * If all the labels are at the top level of the regex, such as "<drug>.*cures.*<disease>",
+ *   the regex is compiled once by CompiledLabeledRegex, and the labels are matched at the positions of their spans.
+ * The matches don't overlap, the leftmost match is selected first, and the longest one if several start there.
+ * Otherwise, such as "(<drug>|<disease>)", the labels are replaced by their values in each tuple
+ *   and the rewritten regex is compiled for the tuple.
+ * 
  * @author Bhushan Pagariya (bhushanpagariya)
  * @author Harshini Shah
  * @author Yashaswini Amaresh
@@ -30,10 +40,13 @@ public class LabeledRegexProcessor {
     private RegexPredicate predicate;
     private String cleanedRegex;
     private ArrayList<String> labelList = new ArrayList<>();
+    // null if the labels can't be matched by their positions
+    private CompiledLabeledRegex compiledLabeledRegex;
     
     public LabeledRegexProcessor(RegexPredicate predicate) {
         this.predicate = predicate;
         preprocessRegex();
+        this.compiledLabeledRegex = CompiledLabeledRegex.compile(predicate.getRegex(), predicate.isIgnoreCase());
     }
     
     private void preprocessRegex() {
@@ -54,13 +67,48 @@ public class LabeledRegexProcessor {
      * @return tuple with matching entries
      */
     public List<Span> computeMatchingResults(Tuple inputTuple) {
+        if (compiledLabeledRegex != null) {
+            return computeMatchingResultsWithCompiledRegex(inputTuple);
+        }
         Map<String, Set<String>> labelValues = fetchLabelValues(inputTuple);
         String regexWithVal = rewriteRegexWithLabelValues(labelValues);
-        Pattern regexPattern = predicate.isIgnoreCase() ? 
-                Pattern.compile(regexWithVal, Pattern.CASE_INSENSITIVE)
-                : Pattern.compile(regexWithVal);
+        CompiledRegex compiledRegex = RegexCache.getCompiledRegex(regexWithVal, predicate.isIgnoreCase(), 
+                RegexEngine.JAVA);
                 
-        return RegexMatcher.computeMatchingResultsWithPattern(inputTuple, predicate, regexPattern);
+        return RegexMatcher.computeMatchingResultsWithPattern(inputTuple, predicate, compiledRegex, 
+                RegexCache.getPrefilter(regexWithVal, RegexEngine.JAVA));
+    }
+    
+    /*
+     * Matches the compiled labeled regex at the positions of the label spans.
+     */
+    private List<Span> computeMatchingResultsWithCompiledRegex(Tuple inputTuple) {
+        Map<String, Map<String, List<Span>>> labelSpans = compiledLabeledRegex.fetchLabelSpans(inputTuple);
+        
+        List<Span> matchingResults = new ArrayList<>();
+        for (String attributeName : predicate.getAttributeNames()) {
+            AttributeType attributeType = inputTuple.getSchema().getAttribute(attributeName).getType();
+            // types other than TEXT and STRING: throw Exception for now
+            if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
+                throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
+            }
+            String fieldValue = inputTuple.getField(attributeName).getValue().toString();
+            
+            // the matches are sorted by the start, then the end
+            List<int[]> matches = compiledLabeledRegex.computeMatches(attributeName, fieldValue, labelSpans);
+            int previousEnd = -1;
+            for (int i = 0; i < matches.size(); i++) {
+                int[] match = matches.get(i);
+                // select the longest match among the ones with the same start
+                if (match[0] < previousEnd || (i + 1 < matches.size() && matches.get(i + 1)[0] == match[0])) {
+                    continue;
+                }
+                matchingResults.add(new Span(attributeName, match[0], match[1], predicate.getRegex(),
+                        fieldValue.substring(match[0], match[1])));
+                previousEnd = match[1];
+            }
+        }
+        return matchingResults;
     }
     
     /**
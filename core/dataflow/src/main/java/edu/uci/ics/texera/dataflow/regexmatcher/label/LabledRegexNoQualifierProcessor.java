@@ -1,15 +1,11 @@
 package edu.uci.ics.texera.dataflow.regexmatcher.label;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
-import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
@@ -37,11 +33,14 @@ public class LabledRegexNoQualifierProcessor {
     private ArrayList<String> labelList = new ArrayList<>();
     private ArrayList<String> affixList = new ArrayList<>();
     private ArrayList<String> sortedAffixList = new ArrayList<>(); // sort the affixList by length in decreasing order to short-cut the filter tuple operation.
+    // the affixes are compared case sensitively, the same as the filter
+    private CompiledLabeledRegex compiledLabeledRegex;
     
     public LabledRegexNoQualifierProcessor(RegexPredicate predicate) {
         this.predicate = predicate;
         // populate labelList and affixList
         preprocessRegex();
+        this.compiledLabeledRegex = CompiledLabeledRegex.compile(predicate.getRegex(), false);
     }
 
     /**
@@ -70,13 +69,12 @@ public class LabledRegexNoQualifierProcessor {
 
     /**
      * Sort the affixList in length decreasing order to filter valid tuples.
-     * @param tuple
-     * @param attribute
+     * @param fieldValue
      * @return
      */
-    private boolean filterTuple(Tuple tuple, String attribute) {
+    private boolean filterTuple(String fieldValue) {
         for (String affix : sortedAffixList) {
-            if (! tuple.getField(attribute).getValue().toString().contains(affix)) {
+            if (! fieldValue.contains(affix)) {
                 return false;
             }
         }
@@ -85,7 +83,8 @@ public class LabledRegexNoQualifierProcessor {
 
     /***
      * Filter out valid tuple using affixes in the regex.
-     * String Match the entire regex from the first label's spans with its prefix and suffix using span's start and end information.
+     * Match the entire regex from the first label's spans with its prefix and suffix using span's start and end information,
+     *   the regex is compiled once by CompiledLabeledRegex, and the spans of each label are sorted by the start.
      * Filter out the valid spans to continue match with following labels.
      * Early break if no matching in any step.
      * @param tuple
@@ -93,85 +92,23 @@ public class LabledRegexNoQualifierProcessor {
      */
     public List<Span> computeMatchingResults(Tuple tuple) {
 
-        Map<String, List<Span>> labelValues = fetchLabelSpans(tuple);
+        Map<String, Map<String, List<Span>>> labelSpans = compiledLabeledRegex.fetchLabelSpans(tuple);
         
         List<Span> allAttrsMatchSpans = new ArrayList<>();
         for (String attribute : predicate.getAttributeNames()) {
-            boolean isValidTuple = filterTuple(tuple, attribute);
+            String fieldValue = tuple.getField(attribute).getValue().toString();
 
-            if (! isValidTuple) {
+            if (! filterTuple(fieldValue)) {
                 continue;
             }
 
-            String fieldValue = tuple.getField(attribute).getValue().toString();
-
-            List<List<Integer>> matchList = new ArrayList<>();
-            
-            for (int i = 0; i < labelList.size(); i++) {
-                String label = labelList.get(i);
-                String prefix = affixList.get(i);
-                String suffix = affixList.get(i+1);
-                
-                List<Span> relevantSpans = labelValues.get(label).stream()
-                        .filter(span -> span.getAttributeName().equals(attribute)).collect(Collectors.toList());
-                
-                if (i == 0) {
-                    List<Span> validSpans = relevantSpans.stream()
-                            .filter(span -> span.getStart() >= prefix.length())
-                            .filter(span -> fieldValue.substring(span.getStart() - prefix.length(), span.getStart()).equals(prefix))
-                            .collect(Collectors.toList());
-                    matchList = validSpans.stream()
-                            .map(span -> new ArrayList<Integer>(Arrays.asList(span.getStart() - prefix.length(), span.getStart())))
-                            .collect(Collectors.toList());
-                    relevantSpans = validSpans;
-                }
-                
-                List<List<Integer>> newMatchList = new ArrayList<>();
-                
-                for (List<Integer> previousMatch : matchList) {
-                    for (Span span : relevantSpans) {
-                        if (previousMatch.get(1) == span.getStart()
-                                && span.getEnd() + suffix.length() <= fieldValue.length() 
-                                && fieldValue.substring(span.getEnd(), span.getEnd() + suffix.length()).equals(suffix)) {
-                            newMatchList.add(Arrays.asList(previousMatch.get(0), span.getEnd() + suffix.length()));
-                        }
-                    }
-                }
-                
-                matchList = newMatchList;
-                if (matchList.isEmpty()) {
-                    break;
-                }
+            for (int[] match : compiledLabeledRegex.computeMatches(attribute, fieldValue, labelSpans)) {
+                allAttrsMatchSpans.add(new Span(attribute, match[0], match[1], predicate.getRegex(),
+                        fieldValue.substring(match[0], match[1])));
             }
-            
-            // assert that for every match:
-            //  start >= 0, and end >= 0, and start <= end
-            assert(matchList.stream()
-                    .filter(match -> match.get(0) >= 0)
-                    .filter(match -> match.get(1) >= 0)
-                    .filter(match -> match.get(0) <= match.get(1))
-                    .count() == (long) matchList.size());
-            
-            matchList.stream().forEach(match -> allAttrsMatchSpans.add(
-                    new Span(attribute, match.get(0), match.get(1), predicate.getRegex(), fieldValue.substring(match.get(0), match.get(1)))));
         }
 
         return allAttrsMatchSpans;
     }
-    
-    
-    /**
-     * Creates Map of label and corresponding spans
-     * @param inputTuple
-     * @return 
-     */
-    private Map<String, List<Span>> fetchLabelSpans(Tuple inputTuple) {
-        Map<String, List<Span>> labelSpanMap = new HashMap<>();
-        for (String label : this.labelList) {
-            ListField<Span> spanListField = inputTuple.getField(label);
-            labelSpanMap.put(label, spanListField.getValue());
-        }
-        return labelSpanMap;
-    }
 
 }
@@ -13,14 +13,17 @@ import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.NoSuchElementException;
 
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.ISourceOperator;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.regexmatcher.CompiledRegex;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexCache;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexEngine;
 
 /**
  * @author Qinhua Huang
@@ -44,13 +47,18 @@ import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
  * result list = <"banana">
  * 
  * If the old tuple has an ID field, remove it.
+ * 
+ * The regex is compiled once when the operator is opened. The pieces of a text are computed lazily 
+ * while the regex matches are found (see SplitIterator), in the ONE_TO_MANY output type, 
+ * a tuple is returned as soon as its piece is found, without keeping the other pieces of the text.
  */
 public class RegexSplitOperator extends AbstractSingleInputOperator implements ISourceOperator{
 
     private RegexSplitPredicate predicate;
     Tuple currentTuple;
     
-    private List<Span> currentSentenceList = new ArrayList<Span>();
+    private CompiledRegex compiledRegex;
+    private SplitIterator currentSplitIterator;
 
     public RegexSplitOperator(RegexSplitPredicate predicate) {
         this.predicate = predicate;
@@ -75,7 +83,7 @@ public class RegexSplitOperator extends AbstractSingleInputOperator implements I
                     inputAttributeType));
         }
         
-
+        this.compiledRegex = RegexCache.getCompiledRegex(predicate.getRegex(), false, RegexEngine.JAVA);
     }
 
     @Override
@@ -90,11 +98,11 @@ public class RegexSplitOperator extends AbstractSingleInputOperator implements I
             outputFields.addAll(currentTuple.getFields());
             outputFields.add(new ListField<Span>(computeSentenceList(currentTuple)));
         } else if(predicate.getOutputType() == RegexOutputType.ONE_TO_MANY) {
-            if(currentSentenceList.isEmpty()) {
+            if(currentSplitIterator == null || ! currentSplitIterator.hasNext()) {
                 currentTuple = inputOperator.getNextTuple();
                 if (currentTuple == null) 
                     return null;
-                currentSentenceList = computeSentenceList(currentTuple);
+                currentSplitIterator = new SplitIterator(currentTuple);
             }
             
             //Add new ID for each new tuple created
@@ -106,10 +114,10 @@ public class RegexSplitOperator extends AbstractSingleInputOperator implements I
                 }
             }
             
-            //Add the sentences from the current sentence list one by one in the order in which
-            //they were generated in the getSentenceList function, append a TextField to the output 
+            //Add the sentences of the current tuple one by one in the order in which
+            //they are found by the split iterator, append a TextField to the output 
             // tuple and add the string contained in the current span
-            String tmpStr = currentSentenceList.remove(0).getValue();
+            String tmpStr = currentSplitIterator.next().getValue();
                     
             outputFields.add(new TextField(tmpStr));
         }
@@ -117,68 +125,103 @@ public class RegexSplitOperator extends AbstractSingleInputOperator implements I
     }
     
     private List<Span> computeSentenceList(Tuple inputTuple) {
-        String inputText = inputTuple.<IField>getField(predicate.getInputAttributeName()).getValue().toString();
         List<Span> textSpanList = new ArrayList<Span>();
+        SplitIterator splitIterator = new SplitIterator(inputTuple);
+        while (splitIterator.hasNext()) {
+            textSpanList.add(splitIterator.next());
+        }
+        return textSpanList;
+    }
+    
+    /*
+     * SplitIterator finds the pieces of the text of a tuple one by one.
+     * 
+     * The split points of the text are found from the regex matches in order, 
+     *   a piece is the text between two consecutive split points,
+     *   the first split point is 0 and the last one is the length of the text.
+     * A regex match has at most 2 split points (the start and the end in STANDALONE), 
+     *   only the split points of the current match are kept.
+     */
+    private class SplitIterator implements Iterator<Span> {
         
-        String attributeName = predicate.getInputAttributeName();
+        private final String attributeName;
+        private final String inputText;
+        private final CompiledRegex.Matcher regexMatcher;
         
-        //Create a pattern using regex.
-        Pattern pattern = Pattern.compile(predicate.getRegex());
+        // the split points of the current match which are not used yet
+        private final int[] pendingSplits = new int[2];
+        private int pendingStart = 0;
+        private int pendingEnd = 0;
         
-        // Match the pattern in the text.
-        Matcher regexMatcher = pattern.matcher(inputText);
-        List<Integer> splitIndex = new ArrayList<Integer>();
-        splitIndex.add(0);
-        int endSplit;
-        int startSplit;
-        while(regexMatcher.find()) {
-            if (predicate.getSplitType() == RegexSplitPredicate.SplitType.GROUP_RIGHT) {
-                endSplit = regexMatcher.start();
-                startSplit = endSplit;
-                if (startSplit != 0) {
-                    splitIndex.add(endSplit);
-                    splitIndex.add(startSplit);
-                }
-            } else if (predicate.getSplitType() == RegexSplitPredicate.SplitType.GROUP_LEFT) {
-                endSplit = regexMatcher.end();
-                startSplit = endSplit;
-                
-                splitIndex.add(endSplit);
-                splitIndex.add(startSplit);
-                
-            } else if (predicate.getSplitType() == RegexSplitPredicate.SplitType.STANDALONE) {
-                endSplit = regexMatcher.start();
-                startSplit = endSplit;
-                if (endSplit != 0) {
-                    splitIndex.add(endSplit);
-                    splitIndex.add(startSplit);
-                }
-                
-                endSplit = regexMatcher.end();
-                startSplit = endSplit;
-                if (endSplit < inputText.length() ) {
-                    splitIndex.add(endSplit); splitIndex.add(startSplit);
-                }
-            }
+        private boolean matcherFinished = false;
+        // the start of the next piece, -1 if all the pieces are returned
+        private int pieceStart = 0;
+        
+        SplitIterator(Tuple inputTuple) {
+            this.attributeName = predicate.getInputAttributeName();
+            this.inputText = inputTuple.<IField>getField(attributeName).getValue().toString();
+            this.regexMatcher = compiledRegex.matcher(inputText);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return pieceStart >= 0;
         }
-        splitIndex.add(inputText.length());
         
-        //Make span list
-        int startSpan = 0;
-        int endSpan = 0; 
-        String key=PropertyNameConstants.REGEX_SPLIT_KEY;
-        for (int i = 0 ; i < splitIndex.size() - 1; i++) {
-            if (splitIndex.get(i) <= splitIndex.get(i+1)) {
-                String textSpan = inputText.substring(splitIndex.get(i),splitIndex.get(i+1));
-                startSpan = splitIndex.get(i);
-                i++;
-                endSpan = startSpan + textSpan.length();
-                Span span = new Span(attributeName, startSpan, endSpan, key, textSpan);
-                textSpanList.add(span);
+        @Override
+        public Span next() {
+            if (! hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int pieceEnd = nextSplit();
+            Span span;
+            if (pieceEnd < 0) {
+                span = new Span(attributeName, pieceStart, inputText.length(), PropertyNameConstants.REGEX_SPLIT_KEY, 
+                        inputText.substring(pieceStart));
+                pieceStart = -1;
+            } else {
+                span = new Span(attributeName, pieceStart, pieceEnd, PropertyNameConstants.REGEX_SPLIT_KEY, 
+                        inputText.substring(pieceStart, pieceEnd));
+                pieceStart = pieceEnd;
             }
+            return span;
         }
         
-        return textSpanList;
+        /*
+         * Finds the next split point, returns -1 if there are no more regex matches.
+         */
+        private int nextSplit() {
+            while (pendingStart == pendingEnd && ! matcherFinished) {
+                pendingStart = 0;
+                pendingEnd = 0;
+                if (! regexMatcher.find()) {
+                    matcherFinished = true;
+                    break;
+                }
+                switch (predicate.getSplitType()) {
+                case GROUP_RIGHT:
+                    if (regexMatcher.start() != 0) {
+                        pendingSplits[pendingEnd++] = regexMatcher.start();
+                    }
+                    break;
+                case GROUP_LEFT:
+                    pendingSplits[pendingEnd++] = regexMatcher.end();
+                    break;
+                case STANDALONE:
+                    if (regexMatcher.start() != 0) {
+                        pendingSplits[pendingEnd++] = regexMatcher.start();
+                    }
+                    if (regexMatcher.end() < inputText.length()) {
+                        pendingSplits[pendingEnd++] = regexMatcher.end();
+                    }
+                    break;
+                }
+            }
+            if (pendingStart == pendingEnd) {
+                return -1;
+            }
+            return pendingSplits[pendingStart++];
+        }
     }
     
     @Override
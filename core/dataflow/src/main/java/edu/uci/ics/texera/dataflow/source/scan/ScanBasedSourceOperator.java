@@ -1,5 +1,7 @@
 package edu.uci.ics.texera.dataflow.source.scan;
 
+import java.util.Collection;
+
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
@@ -9,14 +11,15 @@ import edu.uci.ics.texera.api.tuple.Tuple;
 import org.apache.lucene.search.MatchAllDocsQuery;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
-import edu.uci.ics.texera.api.dataflow.ISourceOperator;
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.dataflow.common.IIndexAggregationSource;
 import edu.uci.ics.texera.storage.DataReader;
 import edu.uci.ics.texera.storage.RelationManager;
 
 /**
  * Created by chenli on 3/28/16.
  */
-public class ScanBasedSourceOperator implements ISourceOperator {
+public class ScanBasedSourceOperator implements IIndexAggregationSource {
 
     private DataReader dataReader;
     
@@ -28,6 +31,8 @@ public class ScanBasedSourceOperator implements ISourceOperator {
                     predicate.getTableName(), new MatchAllDocsQuery());
             // TODO add an option to set if payload is added in the future.
             this.dataReader.setPayloadAdded(true);
+            // the tuples are decoded ahead while the downstream operators process the previous ones
+            this.dataReader.setPrefetchSize(DataReader.DEFAULT_PREFETCH_SIZE);
         } catch (StorageException e) {
             throw new DataflowException(e);
         }
@@ -72,6 +77,31 @@ public class ScanBasedSourceOperator implements ISourceOperator {
         }
     }
 
+    /**
+     * Restricts the attributes read from the table to the attributes required by the downstream plan.
+     * The payload is only built if the "payload" attribute is required.
+     * 
+     * @param attributeNames, the names of the attributes required downstream
+     */
+    public void setProjectedAttributes(Collection<String> attributeNames) throws TexeraException {
+        if (isOpen) {
+            throw new DataflowException("Projected attributes can't be changed after the operator is opened.");
+        }
+        dataReader.setProjectedAttributes(attributeNames);
+        if (attributeNames != null && attributeNames.stream().noneMatch(
+                name -> name.equalsIgnoreCase(SchemaConstants.PAYLOAD))) {
+            dataReader.setPayloadAdded(false);
+        }
+    }
+
+    /**
+     * The results of the scan are all the tuples of the table.
+     */
+    @Override
+    public DataReader getIndexAggregationReader() {
+        return isOpen ? dataReader : null;
+    }
+
     @Override
     public Schema getOutputSchema() {
         return dataReader.getOutputSchema();
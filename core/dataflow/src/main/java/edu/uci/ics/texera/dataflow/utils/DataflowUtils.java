@@ -138,70 +138,6 @@ public class DataflowUtils {
         return payload;
     }
 
-
-    /**
-     * This function is used to generate the SpanList for phrase matching type in both dictionarymatcher and keywordmatcher.
-     * @param attributeName
-     * @param fieldValue
-     * @param queryKeyword
-     * @param fieldSpanList
-     * @param queryTokenListWithStopwords
-     * @param queryTokenList
-     * @return
-     */
-
-    public static List<Span> constructPhraseMatchingSpans(String attributeName, String fieldValue, String queryKeyword, List<Span> fieldSpanList, List<String> queryTokenListWithStopwords, List<String> queryTokenList){
-        List<Span> matchingResults = new ArrayList<>();
-        // Sort current field's span list by token offset for later use
-        Collections.sort(fieldSpanList, (span1, span2) -> span1.getTokenOffset() - span2.getTokenOffset());
-        List<Integer> queryTokenOffset = new ArrayList<>();
-        for (int i = 0; i < queryTokenListWithStopwords.size(); i++) {
-            if (queryTokenList.contains(queryTokenListWithStopwords.get(i))) {
-                queryTokenOffset.add(i);
-            }
-        }
-        int iter = 0; // maintains position of term being checked in
-        // spanForThisField list
-        while (iter < fieldSpanList.size()) {
-            if (iter > fieldSpanList.size() - queryTokenList.size()) {
-                break;
-            }
-
-            // Verify if span in the spanForThisField correspond to our
-            // phrase query, ie relative position offsets should be
-            // similar
-            // and the value should be same.
-            boolean isMismatchInSpan = false;// flag to check if a
-            // mismatch in spans occurs
-
-            // To check all the terms in query are verified
-            for (int i = 0; i < queryTokenList.size() - 1; i++) {
-                Span first = fieldSpanList.get(iter + i);
-                Span second = fieldSpanList.get(iter + i + 1);
-                if (!(second.getTokenOffset() - first.getTokenOffset() == queryTokenOffset.get(i + 1)
-                        - queryTokenOffset.get(i) && first.getValue().equalsIgnoreCase(queryTokenList.get(i))
-                        && second.getValue().equalsIgnoreCase(queryTokenList.get(i + 1)))) {
-                    iter++;
-                    isMismatchInSpan = true;
-                    break;
-                }
-            }
-            
-            if (isMismatchInSpan) {
-                continue;
-            }
-            
-            int combinedSpanStartIndex = fieldSpanList.get(iter).getStart();
-            int combinedSpanEndIndex = fieldSpanList.get(iter + queryTokenList.size() - 1).getEnd();
-
-            Span combinedSpan = new Span(attributeName, combinedSpanStartIndex, combinedSpanEndIndex, queryKeyword,
-                    fieldValue.substring(combinedSpanStartIndex, combinedSpanEndIndex));
-            matchingResults.add(combinedSpan);
-            iter = iter + queryTokenList.size();
-        }
-        return matchingResults;
-    }
-
     public static boolean isAllQueryTokensPresent(List<Span> fieldSpanList, Set<String> queryTokenSet) {
         Set<String> fieldSpanKeys = fieldSpanList.stream().map(span -> span.getKey()).collect(Collectors.toSet());
 
@@ -8,7 +8,9 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -94,19 +96,28 @@ public class WordCountIndexSource implements ISourceOperator {
             
             IndexReader luceneIndexReader = dataReader.getLuceneIndexReader();
             
-            for (int i = 0; i< luceneIndexReader.numDocs(); i++) {
-                Terms termVector = luceneIndexReader.getTermVector(i, predicate.getAttribute());
-                
-                TermsEnum termsEnum = termVector.iterator();
-                while(termsEnum.next() != null){
-                    String key = termsEnum.term().utf8ToString();
-                    wordCountMap.put(key, wordCountMap.get(key)==null ?
-                            ((int) termsEnum.totalTermFreq()) :
-                                wordCountMap.get(key) + ((int) termsEnum.totalTermFreq()));
+            FieldInfo fieldInfo = MultiFields.getMergedFieldInfos(luceneIndexReader).fieldInfo(predicate.getAttribute());
+            if (fieldInfo != null && ! fieldInfo.hasVectors()) {
+                // the table doesn't store term vectors, the counts are read from the terms dictionary instead
+                TermsEnum termsEnum = MultiFields.getTerms(luceneIndexReader, predicate.getAttribute()).iterator();
+                while (termsEnum.next() != null) {
+                    wordCountMap.put(termsEnum.term().utf8ToString(), (int) termsEnum.totalTermFreq());
+                }
+            } else {
+                for (int i = 0; i< luceneIndexReader.numDocs(); i++) {
+                    Terms termVector = luceneIndexReader.getTermVector(i, predicate.getAttribute());
+                    
+                    TermsEnum termsEnum = termVector.iterator();
+                    while(termsEnum.next() != null){
+                        String key = termsEnum.term().utf8ToString();
+                        wordCountMap.put(key, wordCountMap.get(key)==null ?
+                                ((int) termsEnum.totalTermFreq()) :
+                                    wordCountMap.get(key) + ((int) termsEnum.totalTermFreq()));
+                    }
                 }
             }
             
-            luceneIndexReader.close();
+            // the index reader is owned by the DataReader, and released when the DataReader is closed
             dataReader.close();
             
             sortedWordCountMap = wordCountMap.entrySet().stream()
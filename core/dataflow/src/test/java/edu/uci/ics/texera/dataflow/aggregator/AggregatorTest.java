@@ -24,6 +24,9 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.dataflow.comparablematcher.ComparableMatcherSourceOperator;
+import edu.uci.ics.texera.dataflow.comparablematcher.ComparableSourcePredicate;
+import edu.uci.ics.texera.dataflow.comparablematcher.ComparisonType;
 import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
 import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
 import edu.uci.ics.texera.storage.DataWriter;
@@ -395,6 +398,34 @@ public class AggregatorTest {
         Assert.assertTrue(TestUtils.equals(expectedResults, returnedResults));
     }
 
+    //TEST 13: Count, max in height column and min in age column over a comparable matcher source
+    @Test
+    public void testAggregationOverComparableSource() throws Exception {
+        List<AggregationAttributeAndResult> aggEntitiesList = new ArrayList<>();
+        aggEntitiesList.add(new AggregationAttributeAndResult(TestConstants.HEIGHT, AggregationType.COUNT,
+                AggregatorTestConstants.COUNT_HEIGHT_RESULT_ATTR_NAME));
+        aggEntitiesList.add(new AggregationAttributeAndResult(TestConstants.HEIGHT, AggregationType.MAX,
+                AggregatorTestConstants.MAX_HEIGHT_RESULT_ATTR_NAME));
+        aggEntitiesList.add(new AggregationAttributeAndResult(TestConstants.AGE, AggregationType.MIN,
+                AggregatorTestConstants.MIN_AGE_RESULT_ATTR_NAME));
+
+        IField[] row1 = {new IntegerField(4), new DoubleField(6.10), new IntegerField(42)};
+        Schema schema = new Schema(
+                new Attribute(AggregatorTestConstants.COUNT_HEIGHT_RESULT_ATTR_NAME, AttributeType.INTEGER),
+                new Attribute(AggregatorTestConstants.MAX_HEIGHT_RESULT_ATTR_NAME, AttributeType.DOUBLE),
+                new Attribute(AggregatorTestConstants.MIN_AGE_RESULT_ATTR_NAME, AttributeType.INTEGER));
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(new Tuple(schema, row1));
+
+        // the range query of "age <= 44" is exact, the aggregations are computed from the index
+        List<Tuple> returnedResults = getComparableSourceQueryResults(aggEntitiesList, ComparisonType.LESS_THAN_OR_EQUAL_TO, 44);
+        Assert.assertTrue(TestUtils.equals(expectedResults, returnedResults));
+
+        // the range query of "age < 44.5" is widened, the aggregations are computed from the tuples
+        returnedResults = getComparableSourceQueryResults(aggEntitiesList, ComparisonType.LESS_THAN, 44.5);
+        Assert.assertTrue(TestUtils.equals(expectedResults, returnedResults));
+    }
+
     @AfterClass
     public static void cleanUp() throws TexeraException {
         RelationManager relationManager = RelationManager.getInstance();
@@ -416,4 +447,20 @@ public class AggregatorTest {
         return returnedResults;
     }
 
+    private List<Tuple> getComparableSourceQueryResults(List<AggregationAttributeAndResult> aggregationItems,
+            ComparisonType comparisonType, Object compareToValue) {
+        Aggregator aggOperator = new Aggregator(new AggregatorPredicate(aggregationItems));
+        aggOperator.setInputOperator(new ComparableMatcherSourceOperator(
+                new ComparableSourcePredicate(TestConstants.AGE, comparisonType, compareToValue, PEOPLE_TABLE)));
+        aggOperator.open();
+
+        List<Tuple> returnedResults = new ArrayList<>();
+        Tuple nextTuple = null;
+        while ((nextTuple = aggOperator.getNextTuple()) != null) {
+            returnedResults.add(nextTuple);
+        }
+        aggOperator.close();
+        return returnedResults;
+    }
+
 }
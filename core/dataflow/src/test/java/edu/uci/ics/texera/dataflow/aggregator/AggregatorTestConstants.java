@@ -21,6 +21,8 @@ public class AggregatorTestConstants
     
     public static final String MAX_AGE_RESULT_ATTR_NAME = "Max_Age";
     
+    public static final String MIN_AGE_RESULT_ATTR_NAME = "Min_Age";
+    
     public static final String MIN_DATE_RESULT_ATTR_NAME = "Min_DOB";
     
     public static final String MAX_DATE_RESULT_ATTR_NAME = "Max_DOB";
@@ -19,6 +19,7 @@ import edu.uci.ics.texera.dataflow.aggregator.AggregationAttributeAndResult;
 import edu.uci.ics.texera.dataflow.aggregator.AggregationType;
 import edu.uci.ics.texera.dataflow.aggregator.AggregatorPredicate;
 import edu.uci.ics.texera.dataflow.comparablematcher.ComparablePredicate;
+import edu.uci.ics.texera.dataflow.comparablematcher.ComparableSourcePredicate;
 import edu.uci.ics.texera.dataflow.comparablematcher.ComparisonType;
 import edu.uci.ics.texera.dataflow.dictionarymatcher.Dictionary;
 import edu.uci.ics.texera.dataflow.dictionarymatcher.DictionaryPredicate;
@@ -28,9 +29,13 @@ import edu.uci.ics.texera.dataflow.fuzzytokenmatcher.FuzzyTokenSourcePredicate;
 import edu.uci.ics.texera.dataflow.join.JoinDistancePredicate;
 import edu.uci.ics.texera.dataflow.join.SimilarityJoinPredicate;
 import edu.uci.ics.texera.dataflow.common.JsonSchemaHelper;
+import edu.uci.ics.texera.dataflow.keywordmatcher.FuzzyKeywordPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.FuzzyKeywordSourcePredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordPredicate;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordSourcePredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.MultiKeywordPredicate;
+import edu.uci.ics.texera.dataflow.keywordmatcher.MultiKeywordSourcePredicate;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityPredicate;
 import edu.uci.ics.texera.dataflow.nlp.entity.NlpEntityType;
 import edu.uci.ics.texera.dataflow.nlp.sentiment.EmojiSentimentPredicate;
@@ -38,6 +43,7 @@ import edu.uci.ics.texera.dataflow.nlp.sentiment.NlpSentimentPredicate;
 import edu.uci.ics.texera.dataflow.nlp.splitter.NLPOutputType;
 import edu.uci.ics.texera.dataflow.nlp.splitter.NlpSplitPredicate;
 import edu.uci.ics.texera.dataflow.projection.ProjectionPredicate;
+import edu.uci.ics.texera.dataflow.regexmatcher.RegexEngine;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexSourcePredicate;
 import edu.uci.ics.texera.dataflow.regexsplit.RegexOutputType;
@@ -183,6 +189,37 @@ public class PredicateBaseTest {
         testPredicate(keywordSourcePredicate);
     }
     
+    @Test
+    public void testMultiKeyword() throws Exception {
+        List<KeywordPredicate> keywordPredicates = Arrays.asList(
+                new KeywordPredicate("keyword1", attributeNames, "standard", 
+                        KeywordMatchingType.CONJUNCTION_INDEXBASED, "keywordResults1"),
+                new KeywordPredicate("keyword2", attributeNames, "standard", 
+                        KeywordMatchingType.PHRASE_INDEXBASED, "keywordResults2"));
+        testPredicate(new MultiKeywordPredicate(keywordPredicates));
+        testPredicate(new MultiKeywordSourcePredicate(keywordPredicates, "tableName"));
+    }
+    
+    @Test
+    public void testFuzzyKeyword() throws Exception {
+        FuzzyKeywordPredicate fuzzyKeywordPredicate = new FuzzyKeywordPredicate(
+                "keyword",
+                attributeNames,
+                "standard",
+                1,
+                "fuzzyKeywordResults");
+        testPredicate(fuzzyKeywordPredicate);
+        
+        FuzzyKeywordSourcePredicate fuzzyKeywordSourcePredicate = new FuzzyKeywordSourcePredicate(
+                "keyword",
+                attributeNames,
+                "standard",
+                1,
+                "tableName",
+                "fuzzyKeywordSourceResults");
+        testPredicate(fuzzyKeywordSourcePredicate);
+    }
+    
     @Test
     public void testNlpEntity() throws Exception {
         NlpEntityPredicate nlpEntityPredicate = new NlpEntityPredicate(
@@ -220,6 +257,16 @@ public class PredicateBaseTest {
                 "tableName",
                 "spanListName");
         testPredicate(regexSourcePredicate);
+        
+        RegexSourcePredicate re2jRegexSourcePredicate = new RegexSourcePredicate(
+                "regex",
+                attributeNames,
+                true,
+                RegexEngine.RE2J,
+                "tableName",
+                true,
+                "spanListName");
+        testPredicate(re2jRegexSourcePredicate);
     }
     
     @Test
@@ -291,6 +338,11 @@ public class PredicateBaseTest {
         testPredicate(new ComparablePredicate("attr", ComparisonType.EQUAL_TO, 1));
     }
     
+    @Test
+    public void testComparableSource() throws Exception {
+        testPredicate(new ComparableSourcePredicate("attr", ComparisonType.GREATER_THAN, 1, "tableName"));
+    }
+    
     @Test
     public void testEmojiSentiment() throws Exception {
         testPredicate(new EmojiSentimentPredicate("inputAttr", "outputAttr"));
@@ -0,0 +1,198 @@
+package edu.uci.ics.texera.dataflow.comparablematcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstantsRegexSplit;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.storage.DataWriter;
+import edu.uci.ics.texera.storage.RelationManager;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * Tests that ComparableMatcherSourceOperator (index-based range search) 
+ *   returns the same results as ComparableMatcher.
+ */
+public class ComparableMatcherSourceOperatorTest {
+    
+    public static final String PEOPLE_TABLE = "comparable_source_test_people";
+    public static final String PEOPLE_TABLE_2 = "comparable_source_test_people_2";
+
+    @BeforeClass
+    public static void setUp() throws TexeraException {
+        RelationManager relationManager = RelationManager.getInstance();
+        
+        // create the people table and write tuples
+        relationManager.createTable(PEOPLE_TABLE, TestUtils.getDefaultTestIndex().resolve(PEOPLE_TABLE), 
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        DataWriter peopleDataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+        peopleDataWriter.open();
+        for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+            peopleDataWriter.insertTuple(tuple);
+        }
+        peopleDataWriter.close();
+        
+        // create the people table 2 (with a DATETIME attribute) and write tuples
+        relationManager.createTable(PEOPLE_TABLE_2, TestUtils.getDefaultTestIndex().resolve(PEOPLE_TABLE_2), 
+                TestConstantsRegexSplit.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        DataWriter people2DataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE_2);
+        people2DataWriter.open();
+        for (Tuple tuple : TestConstantsRegexSplit.constructSamplePeopleTuples()) {
+            people2DataWriter.insertTuple(tuple);
+        }
+        people2DataWriter.close();
+    }
+
+    @AfterClass
+    public static void cleanUp() throws TexeraException {
+        RelationManager relationManager = RelationManager.getInstance();
+        relationManager.deleteTable(PEOPLE_TABLE);
+        relationManager.deleteTable(PEOPLE_TABLE_2);
+    }
+    
+    public static List<Tuple> getQueryResults(String tableName, String attributeName, 
+            ComparisonType matchingType, Object compareToValue) throws TexeraException {
+        ComparableMatcherSourceOperator sourceOperator = new ComparableMatcherSourceOperator(
+                new ComparableSourcePredicate(attributeName, matchingType, compareToValue, tableName));
+        
+        List<Tuple> results = new ArrayList<>();
+        Tuple tuple;
+        sourceOperator.open();
+        while ((tuple = sourceOperator.getNextTuple()) != null) {
+            results.add(tuple);
+        }
+        sourceOperator.close();
+        return results;
+    }
+    
+    public static void assertResults(List<Tuple> expectedResults, List<Tuple> returnedResults) {
+        Assert.assertEquals(expectedResults.size(), returnedResults.size());
+        Assert.assertTrue(TestUtils.equals(expectedResults, returnedResults));
+    }
+    
+    @Test
+    public void testDoubleGreaterThan() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.HEIGHT, 
+                ComparisonType.GREATER_THAN, 6.05);
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(2));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(3));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testDoubleEqualTo() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.HEIGHT, 
+                ComparisonType.EQUAL_TO, "5.99");
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(4));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(5));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    /*
+     * An INTEGER attribute compared to a decimal number.
+     */
+    @Test
+    public void testIntegerLessThanDecimal() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.AGE, 
+                ComparisonType.LESS_THAN_OR_EQUAL_TO, 43.5);
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(3));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(4));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(5));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testIntegerGreaterThanOrEqualTo() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.AGE, 
+                ComparisonType.GREATER_THAN_OR_EQUAL_TO, 45);
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(0));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(1));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testDateGreaterThan() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.DATE_OF_BIRTH, 
+                ComparisonType.GREATER_THAN, "1973-01-13");
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(4));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(5));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testDateLessThanOrEqualTo() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.DATE_OF_BIRTH, 
+                ComparisonType.LESS_THAN_OR_EQUAL_TO, "1973-01-13");
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(0));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(1));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(2));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(3));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testDateNotEqualTo() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE, TestConstants.DATE_OF_BIRTH, 
+                ComparisonType.NOT_EQUAL_TO, "1973-01-13");
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(0));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(1));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(2));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(4));
+        expectedResults.add(TestConstants.getSamplePeopleTuples().get(5));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testDateTimeEqualTo() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE_2, TestConstants.DATE_OF_BIRTH, 
+                ComparisonType.EQUAL_TO, "1970-01-01T11:11:11");
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstantsRegexSplit.constructSamplePeopleTuples().get(0));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+    @Test
+    public void testDateTimeLessThan() throws Exception {
+        List<Tuple> returnedResults = getQueryResults(PEOPLE_TABLE_2, TestConstants.DATE_OF_BIRTH, 
+                ComparisonType.LESS_THAN, "1970-01-01T11:11:12");
+        
+        List<Tuple> expectedResults = new ArrayList<>();
+        expectedResults.add(TestConstantsRegexSplit.constructSamplePeopleTuples().get(0));
+        
+        assertResults(expectedResults, returnedResults);
+    }
+    
+}
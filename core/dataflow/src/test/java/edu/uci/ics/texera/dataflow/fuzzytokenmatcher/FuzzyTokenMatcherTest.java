@@ -4,7 +4,9 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import org.apache.lucene.search.BooleanQuery;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -371,4 +373,53 @@ public class FuzzyTokenMatcherTest {
         Assert.assertEquals(results.size(), 2);
         Assert.assertTrue(TestUtils.containsAll(expectedResultList, results));
     }
+    
+    /*
+     * The top k results are ordered by the number of matching tokens.
+     */
+    @Test
+    public void TestFuzzyTokenMatcherWithTopK() throws Exception {
+        String query = "short clooney angry";
+        double threshold = 0.3; // The ratio of tokens that need to be matched
+        ArrayList<String> attributeNames = new ArrayList<>();
+        attributeNames.add(TestConstants.DESCRIPTION);
+        
+        List<String> expectedDescriptions = Arrays.asList(
+                "Lin Clooney is Short and lin clooney is Angry", "Short angry");
+        
+        List<Tuple> scanResults = FuzzyTokenMatcherTestHelper.getScanSourceResults(
+                PEOPLE_TABLE, query, threshold, attributeNames, 2, Integer.MAX_VALUE, 0);
+        List<Tuple> sourceResults = FuzzyTokenMatcherTestHelper.getFuzzyTokenSourceResults(
+                PEOPLE_TABLE, query, threshold, attributeNames, 2, Integer.MAX_VALUE, 0);
+        
+        for (List<Tuple> results : Arrays.asList(scanResults, sourceResults)) {
+            Assert.assertEquals(expectedDescriptions, results.stream()
+                    .map(tuple -> tuple.getField(TestConstants.DESCRIPTION).getValue().toString())
+                    .collect(Collectors.toList()));
+            ListField<Span> spanListField = results.get(0).getField(RESULTS);
+            Assert.assertEquals(4, spanListField.getValue().size());
+        }
+    }
+    
+    /*
+     * A query with more tokens than the max clause count of a boolean query reads all the tuples of the table, 
+     *   the max clause count is not changed.
+     */
+    @Test
+    public void TestFuzzyTokenMatcherWithTooManyTokens() throws Exception {
+        StringBuilder queryBuilder = new StringBuilder("angry");
+        for (int i = 0; i < BooleanQuery.getMaxClauseCount(); i++) {
+            queryBuilder.append(" token" + i);
+        }
+        int maxClauseCount = BooleanQuery.getMaxClauseCount();
+        double threshold = 0.0; // The ratio of tokens that need to be matched
+        ArrayList<String> attributeNames = new ArrayList<>();
+        attributeNames.add(TestConstants.DESCRIPTION);
+        
+        List<Tuple> results = FuzzyTokenMatcherTestHelper.getQueryResults(
+                PEOPLE_TABLE, queryBuilder.toString(), threshold, attributeNames);
+        
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals(maxClauseCount, BooleanQuery.getMaxClauseCount());
+    }
 }
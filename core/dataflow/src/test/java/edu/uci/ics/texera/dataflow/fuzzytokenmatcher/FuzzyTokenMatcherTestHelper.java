@@ -103,10 +103,19 @@ public class FuzzyTokenMatcherTestHelper {
      */
     public static List<Tuple> getScanSourceResults(String tableName, String query, double threshold, List<String> attributeNames,
             int limit, int offset) throws TexeraException {
+        return getScanSourceResults(tableName, query, threshold, attributeNames, null, limit, offset);
+    }
+    
+    /*
+     * Gets the top k query results by scanning the table and passing the data into a FuzzyTokenMatcher.
+     */
+    public static List<Tuple> getScanSourceResults(String tableName, String query, double threshold, List<String> attributeNames,
+            Integer topK, int limit, int offset) throws TexeraException {
                 
         ScanBasedSourceOperator scanSource = new ScanBasedSourceOperator(new ScanSourcePredicate(tableName)); 
         FuzzyTokenPredicate fuzzyTokenPredicate = new FuzzyTokenPredicate(
-                query, attributeNames, RelationManager.getInstance().getTableAnalyzerString(tableName), threshold, RESULTS);
+                query, attributeNames, RelationManager.getInstance().getTableAnalyzerString(tableName), threshold, 
+                topK, RESULTS);
         FuzzyTokenMatcher fuzzyTokenMatcher = new FuzzyTokenMatcher(fuzzyTokenPredicate);
         
         fuzzyTokenMatcher.setLimit(limit);
@@ -131,10 +140,18 @@ public class FuzzyTokenMatcherTestHelper {
      */
     public static List<Tuple> getFuzzyTokenSourceResults(String tableName, String query, double threshold, List<String> attributeNames,
             int limit, int offset) throws TexeraException {
+        return getFuzzyTokenSourceResults(tableName, query, threshold, attributeNames, null, limit, offset);
+    }
+    
+    /*
+     * Gets the top k query results by using a FuzzyTokenMatcherSourceOperator
+     */
+    public static List<Tuple> getFuzzyTokenSourceResults(String tableName, String query, double threshold, List<String> attributeNames,
+            Integer topK, int limit, int offset) throws TexeraException {
         
         FuzzyTokenSourcePredicate fuzzyTokenSourcePredicate = new FuzzyTokenSourcePredicate(
                 query, attributeNames, RelationManager.getInstance().getTableAnalyzerString(tableName), 
-                threshold, tableName, RESULTS);
+                threshold, topK, tableName, RESULTS);
         
         FuzzyTokenMatcherSourceOperator fuzzyTokenSource = new FuzzyTokenMatcherSourceOperator(
                 fuzzyTokenSourcePredicate);
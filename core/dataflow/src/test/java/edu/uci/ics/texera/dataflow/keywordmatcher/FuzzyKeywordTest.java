@@ -0,0 +1,166 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
+import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
+import edu.uci.ics.texera.storage.RelationManager;
+
+public class FuzzyKeywordTest {
+
+    public static final String PEOPLE_TABLE = KeywordTestHelper.PEOPLE_TABLE;
+    public static final String RESULTS = KeywordTestHelper.RESULTS;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        KeywordTestHelper.writeTestTables();
+    }
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        KeywordTestHelper.deleteTestTables();
+    }
+
+    /**
+     * Verifies that a misspelled keyword matches the tokens within one edit,
+     *   and that the spans have the edit distance.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMisspelledKeyword() throws Exception {
+        List<Tuple> results = getResults(createFuzzyKeywordSource("cloony",
+                Arrays.asList(TestConstants.DESCRIPTION), 1));
+
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("Lin Clooney is Short and lin clooney is Angry",
+                results.get(0).getField(TestConstants.DESCRIPTION).getValue());
+
+        List<Span> spans = results.get(0).<ListField<Span>>getField(RESULTS).getValue();
+        Assert.assertEquals(2, spans.size());
+        Assert.assertEquals(Arrays.asList("Clooney", "clooney"),
+                spans.stream().map(span -> span.getValue()).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList(4, 29),
+                spans.stream().map(span -> span.getStart()).collect(Collectors.toList()));
+        for (Span span : spans) {
+            Assert.assertEquals("cloony~1", span.getKey());
+            Assert.assertEquals(1, FuzzyKeywordMatcher.getEditDistance(span));
+        }
+    }
+
+    /**
+     * Verifies that a transposition is one edit, and that every keyword must match in the field.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTranspositionConjunction() throws Exception {
+        List<Tuple> results = getResults(createFuzzyKeywordSource("angri shrot",
+                Arrays.asList(TestConstants.DESCRIPTION), 1));
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList("Lin Clooney is Short and lin clooney is Angry", "Short angry")),
+                results.stream().map(tuple -> tuple.getField(TestConstants.DESCRIPTION).getValue())
+                        .collect(Collectors.toSet()));
+        for (Tuple result : results) {
+            for (Span span : result.<ListField<Span>>getField(RESULTS).getValue()) {
+                Assert.assertEquals(1, FuzzyKeywordMatcher.getEditDistance(span));
+            }
+        }
+    }
+
+    /**
+     * Verifies that the keywords don't match any typos if the maximum edit distance is 0.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testZeroEditDistance() throws Exception {
+        Assert.assertTrue(getResults(createFuzzyKeywordSource("cloony",
+                Arrays.asList(TestConstants.DESCRIPTION), 0)).isEmpty());
+        Assert.assertEquals(1, getResults(createFuzzyKeywordSource("clooney",
+                Arrays.asList(TestConstants.DESCRIPTION), 0)).size());
+    }
+
+    /**
+     * Verifies that the results of the fuzzy keyword source, which only reads the tuples with the matching terms,
+     *   are the same as the results of the fuzzy keyword matcher on all the tuples.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testSourceAndMatcher() throws Exception {
+        List<String> attributeNames = Arrays.asList(TestConstants.DESCRIPTION);
+        for (String query : Arrays.asList("tal", "cloony angri", "brwn", "lin shrot")) {
+            FuzzyKeywordMatcher fuzzyKeywordMatcher = new FuzzyKeywordMatcher(new FuzzyKeywordPredicate(query,
+                    attributeNames, RelationManager.getInstance().getTableAnalyzerString(PEOPLE_TABLE), 2, RESULTS));
+            fuzzyKeywordMatcher.setInputOperator(new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE)));
+
+            Assert.assertEquals(getSpansByID(getResults(fuzzyKeywordMatcher)),
+                    getSpansByID(getResults(createFuzzyKeywordSource(query, attributeNames, 2))));
+        }
+    }
+
+    /**
+     * Verifies that the fuzzy keyword matcher only supports TEXT attributes.
+     */
+    @Test(expected = DataflowException.class)
+    public void testStringAttribute() throws Exception {
+        getResults(createFuzzyKeywordSource("lin", Arrays.asList(TestConstants.FIRST_NAME), 1));
+    }
+
+    /**
+     * Verifies that the maximum edit distance can't be larger than 2.
+     */
+    @Test(expected = TexeraException.class)
+    public void testInvalidEditDistance() throws Exception {
+        new FuzzyKeywordPredicate("cloony", Arrays.asList(TestConstants.DESCRIPTION), null, 3, RESULTS);
+    }
+
+    private static FuzzyKeywordMatcherSourceOperator createFuzzyKeywordSource(String query,
+            List<String> attributeNames, int maxEditDistance) throws TexeraException {
+        return new FuzzyKeywordMatcherSourceOperator(new FuzzyKeywordSourcePredicate(query, attributeNames,
+                RelationManager.getInstance().getTableAnalyzerString(PEOPLE_TABLE), maxEditDistance,
+                PEOPLE_TABLE, RESULTS));
+    }
+
+    private static Map<Object, List<Span>> getSpansByID(List<Tuple> results) {
+        Map<Object, List<Span>> spansByID = new HashMap<>();
+        for (Tuple result : results) {
+            spansByID.put(result.getField(SchemaConstants._ID).getValue(),
+                    result.<ListField<Span>>getField(RESULTS).getValue());
+        }
+        return spansByID;
+    }
+
+    private static List<Tuple> getResults(IOperator operator) throws TexeraException {
+        List<Tuple> results = new ArrayList<>();
+        Tuple tuple;
+        operator.open();
+        while ((tuple = operator.getNextTuple()) != null) {
+            results.add(tuple);
+        }
+        operator.close();
+        return results;
+    }
+
+}
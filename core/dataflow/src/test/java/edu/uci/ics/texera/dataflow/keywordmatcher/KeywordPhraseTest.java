@@ -2,6 +2,7 @@ package edu.uci.ics.texera.dataflow.keywordmatcher;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.AfterClass;
@@ -23,6 +24,8 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 /**
  * @author Prakul
@@ -398,4 +401,33 @@ public class KeywordPhraseTest {
         Assert.assertTrue(contains);
     }
 
+    /**
+     * Verifies the phrase matcher with repeated tokens, partial matches and stopwords in the phrase.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testPhraseMatcher() throws Exception {
+        String analyzerString = LuceneAnalyzerConstants.standardAnalyzerString();
+        String text = "new new new york and new york";
+        List<Span> payload = DataflowUtils.generatePayload(TestConstants.DESCRIPTION, text,
+                LuceneAnalyzerConstants.getLuceneAnalyzer(analyzerString));
+
+        List<String> phrases = Arrays.asList("new new york", "york and new", "new york", "york new");
+        List<List<Span>> expectedResults = Arrays.asList(
+                Arrays.asList(new Span(TestConstants.DESCRIPTION, 4, 16, "new new york", "new new york")),
+                Arrays.asList(new Span(TestConstants.DESCRIPTION, 12, 24, "york and new", "york and new")),
+                Arrays.asList(new Span(TestConstants.DESCRIPTION, 8, 16, "new york", "new york"),
+                        new Span(TestConstants.DESCRIPTION, 21, 29, "new york", "new york")),
+                Arrays.asList());
+
+        for (int i = 0; i < phrases.size(); i++) {
+            PhraseMatcher phraseMatcher = new PhraseMatcher(phrases.get(i),
+                    DataflowUtils.tokenizeQuery(analyzerString, phrases.get(i)),
+                    DataflowUtils.tokenizeQueryWithStopwords(analyzerString, phrases.get(i)));
+            Assert.assertEquals(expectedResults.get(i),
+                    phraseMatcher.computeMatchingSpans(TestConstants.DESCRIPTION, text, payload));
+        }
+    }
+
 }
@@ -2,6 +2,8 @@ package edu.uci.ics.texera.dataflow.keywordmatcher;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.AfterClass;
@@ -23,6 +25,7 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.storage.RelationManager;
 
 /**
  * @author ZhenfengQi
@@ -200,4 +203,52 @@ public class KeywordSubstringTest {
         Assert.assertTrue(contains);
     }
 
+    /**
+     * Verifies that the Substring Matcher source operator on a table with a companion trigram index
+     * returns the same results as the scan.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testSubstringWithGramIndex() throws Exception {
+        List<String> attributeNames = Arrays.asList(TestConstants.DESCRIPTION);
+        
+        RelationManager.getInstance().setTableGramAttributes(PEOPLE_TABLE, attributeNames);
+        try {
+            for (String query : Arrays.asList("lin clooney", "Short and LIN", "is", "brad and angelina")) {
+                List<Tuple> expectedResultList = KeywordTestHelper.getScanSourceResults(
+                        PEOPLE_TABLE, query, attributeNames, substring, Integer.MAX_VALUE, 0);
+                List<Tuple> resultList = KeywordTestHelper.getKeywordSourceResults(
+                        PEOPLE_TABLE, query, attributeNames, substring, Integer.MAX_VALUE, 0);
+                Assert.assertTrue(TestUtils.equals(expectedResultList, resultList));
+            }
+        } finally {
+            RelationManager.getInstance().setTableGramAttributes(PEOPLE_TABLE, Collections.emptyList());
+        }
+    }
+
+    
+    /**
+     * Verifies that the case-insensitive substring searcher finds the overlapping occurrences,
+     * and folds the case of non-ASCII characters without depending on the locale.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCaseInsensitiveSubstringSearcher() throws Exception {
+        CaseInsensitiveSubstringSearcher searcher = new CaseInsensitiveSubstringSearcher("ana");
+        String text = "BANANA and Ana";
+        List<Integer> occurrences = new ArrayList<>();
+        for (int index = searcher.indexOf(text, 0); index != -1; index = searcher.indexOf(text, index + 1)) {
+            occurrences.add(index);
+        }
+        Assert.assertEquals(Arrays.asList(1, 3, 11), occurrences);
+        
+        // the Kelvin sign and the final sigma are folded to 'k' and 'σ'
+        searcher = new CaseInsensitiveSubstringSearcher("KΣ");
+        Assert.assertEquals(2, searcher.indexOf("a \u212Aς b", 0));
+        Assert.assertEquals(-1, searcher.indexOf("a \u212Aς b", 3));
+        Assert.assertEquals(-1, new CaseInsensitiveSubstringSearcher("longer than text").indexOf("short", 0));
+    }
+
 }
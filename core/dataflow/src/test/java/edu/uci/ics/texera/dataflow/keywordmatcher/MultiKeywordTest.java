@@ -0,0 +1,143 @@
+package edu.uci.ics.texera.dataflow.keywordmatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
+import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
+import edu.uci.ics.texera.storage.RelationManager;
+
+public class MultiKeywordTest {
+
+    public static final String PEOPLE_TABLE = KeywordTestHelper.PEOPLE_TABLE;
+    public static final String RESULTS = KeywordTestHelper.RESULTS;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        KeywordTestHelper.writeTestTables();
+    }
+
+    @AfterClass
+    public static void cleanUp() throws Exception {
+        KeywordTestHelper.deleteTestTables();
+    }
+
+    /*
+     * The keyword predicates used by the tests, the span list names are "results0", "results1", ...
+     */
+    private static List<KeywordPredicate> getKeywordPredicates() throws TexeraException {
+        String analyzerString = RelationManager.getInstance().getTableAnalyzerString(PEOPLE_TABLE);
+        List<String> attributeNames = Arrays.asList(TestConstants.FIRST_NAME, TestConstants.LAST_NAME,
+                TestConstants.DESCRIPTION);
+        return Arrays.asList(
+                new KeywordPredicate("lin", attributeNames, analyzerString,
+                        KeywordMatchingType.CONJUNCTION_INDEXBASED, "results0"),
+                new KeywordPredicate("short and lin", attributeNames, analyzerString,
+                        KeywordMatchingType.PHRASE_INDEXBASED, "results1"),
+                new KeywordPredicate("tall", attributeNames, analyzerString,
+                        KeywordMatchingType.CONJUNCTION_INDEXBASED, "results2"),
+                new KeywordPredicate("ort", attributeNames, analyzerString,
+                        KeywordMatchingType.SUBSTRING_SCANBASED, "results3"));
+    }
+
+    /**
+     * Verifies that the spans of each keyword predicate in the results of the multi-keyword source
+     * are the same as the results of the keyword source of the predicate.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMultiKeywordSource() throws Exception {
+        List<KeywordPredicate> keywordPredicates = getKeywordPredicates();
+        MultiKeywordMatcherSourceOperator multiKeywordSource = new MultiKeywordMatcherSourceOperator(
+                new MultiKeywordSourcePredicate(keywordPredicates, PEOPLE_TABLE));
+
+        checkResults(keywordPredicates, getResults(multiKeywordSource));
+    }
+
+    /**
+     * Verifies that the multi-keyword matcher builds the payload itself if the input doesn't have it.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMultiKeywordMatcher() throws Exception {
+        List<KeywordPredicate> keywordPredicates = getKeywordPredicates();
+        MultiKeywordMatcher multiKeywordMatcher = new MultiKeywordMatcher(new MultiKeywordPredicate(keywordPredicates));
+        multiKeywordMatcher.setInputOperator(new ScanBasedSourceOperator(new ScanSourcePredicate(PEOPLE_TABLE)));
+
+        checkResults(keywordPredicates, getResults(multiKeywordMatcher));
+    }
+
+    /**
+     * Verifies that the span list names of the keyword predicates must be different.
+     */
+    @Test(expected = TexeraException.class)
+    public void testDuplicateSpanListNames() throws Exception {
+        List<KeywordPredicate> keywordPredicates = new ArrayList<>(getKeywordPredicates());
+        keywordPredicates.add(getKeywordPredicates().get(0));
+        new MultiKeywordPredicate(keywordPredicates);
+    }
+
+    private static List<Tuple> getResults(IOperator operator) throws TexeraException {
+        List<Tuple> results = new ArrayList<>();
+        Tuple tuple;
+        operator.open();
+        while ((tuple = operator.getNextTuple()) != null) {
+            results.add(tuple);
+        }
+        operator.close();
+        return results;
+    }
+
+    /*
+     * Checks that each tuple matches at least one predicate, and that the spans of each predicate
+     *   are the same as the results of a keyword source with the predicate.
+     */
+    private static void checkResults(List<KeywordPredicate> keywordPredicates, List<Tuple> results)
+            throws TexeraException {
+        Map<Object, Tuple> resultsByID = new HashMap<>();
+        for (Tuple result : results) {
+            resultsByID.put(result.getField(SchemaConstants._ID).getValue(), result);
+            Assert.assertTrue(keywordPredicates.stream().anyMatch(keywordPredicate ->
+                    ! result.<ListField<Span>>getField(keywordPredicate.getSpanListName()).getValue().isEmpty()));
+        }
+
+        for (KeywordPredicate keywordPredicate : keywordPredicates) {
+            List<Tuple> expectedResults = KeywordTestHelper.getKeywordSourceResults(PEOPLE_TABLE,
+                    keywordPredicate.getQuery(), keywordPredicate.getAttributeNames(),
+                    keywordPredicate.getMatchingType(), Integer.MAX_VALUE, 0);
+            int numMatchingResults = 0;
+            for (Tuple result : results) {
+                if (! result.<ListField<Span>>getField(keywordPredicate.getSpanListName()).getValue().isEmpty()) {
+                    numMatchingResults++;
+                }
+            }
+            Assert.assertEquals(expectedResults.size(), numMatchingResults);
+            for (Tuple expectedResult : expectedResults) {
+                Tuple result = resultsByID.get(expectedResult.getField(SchemaConstants._ID).getValue());
+                Assert.assertNotNull(result);
+                Assert.assertEquals(
+                        new HashSet<>(expectedResult.<ListField<Span>>getField(RESULTS).getValue()),
+                        new HashSet<>(result.<ListField<Span>>getField(keywordPredicate.getSpanListName()).getValue()));
+            }
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package edu.uci.ics.texera.dataflow.regexmatcher;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.AfterClass;
@@ -10,6 +11,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.IField;
 import edu.uci.ics.texera.api.field.ListField;
@@ -18,6 +20,9 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
+import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
+import edu.uci.ics.texera.storage.RelationManager;
 
 /**
  * Unit tests for RegexMatcher. Integration tests with RegexToGramTranslator.
@@ -391,6 +396,227 @@ public class RegexMatcherTest {
         Assert.assertEquals(exactResultsWithLimitOffset.size(), 2);
     }
 
+    /**
+     * Verifies that the re2j engine finds the same results as the java engine.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testRe2jEngine() throws Exception {
+        List<String> regexes = Arrays.asList("test(er|ing|ed|s)?", "\\b[a-z]+ing\\b", "(?i)T[a-z]+");
+        for (String regex : regexes) {
+            for (boolean ignoreCase : Arrays.asList(false, true)) {
+                List<Tuple> javaResults = getScanResults(TEXT_TABLE, regex, ignoreCase, RegexEngine.JAVA);
+                List<Tuple> re2jResults = getScanResults(TEXT_TABLE, regex, ignoreCase, RegexEngine.RE2J);
+                Assert.assertFalse(javaResults.isEmpty());
+                Assert.assertTrue(TestUtils.equals(javaResults, re2jResults));
+            }
+        }
+    }
+    
+    /**
+     * Verifies that a regex not supported by re2j (a back reference) can't be used with the re2j engine.
+     * 
+     * @throws Exception
+     */
+    @Test(expected = DataflowException.class)
+    public void testRe2jEngineUnsupportedRegex() throws Exception {
+        getScanResults(TEXT_TABLE, "(te)\\1", false, RegexEngine.RE2J);
+    }
+
+    /**
+     * Verifies that an invalid regex can't be used with the java engine.
+     *
+     * @throws Exception
+     */
+    @Test(expected = DataflowException.class)
+    public void testJavaEngineInvalidRegex() throws Exception {
+        getScanResults(TEXT_TABLE, "(test", false, RegexEngine.JAVA);
+    }
+
+    /**
+     * Verifies that the matcher of both engines can be limited to a region, with the offsets in the whole text,
+     *   and that only the java engine sees the characters outside the region.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCompiledRegexRegion() throws Exception {
+        String text = "tested test testing";
+        for (RegexEngine regexEngine : Arrays.asList(RegexEngine.JAVA, RegexEngine.RE2J)) {
+            CompiledRegex.Matcher matcher = RegexCache.getCompiledRegex("test[a-z]*", false, regexEngine).matcher(text);
+            matcher.region(7, 19);
+            Assert.assertTrue(matcher.find());
+            Assert.assertEquals(7, matcher.start());
+            Assert.assertEquals(11, matcher.end());
+            Assert.assertTrue(matcher.find());
+            Assert.assertEquals(12, matcher.start());
+            Assert.assertEquals(19, matcher.end());
+            Assert.assertFalse(matcher.find());
+            // finding from an index resets the region
+            Assert.assertTrue(matcher.find(0));
+            Assert.assertEquals(0, matcher.start());
+        }
+        
+        Assert.assertTrue(RegexCache.getCompiledRegex("\\btest\\b", false, RegexEngine.JAVA).supportsRegions());
+        Assert.assertFalse(RegexCache.getCompiledRegex("\\btest\\b", false, RegexEngine.RE2J).supportsRegions());
+        CompiledRegex.Matcher javaMatcher = RegexCache.getCompiledRegex("\\btest", false, RegexEngine.JAVA).matcher(text);
+        javaMatcher.region(2, 19);
+        Assert.assertTrue(javaMatcher.find());
+        Assert.assertEquals(7, javaMatcher.start());
+    }
+    
+    /**
+     * Verifies that the compiled regexes and the gram queries are cached.
+     */
+    @Test
+    public void testRegexCache() {
+        String regex = "test(er|ing|ed|s)?";
+        Assert.assertSame(RegexCache.getCompiledRegex(regex, false, RegexEngine.JAVA), 
+                RegexCache.getCompiledRegex(regex, false, RegexEngine.JAVA));
+        Assert.assertNotSame(RegexCache.getCompiledRegex(regex, false, RegexEngine.JAVA), 
+                RegexCache.getCompiledRegex(regex, true, RegexEngine.JAVA));
+        Assert.assertNotSame(RegexCache.getCompiledRegex(regex, false, RegexEngine.JAVA), 
+                RegexCache.getCompiledRegex(regex, false, RegexEngine.RE2J));
+        
+        Assert.assertSame(RegexCache.getGramQuery(regex), RegexCache.getGramQuery(regex));
+        Assert.assertEquals(RegexToGramQueryTranslator.translate(regex), RegexCache.getGramQuery(regex));
+    }
+    
+    /**
+     * Verifies that the prefilter only drops the texts without the literals required by the regex.
+     */
+    @Test
+    public void testRegexPrefilter() {
+        RegexPrefilter prefilter = new RegexPrefilter("\\d+ mg of aspirin", RegexEngine.JAVA);
+        Assert.assertTrue(prefilter.isEnabled());
+        Assert.assertTrue(prefilter.mayMatch("take 200 mg of aspirin daily"));
+        Assert.assertTrue(prefilter.mayMatch("TAKE 200 MG OF ASPIRIN DAILY"));
+        Assert.assertFalse(prefilter.mayMatch("take 200 mg of ibuprofen daily"));
+        
+        prefilter = new RegexPrefilter("(aspirin|ibuprofen) tablets?", RegexEngine.RE2J);
+        Assert.assertTrue(prefilter.mayMatch("two ibuprofen tablets"));
+        Assert.assertFalse(prefilter.mayMatch("two ibuprofen capsules"));
+        Assert.assertFalse(prefilter.mayMatch("two tablets"));
+        
+        // an alternative without literals doesn't require the literals of the other alternatives
+        prefilter = new RegexPrefilter("foo(aspirin|x)bar", RegexEngine.JAVA);
+        Assert.assertTrue(prefilter.mayMatch("a fooxbar"));
+        Assert.assertFalse(prefilter.mayMatch("a foo bar"));
+        
+        // the regexes without required literals, or not supported by RE2, are not filtered
+        Assert.assertFalse(new RegexPrefilter("[a-z]+", RegexEngine.JAVA).isEnabled());
+        Assert.assertFalse(new RegexPrefilter("(?<=mg )aspirin", RegexEngine.JAVA).isEnabled());
+        Assert.assertFalse(new RegexPrefilter("(asp)irin\\1", RegexEngine.JAVA).isEnabled());
+        
+        // the regexes with the syntax only supported by java are not filtered for the java engine
+        for (String regex : Arrays.asList("[a-z&&[^aeiou]]+ing", "(?>aspirin)s", "aspirin++s", "aspirin?+s", 
+                "aspirin{1,2}+s", "\\p{javaLowerCase}+aspirin")) {
+            Assert.assertFalse(new RegexPrefilter(regex, RegexEngine.JAVA).isEnabled());
+        }
+        Assert.assertTrue(new RegexPrefilter("[a-z&&[^aeiou]]+ing", RegexEngine.JAVA)
+                .mayMatch("testing"));
+    }
+    
+    /**
+     * Verifies that the regex source on a table with a trigram index, which only matches the regex 
+     * in the regions around the grams found in the index, has the same results as the scan.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testRegexWithGramIndex() throws Exception {
+        List<String> attributeNames = Arrays.asList(RegexTestConstantsText.CONTENT);
+        
+        RelationManager.getInstance().setTableGramAttributes(TEXT_TABLE, attributeNames);
+        try {
+            for (String regex : Arrays.asList("test(er|ing|ed|s)?", "\\bt[a-z]{1,3}ing\\b", "tes.*ing", "[a-z]+ing")) {
+                List<Tuple> expectedResults = RegexMatcherTestHelper.getScanSourceResults(
+                        TEXT_TABLE, regex, attributeNames, Integer.MAX_VALUE, 0);
+                List<Tuple> results = RegexMatcherTestHelper.getRegexSourceResults(
+                        TEXT_TABLE, regex, attributeNames, Integer.MAX_VALUE, 0);
+                Assert.assertFalse(expectedResults.isEmpty());
+                Assert.assertTrue(TestUtils.equals(expectedResults, results));
+            }
+        } finally {
+            RelationManager.getInstance().setTableGramAttributes(TEXT_TABLE, Collections.emptyList());
+        }
+    }
+    
+    /**
+     * Verifies that the candidate regions are computed only for the regexes with bounded matches 
+     * which always contain a gram.
+     */
+    @Test
+    public void testRegexCandidateRegions() {
+        RegexPrefilter prefilter = new RegexPrefilter("(aspirin|ibuprofen) tablets?", RegexEngine.JAVA);
+        Assert.assertTrue(prefilter.isRegionEnabled());
+        // the longest match "ibuprofen tablets" has 17 runes, at most 34 chars
+        List<Span> gramSpans = Arrays.asList(new Span("content", 110, 113, "asp", "asp"), 
+                new Span("content", 10, 13, "tab", "tab"), new Span("content", 40, 43, "ibu", "ibu"));
+        List<int[]> regions = prefilter.computeCandidateRegions(gramSpans, 120);
+        Assert.assertEquals(2, regions.size());
+        Assert.assertArrayEquals(new int[] {0, 74}, regions.get(0));
+        Assert.assertArrayEquals(new int[] {76, 120}, regions.get(1));
+        
+        Assert.assertFalse(new RegexPrefilter("\\d+ mg of aspirin", RegexEngine.JAVA).isRegionEnabled());
+        Assert.assertFalse(new RegexPrefilter("aspirin|\\d", RegexEngine.JAVA).isRegionEnabled());
+        Assert.assertFalse(new RegexPrefilter("(?<=mg )aspirin", RegexEngine.JAVA).isRegionEnabled());
+    }
+
+    /**
+     * Verifies that the prefilter doesn't drop the texts matching a regex with the negated classes
+     *   \D, \S and \W, which are not the same as \d, \s and \w in lower case.
+     */
+    @Test
+    public void testRegexPrefilterNegatedClasses() {
+        String text = "order xab123 shipped";
+        for (String regex : Arrays.asList("\\Dab1", "\\Sab1", "[\\D]ab1", "\\Wxab")) {
+            for (RegexEngine regexEngine : Arrays.asList(RegexEngine.JAVA, RegexEngine.RE2J)) {
+                Assert.assertTrue(RegexCache.getCompiledRegex(regex, false, regexEngine).matcher(text).find());
+                Assert.assertTrue(new RegexPrefilter(regex, regexEngine).mayMatch(text));
+            }
+        }
+        Assert.assertTrue(new RegexPrefilter("[\\D]ab", RegexEngine.JAVA).mayMatch("xab"));
+        Assert.assertTrue(new RegexPrefilter("\\DAB1", RegexEngine.JAVA).mayMatch(text));
+    }
+
+    /**
+     * Verifies that the candidate regions around the grams of a regex with a negated class
+     *   contain the match of the regex.
+     */
+    @Test
+    public void testRegexCandidateRegionsNegatedClass() {
+        String text = "order xab123 shipped";
+        String regex = "\\Dab12";
+        // the negated class \D matches any character but a digit, so only the literal "ab12" has grams
+        Assert.assertEquals(RegexCache.getGramQuery("ab12"), RegexCache.getGramQuery(regex));
+
+        RegexPrefilter prefilter = new RegexPrefilter(regex, RegexEngine.JAVA);
+        Assert.assertTrue(prefilter.isRegionEnabled());
+        List<Span> gramSpans = Arrays.asList(new Span("content", 7, 10, "ab1", "ab1"),
+                new Span("content", 8, 11, "b12", "b12"));
+        List<int[]> regions = prefilter.computeCandidateRegions(gramSpans, text.length());
+        Assert.assertEquals(1, regions.size());
+        Assert.assertTrue(regions.get(0)[0] <= 6 && regions.get(0)[1] >= 11);
+    }
+
+    private static List<Tuple> getScanResults(String tableName, String regex, boolean ignoreCase, 
+            RegexEngine regexEngine) throws TexeraException {
+        RegexMatcher regexMatcher = new RegexMatcher(new RegexPredicate(regex, 
+                Arrays.asList(RegexTestConstantsText.CONTENT), ignoreCase, regexEngine, RESULTS));
+        regexMatcher.setInputOperator(new ScanBasedSourceOperator(new ScanSourcePredicate(tableName)));
+        
+        List<Tuple> results = new ArrayList<>();
+        Tuple tuple;
+        regexMatcher.open();
+        while ((tuple = regexMatcher.getNextTuple()) != null) {
+            results.add(tuple);
+        }
+        regexMatcher.close();
+        return results;
+    }
+
     // @Test
     // public void testRegexWithLimitProblem() throws Exception {
     // List<ITuple> data = RegexTestConstantsText.getSampleTextTuples();
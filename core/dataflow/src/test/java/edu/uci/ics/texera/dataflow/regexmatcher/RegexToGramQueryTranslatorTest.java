@@ -319,6 +319,23 @@ public class RegexToGramQueryTranslatorTest {
         Assert.assertEquals(exactQuery, expectedQuery);
     }
 
+    /*
+     * An alternative without any gram matches everything, so does the alternation.
+     */
+    @Test
+    public void testAlternateWithShortLiteral() {
+        String regex = "aspirin|x";
+
+        GramBooleanQuery exactQuery = RegexToGramQueryTranslator.translate(regex);
+
+        GramBooleanQuery expectedQuery = new GramBooleanQuery(GramBooleanQuery.QueryOp.OR);
+
+        printTranslatorResult(regex);
+
+        Assert.assertEquals(expectedQuery, exactQuery);
+        Assert.assertEquals(exactQuery, expectedQuery);
+    }
+
     @Test
     public void testRegexCropUrl() {
         String regex = "^(https?:\\/\\/)?([\\da-z\\.-]+)\\.([a-z\\.]{2,6})([\\/\\w \\.-]*)*\\/?$";
@@ -167,6 +167,32 @@ public class LabeledRegexMatcherTest {
         Assert.assertTrue(TestUtils.attributeEquals(expectedResults, exactResults, attributeNames));
     }
 
+    /**
+     * Verifies that the regex fragments between the labels and after the last label
+     *   are matched at the positions of the label spans.
+     */
+    @Test
+    public void testQualifiersBetweenLabels() throws Exception {
+        String query = "<lab2>\\s+is\\s+<lab1>\\s\\w+";
+        List<Tuple> exactResults = RegexMatcherTestHelper.getQueryResults(
+                PEOPLE_TABLE, query, "short", Arrays.asList(TestConstants.DESCRIPTION), "lab1", false, Integer.MAX_VALUE, 0, "Clooney", "lab2");
+        List<Tuple> expectedResults = new ArrayList<>();
+
+        // expected to match "Clooney is Short and"
+        List<Tuple> data = TestConstants.getSamplePeopleTuples();
+        Schema spanSchema = new Schema.Builder().add(TestConstants.SCHEMA_PEOPLE).add(RESULTS, AttributeType.LIST).build();
+        List<Span> spans = new ArrayList<>();
+        spans.add(new Span(TestConstants.DESCRIPTION, 4, 24, query, "Clooney is Short and"));
+        IField spanField = new ListField<>(new ArrayList<>(spans));
+        List<IField> fields = new ArrayList<>(data.get(3).getFields());
+        fields.add(spanField);
+        expectedResults.add(new Tuple(spanSchema, fields.toArray(new IField[fields.size()])));
+
+        List<String> attributeNames = new ArrayList<>();
+        attributeNames.add(RESULTS);
+        Assert.assertTrue(TestUtils.attributeEquals(expectedResults, exactResults, attributeNames));
+    }
+
     @Test
     public void testQueryWithoutQualifiersLabeledRegex1() throws Exception{
         String query = "<lab1> <lab2>";
@@ -230,5 +256,33 @@ public class LabeledRegexMatcherTest {
         attributeNames.add(RESULTS);
         Assert.assertTrue(TestUtils.attributeEquals(expectedResults, exactResults, attributeNames));
     }
+    
+    /**
+     * Verifies that a regex before the first label, whose matches have a bounded length,
+     *   is matched ending at the start of each span of the label.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testBoundedRegexBeforeFirstLabel() throws Exception {
+        String query = "[Ll]in <lab2> is <lab1>";
+        List<Tuple> exactResults = RegexMatcherTestHelper.getQueryResults(
+                PEOPLE_TABLE, query, "short", Arrays.asList(TestConstants.DESCRIPTION), "lab1", false, Integer.MAX_VALUE, 0, "Clooney", "lab2");
+        List<Tuple> expectedResults = new ArrayList<>();
+
+        // expected to match "Lin Clooney is Short"
+        List<Tuple> data = TestConstants.getSamplePeopleTuples();
+        Schema spanSchema = new Schema.Builder().add(TestConstants.SCHEMA_PEOPLE).add(RESULTS, AttributeType.LIST).build();
+        List<Span> spans = new ArrayList<>();
+        spans.add(new Span(TestConstants.DESCRIPTION, 0, 20, query, "Lin Clooney is Short"));
+        IField spanField = new ListField<>(new ArrayList<>(spans));
+        List<IField> fields = new ArrayList<>(data.get(3).getFields());
+        fields.add(spanField);
+        expectedResults.add(new Tuple(spanSchema, fields.toArray(new IField[fields.size()])));
+
+        List<String> attributeNames = new ArrayList<>();
+        attributeNames.add(RESULTS);
+        Assert.assertTrue(TestUtils.attributeEquals(expectedResults, exactResults, attributeNames));
+    }
 
 }
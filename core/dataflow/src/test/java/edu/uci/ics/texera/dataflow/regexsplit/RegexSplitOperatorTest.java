@@ -459,4 +459,35 @@ public class RegexSplitOperatorTest {
         }
         scanSource.close();
     }
+    
+    /*
+     * To test if the pieces returned one by one in ONE_TO_MANY are the same as the span list in ONE_TO_ONE,
+     *   including the empty pieces of the matches at the start or the end of the text.
+     */
+    @Test
+    public void test10() throws TexeraException {
+        String splitRegex = "a|ppi";
+        String splitAttrName = TestConstantsRegexSplit.DESCRIPTION;
+        
+        for (RegexSplitPredicate.SplitType splitType : RegexSplitPredicate.SplitType.values()) {
+            List<String> oneToManyStrings = computeRegexSplitResultsOneToMany(REGEX_TABLE, splitAttrName, 
+                    splitRegex, splitType).stream()
+                    .map(tuple -> tuple.getField(RESULT_ATTR).getValue().toString())
+                    .collect(Collectors.toList());
+            List<String> oneToOneStrings = computeRegexSplitResultsOnetoOne(REGEX_TABLE, splitAttrName, 
+                    splitRegex, splitType).stream()
+                    .flatMap(tuple -> getTupleSpanListString(tuple, RESULT_ATTR).stream())
+                    .collect(Collectors.toList());
+            Assert.assertEquals(oneToOneStrings, oneToManyStrings);
+        }
+    }
+    
+    /*
+     * An invalid regex is reported when the operator is opened.
+     */
+    @Test(expected = DataflowException.class)
+    public void test11() throws TexeraException {
+        computeRegexSplitResultsOneToMany(REGEX_TABLE, TestConstantsRegexSplit.DESCRIPTION, "(ana", 
+                RegexSplitPredicate.SplitType.STANDALONE);
+    }
 }
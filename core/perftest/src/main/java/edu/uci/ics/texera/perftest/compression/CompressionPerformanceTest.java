@@ -0,0 +1,126 @@
+package edu.uci.ics.texera.perftest.compression;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+
+import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.perftest.medline.MedlineIndexWriter;
+import edu.uci.ics.texera.perftest.utils.PerfTestUtils;
+import edu.uci.ics.texera.storage.CompressionMode;
+import edu.uci.ics.texera.storage.DataReader;
+import edu.uci.ics.texera.storage.RelationManager;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * This is the performance test of the compression modes of the stored fields.
+ *
+ * Each medline data file is written to one table for each compression mode,
+ *   and the index size is compared with the time to read all the tuples of the table.
+ */
+public class CompressionPerformanceTest {
+
+    private static String HEADER = "Date,Record #,Compression,Index Size (bytes),Min Time,Max Time,Average Time,Std";
+    private static String delimiter = ",";
+    private static String newLine = "\n";
+
+    // result file
+    private static String compressionCsv = "compression.csv";
+
+    private static String currentTime = "";
+
+    /*
+     * This function writes each data file starting with "abstract" in ./sample-data-files/
+     *   to a table for each compression mode, reads all the tuples of the table numRuns times,
+     *   and records the index size and the read time in ./perftest-files/results/compression.csv
+     */
+    public static void runTest(int numRuns) throws Exception {
+        currentTime = PerfTestUtils.formatTime(System.currentTimeMillis());
+
+        File files = new File(PerfTestUtils.fileFolder);
+        for (File file : files.listFiles()) {
+            if (file.isDirectory() || ! file.getName().startsWith("abstract")) {
+                continue;
+            }
+            for (CompressionMode compressionMode : CompressionMode.values()) {
+                String tableName = file.getName().replace(".txt", "") + "_" + compressionMode.getName();
+                csvWriter(file.getName(), tableName, compressionMode, numRuns);
+            }
+        }
+    }
+
+    /*
+     * This function writes the test results of one table to the csv file.
+     *
+     * Example
+     *
+     * Date,                Record #,         Compression,      Index Size (bytes), Min Time, Max Time, Average Time, Std
+     * 09-09-2016 00:54:18, abstract_100.txt, best_compression, 145632,             0.021,    0.097,    0.0364,       0.0296
+     */
+    public static void csvWriter(String recordNum, String tableName, CompressionMode compressionMode, int numRuns)
+            throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, PerfTestUtils.getIndexPath(tableName), MedlineIndexWriter.SCHEMA_MEDLINE,
+                LuceneAnalyzerConstants.standardAnalyzerString(), 1, true, compressionMode);
+        MedlineIndexWriter.writeMedlineIndex(Paths.get(PerfTestUtils.fileFolder, recordNum), tableName);
+
+        long indexSize = getDirectorySize(Paths.get(relationManager.getTableDirectory(tableName)));
+        List<Double> timeResults = new ArrayList<>();
+        for (int i = 0; i < numRuns; i++) {
+            timeResults.add(readAllTuples(tableName));
+        }
+        relationManager.deleteTable(tableName);
+
+        double avgTime = PerfTestUtils.calculateAverage(timeResults);
+        PerfTestUtils.createFile(PerfTestUtils.getResultPath(compressionCsv), HEADER);
+        BufferedWriter fileWriter = Files.newBufferedWriter(
+                PerfTestUtils.getResultPath(compressionCsv), StandardOpenOption.APPEND);
+        fileWriter.append(newLine);
+        fileWriter.append(currentTime + delimiter);
+        fileWriter.append(recordNum + delimiter);
+        fileWriter.append(compressionMode.getName() + delimiter);
+        fileWriter.append(indexSize + delimiter);
+        fileWriter.append(Collections.min(timeResults) + delimiter + Collections.max(timeResults) + delimiter + avgTime
+                + delimiter + PerfTestUtils.calculateSTD(timeResults, avgTime));
+        fileWriter.flush();
+        fileWriter.close();
+    }
+
+    /*
+     * This function reads all the tuples of a table, and returns the time in seconds.
+     */
+    public static double readAllTuples(String tableName) throws TexeraException {
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(tableName, new MatchAllDocsQuery());
+        dataReader.setPayloadAdded(false);
+
+        long startTime = System.currentTimeMillis();
+        dataReader.open();
+        Tuple nextTuple;
+        while ((nextTuple = dataReader.getNextTuple()) != null) {
+            nextTuple.getFields();
+        }
+        dataReader.close();
+        long endTime = System.currentTimeMillis();
+
+        return Double.parseDouble(String.format("%.4f", (endTime - startTime) / 1000.0));
+    }
+
+    private static long getDirectorySize(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+}
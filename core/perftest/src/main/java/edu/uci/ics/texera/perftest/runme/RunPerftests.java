@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
+import edu.uci.ics.texera.perftest.compression.CompressionPerformanceTest;
 import edu.uci.ics.texera.perftest.keywordmatcher.*;
 import edu.uci.ics.texera.perftest.nlpextractor.NlpExtractorPerformanceTest;
 import edu.uci.ics.texera.perftest.regexmatcher.RegexMatcherPerformanceTest;
@@ -56,6 +57,7 @@ public class RunPerftests {
             FuzzyTokenMatcherPerformanceTest.runTest("sample_queries.txt", thresholds);
             RegexMatcherPerformanceTest.runTest(regexQueries);
             NlpExtractorPerformanceTest.runTest();
+            CompressionPerformanceTest.runTest(5);
 
         } catch (StorageException | DataflowException | IOException e) {
             e.printStackTrace();
@@ -0,0 +1,132 @@
+package edu.uci.ics.texera.storage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import edu.uci.ics.texera.api.constants.JsonConstants;
+import edu.uci.ics.texera.api.schema.AttributeType;
+
+/**
+ * AttributeStatistics contains the statistics of one attribute of a table,
+ *   which are used to estimate the cardinality of operators on this attribute.
+ *
+ * docCount: the number of documents that have at least one indexed term in this attribute.
+ * distinctCount: the number of distinct indexed values (for TEXT, the number of distinct tokens).
+ * minValue, maxValue: the smallest and largest indexed value, null if the attribute is empty.
+ * averageLength: the average number of tokens per document (TEXT only).
+ * topTerms: the most frequent terms and their document frequencies (STRING and TEXT only).
+ * histogram: the document counts of equal-width buckets between minValue and maxValue
+ *   (INTEGER, DOUBLE, DATE and DATETIME only).
+ *   DATE values are bucketed by epoch day, DATETIME values by epoch millisecond.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AttributeStatistics {
+
+    public static final String DOC_COUNT = "docCount";
+    public static final String DISTINCT_COUNT = "distinctCount";
+    public static final String MIN_VALUE = "minValue";
+    public static final String MAX_VALUE = "maxValue";
+    public static final String AVERAGE_LENGTH = "averageLength";
+    public static final String TOP_TERMS = "topTerms";
+    public static final String HISTOGRAM = "histogram";
+
+    private final String attributeName;
+    private final AttributeType attributeType;
+    private final long docCount;
+    private final long distinctCount;
+    private final String minValue;
+    private final String maxValue;
+    private final Double averageLength;
+    private final LinkedHashMap<String, Integer> topTerms;
+    private final List<Long> histogram;
+
+    @JsonCreator
+    public AttributeStatistics(
+            @JsonProperty(value = JsonConstants.ATTRIBUTE_NAME, required = true)
+            String attributeName,
+            @JsonProperty(value = JsonConstants.ATTRIBUTE_TYPE, required = true)
+            AttributeType attributeType,
+            @JsonProperty(value = DOC_COUNT, required = true)
+            long docCount,
+            @JsonProperty(value = DISTINCT_COUNT, required = true)
+            long distinctCount,
+            @JsonProperty(value = MIN_VALUE)
+            String minValue,
+            @JsonProperty(value = MAX_VALUE)
+            String maxValue,
+            @JsonProperty(value = AVERAGE_LENGTH)
+            Double averageLength,
+            @JsonProperty(value = TOP_TERMS)
+            Map<String, Integer> topTerms,
+            @JsonProperty(value = HISTOGRAM)
+            List<Long> histogram) {
+        this.attributeName = attributeName;
+        this.attributeType = attributeType;
+        this.docCount = docCount;
+        this.distinctCount = distinctCount;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.averageLength = averageLength;
+        this.topTerms = topTerms == null ? null : new LinkedHashMap<>(topTerms);
+        this.histogram = histogram == null ? null : new ArrayList<>(histogram);
+    }
+
+    @JsonProperty(value = JsonConstants.ATTRIBUTE_NAME)
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    @JsonProperty(value = JsonConstants.ATTRIBUTE_TYPE)
+    public AttributeType getAttributeType() {
+        return attributeType;
+    }
+
+    @JsonProperty(value = DOC_COUNT)
+    public long getDocCount() {
+        return docCount;
+    }
+
+    @JsonProperty(value = DISTINCT_COUNT)
+    public long getDistinctCount() {
+        return distinctCount;
+    }
+
+    @JsonProperty(value = MIN_VALUE)
+    public String getMinValue() {
+        return minValue;
+    }
+
+    @JsonProperty(value = MAX_VALUE)
+    public String getMaxValue() {
+        return maxValue;
+    }
+
+    @JsonProperty(value = AVERAGE_LENGTH)
+    public Double getAverageLength() {
+        return averageLength;
+    }
+
+    @JsonProperty(value = TOP_TERMS)
+    public Map<String, Integer> getTopTerms() {
+        return topTerms == null ? null : new LinkedHashMap<>(topTerms);
+    }
+
+    @JsonProperty(value = HISTOGRAM)
+    public List<Long> getHistogram() {
+        return histogram == null ? null : new ArrayList<>(histogram);
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeStatistics [attributeName=" + attributeName + ", attributeType=" + attributeType
+                + ", docCount=" + docCount + ", distinctCount=" + distinctCount
+                + ", minValue=" + minValue + ", maxValue=" + maxValue + "]";
+    }
+
+}
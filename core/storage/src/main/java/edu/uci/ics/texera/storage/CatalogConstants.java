@@ -3,10 +3,12 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IField;
 import edu.uci.ics.texera.api.field.IntegerField;
 import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.schema.Attribute;
@@ -23,10 +25,10 @@ import edu.uci.ics.texera.api.utils.Utils;
  * 
  * Initial tuples for the table catalog:
  * 
- *  tableName    |    tableDirectory    |    luceneAnalyzer
+ *  tableName    |    tableDirectory    |    luceneAnalyzer       |  numShards  |  termVectors
  * 
- * tableCatalog       ../catalog/table       standardLuceneAnalyzer
- * schemaCatalog      ../catalog/schema      standardLuceneAnalyzer
+ * tableCatalog       ../catalog/table       standardLuceneAnalyzer       1            true
+ * schemaCatalog      ../catalog/schema      standardLuceneAnalyzer       1            true
  *   
  * ============================================
  *   
@@ -36,6 +38,14 @@ import edu.uci.ics.texera.api.utils.Utils;
  *   tableCatalog       tableName           string                0
  *   tableCatalog    tableDirectory         string                1
  *   tableCatalog     luceneAnalyzer        string                2
+ *   tableCatalog       numShards           integer               3
+ *   tableCatalog      termVectors          string                4
+ *   tableCatalog     directoryType         string                5
+ *   tableCatalog      compression          string                6
+ *   tableCatalog     gramAttributes        string                7
+ *   tableCatalog   partitionAttribute      string                8
+ *   tableCatalog  partitionGranularity     string                9
+ *   tableCatalog      indexVersion         integer              10
  *   schemaCatalog      tableName           string                0
  *   schemaCatalog    attributeName         string                1
  *   schemaCatalog    attributeType         string                2
@@ -53,19 +63,49 @@ public class CatalogConstants {
 
     public static final Path TABLE_CATALOG_DIRECTORY = Utils.getTexeraHomePath().resolve("catalog").resolve("table");
     public static final Path SCHEMA_CATALOG_DIRECTORY = Utils.getTexeraHomePath().resolve("catalog").resolve("schema");
+    // the statistics of each table are stored as a json file "<tableName>.json" under this directory
+    public static final Path STATISTICS_CATALOG_DIRECTORY = Utils.getTexeraHomePath().resolve("catalog").resolve("statistics");
 
     // Schema for the "table catalog" table
     public static final String TABLE_NAME = "tableName";
     public static final String TABLE_DIRECTORY = "tableDirectory";
     public static final String TABLE_LUCENE_ANALYZER = "luceneAnalyzer";
+    public static final String TABLE_NUM_SHARDS = "numShards";
+    public static final String TABLE_TERM_VECTORS = "termVectors";
+    public static final String TABLE_DIRECTORY_TYPE = "directoryType";
+    public static final String TABLE_COMPRESSION = "compression";
+    // the comma separated names of the attributes with a companion trigram index
+    public static final String TABLE_GRAM_ATTRIBUTES = "gramAttributes";
+    // the DATE or DATETIME attribute that a time-partitioned table is partitioned on, empty if not partitioned
+    public static final String TABLE_PARTITION_ATTRIBUTE = "partitionAttribute";
+    public static final String TABLE_PARTITION_GRANULARITY = "partitionGranularity";
+    // the version of the index format that the tuples of a table are written in
+    public static final String TABLE_INDEX_VERSION = "indexVersion";
+    
+    // version 1 indexes DATE and DATETIME attributes as strings, 
+    //   version 2 indexes them as numbers (see StorageUtils.getLuceneFields)
+    public static final int LEGACY_INDEX_VERSION = 1;
+    public static final int CURRENT_INDEX_VERSION = 2;
 
     public static final Attribute TABLE_NAME_ATTR = new Attribute(TABLE_NAME, AttributeType.STRING);
     public static final Attribute TABLE_DIRECTORY_ATTR = new Attribute(TABLE_DIRECTORY, AttributeType.STRING);
     public static final Attribute TABLE_LUCENE_ANALYZER_ATTR = new Attribute(TABLE_LUCENE_ANALYZER,
             AttributeType.STRING);
+    public static final Attribute TABLE_NUM_SHARDS_ATTR = new Attribute(TABLE_NUM_SHARDS, AttributeType.INTEGER);
+    public static final Attribute TABLE_TERM_VECTORS_ATTR = new Attribute(TABLE_TERM_VECTORS, AttributeType.STRING);
+    public static final Attribute TABLE_DIRECTORY_TYPE_ATTR = new Attribute(TABLE_DIRECTORY_TYPE, AttributeType.STRING);
+    public static final Attribute TABLE_COMPRESSION_ATTR = new Attribute(TABLE_COMPRESSION, AttributeType.STRING);
+    public static final Attribute TABLE_GRAM_ATTRIBUTES_ATTR = new Attribute(TABLE_GRAM_ATTRIBUTES, AttributeType.STRING);
+    public static final Attribute TABLE_PARTITION_ATTRIBUTE_ATTR = new Attribute(TABLE_PARTITION_ATTRIBUTE, 
+            AttributeType.STRING);
+    public static final Attribute TABLE_PARTITION_GRANULARITY_ATTR = new Attribute(TABLE_PARTITION_GRANULARITY, 
+            AttributeType.STRING);
+    public static final Attribute TABLE_INDEX_VERSION_ATTR = new Attribute(TABLE_INDEX_VERSION, AttributeType.INTEGER);
 
     public static final Schema TABLE_CATALOG_SCHEMA = new Schema(TABLE_NAME_ATTR, TABLE_DIRECTORY_ATTR,
-            TABLE_LUCENE_ANALYZER_ATTR);
+            TABLE_LUCENE_ANALYZER_ATTR, TABLE_NUM_SHARDS_ATTR, TABLE_TERM_VECTORS_ATTR, TABLE_DIRECTORY_TYPE_ATTR, 
+            TABLE_COMPRESSION_ATTR, TABLE_GRAM_ATTRIBUTES_ATTR, TABLE_PARTITION_ATTRIBUTE_ATTR, 
+            TABLE_PARTITION_GRANULARITY_ATTR, TABLE_INDEX_VERSION_ATTR);
     public static final Schema TABLE_CATALOG_SCHEMA_WITH_ID = Schema.Builder.getSchemaWithID(TABLE_CATALOG_SCHEMA);
 
     // Schema for "schema catalog" table
@@ -95,20 +135,65 @@ public class CatalogConstants {
      * @param tableName
      * @param tableDirectory
      * @param luceneAnalyzerStr
+     * @param numShards
+     * @param termVectorsStored
+     * @param directoryType
+     * @param compressionMode
+     * @param gramAttributes
+     * @param partitionAttribute
+     * @param partitionGranularity
      * @return
      * @throws StorageException
      */
-    public static Tuple getTableCatalogTuple(String tableName, Path tableDirectory, String luceneAnalyzerStr) {
+    public static Tuple getTableCatalogTuple(String tableName, Path tableDirectory, String luceneAnalyzerStr, 
+            int numShards, boolean termVectorsStored, DirectoryType directoryType, CompressionMode compressionMode,
+            Collection<String> gramAttributes, String partitionAttribute, PartitionGranularity partitionGranularity) {
 	    	try {
 	            return new Tuple(TABLE_CATALOG_SCHEMA, 
 	                    new StringField(tableName), 
 	                    new StringField(tableDirectory.toRealPath().toString()),
-	                    new StringField(luceneAnalyzerStr));
+	                    new StringField(luceneAnalyzerStr),
+	                    new IntegerField(numShards),
+	                    new StringField(Boolean.toString(termVectorsStored)),
+	                    new StringField(directoryType.getName()),
+	                    new StringField(compressionMode.getName()),
+	                    new StringField(String.join(",", gramAttributes)),
+	                    new StringField(partitionAttribute == null ? "" : partitionAttribute),
+	                    new StringField(partitionGranularity.getName()),
+	                    new IntegerField(CURRENT_INDEX_VERSION));
 	    	} catch (IOException e) {
 	    		throw new TexeraException(e);
 	    	}
     }
     
+    /**
+     * Gets the value of a table catalog field for the tables created before the field is added to the catalog.
+     * 
+     * @param attributeName, the name of the table catalog field
+     * @return
+     */
+    public static IField getDefaultTableCatalogField(String attributeName) {
+        switch (attributeName) {
+        case TABLE_NUM_SHARDS:
+            return new IntegerField(1);
+        case TABLE_TERM_VECTORS:
+            return new StringField(Boolean.toString(true));
+        case TABLE_DIRECTORY_TYPE:
+            return new StringField(DirectoryType.FS.getName());
+        case TABLE_COMPRESSION:
+            return new StringField(CompressionMode.BEST_SPEED.getName());
+        case TABLE_GRAM_ATTRIBUTES:
+        case TABLE_PARTITION_ATTRIBUTE:
+            return new StringField("");
+        case TABLE_PARTITION_GRANULARITY:
+            return new StringField(PartitionGranularity.NONE.getName());
+        case TABLE_INDEX_VERSION:
+            return new IntegerField(LEGACY_INDEX_VERSION);
+        default:
+            throw new StorageException(String.format("Table catalog field %s doesn't have a default value.", attributeName));
+        }
+    }
+    
     /**
      * Gets the tuples to be inserted to the schema catalog.
      * 
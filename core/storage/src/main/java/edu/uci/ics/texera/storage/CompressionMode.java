@@ -0,0 +1,65 @@
+package edu.uci.ics.texera.storage;
+
+import java.util.stream.Stream;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
+import org.apache.lucene.codecs.lucene54.Lucene54Codec;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+
+/**
+ * CompressionMode is the compression of the stored fields used by the Lucene codec of a table.
+ *
+ * BEST_SPEED: compresses the stored fields with LZ4 in small blocks (the default),
+ *   which is fast to read and suits the tables that are queried often.
+ * BEST_COMPRESSION: compresses the stored fields with DEFLATE in larger blocks,
+ *   which makes the index smaller but the documents slower to load, and suits the archival tables.
+ *
+ * The mode is recorded in each segment, so the segments written with different modes can be read together.
+ */
+public enum CompressionMode {
+    BEST_SPEED("best_speed", Lucene50StoredFieldsFormat.Mode.BEST_SPEED),
+
+    BEST_COMPRESSION("best_compression", Lucene50StoredFieldsFormat.Mode.BEST_COMPRESSION);
+
+    private final String name;
+    private final Lucene50StoredFieldsFormat.Mode storedFieldsMode;
+
+    private CompressionMode(String name, Lucene50StoredFieldsFormat.Mode storedFieldsMode) {
+        this.name = name;
+        this.storedFieldsMode = storedFieldsMode;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String toString() {
+        return this.getName();
+    }
+
+    /**
+     * Converts a compression mode name to a CompressionMode (case insensitive).
+     *
+     * @param name
+     * @return
+     * @throws StorageException if the name is not a valid compression mode
+     */
+    public static CompressionMode fromName(String name) throws StorageException {
+        return Stream.of(CompressionMode.values())
+                .filter(mode -> mode.getName().equalsIgnoreCase(name))
+                .findAny().orElseThrow(() -> new StorageException(String.format("Invalid compression mode: %s.", name)));
+    }
+
+    /**
+     * Gets the Lucene codec that writes the stored fields with this compression mode.
+     *
+     * @return
+     */
+    Codec getCodec() {
+        return new Lucene54Codec(this.storedFieldsMode);
+    }
+
+}
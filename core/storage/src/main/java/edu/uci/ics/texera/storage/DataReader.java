@@ -3,36 +3,73 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.NumericUtils;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.IOperator;
 import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.field.DateField;
+import edu.uci.ics.texera.api.field.DateTimeField;
+import edu.uci.ics.texera.api.field.DoubleField;
 import edu.uci.ics.texera.api.field.IField;
+import edu.uci.ics.texera.api.field.IntegerField;
 import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.*;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
 
 /**
@@ -48,6 +85,39 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  * 
  * The purpose of the "payload" field is to make subsequent keyword match, fuzzy token match, and dictionary match faster,
  * because they don't need to tokenize the tuple every time.
+ * 
+ * DataReader can optionally be restricted to a subset of the table's attributes ("projected attributes").
+ * Only the stored fields of these attributes are loaded from Lucene, and the output tuples only contain them.
+ * 
+ * If the table has multiple shards, DataReader reads all the shards as one index, 
+ *   and the query is searched on the shards in parallel.
+ * 
+ * If the table is being written (its shared index writer is open), DataReader reads from the writer's 
+ *   near-real-time reader, and sees the tuples that are written but not committed yet.
+ * 
+ * DataReader can optionally prefetch the tuples (see setPrefetchSize()). The next K hits are loaded and decoded 
+ *   into tuples by a background thread into a bounded buffer, so that reading the index overlaps with the work 
+ *   of the downstream operators. The tuples are returned in the same order.
+ * 
+ * The hits of the query are searched when the first tuple is requested. The number of hits, and the minimum 
+ *   and maximum values of a numeric attribute among the hits can be computed from the index instead 
+ *   (see countMatchingTuples(), getMinValue() and getMaxValue()), without loading any tuple.
+ * 
+ * If the table is time-partitioned, DataReader reads all the partitions as the shards of the table. 
+ *   A partition range can be set to skip the partitions that can't contain any hit of the query 
+ *   (see setPartitionRange()), the range doesn't filter the tuples of the partitions that are read.
+ * 
+ * If the DataReader is in a snapshot (see Snapshot), it reads the table's index reader in the snapshot, 
+ *   which is shared with the other DataReaders of the table in the snapshot.
+ * 
+ * The payload is built from the term vectors if the table stores them. Otherwise, the payload of a TEXT attribute 
+ *   is built from the postings of the query's terms on the attribute, which only contains the spans of these terms,
+ *   or by re-analyzing the text with the table's analyzer if the query doesn't have terms on the attribute.
+ * 
+ * If the gram payload is added (see setGramPayloadAdded()), the payload only contains the spans of the query's grams 
+ *   in the companion trigram fields of the table, from the offsets in the postings of the gram fields. 
+ *   The attribute name of these spans is the name of the gram field (see DataStore.getGramFieldName()).
+ *   Gram fields indexed without the offsets don't have spans in the gram payload.
  *   
  * 
  * DataReader for a specific table is only accessible from RelationManager.
@@ -57,9 +127,28 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  *
  */
 public class DataReader implements IOperator {
+    
+    // the thread pool used to search the shards of a sharded table in parallel
+    private static final ExecutorService SHARD_SEARCH_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "texera-shard-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    // the threads that prefetch the tuples of the DataReaders, one for each open DataReader that prefetches
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "texera-reader-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // the suggested number of tuples to prefetch for the operators that read a large number of tuples
+    public static final int DEFAULT_PREFETCH_SIZE = 64;
 
     private DataStore dataStore;
     private Query query;
+    private Snapshot snapshot;
     
     private Schema inputSchema;
     private Schema outputSchema;
@@ -69,8 +158,29 @@ public class DataReader implements IOperator {
     private ScoreDoc[] scoreDocs;
 
     private int cursor = CLOSED;
+    
+    // the number of tuples to prefetch, 0 means the tuples are read synchronously
+    private int prefetchSize = 0;
+    private BlockingQueue<PrefetchedTuple> prefetchBuffer;
+    private CountDownLatch prefetchFinished;
+    private volatile boolean prefetchCancelled;
 
     private boolean payloadAdded;
+    private boolean gramPayloadAdded;
+    private Analyzer analyzer;
+    
+    // the TEXT attributes whose term vectors are stored, and the terms of the query on the other TEXT attributes
+    private Set<String> termVectorAttributes;
+    private Map<String, List<Term>> queryTermsByAttribute;
+    // the gram fields whose offsets are indexed
+    private Set<String> gramOffsetFields;
+    
+    // the names of the attributes to be read (lower case), null means all attributes are read
+    private Set<String> projectedAttributes;
+    
+    private LocalDate lowerPartitionDate;
+    private LocalDate upperPartitionDate;
+    private Set<String> fieldsToLoad;
 
     /*
      * The package-only level constructor is only accessible inside the storage package.
@@ -86,6 +196,14 @@ public class DataReader implements IOperator {
         this.query = query;
         this.payloadAdded = payloadAdded;
     }
+    
+    /*
+     * The analyzer is used to re-analyze the text to build the payload if the term vectors are not stored.
+     */
+    DataReader(DataStore dataStore, Query query, Analyzer analyzer) {
+        this(dataStore, query, false);
+        this.analyzer = analyzer;
+    }
 
     @Override
     public void open() throws StorageException {
@@ -93,14 +211,34 @@ public class DataReader implements IOperator {
             return;
         }
         try {
-            Directory indexDirectory = FSDirectory.open(this.dataStore.getDataDirectory());
-            luceneIndexReader = DirectoryReader.open(indexDirectory);
-            luceneIndexSearcher = new IndexSearcher(luceneIndexReader);
-
-            TopDocs topDocs = luceneIndexSearcher.search(query, Integer.MAX_VALUE);
-            scoreDocs = topDocs.scoreDocs;
+            if (this.snapshot != null) {
+                luceneIndexReader = this.snapshot.acquireIndexReader(this.dataStore);
+            } else {
+                luceneIndexReader = openIndexReader(this.dataStore, 
+                        this.dataStore.isPartitioned() ? 
+                                this.dataStore.getPartitionDirectories(lowerPartitionDate, upperPartitionDate) :
+                                this.dataStore.getShardDirectories());
+            }
+            if (this.dataStore.getNumShards() > 1 || this.dataStore.isPartitioned()) {
+                luceneIndexSearcher = new IndexSearcher(luceneIndexReader, SHARD_SEARCH_EXECUTOR);
+            } else {
+                luceneIndexSearcher = new IndexSearcher(luceneIndexReader);
+            }
+            // the hits are searched when the first tuple is requested
+            scoreDocs = null;
 
             inputSchema = this.dataStore.getSchema();
+            if (projectedAttributes != null) {
+                inputSchema = new Schema(inputSchema.getAttributes().stream()
+                        .filter(attr -> projectedAttributes.contains(attr.getName().toLowerCase()))
+                        .toArray(Attribute[]::new));
+            }
+            fieldsToLoad = new HashSet<>(inputSchema.getAttributeNames());
+            
+            if (payloadAdded) {
+                preparePayloadSources();
+            }
+            
             if (payloadAdded) {
                 outputSchema = new Schema.Builder(inputSchema).add(SchemaConstants.PAYLOAD_ATTRIBUTE).build();
             } else {
@@ -113,12 +251,34 @@ public class DataReader implements IOperator {
 
         cursor = OPENED;
     }
+    
+    /*
+     * Searches the hits of the query, and starts prefetching their tuples if prefetch is enabled.
+     */
+    private void searchHits() throws StorageException {
+        try {
+            TopDocs topDocs = luceneIndexSearcher.search(query, Integer.MAX_VALUE);
+            scoreDocs = topDocs.scoreDocs;
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        if (prefetchSize > 0) {
+            startPrefetch();
+        }
+    }
 
     @Override
     public Tuple getNextTuple() throws StorageException {
         if (cursor == CLOSED) {
             throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
         }
+        if (scoreDocs == null) {
+            searchHits();
+        }
+
+        if (prefetchBuffer != null) {
+            return getNextPrefetchedTuple();
+        }
 
         Tuple resultTuple;
         try {
@@ -139,9 +299,11 @@ public class DataReader implements IOperator {
     @Override
     public void close() throws StorageException {
         cursor = CLOSED;
+        stopPrefetch();
         if (luceneIndexReader != null) {
             try {
-                luceneIndexReader.close();
+                // the reader may be shared with a snapshot, it's closed when all the references are released
+                luceneIndexReader.decRef();
                 luceneIndexReader = null;
             } catch (IOException e) {
                 throw new StorageException(e.getMessage(), e);
@@ -149,12 +311,305 @@ public class DataReader implements IOperator {
         }
     }
 
+    /**
+     * Counts the tuples that match the query from the index, without loading the tuples.
+     * 
+     * @return the number of tuples that getNextTuple() returns after the DataReader is opened
+     * @throws StorageException
+     */
+    public int countMatchingTuples() throws StorageException {
+        if (cursor == CLOSED) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        if (scoreDocs != null) {
+            return scoreDocs.length;
+        }
+        try {
+            return luceneIndexSearcher.count(query);
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Gets the minimum value of an INTEGER, DOUBLE, DATE or DATETIME attribute among the tuples that match the query,
+     *   from the terms of the attribute in the index, without loading the tuples.
+     * 
+     * @param attributeName
+     * @return the minimum value, or null if no tuple matches the query
+     * @throws StorageException
+     */
+    public IField getMinValue(String attributeName) throws StorageException {
+        return getExtremeValue(attributeName, true);
+    }
+    
+    /**
+     * Gets the maximum value of an INTEGER, DOUBLE, DATE or DATETIME attribute among the tuples that match the query,
+     *   from the terms of the attribute in the index, without loading the tuples.
+     * 
+     * @param attributeName
+     * @return the maximum value, or null if no tuple matches the query
+     * @throws StorageException
+     */
+    public IField getMaxValue(String attributeName) throws StorageException {
+        return getExtremeValue(attributeName, false);
+    }
+    
+    /*
+     * The full precision terms of a numeric attribute are sorted by their values,
+     *   the minimum (maximum) value is the first (last) term that has a matching document.
+     * The first (last) term of the terms dictionary is checked first, 
+     *   the terms are only scanned if none of its documents matches the query.
+     * 
+     * DATETIME values are indexed in milliseconds, so the stored values of the matching documents 
+     *   of the extreme term are compared to get the exact value.
+     */
+    private IField getExtremeValue(String attributeName, boolean isMin) throws StorageException {
+        if (cursor == CLOSED) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        if (! this.dataStore.getSchema().containsAttribute(attributeName)) {
+            throw new StorageException(String.format("Attribute %s doesn't exist in the table.", attributeName));
+        }
+        Attribute attribute = this.dataStore.getSchema().getAttribute(attributeName);
+        AttributeType attributeType = attribute.getType();
+        if (attributeType != AttributeType.INTEGER && attributeType != AttributeType.DOUBLE 
+                && attributeType != AttributeType.DATE && attributeType != AttributeType.DATETIME) {
+            throw new StorageException(String.format(
+                    "The minimum and maximum values of %s attribute %s can't be computed from the index.", 
+                    attributeType, attributeName));
+        }
+        
+        try {
+            Terms terms = MultiFields.getTerms(luceneIndexReader, attribute.getName());
+            if (terms == null) {
+                return null;
+            }
+            Bits matchingDocs = getMatchingDocs();
+            BytesRef extremeTerm = null;
+            PostingsEnum postingsEnum = null;
+            
+            BytesRef candidateTerm = getExtremeTerm(terms, attributeType, isMin);
+            TermsEnum candidateTermsEnum = terms.iterator();
+            if (candidateTerm != null && candidateTermsEnum.seekExact(candidateTerm)) {
+                postingsEnum = candidateTermsEnum.postings(postingsEnum, PostingsEnum.NONE);
+                if (hasMatchingDoc(postingsEnum, matchingDocs)) {
+                    extremeTerm = candidateTerm;
+                }
+            }
+            
+            if (extremeTerm == null) {
+                TermsEnum termsEnum = attributeType == AttributeType.INTEGER ? 
+                        NumericUtils.filterPrefixCodedInts(terms.iterator()) 
+                        : NumericUtils.filterPrefixCodedLongs(terms.iterator());
+                BytesRef term;
+                while ((term = termsEnum.next()) != null) {
+                    postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
+                    if (hasMatchingDoc(postingsEnum, matchingDocs)) {
+                        extremeTerm = BytesRef.deepCopyOf(term);
+                        if (isMin) {
+                            break;
+                        }
+                    }
+                }
+            }
+            if (extremeTerm == null) {
+                return null;
+            }
+            
+            switch (attributeType) {
+            case INTEGER:
+                return new IntegerField(NumericUtils.prefixCodedToInt(extremeTerm));
+            case DOUBLE:
+                return new DoubleField(NumericUtils.sortableLongToDouble(NumericUtils.prefixCodedToLong(extremeTerm)));
+            case DATE:
+                return new DateField(LocalDate.ofEpochDay(NumericUtils.prefixCodedToLong(extremeTerm)));
+            default:
+                return getExtremeStoredValue(attribute, extremeTerm, matchingDocs, isMin);
+            }
+        } catch (IOException | ParseException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /*
+     * Gets the full precision term of the minimum (maximum) value of a numeric attribute among all the documents,
+     *   the deleted documents and the documents that don't match the query included.
+     */
+    private static BytesRef getExtremeTerm(Terms terms, AttributeType attributeType, boolean isMin) throws IOException {
+        BytesRefBuilder extremeTerm = new BytesRefBuilder();
+        if (attributeType == AttributeType.INTEGER) {
+            Integer extremeValue = isMin ? NumericUtils.getMinInt(terms) : NumericUtils.getMaxInt(terms);
+            if (extremeValue == null) {
+                return null;
+            }
+            NumericUtils.intToPrefixCoded(extremeValue, 0, extremeTerm);
+        } else {
+            Long extremeValue = isMin ? NumericUtils.getMinLong(terms) : NumericUtils.getMaxLong(terms);
+            if (extremeValue == null) {
+                return null;
+            }
+            NumericUtils.longToPrefixCoded(extremeValue, 0, extremeTerm);
+        }
+        return extremeTerm.toBytesRef();
+    }
+    
+    /*
+     * Gets the documents that match the query, or null if all the documents match the query.
+     */
+    private Bits getMatchingDocs() throws IOException {
+        if (query instanceof MatchAllDocsQuery) {
+            return MultiFields.getLiveDocs(luceneIndexReader);
+        }
+        FixedBitSet matchingDocs = new FixedBitSet(luceneIndexReader.maxDoc());
+        luceneIndexSearcher.search(query, new SimpleCollector() {
+            private int docBase;
+
+            @Override
+            protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                this.docBase = context.docBase;
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                matchingDocs.set(docBase + doc);
+            }
+
+            @Override
+            public boolean needsScores() {
+                return false;
+            }
+        });
+        return matchingDocs;
+    }
+    
+    private static boolean hasMatchingDoc(PostingsEnum postingsEnum, Bits matchingDocs) throws IOException {
+        int docID;
+        while ((docID = postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            if (matchingDocs == null || matchingDocs.get(docID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private IField getExtremeStoredValue(Attribute attribute, BytesRef extremeTerm, Bits matchingDocs, boolean isMin) 
+            throws IOException, ParseException {
+        PostingsEnum postingsEnum = MultiFields.getTermDocsEnum(luceneIndexReader, attribute.getName(), extremeTerm, 
+                PostingsEnum.NONE);
+        Set<String> attributeField = Collections.singleton(attribute.getName());
+        DateTimeField extremeValue = null;
+        int docID;
+        while ((docID = postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            if (matchingDocs != null && ! matchingDocs.get(docID)) {
+                continue;
+            }
+            DateTimeField value = (DateTimeField) StorageUtils.getField(attribute.getType(), 
+                    luceneIndexSearcher.doc(docID, attributeField).get(attribute.getName()));
+            if (extremeValue == null || (isMin ? value.getValue().isBefore(extremeValue.getValue()) 
+                    : value.getValue().isAfter(extremeValue.getValue()))) {
+                extremeValue = value;
+            }
+        }
+        return extremeValue;
+    }
+
+    /*
+     * Starts the background task that constructs the tuples of the hits in order, 
+     *   and puts them into the bounded buffer. The task blocks while the buffer is full.
+     */
+    private void startPrefetch() {
+        prefetchBuffer = new ArrayBlockingQueue<>(prefetchSize);
+        prefetchFinished = new CountDownLatch(1);
+        prefetchCancelled = false;
+        PREFETCH_EXECUTOR.execute(() -> {
+            try {
+                for (int i = 0; i < scoreDocs.length && ! prefetchCancelled; i++) {
+                    prefetchBuffer.put(new PrefetchedTuple(constructTuple(scoreDocs[i].doc), null));
+                }
+                prefetchBuffer.put(new PrefetchedTuple(null, null));
+            } catch (InterruptedException e) {
+                // the DataReader is closed
+            } catch (Exception e) {
+                // the exception is thrown to the consumer
+                try {
+                    prefetchBuffer.put(new PrefetchedTuple(null, e));
+                } catch (InterruptedException ie) {
+                    // the DataReader is closed
+                }
+            } finally {
+                prefetchFinished.countDown();
+            }
+        });
+    }
+    
+    private Tuple getNextPrefetchedTuple() throws StorageException {
+        PrefetchedTuple prefetchedTuple;
+        try {
+            prefetchedTuple = prefetchBuffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException(e.getMessage(), e);
+        }
+        if (prefetchedTuple.tuple == null) {
+            // the end of the tuples or the failure of the prefetch is put back, 
+            //   so that the following calls keep returning null or throwing the exception instead of blocking
+            prefetchBuffer.offer(prefetchedTuple);
+            if (prefetchedTuple.exception != null) {
+                throw new StorageException(prefetchedTuple.exception.getMessage(), prefetchedTuple.exception);
+            }
+            return null;
+        }
+        cursor++;
+        return prefetchedTuple.tuple;
+    }
+    
+    /*
+     * Stops the prefetch task, and waits for it to finish before the index reader is released.
+     */
+    private void stopPrefetch() {
+        if (prefetchBuffer == null) {
+            return;
+        }
+        prefetchCancelled = true;
+        // unblocks the task if it's waiting for space in the buffer
+        prefetchBuffer.clear();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (prefetchFinished.await(10, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+                prefetchBuffer.clear();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        prefetchBuffer = null;
+    }
+    
+    private static class PrefetchedTuple {
+        // a null tuple without an exception marks the end of the results
+        private final Tuple tuple;
+        private final Exception exception;
+        
+        private PrefetchedTuple(Tuple tuple, Exception exception) {
+            this.tuple = tuple;
+            this.exception = exception;
+        }
+    }
+
     private Tuple constructTuple(int docID) throws IOException, ParseException {
-        Document luceneDocument = luceneIndexSearcher.doc(docID);
+        // only the stored fields of the attributes in the input schema are loaded and decompressed
+        Document luceneDocument = luceneIndexSearcher.doc(docID, fieldsToLoad);
         ArrayList<IField> docFields = documentToFields(luceneDocument);
 
         if (payloadAdded) {
-            ArrayList<Span> payloadSpanList = buildPayloadFromTermVector(docFields, docID);
+            ArrayList<Span> payloadSpanList = gramPayloadAdded ? buildPayloadFromGramPostings(docFields, docID)
+                    : buildPayloadFromTermVector(docFields, docID);
             ListField<Span> payloadField = new ListField<Span>(payloadSpanList);
             docFields.add(payloadField);
         }
@@ -187,6 +642,16 @@ public class DataReader implements IOperator {
             }
 
             String fieldValue = fields.get(inputSchema.getIndex(attributeName)).getValue().toString();
+            
+            if (! termVectorAttributes.contains(attributeName)) {
+                List<Term> queryTerms = queryTermsByAttribute.get(attributeName);
+                if (queryTerms != null) {
+                    payloadSpanList.addAll(buildPayloadFromPostings(attributeName, fieldValue, queryTerms, docID));
+                } else {
+                    payloadSpanList.addAll(buildPayloadFromAnalyzer(attributeName, fieldValue));
+                }
+                continue;
+            }
 
             Terms termVector = luceneIndexReader.getTermVector(docID, attributeName);
             if (termVector == null) {
@@ -219,6 +684,163 @@ public class DataReader implements IOperator {
         return payloadSpanList;
     }
     
+    /*
+     * Finds the TEXT attributes that have term vectors, 
+     *   and collects the terms of the query for the other TEXT attributes.
+     */
+    private void preparePayloadSources() throws IOException {
+        FieldInfos fieldInfos = MultiFields.getMergedFieldInfos(luceneIndexReader);
+        termVectorAttributes = new HashSet<>();
+        for (Attribute attr : inputSchema.getAttributes()) {
+            FieldInfo fieldInfo = fieldInfos.fieldInfo(attr.getName());
+            // an attribute without any indexed value is treated as having term vectors (an empty payload)
+            if (fieldInfo == null || fieldInfo.hasVectors()) {
+                termVectorAttributes.add(attr.getName());
+            }
+        }
+        
+        gramOffsetFields = new HashSet<>();
+        for (String attributeName : dataStore.getGramAttributes()) {
+            FieldInfo fieldInfo = fieldInfos.fieldInfo(DataStore.getGramFieldName(attributeName));
+            if (fieldInfo != null 
+                    && fieldInfo.getIndexOptions() == IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) {
+                gramOffsetFields.add(fieldInfo.name);
+            }
+        }
+        
+        Set<Term> queryTerms = new HashSet<>();
+        luceneIndexSearcher.createNormalizedWeight(query, false).extractTerms(queryTerms);
+        queryTermsByAttribute = queryTerms.stream().sorted()
+                .collect(Collectors.groupingBy(term -> term.field()));
+    }
+    
+    /*
+     * Builds the gram payload from the postings of the query's grams on the gram fields with offsets.
+     */
+    private ArrayList<Span> buildPayloadFromGramPostings(List<IField> fields, int docID) throws IOException {
+        ArrayList<Span> payloadSpanList = new ArrayList<>();
+        for (String attributeName : dataStore.getGramAttributes()) {
+            String gramFieldName = DataStore.getGramFieldName(attributeName);
+            List<Term> queryTerms = queryTermsByAttribute.get(gramFieldName);
+            if (queryTerms == null || ! gramOffsetFields.contains(gramFieldName) 
+                    || ! inputSchema.containsAttribute(attributeName)) {
+                continue;
+            }
+            IField field = fields.get(inputSchema.getIndex(attributeName));
+            if (field.getValue() == null) {
+                continue;
+            }
+            payloadSpanList.addAll(buildPayloadFromPostings(gramFieldName, field.getValue().toString(), 
+                    queryTerms, docID));
+        }
+        return payloadSpanList;
+    }
+    
+    /*
+     * Builds the payload of an attribute from the postings of the query terms.
+     * Only the spans of the query terms are in the payload.
+     */
+    private List<Span> buildPayloadFromPostings(String attributeName, String fieldValue, List<Term> queryTerms, int docID) 
+            throws IOException {
+        List<Span> payloadSpanList = new ArrayList<>();
+        
+        List<LeafReaderContext> leaves = luceneIndexReader.leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docID, leaves));
+        int leafDocID = docID - leaf.docBase;
+        
+        for (Term term : queryTerms) {
+            PostingsEnum termPostings = leaf.reader().postings(term, PostingsEnum.ALL);
+            if (termPostings == null || termPostings.advance(leafDocID) != leafDocID) {
+                continue;
+            }
+            String analyzedTermStr = term.text();
+            for (int i = 0; i < termPostings.freq(); i++) {
+                int tokenPosition = termPostings.nextPosition();
+                int charStart = termPostings.startOffset();
+                int charEnd = termPostings.endOffset();
+                // the segment is written without the offsets
+                if (charStart < 0) {
+                    break;
+                }
+                String originalTermStr = fieldValue.substring(charStart, charEnd);
+                
+                payloadSpanList.add(new Span(attributeName, charStart, charEnd, analyzedTermStr, originalTermStr, 
+                        tokenPosition));
+            }
+        }
+        return payloadSpanList;
+    }
+    
+    /*
+     * Builds the payload of an attribute by analyzing its text with the table's analyzer.
+     */
+    private List<Span> buildPayloadFromAnalyzer(String attributeName, String fieldValue) throws IOException {
+        List<Span> payloadSpanList = new ArrayList<>();
+        
+        Analyzer payloadAnalyzer = analyzer != null ? analyzer : LuceneAnalyzerConstants.getStandardAnalyzer();
+        try (TokenStream tokenStream = payloadAnalyzer.tokenStream(attributeName, fieldValue)) {
+            OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
+            CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            PositionIncrementAttribute positionIncrementAttribute = 
+                    tokenStream.addAttribute(PositionIncrementAttribute.class);
+            
+            int tokenPosition = -1;
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                tokenPosition += positionIncrementAttribute.getPositionIncrement();
+                int charStart = offsetAttribute.startOffset();
+                int charEnd = offsetAttribute.endOffset();
+                String analyzedTermStr = charTermAttribute.toString();
+                String originalTermStr = fieldValue.substring(charStart, charEnd);
+                
+                payloadSpanList.add(new Span(attributeName, charStart, charEnd, analyzedTermStr, originalTermStr, 
+                        tokenPosition));
+            }
+            tokenStream.end();
+        }
+        return payloadSpanList;
+    }
+    
+    /**
+     * Sets the number of tuples to prefetch on a background thread, 0 (the default) disables the prefetching.
+     * This function must be called before the DataReader is opened.
+     * 
+     * @param prefetchSize, the capacity of the prefetch buffer
+     * @throws StorageException, if the DataReader is already opened or the size is negative
+     */
+    public void setPrefetchSize(int prefetchSize) throws StorageException {
+        if (cursor != CLOSED) {
+            throw new StorageException("Prefetch size can't be changed after the DataReader is opened.");
+        }
+        if (prefetchSize < 0) {
+            throw new StorageException("Prefetch size must not be negative.");
+        }
+        this.prefetchSize = prefetchSize;
+    }
+    
+    public int getPrefetchSize() {
+        return this.prefetchSize;
+    }
+    
+    /**
+     * Restricts the partitions of a time-partitioned table read by this DataReader to the partitions 
+     *   that overlap with the date range. It's ignored if the table is not partitioned, 
+     *   or if the DataReader reads from a snapshot.
+     * The caller must make sure that the query doesn't match any tuple outside of the range.
+     * This function must be called before the DataReader is opened.
+     * 
+     * @param lowerDate, the first date of the range (inclusive), or null if the range is unbounded
+     * @param upperDate, the last date of the range (inclusive), or null if the range is unbounded
+     * @throws StorageException, if the DataReader is already opened
+     */
+    public void setPartitionRange(LocalDate lowerDate, LocalDate upperDate) throws StorageException {
+        if (cursor != CLOSED) {
+            throw new StorageException("Partition range can't be changed after the DataReader is opened.");
+        }
+        this.lowerPartitionDate = lowerDate;
+        this.upperPartitionDate = upperDate;
+    }
+    
     public boolean isPayloadAdded() {
         return this.payloadAdded;
     }
@@ -226,11 +848,96 @@ public class DataReader implements IOperator {
     public void setPayloadAdded(boolean payloadAdded) {
         this.payloadAdded = payloadAdded;
     }
+    
+    public boolean isGramPayloadAdded() {
+        return this.gramPayloadAdded;
+    }
+    
+    /**
+     * Sets whether the payload only contains the positions of the query's grams in the gram fields,
+     *   adding the gram payload also adds the payload attribute.
+     * This function must be called before the DataReader is opened.
+     * 
+     * @param gramPayloadAdded
+     */
+    public void setGramPayloadAdded(boolean gramPayloadAdded) {
+        this.gramPayloadAdded = gramPayloadAdded;
+        this.payloadAdded = this.payloadAdded || gramPayloadAdded;
+    }
+
+    /**
+     * Restricts the attributes read by this DataReader to the given attribute names (case insensitive).
+     * Attributes not in the table are ignored. Passing null reads all attributes.
+     * This function must be called before the DataReader is opened.
+     * 
+     * @param attributeNames, the names of the attributes to read
+     * @throws StorageException, if the DataReader is already opened
+     */
+    public void setProjectedAttributes(Collection<String> attributeNames) throws StorageException {
+        if (cursor != CLOSED) {
+            throw new StorageException("Projected attributes can't be changed after the DataReader is opened.");
+        }
+        if (attributeNames == null) {
+            this.projectedAttributes = null;
+        } else {
+            this.projectedAttributes = attributeNames.stream()
+                    .map(name -> name.toLowerCase()).collect(Collectors.toSet());
+        }
+    }
+    
+    public Set<String> getProjectedAttributes() {
+        return this.projectedAttributes == null ? null : new HashSet<>(this.projectedAttributes);
+    }
 
     public Schema getOutputSchema() {
         return outputSchema;
     }
     
+    /*
+     * Opens an IndexReader on the table, the shards of a sharded table are combined to one MultiReader.
+     * A shard being written by an open writer is read from the writer's near-real-time reader, 
+     *   which sees the changes that are not committed yet.
+     * Closing the returned reader closes (or releases) the readers of all the shards.
+     */
+    static IndexReader openIndexReader(DataStore dataStore) throws IOException {
+        return openIndexReader(dataStore, dataStore.getShardDirectories());
+    }
+    
+    /*
+     * Opens an IndexReader on some of the shards of the table, such as the partitions in a date range.
+     */
+    static IndexReader openIndexReader(DataStore dataStore, List<Path> shardDirectories) throws IOException {
+        List<IndexReader> shardReaders = new ArrayList<>();
+        boolean hasSharedReader = false;
+        try {
+            for (Path shardDirectory : shardDirectories) {
+                IndexReader shardReader = IndexWriterRegistry.acquireReader(shardDirectory);
+                if (shardReader != null) {
+                    hasSharedReader = true;
+                } else if (dataStore.getDirectoryType() == DirectoryType.RAM) {
+                    shardReader = DirectoryReader.open(RamDirectoryCache.get(shardDirectory));
+                } else {
+                    shardReader = DirectoryReader.open(dataStore.getDirectoryType().open(shardDirectory));
+                }
+                shardReaders.add(shardReader);
+            }
+        } catch (IOException e) {
+            for (IndexReader shardReader : shardReaders) {
+                shardReader.decRef();
+            }
+            throw e;
+        }
+        if (shardReaders.size() == 1 && ! hasSharedReader) {
+            return shardReaders.get(0);
+        }
+        // the MultiReader holds a reference to each shard reader, and releases them when it's closed
+        IndexReader multiReader = new MultiReader(shardReaders.stream().toArray(IndexReader[]::new), false);
+        for (IndexReader shardReader : shardReaders) {
+            shardReader.decRef();
+        }
+        return multiReader;
+    }
+    
     public static boolean checkIndexExistence(Path directory) {
         try {
             return DirectoryReader.indexExists(
@@ -240,6 +947,13 @@ public class DataReader implements IOperator {
         }
     }
     
+    /*
+     * Sets the snapshot that the DataReader reads from, it must be set before the DataReader is opened.
+     */
+    void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+    
     public IndexReader getLuceneIndexReader() {
         return this.luceneIndexReader;
     }
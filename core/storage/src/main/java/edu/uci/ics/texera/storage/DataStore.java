@@ -1,23 +1,151 @@
 package edu.uci.ics.texera.storage;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.schema.Schema;
 
+/**
+ * DataStore contains the directory and the schema of a table.
+ * 
+ * A table can be sharded into multiple Lucene indexes. 
+ * A table with one shard (the default) stores its index directly in the data directory,
+ *   a table with N shards stores its indexes in the sub-directories "shard-0" to "shard-(N-1)".
+ * Tuples are hash-partitioned to the shards by their _id.
+ * 
+ * The term vectors of TEXT fields are stored by default. 
+ * A table can choose not to store them to reduce the index size, 
+ *   the payload of the tuples is then built from the postings or by re-analyzing the text (see DataReader).
+ * 
+ * The directory type is the Lucene directory implementation used to access the indexes (see DirectoryType).
+ * The compression mode is the compression of the stored fields written to the indexes (see CompressionMode).
+ * 
+ * The gram attributes are the TEXT attributes that have a companion trigram index. 
+ * Besides the attribute's own field, each document has a field named getGramFieldName(attributeName),
+ *   which indexes the lower-case grams of length GRAM_LENGTH of the text, with their offsets in the postings.
+ * The operators can use it to find the candidate documents of a substring or a regex on any table.
+ * 
+ * A table can be time-partitioned on a DATE or DATETIME attribute (the partition attribute), 
+ *   a partitioned table stores one index per day or month (see PartitionGranularity) 
+ *   in the sub-directories "partition-<key>", which are created when their first tuples are written.
+ * The shards of a partitioned table are its partitions, tuples are partitioned by their partition attribute
+ *   instead of their _id. A reader can skip the partitions outside of a date range,
+ *   and the old partitions can be dropped by deleting their directories.
+ * 
+ */
 public class DataStore {
+    
+    public static final String SHARD_DIRECTORY_PREFIX = "shard-";
+    public static final String PARTITION_DIRECTORY_PREFIX = "partition-";
+    
+    public static final String GRAM_FIELD_PREFIX = "_trigram_";
+    public static final int GRAM_LENGTH = 3;
+    
     private Path dataDirectory;
     private int numDocuments;
     private Schema schema;
+    private int numShards;
+    private boolean termVectorsStored;
+    private DirectoryType directoryType;
+    private CompressionMode compressionMode;
+    private Set<String> gramAttributes;
+    private String partitionAttribute;
+    private PartitionGranularity partitionGranularity;
 
     public DataStore(String dataDirectory, Schema schema) {
-        this.dataDirectory = Paths.get(dataDirectory);
-        this.schema = schema;
+        this(Paths.get(dataDirectory), schema);
     }
     
     public DataStore(Path dataDirectory, Schema schema) {
+        this(dataDirectory, schema, 1);
+    }
+    
+    public DataStore(String dataDirectory, Schema schema, int numShards) {
+        this(Paths.get(dataDirectory), schema, numShards);
+    }
+    
+    public DataStore(Path dataDirectory, Schema schema, int numShards) {
+        this(dataDirectory, schema, numShards, true);
+    }
+    
+    public DataStore(String dataDirectory, Schema schema, int numShards, boolean termVectorsStored) {
+        this(Paths.get(dataDirectory), schema, numShards, termVectorsStored);
+    }
+    
+    public DataStore(Path dataDirectory, Schema schema, int numShards, boolean termVectorsStored) {
+        this(dataDirectory, schema, numShards, termVectorsStored, DirectoryType.FS);
+    }
+    
+    public DataStore(String dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType) {
+        this(Paths.get(dataDirectory), schema, numShards, termVectorsStored, directoryType);
+    }
+    
+    public DataStore(Path dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType) {
+        this(dataDirectory, schema, numShards, termVectorsStored, directoryType, CompressionMode.BEST_SPEED);
+    }
+    
+    public DataStore(String dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType, CompressionMode compressionMode) {
+        this(Paths.get(dataDirectory), schema, numShards, termVectorsStored, directoryType, compressionMode);
+    }
+    
+    public DataStore(Path dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType, CompressionMode compressionMode) {
+        this(dataDirectory, schema, numShards, termVectorsStored, directoryType, compressionMode, 
+                Collections.emptyList());
+    }
+    
+    public DataStore(String dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType, CompressionMode compressionMode, Collection<String> gramAttributes) {
+        this(Paths.get(dataDirectory), schema, numShards, termVectorsStored, directoryType, compressionMode, 
+                gramAttributes);
+    }
+    
+    public DataStore(Path dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType, CompressionMode compressionMode, Collection<String> gramAttributes) {
+        this(dataDirectory, schema, numShards, termVectorsStored, directoryType, compressionMode, gramAttributes,
+                null, PartitionGranularity.NONE);
+    }
+    
+    public DataStore(String dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType, CompressionMode compressionMode, Collection<String> gramAttributes,
+            String partitionAttribute, PartitionGranularity partitionGranularity) {
+        this(Paths.get(dataDirectory), schema, numShards, termVectorsStored, directoryType, compressionMode, 
+                gramAttributes, partitionAttribute, partitionGranularity);
+    }
+    
+    public DataStore(Path dataDirectory, Schema schema, int numShards, boolean termVectorsStored, 
+            DirectoryType directoryType, CompressionMode compressionMode, Collection<String> gramAttributes,
+            String partitionAttribute, PartitionGranularity partitionGranularity) {
+        if (numShards < 1) {
+            throw new StorageException("The number of shards must be at least 1.");
+        }
+        if (partitionGranularity != PartitionGranularity.NONE && numShards != 1) {
+            throw new StorageException("A partitioned table can't have multiple shards.");
+        }
         this.dataDirectory = dataDirectory;
         this.schema = schema;
+        this.numShards = numShards;
+        this.termVectorsStored = termVectorsStored;
+        this.directoryType = directoryType;
+        this.compressionMode = compressionMode;
+        this.gramAttributes = Collections.unmodifiableSet(new LinkedHashSet<>(gramAttributes));
+        this.partitionGranularity = partitionGranularity;
+        this.partitionAttribute = partitionGranularity == PartitionGranularity.NONE ? null : partitionAttribute;
     }
 
     public void incrementNumDocuments(int incrementBy) {
@@ -35,5 +163,126 @@ public class DataStore {
     public Schema getSchema() {
         return schema;
     }
+    
+    public int getNumShards() {
+        return numShards;
+    }
+    
+    public boolean isTermVectorsStored() {
+        return termVectorsStored;
+    }
+    
+    public DirectoryType getDirectoryType() {
+        return directoryType;
+    }
+    
+    public CompressionMode getCompressionMode() {
+        return compressionMode;
+    }
+    
+    public Set<String> getGramAttributes() {
+        return gramAttributes;
+    }
+    
+    /**
+     * Gets the name of the Lucene field of the companion trigram index of an attribute.
+     * 
+     * @param attributeName
+     * @return
+     */
+    public static String getGramFieldName(String attributeName) {
+        return GRAM_FIELD_PREFIX + attributeName;
+    }
+    
+    public String getPartitionAttribute() {
+        return partitionAttribute;
+    }
+    
+    public PartitionGranularity getPartitionGranularity() {
+        return partitionGranularity;
+    }
+    
+    public boolean isPartitioned() {
+        return partitionGranularity != PartitionGranularity.NONE;
+    }
+    
+    /**
+     * Gets the index directories of all the shards, in the order of the shard number.
+     * The shards of a partitioned table are its existing partitions, in the order of their dates.
+     * 
+     * @return
+     */
+    public List<Path> getShardDirectories() {
+        if (isPartitioned()) {
+            return getPartitionDirectories(null, null);
+        }
+        if (numShards == 1) {
+            return Collections.singletonList(dataDirectory);
+        }
+        List<Path> shardDirectories = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            shardDirectories.add(dataDirectory.resolve(SHARD_DIRECTORY_PREFIX + i));
+        }
+        return shardDirectories;
+    }
+    
+    /**
+     * Gets the number of the shard which the tuple with the given _id value belongs to.
+     * 
+     * @param idValue, the value of the _id field
+     * @return
+     */
+    public int getShard(String idValue) {
+        return Math.floorMod(idValue.hashCode(), numShards);
+    }
+    
+    /**
+     * Gets the index directory of the partition that contains the date.
+     * 
+     * @param date, the date of the partition attribute of a tuple
+     * @return
+     */
+    public Path getPartitionDirectory(LocalDate date) {
+        return dataDirectory.resolve(PARTITION_DIRECTORY_PREFIX + partitionGranularity.getPartitionKey(date));
+    }
+    
+    /**
+     * Gets the keys of the existing partitions of a partitioned table, in the order of their dates.
+     * 
+     * @return
+     * @throws StorageException
+     */
+    public List<String> getPartitionKeys() throws StorageException {
+        if (! isPartitioned() || Files.notExists(dataDirectory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> paths = Files.list(dataDirectory)) {
+            return paths.filter(Files::isDirectory)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PARTITION_DIRECTORY_PREFIX))
+                    .map(name -> name.substring(PARTITION_DIRECTORY_PREFIX.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Gets the index directories of the existing partitions that overlap with a date range, 
+     *   in the order of their dates.
+     * 
+     * @param lowerDate, the first date of the range (inclusive), or null if the range is unbounded
+     * @param upperDate, the last date of the range (inclusive), or null if the range is unbounded
+     * @return
+     * @throws StorageException
+     */
+    public List<Path> getPartitionDirectories(LocalDate lowerDate, LocalDate upperDate) throws StorageException {
+        return getPartitionKeys().stream()
+                .filter(key -> lowerDate == null || ! partitionGranularity.getLastDate(key).isBefore(lowerDate))
+                .filter(key -> upperDate == null || ! partitionGranularity.getFirstDate(key).isAfter(upperDate))
+                .map(key -> dataDirectory.resolve(PARTITION_DIRECTORY_PREFIX + key))
+                .collect(Collectors.toList());
+    }
 
 }
@@ -2,18 +2,31 @@ package edu.uci.ics.texera.storage;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.function.Function;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
@@ -24,6 +37,7 @@ import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
 
 /**
@@ -43,6 +57,34 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  * Update Operations:
  *   DataWriter can update the tuple, with the tuple's _id remaining the same.
  *   
+ * Bulk Operations:
+ *   DataWriter can delete or update a collection of tuples by their _id, 
+ *   or update all the tuples matching a query with a field or tuple transform.
+ *   The changes are applied to Lucene in batches of BULK_BATCH_SIZE, 
+ *   and each shard commits a bulk operation in one commit.
+ *   The shards are locked in the order of their directories during a bulk operation,
+ *   and all the partitions that a bulk operation can touch are opened before they are locked.
+ *   
+ * Sharded Tables:
+ *   If the table has multiple shards, DataWriter opens one Lucene IndexWriter for each shard.
+ *   A tuple is written to the shard determined by the hash of its _id,
+ *   deletions by queries and clearing the data are applied to all the shards.
+ *   
+ * Partitioned Tables:
+ *   If the table is time-partitioned, DataWriter opens the IndexWriters of the existing partitions,
+ *   and opens the IndexWriter of a new partition when the first tuple of the partition is written.
+ *   A tuple is written to the partition determined by its partition attribute, which can't be null.
+ *   Since a tuple's partition can't be determined by its _id, 
+ *   deletions and updates by _id are applied to all the partitions.
+ *   
+ * Commits:
+ *   The Lucene IndexWriter of an index is shared by all the DataWriters of the table (see IndexWriterRegistry),
+ *   so multiple DataWriters of the same table can be open at the same time.
+ *   The changes are committed in groups when DataWriters are closed or flushed, 
+ *   or when the shared writer has SharedIndexWriter.COMMIT_BATCH_SIZE uncommitted changes.
+ *   The periodic commits of the registry skip the writers with open DataWriters.
+ *   When close() or flush() returns, the changes made by this DataWriter are durable and visible to new DataReaders.
+ *   
  *   
  * DataWriter for a specific table is only accessible from RelationManager.
  * 
@@ -51,15 +93,22 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  *
  */
 public class DataWriter {
+    
+    static final int BULK_BATCH_SIZE = 1000;
 
     private Path indexDirectory;
     private Schema schema;
     private DataStore dataStore;
     private Analyzer analyzer;
 
-    private IndexWriter luceneIndexWriter;
+    private List<SharedIndexWriter> sharedIndexWriters;
+    // the index writers of the partitions of a partitioned table, by partition directory
+    private Map<Path, SharedIndexWriter> partitionIndexWriters;
+    // whether the shards are locked by a bulk change being applied
+    private boolean inBulkChange = false;
     
     private boolean isOpen = false;
+    private boolean hasChanges = false;
 
     /*
      * The package-only level constructor is only accessible inside the storage package.
@@ -73,8 +122,19 @@ public class DataWriter {
         if (! this.schema.containsAttribute(SchemaConstants._ID)) {
             this.schema = Schema.Builder.getSchemaWithID(this.schema);
         }
-        this.dataStore = new DataStore(indexDirectory, schema);
+        this.dataStore = new DataStore(indexDirectory, schema, dataStore.getNumShards(), dataStore.isTermVectorsStored(),
+                dataStore.getDirectoryType(), dataStore.getCompressionMode(), dataStore.getGramAttributes(),
+                dataStore.getPartitionAttribute(), dataStore.getPartitionGranularity());
         this.analyzer = analyzer;
+        // the fields of the companion trigram index are analyzed by the n-gram analyzer
+        if (! dataStore.getGramAttributes().isEmpty()) {
+            Map<String, Analyzer> gramFieldAnalyzers = new HashMap<>();
+            for (String attributeName : dataStore.getGramAttributes()) {
+                gramFieldAnalyzers.put(DataStore.getGramFieldName(attributeName), 
+                        LuceneAnalyzerConstants.getNGramAnalyzer(DataStore.GRAM_LENGTH));
+            }
+            this.analyzer = new PerFieldAnalyzerWrapper(analyzer, gramFieldAnalyzers);
+        }
     }
     
     public DataStore getDataStore() {
@@ -82,35 +142,83 @@ public class DataWriter {
     }
     
     public void open() throws StorageException {
-        if (this.luceneIndexWriter == null || ! this.luceneIndexWriter.isOpen()) {
+        if (this.sharedIndexWriters == null || ! this.isOpen) {
+            this.sharedIndexWriters = new ArrayList<>();
+            this.partitionIndexWriters = new HashMap<>();
             try {
-                Directory directory = FSDirectory.open(this.indexDirectory);
-                IndexWriterConfig conf = new IndexWriterConfig(analyzer);
-                this.luceneIndexWriter = new IndexWriter(directory, conf);
+                for (Path shardDirectory : this.dataStore.getShardDirectories()) {
+                    SharedIndexWriter sharedIndexWriter = IndexWriterRegistry.acquire(shardDirectory, analyzer, 
+                            this.dataStore.getDirectoryType(), this.dataStore.getCompressionMode());
+                    this.sharedIndexWriters.add(sharedIndexWriter);
+                    this.partitionIndexWriters.put(shardDirectory, sharedIndexWriter);
+                }
                 this.isOpen = true;
             } catch (IOException e) {
+                close();
                 throw new StorageException(e.getMessage(), e);
             }
         }
     }
 
+    /**
+     * Commits the changes made by this DataWriter and releases the shared index writers.
+     * 
+     * @throws StorageException
+     */
     public void close() throws StorageException {
-        if (this.luceneIndexWriter != null) {
-            try {
-                this.luceneIndexWriter.close();
-                this.isOpen = false;
-            } catch (IOException e) {
-                throw new StorageException(e.getMessage(), e);
+        if (this.sharedIndexWriters != null) {
+            // release all the shards even if committing one of them fails
+            Exception closeException = null;
+            for (SharedIndexWriter sharedIndexWriter : this.sharedIndexWriters) {
+                try {
+                    if (this.hasChanges) {
+                        sharedIndexWriter.commit();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    closeException = e;
+                } finally {
+                    IndexWriterRegistry.release(sharedIndexWriter);
+                }
+            }
+            this.sharedIndexWriters = null;
+            this.partitionIndexWriters = null;
+            this.isOpen = false;
+            this.hasChanges = false;
+            if (closeException != null) {
+                throw new StorageException(closeException.getMessage(), closeException);
             }
         }
     }
+    
+    /**
+     * Commits the changes made by this DataWriter without closing it.
+     * When this function returns, the changes are durable and visible to new DataReaders.
+     * 
+     * @throws StorageException
+     */
+    public void flush() throws StorageException {
+        if (! isOpen) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        try {
+            for (SharedIndexWriter sharedIndexWriter : this.sharedIndexWriters) {
+                sharedIndexWriter.commit();
+            }
+        } catch (IOException e) {
+            close();
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
 
     public void clearData() throws StorageException {
         if (! isOpen) {
             throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
         }
         try {
-            this.luceneIndexWriter.deleteAll();
+            for (SharedIndexWriter sharedIndexWriter : this.sharedIndexWriters) {
+                sharedIndexWriter.getIndexWriter().deleteAll();
+                recordChanges(sharedIndexWriter);
+            }
         } catch (IOException e) {
             close();
             throw new StorageException(e.getMessage(), e);
@@ -136,8 +244,10 @@ public class DataWriter {
                 throw new StorageException("Tuple's schema is not the same as the table's schema");
             }
             
-            Document document = getLuceneDocument(tupleWithID);
-            this.luceneIndexWriter.addDocument(document);
+            Document document = getLuceneDocument(tupleWithID, this.dataStore);
+            SharedIndexWriter sharedIndexWriter = getTupleIndexWriter(idField, tupleWithID);
+            sharedIndexWriter.getIndexWriter().addDocument(document);
+            recordChanges(sharedIndexWriter);
             this.dataStore.incrementNumDocuments(1);
             
             return idField;
@@ -158,7 +268,10 @@ public class DataWriter {
             throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
         }
         try {
-            this.luceneIndexWriter.deleteDocuments(new Term(SchemaConstants._ID, idField.getValue().toString()));
+            for (SharedIndexWriter sharedIndexWriter : getIDIndexWriters(idField)) {
+                sharedIndexWriter.getIndexWriter().deleteDocuments(new Term(SchemaConstants._ID, idField.getValue().toString()));
+                recordChanges(sharedIndexWriter);
+            }
         } catch (IOException e) {
             close();
             throw new StorageException(e);
@@ -173,7 +286,10 @@ public class DataWriter {
      */
     public void deleteTuple(Query... deletionQuery) throws StorageException {
         try {
-            this.luceneIndexWriter.deleteDocuments(deletionQuery);
+            for (SharedIndexWriter sharedIndexWriter : this.sharedIndexWriters) {
+                sharedIndexWriter.getIndexWriter().deleteDocuments(deletionQuery);
+                recordChanges(sharedIndexWriter);
+            }
         } catch (IOException e) {
             close();
             throw new StorageException(e.getMessage(), e);
@@ -201,19 +317,328 @@ public class DataWriter {
                 newTuple = getTupleWithID(newTuple, idField);
             }
             
-            this.luceneIndexWriter.updateDocument(
-                    new Term(SchemaConstants._ID, idField.getValue().toString()),
-                    getLuceneDocument(newTuple)); 
+            Term idTerm = new Term(SchemaConstants._ID, idField.getValue().toString());
+            Document document = getLuceneDocument(newTuple, this.dataStore);
+            SharedIndexWriter sharedIndexWriter = getTupleIndexWriter(idField, newTuple);
+            if (this.dataStore.isPartitioned()) {
+                // the tuple may move to another partition
+                for (SharedIndexWriter partitionIndexWriter : this.sharedIndexWriters) {
+                    if (partitionIndexWriter != sharedIndexWriter) {
+                        partitionIndexWriter.getIndexWriter().deleteDocuments(idTerm);
+                        recordChanges(partitionIndexWriter);
+                    }
+                }
+            }
+            sharedIndexWriter.getIndexWriter().updateDocument(idTerm, document); 
+            recordChanges(sharedIndexWriter);
         } catch (IOException e) {
             close();
             throw new StorageException(e);
         }
     }
 
+    /**
+     * Deletes a collection of tuples by their ID fields.
+     * The deletions are applied in batches, and committed together when this function returns.
+     * 
+     * @param idFields
+     * @throws StorageException
+     */
+    public void deleteTuples(Collection<IDField> idFields) throws StorageException {
+        if (! isOpen) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        openNewPartitionIndexWriters();
+        // group the _id terms by shard
+        Map<SharedIndexWriter, List<Term>> shardTerms = new LinkedHashMap<>();
+        for (IDField idField : idFields) {
+            Term idTerm = new Term(SchemaConstants._ID, idField.getValue().toString());
+            for (SharedIndexWriter sharedIndexWriter : getIDIndexWriters(idField)) {
+                shardTerms.computeIfAbsent(sharedIndexWriter, k -> new ArrayList<>()).add(idTerm);
+            }
+        }
+        
+        applyInSingleCommit(() -> {
+            for (Entry<SharedIndexWriter, List<Term>> entry : shardTerms.entrySet()) {
+                SharedIndexWriter sharedIndexWriter = entry.getKey();
+                List<Term> terms = entry.getValue();
+                for (int start = 0; start < terms.size(); start += BULK_BATCH_SIZE) {
+                    List<Term> batch = terms.subList(start, Math.min(start + BULK_BATCH_SIZE, terms.size()));
+                    sharedIndexWriter.getIndexWriter().deleteDocuments(batch.stream().toArray(Term[]::new));
+                }
+                recordChanges(sharedIndexWriter, terms.size());
+            }
+        });
+    }
+    
+    /**
+     * Updates a collection of tuples by their ID fields, the _id of each tuple remains the same.
+     * The updates are applied in batches, and committed together when this function returns.
+     * 
+     * @param newTuples, a map from the ID field of a tuple to its new tuple
+     * @throws StorageException
+     */
+    public void updateTuples(Map<IDField, Tuple> newTuples) throws StorageException {
+        if (! isOpen) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        List<Entry<IDField, Tuple>> updates = new ArrayList<>(newTuples.entrySet());
+        openNewPartitionIndexWriters();
+        try {
+            // the partitions that the tuples move to are opened before the bulk change
+            for (Entry<IDField, Tuple> update : updates) {
+                getTupleIndexWriter(update.getKey(), update.getValue());
+            }
+        } catch (IOException e) {
+            close();
+            throw new StorageException(e.getMessage(), e);
+        }
+        applyInSingleCommit(() -> {
+            for (int start = 0; start < updates.size(); start += BULK_BATCH_SIZE) {
+                applyUpdateBatch(updates.subList(start, Math.min(start + BULK_BATCH_SIZE, updates.size())));
+            }
+        });
+    }
+    
+    /**
+     * Updates an attribute of all the tuples that match a query, the _id of each tuple remains the same.
+     * The tuples are read and updated in batches, and the updates are committed together when this function returns.
+     * 
+     * @param query, the query that matches the tuples to be updated
+     * @param attributeName, the attribute to be updated
+     * @param fieldTransform, the function that computes the new field from the current field of a tuple
+     * @return the number of updated tuples
+     * @throws StorageException
+     */
+    public int updateTuples(Query query, String attributeName, Function<IField, IField> fieldTransform) 
+            throws StorageException {
+        if (! isOpen) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        if (attributeName.equalsIgnoreCase(SchemaConstants._ID) || ! this.schema.containsAttribute(attributeName)) {
+            throw new StorageException(String.format("Attribute %s can't be updated.", attributeName));
+        }
+        return updateTuples(query, tuple -> {
+            int attributeIndex = tuple.getSchema().getIndex(attributeName);
+            List<IField> fields = new ArrayList<>(tuple.getFields());
+            fields.set(attributeIndex, fieldTransform.apply(fields.get(attributeIndex)));
+            return new Tuple(tuple.getSchema(), fields);
+        });
+    }
+    
+    /**
+     * Updates all the tuples that match a query, the _id of each tuple remains the same.
+     * The tuples are read and updated in batches, and the updates are committed together when this function returns.
+     * 
+     * @param query, the query that matches the tuples to be updated
+     * @param tupleTransform, the function that computes the new tuple from the current tuple (with the _id field)
+     * @return the number of updated tuples
+     * @throws StorageException
+     */
+    public int updateTuples(Query query, Function<Tuple, Tuple> tupleTransform) throws StorageException {
+        if (! isOpen) {
+            throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
+        }
+        int[] numUpdated = {0};
+        
+        openNewPartitionIndexWriters();
+        if (this.dataStore.isPartitioned()) {
+            // the partitions that the updated tuples move to are opened before the bulk change, 
+            //   so the tuple transform must return the same tuple when it's applied again
+            DataReader dataReader = new DataReader(this.dataStore, query, false);
+            dataReader.open();
+            try {
+                Tuple tuple;
+                while ((tuple = dataReader.getNextTuple()) != null) {
+                    getTupleIndexWriter(tuple.getField(SchemaConstants._ID), tupleTransform.apply(tuple));
+                }
+            } catch (IOException e) {
+                close();
+                throw new StorageException(e.getMessage(), e);
+            } finally {
+                dataReader.close();
+            }
+        }
+        
+        applyInSingleCommit(() -> {
+            // the reader sees the tuples as they were before the update
+            DataReader dataReader = new DataReader(this.dataStore, query, false);
+            dataReader.open();
+            try {
+                List<Entry<IDField, Tuple>> batch = new ArrayList<>();
+                Tuple tuple;
+                while ((tuple = dataReader.getNextTuple()) != null) {
+                    batch.add(new SimpleEntry<>(tuple.getField(SchemaConstants._ID), tupleTransform.apply(tuple)));
+                    if (batch.size() == BULK_BATCH_SIZE) {
+                        applyUpdateBatch(batch);
+                        numUpdated[0] += batch.size();
+                        batch.clear();
+                    }
+                }
+                applyUpdateBatch(batch);
+                numUpdated[0] += batch.size();
+            } finally {
+                dataReader.close();
+            }
+        });
+        return numUpdated[0];
+    }
+    
+    /*
+     * Replaces a batch of tuples in the shards, the tuples of each shard are deleted and added in one call.
+     */
+    private void applyUpdateBatch(List<Entry<IDField, Tuple>> batch) throws IOException {
+        Map<SharedIndexWriter, List<Term>> shardTerms = new LinkedHashMap<>();
+        Map<SharedIndexWriter, List<Document>> shardDocuments = new HashMap<>();
+        for (Entry<IDField, Tuple> update : batch) {
+            IDField idField = update.getKey();
+            Tuple newTuple = update.getValue();
+            // if the newTuple contains the _id field, make sure the ID is consistent.
+            if (newTuple.getSchema().containsAttribute(SchemaConstants._ID) 
+                    && ! newTuple.getField(SchemaConstants._ID).equals(idField)) {
+                throw new StorageException("New tuple's ID is inconsistent with idValue.");
+            }
+            Term idTerm = new Term(SchemaConstants._ID, idField.getValue().toString());
+            for (SharedIndexWriter sharedIndexWriter : getIDIndexWriters(idField)) {
+                shardTerms.computeIfAbsent(sharedIndexWriter, k -> new ArrayList<>()).add(idTerm);
+            }
+            SharedIndexWriter tupleIndexWriter = getTupleIndexWriter(idField, newTuple);
+            shardTerms.computeIfAbsent(tupleIndexWriter, k -> new ArrayList<>());
+            shardDocuments.computeIfAbsent(tupleIndexWriter, k -> new ArrayList<>())
+                    .add(getLuceneDocument(idField, newTuple, this.dataStore));
+        }
+        for (Entry<SharedIndexWriter, List<Term>> entry : shardTerms.entrySet()) {
+            SharedIndexWriter sharedIndexWriter = entry.getKey();
+            List<Term> terms = entry.getValue();
+            List<Document> documents = shardDocuments.getOrDefault(sharedIndexWriter, new ArrayList<>());
+            if (! terms.isEmpty()) {
+                sharedIndexWriter.getIndexWriter().deleteDocuments(terms.stream().toArray(Term[]::new));
+            }
+            sharedIndexWriter.getIndexWriter().addDocuments(documents);
+            recordChanges(sharedIndexWriter, Math.max(terms.size(), documents.size()));
+        }
+    }
+    
+    /*
+     * Applies a bulk change to all the shards, 
+     *   none of the shards commits until the bulk change is completed.
+     * The shards are locked in the order of their directories, 
+     *   so that the DataWriters of the same table always lock them in the same order.
+     */
+    private void applyInSingleCommit(SharedIndexWriter.BulkChange bulkChange) throws StorageException {
+        List<SharedIndexWriter> indexWriters = new ArrayList<>(this.sharedIndexWriters);
+        indexWriters.sort(Comparator.comparing(SharedIndexWriter::getDirectory));
+        this.inBulkChange = true;
+        try {
+            applyInSingleCommit(indexWriters, 0, bulkChange);
+        } catch (IOException e) {
+            close();
+            throw new StorageException(e.getMessage(), e);
+        } finally {
+            this.inBulkChange = false;
+        }
+    }
+    
+    private static void applyInSingleCommit(List<SharedIndexWriter> indexWriters, int shard, 
+            SharedIndexWriter.BulkChange bulkChange) throws IOException {
+        if (shard == indexWriters.size()) {
+            bulkChange.apply();
+        } else {
+            indexWriters.get(shard).applyInSingleCommit(() -> applyInSingleCommit(indexWriters, shard + 1, bulkChange));
+        }
+    }
+    
+    /*
+     * Opens the IndexWriters of the partitions created after this DataWriter is opened,
+     *   so that a bulk change by _id also covers the tuples written to them by other DataWriters.
+     */
+    private void openNewPartitionIndexWriters() throws StorageException {
+        if (! this.dataStore.isPartitioned()) {
+            return;
+        }
+        try {
+            for (Path partitionDirectory : this.dataStore.getShardDirectories()) {
+                getPartitionIndexWriter(partitionDirectory);
+            }
+        } catch (IOException e) {
+            close();
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
     /*
-     * Converts a Texera tuple to a Lucene document
+     * Gets the IndexWriters of the shards that may contain the tuple with the _id,
+     *   which are all the partitions of a partitioned table.
      */
-    private static Document getLuceneDocument(Tuple tuple) {
+    private List<SharedIndexWriter> getIDIndexWriters(IDField idField) {
+        if (this.dataStore.isPartitioned()) {
+            return this.sharedIndexWriters;
+        }
+        return Collections.singletonList(this.sharedIndexWriters.get(this.dataStore.getShard(idField.getValue().toString())));
+    }
+    
+    /*
+     * Gets the IndexWriter of the shard that the tuple belongs to,
+     *   the IndexWriter of a new partition is opened when its first tuple is written.
+     */
+    private SharedIndexWriter getTupleIndexWriter(IDField idField, Tuple tuple) throws IOException {
+        if (! this.dataStore.isPartitioned()) {
+            return this.sharedIndexWriters.get(this.dataStore.getShard(idField.getValue().toString()));
+        }
+        Object partitionValue = tuple.getField(this.dataStore.getPartitionAttribute()).getValue();
+        LocalDate partitionDate;
+        if (partitionValue instanceof LocalDate) {
+            partitionDate = (LocalDate) partitionValue;
+        } else if (partitionValue instanceof LocalDateTime) {
+            partitionDate = ((LocalDateTime) partitionValue).toLocalDate();
+        } else {
+            throw new StorageException(String.format("The partition attribute %s of a tuple must be a date.", 
+                    this.dataStore.getPartitionAttribute()));
+        }
+        return getPartitionIndexWriter(this.dataStore.getPartitionDirectory(partitionDate));
+    }
+    
+    private SharedIndexWriter getPartitionIndexWriter(Path partitionDirectory) throws IOException {
+        SharedIndexWriter sharedIndexWriter = this.partitionIndexWriters.get(partitionDirectory);
+        if (sharedIndexWriter == null) {
+            // a partition opened during a bulk change would be neither locked nor committed with the change
+            if (this.inBulkChange) {
+                throw new StorageException(String.format(
+                        "The partition %s is not opened before the bulk change.", partitionDirectory));
+            }
+            sharedIndexWriter = IndexWriterRegistry.acquire(partitionDirectory, analyzer, 
+                    this.dataStore.getDirectoryType(), this.dataStore.getCompressionMode());
+            this.sharedIndexWriters.add(sharedIndexWriter);
+            this.partitionIndexWriters.put(partitionDirectory, sharedIndexWriter);
+        }
+        return sharedIndexWriter;
+    }
+    
+    private void recordChanges(SharedIndexWriter sharedIndexWriter) throws IOException {
+        recordChanges(sharedIndexWriter, 1);
+    }
+    
+    private void recordChanges(SharedIndexWriter sharedIndexWriter, int numChanges) throws IOException {
+        this.hasChanges = true;
+        sharedIndexWriter.recordChanges(numChanges);
+    }
+
+    /*
+     * The type of the gram fields, the offsets of the grams are kept in the postings 
+     *   so that the operators can find the positions of the grams in a document.
+     */
+    private static final FieldType GRAM_FIELD_TYPE = new FieldType(TextField.TYPE_NOT_STORED);
+    static {
+        GRAM_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        GRAM_FIELD_TYPE.freeze();
+    }
+
+    /*
+     * Converts a Texera tuple to a Lucene document, 
+     *   the TEXT attributes with a companion trigram index are also added to their gram fields.
+     */
+    private static Document getLuceneDocument(Tuple tuple, DataStore dataStore) {
+        boolean storeTermVectors = dataStore.isTermVectorsStored();
         List<IField> fields = tuple.getFields();
         List<Attribute> attributes = tuple.getSchema().getAttributes();
         Document doc = new Document();
@@ -221,7 +646,34 @@ public class DataWriter {
             IField field = fields.get(count);
             Attribute attr = attributes.get(count);
             AttributeType attributeType = attr.getType();
-            doc.add(StorageUtils.getLuceneField(attributeType, attr.getName(), field.getValue()));
+            for (IndexableField luceneField : StorageUtils.getLuceneFields(attributeType, attr.getName(), field.getValue(),
+                    storeTermVectors)) {
+                doc.add(luceneField);
+            }
+            if (attributeType == AttributeType.TEXT && dataStore.getGramAttributes().contains(attr.getName())
+                    && field.getValue() != null) {
+                doc.add(new Field(DataStore.getGramFieldName(attr.getName()), field.getValue().toString(), 
+                        GRAM_FIELD_TYPE));
+            }
+        }
+        return doc;
+    }
+    
+    /*
+     * Converts a Texera tuple to a Lucene document with the _id field in the front, 
+     *   without rebuilding the tuple if it doesn't have the _id field.
+     */
+    private static Document getLuceneDocument(IDField idField, Tuple tuple, DataStore dataStore) {
+        if (tuple.getSchema().containsAttribute(SchemaConstants._ID)) {
+            return getLuceneDocument(tuple, dataStore);
+        }
+        Document doc = new Document();
+        for (IndexableField luceneField : StorageUtils.getLuceneFields(AttributeType._ID_TYPE, SchemaConstants._ID, 
+                idField.getValue(), dataStore.isTermVectorsStored())) {
+            doc.add(luceneField);
+        }
+        for (IndexableField luceneField : getLuceneDocument(tuple, dataStore)) {
+            doc.add(luceneField);
         }
         return doc;
     }
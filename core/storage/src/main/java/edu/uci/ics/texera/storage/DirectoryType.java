@@ -0,0 +1,80 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+
+/**
+ * DirectoryType is the Lucene directory implementation used to access the index of a table.
+ * 
+ * FS: lets Lucene choose the implementation for the platform (the default).
+ * MMAP: memory-maps the index files, the files are pre-loaded into memory when they are opened.
+ * NIO: reads the index files with positional NIO reads.
+ * RAM: keeps a copy of the committed index in memory for reads, which should only be used for small tables.
+ *   Writes still go to the files on disk, and the copy is reloaded after a new commit.
+ */
+public enum DirectoryType {
+    FS("fs"),
+    
+    MMAP("mmap"),
+    
+    NIO("nio"),
+    
+    RAM("ram");
+    
+    private final String name;
+    
+    private DirectoryType(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return this.name;
+    }
+    
+    @Override
+    public String toString() {
+        return this.getName();
+    }
+    
+    /**
+     * Converts a directory type name to a DirectoryType (case insensitive).
+     * 
+     * @param name
+     * @return
+     * @throws StorageException if the name is not a valid directory type
+     */
+    public static DirectoryType fromName(String name) throws StorageException {
+        return Stream.of(DirectoryType.values())
+                .filter(type -> type.getName().equalsIgnoreCase(name))
+                .findAny().orElseThrow(() -> new StorageException(String.format("Invalid directory type: %s.", name)));
+    }
+    
+    /**
+     * Opens the on-disk directory of an index with this implementation.
+     * 
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    Directory open(Path path) throws IOException {
+        switch (this) {
+        case MMAP:
+            MMapDirectory mmapDirectory = new MMapDirectory(path);
+            mmapDirectory.setPreload(true);
+            return mmapDirectory;
+        case NIO:
+            return new NIOFSDirectory(path);
+        default:
+            return FSDirectory.open(path);
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.AlreadyClosedException;
+
+/**
+ * IndexWriterRegistry keeps one shared Lucene IndexWriter for each index directory,
+ *   so that concurrent DataWriters of the same table don't collide on Lucene's write lock,
+ *   and a writer doesn't have to be re-opened for every small write.
+ * 
+ * A writer stays open after all its DataWriters are closed, and it's closed after being idle for IDLE_TIMEOUT_MILLIS.
+ * Uncommitted changes of the writers without open DataWriters are committed every COMMIT_INTERVAL_MILLIS,
+ *   the writers with open DataWriters are not committed by the timer, 
+ *   so that the changes of a DataWriter (such as clearing a table and writing it again) 
+ *   are only made durable by its flush() or close(), or when the writer reaches COMMIT_BATCH_SIZE changes.
+ * All the writers are committed and closed when the JVM shuts down.
+ * 
+ * DataReaders of a directory with an open writer read from the writer's near-real-time reader,
+ *   which is refreshed every REFRESH_INTERVAL_MILLIS, so that the tuples being ingested can be queried 
+ *   without waiting for the writer to be closed.
+ * 
+ * IndexWriterRegistry is only accessible inside the storage package.
+ */
+class IndexWriterRegistry {
+    
+    static final long COMMIT_INTERVAL_MILLIS = 1000;
+    static final long IDLE_TIMEOUT_MILLIS = 60000;
+    static final long REFRESH_INTERVAL_MILLIS = 1000;
+    
+    // the writers by the real path of their directories
+    private static final Map<Path, SharedIndexWriter> sharedWriters = new HashMap<>();
+    
+    // the commits and the refreshes run on their own threads, so that a slow commit doesn't delay the refreshes
+    private static final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "texera-index-committer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "texera-index-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    static {
+        committer.scheduleWithFixedDelay(IndexWriterRegistry::commitAndCloseIdleWriters, 
+                COMMIT_INTERVAL_MILLIS, COMMIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        refresher.scheduleWithFixedDelay(IndexWriterRegistry::refreshReaders, 
+                REFRESH_INTERVAL_MILLIS, REFRESH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(IndexWriterRegistry::closeAllWriters));
+    }
+    
+    private IndexWriterRegistry() {
+    }
+    
+    /**
+     * Gets the shared writer of an index directory, the writer is opened if it's not open yet.
+     * Every acquired writer must be released by release().
+     * 
+     * @param directory, the index directory, it's created if it doesn't exist
+     * @param analyzer, the analyzer used if a new writer is opened
+     * @param directoryType, the directory implementation used if a new writer is opened
+     * @param compressionMode, the compression of the stored fields used if a new writer is opened
+     * @return
+     * @throws IOException
+     */
+    static synchronized SharedIndexWriter acquire(Path directory, Analyzer analyzer, DirectoryType directoryType,
+            CompressionMode compressionMode) throws IOException {
+        Files.createDirectories(directory);
+        Path realDirectory = directory.toRealPath();
+        
+        SharedIndexWriter sharedWriter = sharedWriters.get(realDirectory);
+        // the writer is closed by Lucene if it encountered an unrecoverable error
+        if (sharedWriter == null || ! sharedWriter.isOpen()) {
+            IndexWriterConfig indexWriterConfig = new IndexWriterConfig(analyzer).setCodec(compressionMode.getCodec());
+            IndexWriter indexWriter = new IndexWriter(directoryType.open(realDirectory), indexWriterConfig);
+            sharedWriter = new SharedIndexWriter(realDirectory, indexWriter);
+            sharedWriters.put(realDirectory, sharedWriter);
+        }
+        sharedWriter.acquire();
+        return sharedWriter;
+    }
+    
+    static synchronized void release(SharedIndexWriter sharedWriter) {
+        sharedWriter.release();
+    }
+    
+    /**
+     * Acquires a near-real-time reader of an index directory if the directory has an open writer,
+     *   returns null otherwise.
+     * The reader must be released by decRef() (or by closing a reader that wraps it).
+     * 
+     * @param directory
+     * @return
+     * @throws IOException
+     */
+    static DirectoryReader acquireReader(Path directory) throws IOException {
+        SharedIndexWriter sharedWriter;
+        synchronized (IndexWriterRegistry.class) {
+            if (sharedWriters.isEmpty() || Files.notExists(directory)) {
+                return null;
+            }
+            sharedWriter = sharedWriters.get(directory.toRealPath());
+        }
+        if (sharedWriter == null || ! sharedWriter.isOpen()) {
+            return null;
+        }
+        try {
+            return sharedWriter.acquireReader();
+        } catch (AlreadyClosedException e) {
+            // the writer is closed after it's found, the index is read from the directory instead
+            return null;
+        }
+    }
+    
+    /**
+     * Commits and closes the shared writer of an index directory if it's open, 
+     *   this function must be called before the directory is deleted.
+     * 
+     * @param directory
+     * @throws IOException
+     */
+    static synchronized void closeWriter(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        SharedIndexWriter sharedWriter = sharedWriters.remove(directory.toRealPath());
+        if (sharedWriter != null && sharedWriter.isOpen()) {
+            sharedWriter.close();
+        }
+    }
+    
+    private static void commitAndCloseIdleWriters() {
+        List<SharedIndexWriter> writersToCommit = new ArrayList<>();
+        synchronized (IndexWriterRegistry.class) {
+            long currentTime = System.currentTimeMillis();
+            Iterator<SharedIndexWriter> iterator = sharedWriters.values().iterator();
+            while (iterator.hasNext()) {
+                SharedIndexWriter sharedWriter = iterator.next();
+                if (! sharedWriter.isOpen()) {
+                    iterator.remove();
+                } else if (sharedWriter.getReferenceCount() == 0 
+                        && currentTime - sharedWriter.getLastReleaseTime() > IDLE_TIMEOUT_MILLIS) {
+                    iterator.remove();
+                    closeQuietly(sharedWriter);
+                } else if (sharedWriter.getReferenceCount() == 0 && sharedWriter.hasUncommittedChanges()) {
+                    writersToCommit.add(sharedWriter);
+                }
+            }
+        }
+        // commit outside of the lock so that acquiring other writers is not blocked
+        for (SharedIndexWriter sharedWriter : writersToCommit) {
+            try {
+                sharedWriter.commit();
+            } catch (IOException | RuntimeException e) {
+                // the error is thrown again to the DataWriters on their next commit
+            }
+        }
+    }
+    
+    private static void refreshReaders() {
+        List<SharedIndexWriter> writersToRefresh;
+        synchronized (IndexWriterRegistry.class) {
+            writersToRefresh = sharedWriters.values().stream()
+                    .filter(sharedWriter -> sharedWriter.isOpen() && sharedWriter.hasUnrefreshedChanges())
+                    .collect(Collectors.toList());
+        }
+        for (SharedIndexWriter sharedWriter : writersToRefresh) {
+            try {
+                sharedWriter.refreshReader();
+            } catch (IOException | RuntimeException e) {
+                // the reader is refreshed again when it's acquired
+            }
+        }
+    }
+    
+    private static synchronized void closeAllWriters() {
+        for (SharedIndexWriter sharedWriter : sharedWriters.values()) {
+            closeQuietly(sharedWriter);
+        }
+        sharedWriters.clear();
+    }
+    
+    private static void closeQuietly(SharedIndexWriter sharedWriter) {
+        try {
+            if (sharedWriter.isOpen()) {
+                sharedWriter.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            // the writer can't be used anymore, the changes since the last commit are lost
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package edu.uci.ics.texera.storage;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.stream.Stream;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+
+/**
+ * PartitionGranularity is the time range covered by one partition of a time-partitioned table.
+ *
+ * NONE: the table is not partitioned (the default).
+ * DAY: each partition contains the tuples of one day, its key is the date, such as "2017-03-21".
+ * MONTH: each partition contains the tuples of one month, its key is the month, such as "2017-03".
+ *
+ * The partition of a tuple is determined by the date (the date part for DATETIME) of the partition attribute.
+ */
+public enum PartitionGranularity {
+    NONE("none"),
+
+    DAY("day"),
+
+    MONTH("month");
+
+    private final String name;
+
+    private PartitionGranularity(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String toString() {
+        return this.getName();
+    }
+
+    /**
+     * Converts a partition granularity name to a PartitionGranularity (case insensitive).
+     *
+     * @param name
+     * @return
+     * @throws StorageException if the name is not a valid partition granularity
+     */
+    public static PartitionGranularity fromName(String name) throws StorageException {
+        return Stream.of(PartitionGranularity.values())
+                .filter(granularity -> granularity.getName().equalsIgnoreCase(name))
+                .findAny().orElseThrow(() -> new StorageException(String.format("Invalid partition granularity: %s.", name)));
+    }
+
+    /**
+     * Gets the key of the partition that contains the date.
+     *
+     * @param date
+     * @return
+     */
+    public String getPartitionKey(LocalDate date) {
+        switch (this) {
+        case DAY:
+            return date.toString();
+        case MONTH:
+            return YearMonth.from(date).toString();
+        default:
+            throw new StorageException("The table is not partitioned.");
+        }
+    }
+
+    /**
+     * Gets the first date of a partition.
+     *
+     * @param partitionKey
+     * @return
+     * @throws StorageException if the partition key is invalid
+     */
+    public LocalDate getFirstDate(String partitionKey) throws StorageException {
+        try {
+            switch (this) {
+            case DAY:
+                return LocalDate.parse(partitionKey);
+            case MONTH:
+                return YearMonth.parse(partitionKey).atDay(1);
+            default:
+                throw new StorageException("The table is not partitioned.");
+            }
+        } catch (DateTimeParseException e) {
+            throw new StorageException(String.format("Invalid partition key: %s.", partitionKey), e);
+        }
+    }
+
+    /**
+     * Gets the last date of a partition.
+     *
+     * @param partitionKey
+     * @return
+     * @throws StorageException if the partition key is invalid
+     */
+    public LocalDate getLastDate(String partitionKey) throws StorageException {
+        try {
+            switch (this) {
+            case DAY:
+                return LocalDate.parse(partitionKey);
+            case MONTH:
+                return YearMonth.parse(partitionKey).atEndOfMonth();
+            default:
+                throw new StorageException("The table is not partitioned.");
+            }
+        } catch (DateTimeParseException e) {
+            throw new StorageException(String.format("Invalid partition key: %s.", partitionKey), e);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.RAMDirectory;
+
+/**
+ * RamDirectoryCache keeps in-memory copies of the committed indexes of the tables with the RAM directory type.
+ * A copy is reloaded from disk when the index has a new commit.
+ * 
+ * The replaced copies are not closed explicitly, since readers opened on them may still be in use,
+ *   they are garbage collected after the readers are closed.
+ */
+class RamDirectoryCache {
+    
+    private static class CachedDirectory {
+        private final long commitGeneration;
+        private final RAMDirectory ramDirectory;
+        
+        private CachedDirectory(long commitGeneration, RAMDirectory ramDirectory) {
+            this.commitGeneration = commitGeneration;
+            this.ramDirectory = ramDirectory;
+        }
+    }
+    
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    
+    private static final Map<Path, CachedDirectory> cachedDirectories = new HashMap<>();
+    
+    private RamDirectoryCache() {
+    }
+    
+    /**
+     * Gets the in-memory copy of the latest commit of an index directory.
+     * 
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    static synchronized Directory get(Path path) throws IOException {
+        Path realPath = path.toRealPath();
+        try (Directory fsDirectory = FSDirectory.open(realPath)) {
+            for (int attempt = 1; ; attempt++) {
+                long commitGeneration = SegmentInfos.getLastCommitGeneration(fsDirectory);
+                CachedDirectory cachedDirectory = cachedDirectories.get(realPath);
+                if (cachedDirectory != null && cachedDirectory.commitGeneration == commitGeneration) {
+                    return cachedDirectory.ramDirectory;
+                }
+                try {
+                    cachedDirectory = loadLatestCommit(fsDirectory);
+                    cachedDirectories.put(realPath, cachedDirectory);
+                    return cachedDirectory.ramDirectory;
+                } catch (NoSuchFileException | FileNotFoundException e) {
+                    // the files of the commit are deleted by a newer commit, load the newer commit instead
+                    if (attempt >= MAX_LOAD_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Removes the in-memory copy of an index directory, 
+     *   this function must be called before the directory is deleted.
+     * 
+     * @param path
+     * @throws IOException
+     */
+    static synchronized void invalidate(Path path) throws IOException {
+        if (Files.exists(path)) {
+            cachedDirectories.remove(path.toRealPath());
+        }
+    }
+    
+    /*
+     * Copies only the files of the latest commit, 
+     *   the files being written by an open index writer are not copied.
+     */
+    private static CachedDirectory loadLatestCommit(Directory fsDirectory) throws IOException {
+        SegmentInfos segmentInfos = SegmentInfos.readLatestCommit(fsDirectory);
+        RAMDirectory ramDirectory = new RAMDirectory();
+        for (String fileName : segmentInfos.files(true)) {
+            ramDirectory.copyFrom(fsDirectory, fileName, fileName, IOContext.READONCE);
+        }
+        return new CachedDirectory(segmentInfos.getGeneration(), ramDirectory);
+    }
+
+}
@@ -3,22 +3,39 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
 
+import edu.uci.ics.texera.api.constants.DataConstants;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.field.IDField;
 import edu.uci.ics.texera.api.field.IField;
+import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
@@ -33,6 +50,9 @@ public class RelationManager {
     private RelationManager() throws StorageException {
         if (! checkCatalogExistence()) {
             initializeCatalog();
+        } else {
+            upgradeCatalog();
+            reindexLegacyTables();
         }
     }
 
@@ -75,8 +95,111 @@ public class RelationManager {
      */
     public void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString)
             throws StorageException {
+        createTable(tableName, indexDirectory, schema, luceneAnalyzerString, 1);
+    }
+    
+    /**
+     * Creates a new table sharded into multiple Lucene indexes.
+     *   The tuples are hash-partitioned to the shards by their "_id", 
+     *   and reads on the table search all the shards in parallel.
+     *   
+     * A table with more shards can be written by more index writers and merged in smaller pieces,
+     *   the number of shards can't be changed after the table is created.
+     * 
+     * @param tableName, the name of the table, must be unique, case is not sensitive
+     * @param indexDirectory, the directory to store the index and data, must not duplicate with other tables' directories
+     * @param schema, the schema of the table
+     * @param luceneAnalyzerString, the string representing the lucene analyzer used
+     * @param numShards, the number of shards, must be at least 1
+     * @throws StorageException
+     */
+    public void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString, 
+            int numShards) throws StorageException {
+        createTable(tableName, indexDirectory, schema, luceneAnalyzerString, numShards, true);
+    }
+    
+    /**
+     * Creates a new table, with the option to not store the term vectors of TEXT attributes.
+     * 
+     * Without term vectors the index is considerably smaller and faster to write.
+     * The payload of the tuples is then built from the postings of the query terms, 
+     *   or by re-analyzing the text if the query doesn't have terms on the attribute.
+     * 
+     * @param tableName, the name of the table, must be unique, case is not sensitive
+     * @param indexDirectory, the directory to store the index and data, must not duplicate with other tables' directories
+     * @param schema, the schema of the table
+     * @param luceneAnalyzerString, the string representing the lucene analyzer used
+     * @param numShards, the number of shards, must be at least 1
+     * @param termVectorsStored, whether the term vectors of TEXT attributes are stored
+     * @throws StorageException
+     */
+    public void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString, 
+            int numShards, boolean termVectorsStored) throws StorageException {
+        createTable(tableName, indexDirectory, schema, luceneAnalyzerString, numShards, termVectorsStored, 
+                CompressionMode.BEST_SPEED);
+    }
+    
+    /**
+     * Creates a new table, with the compression mode of its stored fields.
+     * 
+     * BEST_SPEED suits the tables that are queried often, 
+     *   BEST_COMPRESSION makes the index of an archival table smaller at the cost of slower document loading.
+     * 
+     * @param tableName, the name of the table, must be unique, case is not sensitive
+     * @param indexDirectory, the directory to store the index and data, must not duplicate with other tables' directories
+     * @param schema, the schema of the table
+     * @param luceneAnalyzerString, the string representing the lucene analyzer used
+     * @param numShards, the number of shards, must be at least 1
+     * @param termVectorsStored, whether the term vectors of TEXT attributes are stored
+     * @param compressionMode, the compression mode of the stored fields
+     * @throws StorageException
+     */
+    public void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString, 
+            int numShards, boolean termVectorsStored, CompressionMode compressionMode) throws StorageException {
+        createTable(tableName, indexDirectory, schema, luceneAnalyzerString, numShards, termVectorsStored, 
+                compressionMode, null, PartitionGranularity.NONE);
+    }
+    
+    /**
+     * Creates a new time-partitioned table, which stores the tuples of each day or month in a separate index.
+     * 
+     * The readers of the table can skip the partitions outside of the date range of a query,
+     *   and the old data can be dropped by deleting whole partitions (see dropTablePartitions()).
+     * The partition attribute of the tuples written to the table can't be null.
+     * 
+     * @param tableName, the name of the table, must be unique, case is not sensitive
+     * @param indexDirectory, the directory to store the index and data, must not duplicate with other tables' directories
+     * @param schema, the schema of the table
+     * @param luceneAnalyzerString, the string representing the lucene analyzer used
+     * @param partitionAttribute, the DATE or DATETIME attribute that the table is partitioned on
+     * @param partitionGranularity, the time range covered by each partition, DAY or MONTH
+     * @throws StorageException
+     */
+    public void createPartitionedTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString,
+            String partitionAttribute, PartitionGranularity partitionGranularity) throws StorageException {
+        if (partitionGranularity == PartitionGranularity.NONE) {
+            throw new StorageException("The partition granularity of a partitioned table can't be none.");
+        }
+        if (! schema.containsAttribute(partitionAttribute)) {
+            throw new StorageException(String.format("Attribute %s is not in the schema.", partitionAttribute));
+        }
+        AttributeType partitionAttributeType = schema.getAttribute(partitionAttribute).getType();
+        if (partitionAttributeType != AttributeType.DATE && partitionAttributeType != AttributeType.DATETIME) {
+            throw new StorageException(String.format(
+                    "The partition attribute %s must be a DATE or DATETIME attribute.", partitionAttribute));
+        }
+        createTable(tableName, indexDirectory, schema, luceneAnalyzerString, 1, true, CompressionMode.BEST_SPEED, 
+                schema.getAttribute(partitionAttribute).getName(), partitionGranularity);
+    }
+    
+    private void createTable(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString, 
+            int numShards, boolean termVectorsStored, CompressionMode compressionMode, 
+            String partitionAttribute, PartitionGranularity partitionGranularity) throws StorageException {
         // convert the table name to lower case
         tableName = tableName.toLowerCase();
+        if (numShards < 1) {
+            throw new StorageException("The number of shards must be at least 1.");
+        }
         // table should not exist
         if (checkTableExistence(tableName)) {
             throw new StorageException(String.format("Table %s already exists.", tableName));
@@ -121,14 +244,16 @@ public class RelationManager {
         
         // create the directory and clear all data in the index directory
         Schema tableSchema = Schema.Builder.getSchemaWithID(schema);
-        DataStore tableDataStore = new DataStore(indexDirectory, tableSchema);
+        DataStore tableDataStore = new DataStore(indexDirectory, tableSchema, numShards, termVectorsStored, 
+                DirectoryType.FS, compressionMode, Collections.emptyList(), partitionAttribute, partitionGranularity);
         DataWriter dataWriter = new DataWriter(tableDataStore, luceneAnalyzer);
         dataWriter.open();
         dataWriter.clearData();
         dataWriter.close();
         
         // write table info to catalog
-        writeTableInfoToCatalog(tableName, indexDirectory, schema, luceneAnalyzerString);
+        writeTableInfoToCatalog(tableName, indexDirectory, schema, luceneAnalyzerString, numShards, termVectorsStored,
+                DirectoryType.FS, compressionMode, partitionAttribute, partitionGranularity);
 
     }
 
@@ -156,6 +281,15 @@ public class RelationManager {
         dataWriter.open();
         dataWriter.clearData();
         dataWriter.close();
+        // close the shared index writers before the files are deleted
+        try {
+            for (Path shardDirectory : dataWriter.getDataStore().getShardDirectories()) {
+                IndexWriterRegistry.closeWriter(shardDirectory);
+                RamDirectoryCache.invalidate(shardDirectory);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
         StorageUtils.deleteDirectory(getTableDirectory(tableName));
 
         // generate a query for the table name
@@ -175,6 +309,13 @@ public class RelationManager {
         schemaCatalogWriter.deleteTuple(catalogTableNameQuery);
         schemaCatalogWriter.close();
         
+        // delete the statistics of the table
+        try {
+            Files.deleteIfExists(getTableStatisticsPath(tableName));
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        
     }
     
     /**
@@ -219,6 +360,7 @@ public class RelationManager {
     /**
      * Gets a DataReader for a table based on a query.
      * DataReader can return tuples that match the query.
+     * If a snapshot is bound to the current thread, the DataReader reads the table in the snapshot.
      * 
      * @param tableName, the name of a table, case insensitive
      * @param tupleQuery, the query to run on the table
@@ -226,8 +368,34 @@ public class RelationManager {
      * @throws StorageException
      */
     public DataReader getTableDataReader(String tableName, Query tupleQuery) throws StorageException {
+        return getTableDataReader(tableName, tupleQuery, Snapshot.getBoundSnapshot());
+    }
+    
+    /**
+     * Gets a DataReader for a table based on a query, which reads the table in a snapshot.
+     * The DataReaders of the same table in a snapshot see the same version of the table.
+     * 
+     * @param tableName, the name of a table, case insensitive
+     * @param tupleQuery, the query to run on the table
+     * @param snapshot, the snapshot to read from, null means the latest version of the table is read
+     * @return
+     * @throws StorageException
+     */
+    public DataReader getTableDataReader(String tableName, Query tupleQuery, Snapshot snapshot) throws StorageException {
         DataStore tableDataStore = getTableDataStore(tableName);
-        return new DataReader(tableDataStore, tupleQuery);
+        DataReader dataReader = new DataReader(tableDataStore, tupleQuery, getTableAnalyzer(tableName));
+        dataReader.setSnapshot(snapshot);
+        return dataReader;
+    }
+    
+    /**
+     * Opens a point-in-time snapshot of the tables, which can be shared by the DataReaders of a query.
+     * The snapshot must be closed after all its DataReaders are opened.
+     * 
+     * @return
+     */
+    public Snapshot openSnapshot() {
+        return new Snapshot();
     }
     
     /**
@@ -238,9 +406,25 @@ public class RelationManager {
      * @throws StorageException
      */
     public DataStore getTableDataStore(String tableName) throws StorageException {
-        String tableDirectory = getTableDirectory(tableName);
+        // all the properties of the table are read from one tuple of the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The directory for table %s is not found.", tableName));
+        }
+        
         Schema tableSchema = getTableSchema(tableName);
-        return new DataStore(tableDirectory, tableSchema);
+        return new DataStore(tableCatalogTuple.getField(CatalogConstants.TABLE_DIRECTORY).getValue().toString(), 
+                tableSchema, 
+                (int) tableCatalogTuple.getField(CatalogConstants.TABLE_NUM_SHARDS).getValue(), 
+                Boolean.parseBoolean(tableCatalogTuple.getField(CatalogConstants.TABLE_TERM_VECTORS).getValue().toString()), 
+                DirectoryType.fromName(tableCatalogTuple.getField(CatalogConstants.TABLE_DIRECTORY_TYPE).getValue().toString()), 
+                CompressionMode.fromName(tableCatalogTuple.getField(CatalogConstants.TABLE_COMPRESSION).getValue().toString()),
+                getGramAttributes(tableCatalogTuple), 
+                getPartitionAttribute(tableCatalogTuple), 
+                PartitionGranularity.fromName(
+                        tableCatalogTuple.getField(CatalogConstants.TABLE_PARTITION_GRANULARITY).getValue().toString()));
     }
 
     /**
@@ -264,6 +448,333 @@ public class RelationManager {
         return directoryField.getValue().toString();
     }
 
+    /**
+     * Gets the number of shards of a table.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public int getTableNumShards(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The number of shards of table %s is not found.", tableName));
+        }
+        
+        return (int) tableCatalogTuple.getField(CatalogConstants.TABLE_NUM_SHARDS).getValue();
+    }
+
+    /**
+     * Checks if the term vectors of the TEXT attributes of a table are stored.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public boolean isTableTermVectorsStored(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The term vectors option of table %s is not found.", tableName));
+        }
+        
+        return Boolean.parseBoolean(tableCatalogTuple.getField(CatalogConstants.TABLE_TERM_VECTORS).getValue().toString());
+    }
+
+    /**
+     * Gets the directory type used to access the index of a table.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public DirectoryType getTableDirectoryType(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The directory type of table %s is not found.", tableName));
+        }
+        
+        return DirectoryType.fromName(tableCatalogTuple.getField(CatalogConstants.TABLE_DIRECTORY_TYPE).getValue().toString());
+    }
+    
+    /**
+     * Gets the compression mode of the stored fields of a table.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public CompressionMode getTableCompressionMode(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The compression mode of table %s is not found.", tableName));
+        }
+        
+        return CompressionMode.fromName(tableCatalogTuple.getField(CatalogConstants.TABLE_COMPRESSION).getValue().toString());
+    }
+    
+    /**
+     * Sets the directory type used to access the index of a table.
+     * 
+     * Hot tables that are queried often can be memory-mapped (MMAP), 
+     *   or kept in memory (RAM) if they are small enough.
+     * The shared index writers of the table are committed and closed, 
+     *   so that the writers opened afterwards use the new directory type.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @param directoryType, the new directory type
+     * @throws StorageException
+     */
+    public void setTableDirectoryType(String tableName, DirectoryType directoryType) throws StorageException {
+        // the shared index writers and the in-memory copies were opened with the old directory type
+        DataStore tableDataStore = getTableDataStore(tableName);
+        try {
+            for (Path shardDirectory : tableDataStore.getShardDirectories()) {
+                IndexWriterRegistry.closeWriter(shardDirectory);
+                RamDirectoryCache.invalidate(shardDirectory);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        updateTableCatalogField(tableName, CatalogConstants.TABLE_DIRECTORY_TYPE, new StringField(directoryType.getName()));
+    }
+    
+    /**
+     * Gets the TEXT attributes of a table that have a companion trigram index.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public List<String> getTableGramAttributes(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The gram attributes of table %s are not found.", tableName));
+        }
+        
+        return getGramAttributes(tableCatalogTuple);
+    }
+    
+    /*
+     * Gets the gram attributes from the table catalog tuple of a table.
+     */
+    private static List<String> getGramAttributes(Tuple tableCatalogTuple) {
+        String gramAttributes = tableCatalogTuple.getField(CatalogConstants.TABLE_GRAM_ATTRIBUTES).getValue().toString();
+        if (gramAttributes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(gramAttributes.split(","));
+    }
+    
+    /**
+     * Sets the TEXT attributes of a table that have a companion trigram index, 
+     *   and rebuilds the index of the table with the new gram fields.
+     * 
+     * The trigram index lets the operators find the candidate tuples of a substring or a regex 
+     *   with an index lookup instead of scanning the whole table, at the cost of a larger index.
+     * The tuples written after this function returns maintain the gram fields automatically.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @param gramAttributes, the TEXT attributes to be indexed by trigrams, an empty collection drops the trigram index
+     * @throws StorageException
+     */
+    public void setTableGramAttributes(String tableName, Collection<String> gramAttributes) throws StorageException {
+        tableName = tableName.toLowerCase();
+        Schema tableSchema = getTableSchema(tableName);
+        for (String attributeName : gramAttributes) {
+            if (! tableSchema.containsAttribute(attributeName) 
+                    || tableSchema.getAttribute(attributeName).getType() != AttributeType.TEXT) {
+                throw new StorageException(String.format(
+                        "Attribute %s is not a TEXT attribute of table %s.", attributeName, tableName));
+            }
+        }
+        
+        // the analyzer of the shared index writers depends on the gram attributes, 
+        //   so the writers opened with the old gram attributes are closed first
+        DataStore tableDataStore = getTableDataStore(tableName);
+        try {
+            for (Path shardDirectory : tableDataStore.getShardDirectories()) {
+                IndexWriterRegistry.closeWriter(shardDirectory);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        
+        // rewrite all the tuples in one commit to add or remove the gram fields, 
+        //   the catalog is only changed after the rewrite, 
+        //   so the readers never search the gram fields before they are built for all the tuples
+        DataStore gramDataStore = new DataStore(tableDataStore.getDataDirectory(), tableDataStore.getSchema(), 
+                tableDataStore.getNumShards(), tableDataStore.isTermVectorsStored(), tableDataStore.getDirectoryType(), 
+                tableDataStore.getCompressionMode(), gramAttributes, tableDataStore.getPartitionAttribute(), 
+                tableDataStore.getPartitionGranularity());
+        DataWriter dataWriter = new DataWriter(gramDataStore, getTableAnalyzer(tableName));
+        dataWriter.open();
+        try {
+            dataWriter.updateTuples(new MatchAllDocsQuery(), tuple -> tuple);
+        } finally {
+            dataWriter.close();
+        }
+        
+        updateTableCatalogField(tableName, CatalogConstants.TABLE_GRAM_ATTRIBUTES, 
+                new StringField(String.join(",", gramAttributes)));
+    }
+    
+    /**
+     * Gets the attribute that a time-partitioned table is partitioned on, null if the table is not partitioned.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public String getTablePartitionAttribute(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The partition attribute of table %s is not found.", tableName));
+        }
+        
+        return getPartitionAttribute(tableCatalogTuple);
+    }
+    
+    /*
+     * Gets the partition attribute from the table catalog tuple of a table, null if the table is not partitioned.
+     */
+    private static String getPartitionAttribute(Tuple tableCatalogTuple) {
+        String partitionAttribute = tableCatalogTuple.getField(CatalogConstants.TABLE_PARTITION_ATTRIBUTE)
+                .getValue().toString();
+        return partitionAttribute.isEmpty() ? null : partitionAttribute;
+    }
+    
+    /**
+     * Gets the partition granularity of a table, NONE if the table is not partitioned.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public PartitionGranularity getTablePartitionGranularity(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The partition granularity of table %s is not found.", tableName));
+        }
+        
+        return PartitionGranularity.fromName(
+                tableCatalogTuple.getField(CatalogConstants.TABLE_PARTITION_GRANULARITY).getValue().toString());
+    }
+    
+    /**
+     * Gets the version of the index format that the tuples of a table are written in 
+     *   (see CatalogConstants.CURRENT_INDEX_VERSION).
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public int getTableIndexVersion(String tableName) throws StorageException {
+        // get the tuples with tableName from the table catalog
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        
+        // if the tuple is not found, then the table name is not found
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("The index version of table %s is not found.", tableName));
+        }
+        
+        return (int) tableCatalogTuple.getField(CatalogConstants.TABLE_INDEX_VERSION).getValue();
+    }
+    
+    /**
+     * Gets the keys of the existing partitions of a time-partitioned table in the order of their dates, 
+     *   such as "2017-03-21" for a DAY partition and "2017-03" for a MONTH partition.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public List<String> getTablePartitions(String tableName) throws StorageException {
+        return getTableDataStore(tableName).getPartitionKeys();
+    }
+    
+    /**
+     * Drops the partitions of a time-partitioned table that only contain the tuples before a date,
+     *   by deleting the directories of the partitions. 
+     * It's much faster than deleting the tuples, and the space is freed immediately.
+     * The DataWriters of the table must be closed.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @param date, the partitions whose last date is before the date are dropped
+     * @return the number of dropped partitions
+     * @throws StorageException
+     */
+    public int dropTablePartitions(String tableName, LocalDate date) throws StorageException {
+        DataStore tableDataStore = getTableDataStore(tableName);
+        if (! tableDataStore.isPartitioned()) {
+            throw new StorageException(String.format("Table %s is not partitioned.", tableName));
+        }
+        PartitionGranularity partitionGranularity = tableDataStore.getPartitionGranularity();
+        List<Path> droppedPartitions = tableDataStore.getPartitionKeys().stream()
+                .filter(partitionKey -> partitionGranularity.getLastDate(partitionKey).isBefore(date))
+                .map(partitionKey -> tableDataStore.getPartitionDirectory(partitionGranularity.getFirstDate(partitionKey)))
+                .collect(Collectors.toList());
+        try {
+            for (Path partitionDirectory : droppedPartitions) {
+                // close the shared index writer before the files are deleted
+                IndexWriterRegistry.closeWriter(partitionDirectory);
+                RamDirectoryCache.invalidate(partitionDirectory);
+                StorageUtils.deleteDirectory(partitionDirectory.toString());
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        return droppedPartitions.size();
+    }
+    
+    /*
+     * Replaces one field of the table catalog row of a table, 
+     *   the old row is deleted and the new row is inserted in the same commit.
+     */
+    void updateTableCatalogField(String tableName, String catalogAttributeName, IField newField) 
+            throws StorageException {
+        tableName = tableName.toLowerCase();
+        if (isSystemCatalog(tableName)) {
+            throw new StorageException("Modifying a system catalog table is prohibited.");
+        }
+        Tuple tableCatalogTuple = getTableCatalogTuple(tableName);
+        if (tableCatalogTuple == null) {
+            throw new StorageException(String.format("Table %s does not exist.", tableName));
+        }
+        
+        IField[] updatedFields = CatalogConstants.TABLE_CATALOG_SCHEMA.getAttributeNames().stream()
+                .map(attributeName -> attributeName.equals(catalogAttributeName) 
+                        ? newField : tableCatalogTuple.getField(attributeName))
+                .toArray(IField[]::new);
+        
+        DataWriter tableCatalogWriter = new DataWriter(new DataStore(CatalogConstants.TABLE_CATALOG_DIRECTORY,
+                CatalogConstants.TABLE_CATALOG_SCHEMA), LuceneAnalyzerConstants.getStandardAnalyzer());
+        tableCatalogWriter.open();
+        tableCatalogWriter.deleteTuple(new TermQuery(new Term(CatalogConstants.TABLE_NAME, tableName)));
+        tableCatalogWriter.insertTuple(new Tuple(CatalogConstants.TABLE_CATALOG_SCHEMA, updatedFields));
+        tableCatalogWriter.close();
+    }
+    
     /**
      * Gets the schema of a table.
      * 
@@ -337,18 +848,63 @@ public class RelationManager {
         return luceneAnalyzer;
     }
     
+    /**
+     * Gets the terms of the attributes of a table which are accepted by some automata, 
+     *   such as the Levenshtein automata of the keywords of a query.
+     * Each automaton is intersected with the terms dictionary of each attribute, 
+     *   the terms which can't be accepted are skipped without being read.
+     * The table is opened once for all the attributes and automata.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @param attributeNames, the names of the attributes
+     * @param automata, the compiled automata of the terms
+     * @return a map from each attribute name to the accepted terms of each automaton (in the order of the automata),
+     *   the terms of an automaton are in the order of the terms dictionary
+     * @throws StorageException
+     */
+    public Map<String, List<List<String>>> getTableMatchingTerms(String tableName, List<String> attributeNames, 
+            List<CompiledAutomaton> automata) throws StorageException {
+        tableName = tableName.toLowerCase();
+        
+        Map<String, List<List<String>>> matchingTermsMap = new HashMap<>();
+        try (IndexReader indexReader = DataReader.openIndexReader(getTableDataStore(tableName))) {
+            for (String attributeName : attributeNames) {
+                Terms terms = MultiFields.getTerms(indexReader, attributeName);
+                List<List<String>> attributeMatchingTerms = new ArrayList<>();
+                for (CompiledAutomaton automaton : automata) {
+                    List<String> matchingTerms = new ArrayList<>();
+                    if (terms != null) {
+                        TermsEnum termsEnum = automaton.getTermsEnum(terms);
+                        BytesRef term;
+                        while ((term = termsEnum.next()) != null) {
+                            matchingTerms.add(term.utf8ToString());
+                        }
+                    }
+                    attributeMatchingTerms.add(matchingTerms);
+                }
+                matchingTermsMap.put(attributeName, attributeMatchingTerms);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        return matchingTermsMap;
+    }
+    
     /*
      * This is a helper function that writes the table information to 
      *   the table catalog and the schema catalog.
      */
-    private void writeTableInfoToCatalog(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString) 
-            throws StorageException {   
+    private void writeTableInfoToCatalog(String tableName, Path indexDirectory, Schema schema, String luceneAnalyzerString,
+            int numShards, boolean termVectorsStored, DirectoryType directoryType, CompressionMode compressionMode, 
+            String partitionAttribute, PartitionGranularity partitionGranularity) throws StorageException {   
         // write table catalog
         DataStore tableCatalogStore = new DataStore(CatalogConstants.TABLE_CATALOG_DIRECTORY,
                 CatalogConstants.TABLE_CATALOG_SCHEMA);
         DataWriter dataWriter = new DataWriter(tableCatalogStore, LuceneAnalyzerConstants.getStandardAnalyzer());
         dataWriter.open();
-        dataWriter.insertTuple(CatalogConstants.getTableCatalogTuple(tableName, indexDirectory, luceneAnalyzerString));
+        dataWriter.insertTuple(CatalogConstants.getTableCatalogTuple(tableName, indexDirectory, luceneAnalyzerString, 
+                numShards, termVectorsStored, directoryType, compressionMode, Collections.emptyList(), 
+                partitionAttribute, partitionGranularity));
         dataWriter.close();
        
         // write schema catalog
@@ -412,6 +968,100 @@ public class RelationManager {
         return tupleList;
     }
     
+    /**
+     * Gathers the statistics of a table (ANALYZE), and persists them in the catalog.
+     * The statistics replace the previously gathered ones, and can be read by getTableStatistics().
+     * 
+     * The statistics are not updated automatically when the table is modified, 
+     *   this function should be called again after a table is significantly changed.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return the statistics of the table
+     * @throws StorageException
+     */
+    public TableStatistics analyzeTable(String tableName) throws StorageException {
+        tableName = tableName.toLowerCase();
+        if (isSystemCatalog(tableName)) {
+            throw new StorageException("Analyzing a system catalog table is prohibited.");
+        }
+        if (! checkTableExistence(tableName)) {
+            throw new StorageException(String.format("Table %s does not exist.", tableName));
+        }
+        
+        TableStatistics tableStatistics = TableStatisticsCollector.collect(tableName, getTableDataStore(tableName));
+        
+        try {
+            Files.createDirectories(CatalogConstants.STATISTICS_CATALOG_DIRECTORY);
+            DataConstants.defaultObjectMapper.writeValue(getTableStatisticsPath(tableName).toFile(), tableStatistics);
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        
+        return tableStatistics;
+    }
+    
+    /**
+     * Gets the statistics of a table gathered by the last analyzeTable() call.
+     * Returns null if the table has never been analyzed.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @return
+     * @throws StorageException
+     */
+    public TableStatistics getTableStatistics(String tableName) throws StorageException {
+        tableName = tableName.toLowerCase();
+        if (! checkTableExistence(tableName)) {
+            throw new StorageException(String.format("Table %s does not exist.", tableName));
+        }
+        
+        Path statisticsPath = getTableStatisticsPath(tableName);
+        if (! Files.exists(statisticsPath)) {
+            return null;
+        }
+        try {
+            return DataConstants.defaultObjectMapper.readValue(statisticsPath.toFile(), TableStatistics.class);
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Warms up the index of a table by reading the parts of the index used by the first queries, 
+     *   so that the first queries on the table don't pay for the cold reads from disk.
+     * If the table is analyzed, the most frequent terms in its statistics are used as the warm-up queries.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @throws StorageException
+     */
+    public void warmUpTable(String tableName) throws StorageException {
+        tableName = tableName.toLowerCase();
+        if (! checkTableExistence(tableName)) {
+            throw new StorageException(String.format("Table %s does not exist.", tableName));
+        }
+        TableWarmer.warmUp(getTableDataStore(tableName), getTableStatistics(tableName));
+    }
+    
+    /**
+     * Warms up all the tables whose directory type is not the default FS type, 
+     *   which is meant to be called when the system starts.
+     * 
+     * @throws StorageException
+     */
+    public void warmUpTables() throws StorageException {
+        for (TableMetadata tableMetadata : getMetaData()) {
+            if (getTableDirectoryType(tableMetadata.getTableName()) != DirectoryType.FS) {
+                warmUpTable(tableMetadata.getTableName());
+            }
+        }
+    }
+    
+    /*
+     * This is a helper function to get the path of the statistics file of a table.
+     */
+    private static Path getTableStatisticsPath(String tableName) {
+        return CatalogConstants.STATISTICS_CATALOG_DIRECTORY.resolve(tableName.toLowerCase() + ".json");
+    }
+    
     /*
      * This is a helper function to check if the system catalog tables exist physically on the disk.
      */
@@ -437,17 +1087,119 @@ public class RelationManager {
             writeTableInfoToCatalog(CatalogConstants.TABLE_CATALOG.toLowerCase(), 
             			CatalogConstants.TABLE_CATALOG_DIRECTORY.toRealPath(),
             			CatalogConstants.TABLE_CATALOG_SCHEMA,
-            			LuceneAnalyzerConstants.standardAnalyzerString());
+            			LuceneAnalyzerConstants.standardAnalyzerString(), 1, true, DirectoryType.FS, 
+            			CompressionMode.BEST_SPEED, null, PartitionGranularity.NONE);
             // create schema catalog
             writeTableInfoToCatalog(CatalogConstants.SCHEMA_CATALOG.toLowerCase(),
         				CatalogConstants.SCHEMA_CATALOG_DIRECTORY.toRealPath(),
                     	CatalogConstants.SCHEMA_CATALOG_SCHEMA,
-                    	LuceneAnalyzerConstants.standardAnalyzerString()); 
+                    	LuceneAnalyzerConstants.standardAnalyzerString(), 1, true, DirectoryType.FS, 
+                    	CompressionMode.BEST_SPEED, null, PartitionGranularity.NONE); 
         } catch (IOException e) {
             throw new StorageException(e);
         }
     }
     
+    /*
+     * Upgrades a catalog created by an older version, whose table catalog doesn't have all the current fields.
+     * The missing fields are added to every table with their default values 
+     *   (see CatalogConstants.getDefaultTableCatalogField).
+     */
+    private void upgradeCatalog() throws StorageException {
+        List<String> existingFields;
+        try (IndexReader tableCatalogReader = DataReader.openIndexReader(CatalogConstants.TABLE_CATALOG_DATASTORE)) {
+            FieldInfos fieldInfos = MultiFields.getMergedFieldInfos(tableCatalogReader);
+            existingFields = CatalogConstants.TABLE_CATALOG_SCHEMA.getAttributeNames().stream()
+                    .filter(attributeName -> fieldInfos.fieldInfo(attributeName) != null)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        if (existingFields.size() == CatalogConstants.TABLE_CATALOG_SCHEMA.getAttributes().size()) {
+            return;
+        }
+        
+        // read the table catalog with only the existing fields
+        DataReader tableCatalogDataReader = new DataReader(CatalogConstants.TABLE_CATALOG_DATASTORE, new MatchAllDocsQuery());
+        tableCatalogDataReader.setPayloadAdded(false);
+        tableCatalogDataReader.setProjectedAttributes(existingFields);
+        
+        tableCatalogDataReader.open();
+        List<Tuple> tableCatalogTuples = new ArrayList<>();
+        Tuple nextTuple;
+        while ((nextTuple = tableCatalogDataReader.getNextTuple()) != null) {
+            tableCatalogTuples.add(nextTuple);
+        }
+        tableCatalogDataReader.close();
+        
+        // rewrite the table catalog, the changes are committed together when the writer is closed
+        DataWriter tableCatalogWriter = new DataWriter(new DataStore(CatalogConstants.TABLE_CATALOG_DIRECTORY,
+                CatalogConstants.TABLE_CATALOG_SCHEMA), LuceneAnalyzerConstants.getStandardAnalyzer());
+        tableCatalogWriter.open();
+        tableCatalogWriter.clearData();
+        for (Tuple tuple : tableCatalogTuples) {
+            IField[] upgradedFields = CatalogConstants.TABLE_CATALOG_SCHEMA.getAttributeNames().stream()
+                    .map(attributeName -> existingFields.contains(attributeName) ? tuple.getField(attributeName) 
+                            : CatalogConstants.getDefaultTableCatalogField(attributeName))
+                    .toArray(IField[]::new);
+            tableCatalogWriter.insertTuple(new Tuple(CatalogConstants.TABLE_CATALOG_SCHEMA, upgradedFields));
+        }
+        tableCatalogWriter.close();
+        
+        // rewrite the schema of the table catalog in the schema catalog
+        String tableCatalogName = CatalogConstants.TABLE_CATALOG.toLowerCase();
+        DataWriter schemaCatalogWriter = new DataWriter(new DataStore(CatalogConstants.SCHEMA_CATALOG_DIRECTORY,
+                CatalogConstants.SCHEMA_CATALOG_SCHEMA), LuceneAnalyzerConstants.getStandardAnalyzer());
+        schemaCatalogWriter.open();
+        schemaCatalogWriter.deleteTuple(new TermQuery(new Term(CatalogConstants.TABLE_NAME, tableCatalogName)));
+        for (Tuple tuple : CatalogConstants.getSchemaCatalogTuples(tableCatalogName, 
+                CatalogConstants.TABLE_CATALOG_SCHEMA_WITH_ID)) {
+            schemaCatalogWriter.insertTuple(tuple);
+        }
+        schemaCatalogWriter.close();
+    }
+    
+    
+    /*
+     * Reindexes the tables whose tuples are written in an older index format than the current one,
+     *   for example the tables whose DATE and DATETIME attributes are indexed as strings, 
+     *   which the numeric range queries and the index statistics can't read.
+     * The tuples of a table are rewritten in one commit, and the index version of the table is updated afterwards,
+     *   so a table whose reindexing is interrupted is reindexed again the next time.
+     */
+    void reindexLegacyTables() throws StorageException {
+        List<String> legacyTableNames = new ArrayList<>();
+        DataReader tableCatalogDataReader = new DataReader(CatalogConstants.TABLE_CATALOG_DATASTORE, 
+                NumericRangeQuery.newIntRange(CatalogConstants.TABLE_INDEX_VERSION, 
+                        null, CatalogConstants.CURRENT_INDEX_VERSION, true, false));
+        tableCatalogDataReader.setPayloadAdded(false);
+        tableCatalogDataReader.open();
+        Tuple nextTuple;
+        while ((nextTuple = tableCatalogDataReader.getNextTuple()) != null) {
+            String tableName = nextTuple.getField(CatalogConstants.TABLE_NAME).getValue().toString();
+            // the system catalog tables don't have DATE or DATETIME attributes
+            if (! isSystemCatalog(tableName)) {
+                legacyTableNames.add(tableName);
+            }
+        }
+        tableCatalogDataReader.close();
+        
+        for (String tableName : legacyTableNames) {
+            boolean hasDateAttributes = getTableSchema(tableName).getAttributes().stream()
+                    .anyMatch(attr -> attr.getType() == AttributeType.DATE || attr.getType() == AttributeType.DATETIME);
+            if (hasDateAttributes) {
+                DataWriter dataWriter = getTableDataWriter(tableName);
+                dataWriter.open();
+                try {
+                    dataWriter.updateTuples(new MatchAllDocsQuery(), tuple -> tuple);
+                } finally {
+                    dataWriter.close();
+                }
+            }
+            updateTableCatalogField(tableName, CatalogConstants.TABLE_INDEX_VERSION, 
+                    new IntegerField(CatalogConstants.CURRENT_INDEX_VERSION));
+        }
+    }
     
     /*
      * Converts a attributeTypeString to AttributeType (case insensitive).
@@ -0,0 +1,180 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.ReaderManager;
+
+/**
+ * SharedIndexWriter wraps the one Lucene IndexWriter of an index directory, 
+ *   which is shared by all the DataWriters writing to the directory (see IndexWriterRegistry).
+ * 
+ * Lucene's IndexWriter is thread safe, concurrent DataWriters add their changes to the same writer,
+ *   and the changes are made durable by group commits:
+ *   a commit covers all the changes made before it starts, 
+ *   the callers waiting for a commit in progress are served by one following commit, 
+ *   and a caller whose changes are already covered by another commit returns immediately.
+ * 
+ * A commit is also triggered when the number of uncommitted changes reaches COMMIT_BATCH_SIZE,
+ *   except while a bulk change is being applied (see applyInSingleCommit()).
+ * 
+ * The writer also provides near-real-time readers (opened by DirectoryReader.open(IndexWriter)), 
+ *   which see the changes made to the writer without a commit or re-opening the index from disk.
+ * The readers are refreshed periodically by IndexWriterRegistry, 
+ *   and an acquired reader always sees the changes recorded before it's acquired.
+ */
+class SharedIndexWriter {
+    
+    static final int COMMIT_BATCH_SIZE = 10000;
+    
+    private final Path directory;
+    private final IndexWriter indexWriter;
+    private final ReaderManager readerManager;
+    
+    // the number of changes made to the writer, and the number of them covered by the last commit
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile long committedChangeCount = 0;
+    private final Object commitLock = new Object();
+    
+    // the number of nested bulk changes being applied, guarded by commitLock
+    private volatile int bulkChangeDepth = 0;
+    
+    // the number of changes visible to the latest near-real-time reader
+    private final AtomicLong refreshedChangeCount = new AtomicLong();
+    
+    // guarded by IndexWriterRegistry
+    private int referenceCount = 0;
+    private long lastReleaseTime = System.currentTimeMillis();
+    
+    SharedIndexWriter(Path directory, IndexWriter indexWriter) throws IOException {
+        this.directory = directory;
+        this.indexWriter = indexWriter;
+        this.readerManager = new ReaderManager(indexWriter, true);
+    }
+    
+    Path getDirectory() {
+        return directory;
+    }
+    
+    IndexWriter getIndexWriter() {
+        return indexWriter;
+    }
+    
+    boolean isOpen() {
+        return indexWriter.isOpen();
+    }
+    
+    /**
+     * Records the number of changes made to the writer, 
+     *   and commits if there are too many uncommitted changes and no bulk change is being applied.
+     * This function must be called after the changes are made.
+     */
+    void recordChanges(int numChanges) throws IOException {
+        long count = changeCount.addAndGet(numChanges);
+        // the changes recorded during a bulk change are committed when the bulk change is completed
+        if (bulkChangeDepth == 0 && count - committedChangeCount >= COMMIT_BATCH_SIZE) {
+            commit();
+        }
+    }
+    
+    /**
+     * Applies a bulk change while the commits of this writer are held back, and commits it afterwards,
+     *   so that the bulk change is made durable by one commit, instead of partially by the periodic commits.
+     * The changes must be recorded inside the bulk change.
+     */
+    void applyInSingleCommit(BulkChange bulkChange) throws IOException {
+        synchronized (commitLock) {
+            bulkChangeDepth++;
+            try {
+                bulkChange.apply();
+            } finally {
+                bulkChangeDepth--;
+            }
+            commit();
+        }
+    }
+    
+    @FunctionalInterface
+    interface BulkChange {
+        void apply() throws IOException;
+    }
+    
+    boolean hasUncommittedChanges() {
+        return changeCount.get() > committedChangeCount;
+    }
+    
+    /**
+     * Commits all the changes recorded before this call, 
+     *   the call returns when the changes are durable.
+     */
+    void commit() throws IOException {
+        long targetChangeCount = changeCount.get();
+        synchronized (commitLock) {
+            // another commit started after the changes were recorded
+            if (committedChangeCount >= targetChangeCount) {
+                return;
+            }
+            long committingChangeCount = changeCount.get();
+            indexWriter.commit();
+            committedChangeCount = committingChangeCount;
+        }
+    }
+    
+    /**
+     * Acquires a near-real-time reader, which sees all the changes recorded before this call.
+     * The reader must be released by decRef() (or by closing a reader that wraps it).
+     */
+    DirectoryReader acquireReader() throws IOException {
+        long targetChangeCount = changeCount.get();
+        if (targetChangeCount > refreshedChangeCount.get()) {
+            readerManager.maybeRefreshBlocking();
+            refreshedChangeCount.accumulateAndGet(targetChangeCount, Math::max);
+        }
+        return readerManager.acquire();
+    }
+    
+    /**
+     * Refreshes the near-real-time reader if there are new changes, 
+     *   it returns immediately if another refresh is in progress.
+     */
+    void refreshReader() throws IOException {
+        long targetChangeCount = changeCount.get();
+        if (targetChangeCount > refreshedChangeCount.get() && readerManager.maybeRefresh()) {
+            refreshedChangeCount.accumulateAndGet(targetChangeCount, Math::max);
+        }
+    }
+    
+    boolean hasUnrefreshedChanges() {
+        return changeCount.get() > refreshedChangeCount.get();
+    }
+    
+    void close() throws IOException {
+        synchronized (commitLock) {
+            // the acquired readers stay valid until they are released
+            readerManager.close();
+            indexWriter.close();
+            committedChangeCount = changeCount.get();
+        }
+    }
+    
+    int getReferenceCount() {
+        return referenceCount;
+    }
+    
+    void acquire() {
+        referenceCount++;
+    }
+    
+    void release() {
+        referenceCount--;
+        lastReleaseTime = System.currentTimeMillis();
+    }
+    
+    long getLastReleaseTime() {
+        return lastReleaseTime;
+    }
+
+}
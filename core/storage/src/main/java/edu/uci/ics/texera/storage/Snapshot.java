@@ -0,0 +1,123 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.index.IndexReader;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+
+/**
+ * Snapshot is a point-in-time view of the tables shared by multiple DataReaders,
+ *   such as all the source operators of a query plan.
+ *
+ * The first DataReader that reads a table in the snapshot opens an IndexReader of the table,
+ *   and the following DataReaders of the same table reuse it instead of opening a new one.
+ * Therefore, all the DataReaders of a table in the snapshot see the same version of the table,
+ *   even if the table is changed in between.
+ *
+ * A snapshot is opened by RelationManager.openSnapshot(), and can be passed to RelationManager.getTableDataReader(),
+ *   or bound to the current thread, so that all the DataReaders created by the thread are in the snapshot.
+ * The snapshot must be closed after all its DataReaders are opened,
+ *   the DataReaders that are already opened can still be used after the snapshot is closed.
+ */
+public class Snapshot implements AutoCloseable {
+
+    private static final ThreadLocal<Snapshot> boundSnapshot = new ThreadLocal<>();
+
+    // the index readers of the tables in the snapshot, by the data directories of the tables
+    private final Map<String, IndexReader> indexReaders = new HashMap<>();
+    private boolean isClosed = false;
+
+    /*
+     * The package-only level constructor is only accessible inside the storage package.
+     * A snapshot is opened by RelationManager.
+     */
+    Snapshot() {
+    }
+
+    /**
+     * Binds the snapshot to the current thread, until the returned binding is closed.
+     *
+     * @return
+     */
+    public Binding bind() {
+        Binding binding = new Binding(boundSnapshot.get());
+        boundSnapshot.set(this);
+        return binding;
+    }
+
+    /**
+     * Gets the snapshot bound to the current thread, or null if there's no such snapshot.
+     *
+     * @return
+     */
+    public static Snapshot getBoundSnapshot() {
+        return boundSnapshot.get();
+    }
+
+    /*
+     * Gets the index reader of a table in the snapshot, the index reader is opened if the table hasn't been read.
+     * The caller must release the returned reader with decRef().
+     */
+    synchronized IndexReader acquireIndexReader(DataStore dataStore) throws IOException {
+        if (isClosed) {
+            throw new StorageException("The snapshot is closed.");
+        }
+        String dataDirectory = dataStore.getDataDirectory().toAbsolutePath().normalize().toString();
+        IndexReader indexReader = indexReaders.get(dataDirectory);
+        if (indexReader == null) {
+            indexReader = DataReader.openIndexReader(dataStore);
+            indexReaders.put(dataDirectory, indexReader);
+        }
+        indexReader.incRef();
+        return indexReader;
+    }
+
+    /**
+     * Closes the snapshot and releases its index readers,
+     *   the index readers are closed after the DataReaders using them are closed.
+     */
+    @Override
+    public synchronized void close() throws StorageException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        IOException closeException = null;
+        for (IndexReader indexReader : indexReaders.values()) {
+            try {
+                indexReader.decRef();
+            } catch (IOException e) {
+                closeException = e;
+            }
+        }
+        indexReaders.clear();
+        if (closeException != null) {
+            throw new StorageException(closeException.getMessage(), closeException);
+        }
+    }
+
+    /**
+     * Binding restores the snapshot previously bound to the thread when it's closed.
+     */
+    public static class Binding implements AutoCloseable {
+
+        private final Snapshot previousSnapshot;
+
+        private Binding(Snapshot previousSnapshot) {
+            this.previousSnapshot = previousSnapshot;
+        }
+
+        @Override
+        public void close() {
+            if (previousSnapshot == null) {
+                boundSnapshot.remove();
+            } else {
+                boundSnapshot.set(previousSnapshot);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package edu.uci.ics.texera.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import edu.uci.ics.texera.api.constants.JsonConstants;
+
+/**
+ * TableStatistics contains the statistics of a table, which are gathered by 
+ *   RelationManager.analyzeTable() and persisted next to the catalog.
+ * 
+ * The statistics are a snapshot of the table at the time it's analyzed, 
+ *   they are not updated automatically when the table is modified.
+ */
+public class TableStatistics {
+    
+    public static final String NUM_DOCUMENTS = "numDocuments";
+    public static final String ANALYZE_TIME = "analyzeTime";
+    public static final String ATTRIBUTE_STATISTICS = "attributeStatistics";
+    
+    private final String tableName;
+    private final int numDocuments;
+    private final long analyzeTime;
+    private final List<AttributeStatistics> attributeStatistics;
+    
+    @JsonCreator
+    public TableStatistics(
+            @JsonProperty(value = JsonConstants.TABLE_NAME, required = true)
+            String tableName,
+            @JsonProperty(value = NUM_DOCUMENTS, required = true)
+            int numDocuments,
+            @JsonProperty(value = ANALYZE_TIME, required = true)
+            long analyzeTime,
+            @JsonProperty(value = ATTRIBUTE_STATISTICS, required = true)
+            List<AttributeStatistics> attributeStatistics) {
+        this.tableName = tableName;
+        this.numDocuments = numDocuments;
+        this.analyzeTime = analyzeTime;
+        this.attributeStatistics = new ArrayList<>(attributeStatistics);
+    }
+    
+    @JsonProperty(value = JsonConstants.TABLE_NAME)
+    public String getTableName() {
+        return tableName;
+    }
+    
+    @JsonProperty(value = NUM_DOCUMENTS)
+    public int getNumDocuments() {
+        return numDocuments;
+    }
+    
+    /**
+     * @return the time (in epoch milliseconds) when the statistics are gathered
+     */
+    @JsonProperty(value = ANALYZE_TIME)
+    public long getAnalyzeTime() {
+        return analyzeTime;
+    }
+    
+    @JsonProperty(value = ATTRIBUTE_STATISTICS)
+    public List<AttributeStatistics> getAttributeStatistics() {
+        return new ArrayList<>(attributeStatistics);
+    }
+    
+    /**
+     * Gets the statistics of an attribute (case insensitive), returns null if the attribute is not found.
+     * 
+     * @param attributeName
+     * @return
+     */
+    @JsonIgnore
+    public AttributeStatistics getAttributeStatistics(String attributeName) {
+        return attributeStatistics.stream()
+                .filter(stats -> stats.getAttributeName().equalsIgnoreCase(attributeName))
+                .findAny().orElse(null);
+    }
+    
+    @Override
+    public String toString() {
+        return "TableStatistics [tableName=" + tableName + ", numDocuments=" + numDocuments 
+                + ", attributeStatistics=" + attributeStatistics + "]";
+    }
+
+}
@@ -0,0 +1,195 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+
+/**
+ * TableStatisticsCollector gathers the statistics of a table by reading the terms dictionary
+ *   of its Lucene index, without loading any stored documents.
+ * 
+ * The document frequencies in Lucene's terms dictionary still count the deleted documents 
+ *   until their segments are merged, so the statistics are estimations rather than exact values.
+ * 
+ * Only RelationManager is allowed to collect the statistics of a table.
+ */
+class TableStatisticsCollector {
+    
+    static final int TOP_TERMS_SIZE = 10;
+    static final int HISTOGRAM_BUCKETS = 10;
+    
+    private TableStatisticsCollector() {
+    }
+    
+    static TableStatistics collect(String tableName, DataStore dataStore) throws StorageException {
+        try (IndexReader indexReader = DataReader.openIndexReader(dataStore)) {
+            List<AttributeStatistics> attributeStatistics = new ArrayList<>();
+            for (Attribute attribute : dataStore.getSchema().getAttributes()) {
+                // the _id attribute is unique, and list attributes are not indexed
+                if (attribute.getType() == AttributeType._ID_TYPE || attribute.getType() == AttributeType.LIST) {
+                    continue;
+                }
+                attributeStatistics.add(collectAttributeStatistics(indexReader, attribute));
+            }
+            return new TableStatistics(tableName, indexReader.numDocs(), System.currentTimeMillis(), attributeStatistics);
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    private static AttributeStatistics collectAttributeStatistics(IndexReader indexReader, Attribute attribute) 
+            throws IOException {
+        String attributeName = attribute.getName();
+        AttributeType attributeType = attribute.getType();
+        
+        Terms terms = MultiFields.getTerms(indexReader, attributeName);
+        if (terms == null) {
+            return new AttributeStatistics(attributeName, attributeType, 0, 0, null, null, null, null, null);
+        }
+        
+        switch (attributeType) {
+        case STRING:
+        case TEXT:
+            return collectStringStatistics(terms, attribute);
+        case INTEGER:
+        case DOUBLE:
+        case DATE:
+        case DATETIME:
+            return collectNumericStatistics(terms, attribute);
+        default:
+            return new AttributeStatistics(attributeName, attributeType, terms.getDocCount(), 0, null, null, null, null, null);
+        }
+    }
+    
+    private static AttributeStatistics collectStringStatistics(Terms terms, Attribute attribute) throws IOException {
+        // keeps the most frequent terms, the least frequent one is on the top of the heap
+        PriorityQueue<Map.Entry<String, Integer>> topTermsQueue = new PriorityQueue<>(
+                Comparator.comparing((Map.Entry<String, Integer> entry) -> entry.getValue())
+                .thenComparing(Comparator.comparing((Map.Entry<String, Integer> entry) -> entry.getKey()).reversed()));
+        
+        long distinctCount = 0;
+        String minValue = null;
+        String maxValue = null;
+        
+        TermsEnum termsEnum = terms.iterator();
+        BytesRef term;
+        while ((term = termsEnum.next()) != null) {
+            String termString = term.utf8ToString();
+            if (minValue == null) {
+                minValue = termString;
+            }
+            maxValue = termString;
+            distinctCount++;
+            
+            topTermsQueue.add(new SimpleEntry<>(termString, termsEnum.docFreq()));
+            if (topTermsQueue.size() > TOP_TERMS_SIZE) {
+                topTermsQueue.poll();
+            }
+        }
+        
+        List<Map.Entry<String, Integer>> topTermsList = new ArrayList<>(topTermsQueue);
+        topTermsList.sort(topTermsQueue.comparator());
+        Collections.reverse(topTermsList);
+        LinkedHashMap<String, Integer> topTerms = new LinkedHashMap<>();
+        topTermsList.forEach(entry -> topTerms.put(entry.getKey(), entry.getValue()));
+        
+        long docCount = terms.getDocCount();
+        
+        if (attribute.getType() == AttributeType.TEXT) {
+            // min and max tokens of a text attribute are meaningless for estimations
+            Double averageLength = docCount == 0 ? 0.0 : (double) terms.getSumTotalTermFreq() / docCount;
+            return new AttributeStatistics(attribute.getName(), attribute.getType(), docCount, distinctCount, 
+                    null, null, averageLength, topTerms, null);
+        } else {
+            return new AttributeStatistics(attribute.getName(), attribute.getType(), docCount, distinctCount, 
+                    minValue, maxValue, null, topTerms, null);
+        }
+    }
+    
+    private static AttributeStatistics collectNumericStatistics(Terms terms, Attribute attribute) throws IOException {
+        AttributeType attributeType = attribute.getType();
+        boolean isInteger = attributeType == AttributeType.INTEGER;
+        
+        // only the full precision terms are visited, each of them is a distinct value
+        TermsEnum termsEnum = isInteger ? NumericUtils.filterPrefixCodedInts(terms.iterator()) 
+                : NumericUtils.filterPrefixCodedLongs(terms.iterator());
+        
+        List<Double> values = new ArrayList<>();
+        List<Integer> docFreqs = new ArrayList<>();
+        BytesRef term;
+        while ((term = termsEnum.next()) != null) {
+            values.add(toDouble(attributeType, term));
+            docFreqs.add(termsEnum.docFreq());
+        }
+        
+        long docCount = terms.getDocCount();
+        if (values.isEmpty()) {
+            return new AttributeStatistics(attribute.getName(), attributeType, docCount, 0, null, null, null, null, null);
+        }
+        
+        // the numeric terms are sorted by their values
+        double min = values.get(0);
+        double max = values.get(values.size() - 1);
+        
+        Long[] histogram = new Long[HISTOGRAM_BUCKETS];
+        Arrays.fill(histogram, 0L);
+        double bucketWidth = (max - min) / HISTOGRAM_BUCKETS;
+        for (int i = 0; i < values.size(); i++) {
+            int bucket = bucketWidth == 0 ? 0 : (int) ((values.get(i) - min) / bucketWidth);
+            bucket = Math.min(bucket, HISTOGRAM_BUCKETS - 1);
+            histogram[bucket] += docFreqs.get(i);
+        }
+        
+        return new AttributeStatistics(attribute.getName(), attributeType, docCount, values.size(), 
+                toValueString(attributeType, min), toValueString(attributeType, max), null, null, Arrays.asList(histogram));
+    }
+    
+    private static double toDouble(AttributeType attributeType, BytesRef term) {
+        switch (attributeType) {
+        case INTEGER:
+            return NumericUtils.prefixCodedToInt(term);
+        case DOUBLE:
+            return NumericUtils.sortableLongToDouble(NumericUtils.prefixCodedToLong(term));
+        default:
+            return NumericUtils.prefixCodedToLong(term);
+        }
+    }
+    
+    private static String toValueString(AttributeType attributeType, double value) {
+        switch (attributeType) {
+        case INTEGER:
+            return Integer.toString((int) value);
+        case DOUBLE:
+            return Double.toString(value);
+        case DATE:
+            return LocalDate.ofEpochDay((long) value).toString();
+        case DATETIME:
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli((long) value), ZoneOffset.UTC).toString();
+        default:
+            return Double.toString(value);
+        }
+    }
+
+}
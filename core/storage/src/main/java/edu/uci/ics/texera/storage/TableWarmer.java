@@ -0,0 +1,93 @@
+package edu.uci.ics.texera.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+
+/**
+ * TableWarmer touches the index files of a table ahead of the first queries,
+ *   so that the first queries on a hot table don't pay for the cold reads from disk.
+ *
+ * For each indexed attribute, it walks the beginning of the terms dictionary and the postings of the walked terms,
+ *   then it runs term queries on the most frequent terms (from the table statistics if the table is analyzed)
+ *   and loads the stored documents of the results.
+ *
+ * Only RelationManager is allowed to warm up a table.
+ */
+class TableWarmer {
+
+    static final int MAX_WARM_TERMS = 1000;
+    static final int MAX_WARM_QUERIES = 10;
+    static final int MAX_WARM_HITS = 100;
+
+    private TableWarmer() {
+    }
+
+    static void warmUp(DataStore dataStore, TableStatistics tableStatistics) throws StorageException {
+        try (IndexReader indexReader = DataReader.openIndexReader(dataStore)) {
+            IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+            for (Attribute attribute : dataStore.getSchema().getAttributes()) {
+                // list attributes are not indexed
+                if (attribute.getType() == AttributeType.LIST) {
+                    continue;
+                }
+                Terms terms = MultiFields.getTerms(indexReader, attribute.getName());
+                if (terms == null) {
+                    continue;
+                }
+                List<Term> warmTerms = walkTerms(terms, attribute.getName());
+                AttributeStatistics attributeStatistics = tableStatistics == null ? null
+                        : tableStatistics.getAttributeStatistics(attribute.getName());
+                if (attributeStatistics != null && attributeStatistics.getTopTerms() != null) {
+                    warmTerms = new ArrayList<>();
+                    for (String topTerm : attributeStatistics.getTopTerms().keySet()) {
+                        warmTerms.add(new Term(attribute.getName(), topTerm));
+                    }
+                }
+                for (Term term : warmTerms.subList(0, Math.min(MAX_WARM_QUERIES, warmTerms.size()))) {
+                    for (ScoreDoc scoreDoc : indexSearcher.search(new TermQuery(term), MAX_WARM_HITS).scoreDocs) {
+                        indexSearcher.doc(scoreDoc.doc);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Walks the first terms of an attribute and their postings,
+     *   and returns the terms in the order of the terms dictionary.
+     */
+    private static List<Term> walkTerms(Terms terms, String attributeName) throws IOException {
+        List<Term> walkedTerms = new ArrayList<>();
+        TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postingsEnum = null;
+        BytesRef term;
+        while (walkedTerms.size() < MAX_WARM_TERMS && (term = termsEnum.next()) != null) {
+            walkedTerms.add(new Term(attributeName, BytesRef.deepCopyOf(term)));
+            postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
+            while (postingsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+                // only the reads of the postings are needed
+            }
+        }
+        return walkedTerms;
+    }
+
+}
@@ -8,9 +8,16 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
 
@@ -61,27 +68,58 @@ public class StorageUtils {
         return field;
     }
 
-    public static IndexableField getLuceneField(AttributeType attributeType, String attributeName, Object fieldValue) {
-        IndexableField luceneField = null;
+    /**
+     * Converts a field value to the Lucene fields to be added to a document.
+     * 
+     * Most attribute types are converted to one Lucene field. 
+     * DATE and DATETIME values are stored as their ISO strings, and indexed in a sortable numeric form
+     *   (see getDateIndexValue and getDateTimeIndexValue) to support numeric range queries.
+     * 
+     * @param attributeType
+     * @param attributeName
+     * @param fieldValue
+     * @return a list of Lucene fields
+     */
+    public static List<IndexableField> getLuceneFields(AttributeType attributeType, String attributeName, Object fieldValue) {
+        return getLuceneFields(attributeType, attributeName, fieldValue, true);
+    }
+    
+    /**
+     * Converts a field value to the Lucene fields to be added to a document.
+     * 
+     * If storeTermVectors is false, TEXT fields are indexed without term vectors, 
+     *   the positions and offsets of the tokens are still kept in the postings.
+     * 
+     * @param attributeType
+     * @param attributeName
+     * @param fieldValue
+     * @param storeTermVectors, whether the term vectors of TEXT fields are stored
+     * @return a list of Lucene fields
+     */
+    public static List<IndexableField> getLuceneFields(AttributeType attributeType, String attributeName, Object fieldValue,
+            boolean storeTermVectors) {
+        List<IndexableField> luceneFields = new ArrayList<>();
         switch (attributeType) {
         // _ID_TYPE is currently same as STRING
         case _ID_TYPE:
         case STRING:
-            luceneField = new org.apache.lucene.document.StringField(attributeName, (String) fieldValue, Store.YES);
+            luceneFields.add(new org.apache.lucene.document.StringField(attributeName, (String) fieldValue, Store.YES));
             break;
         case INTEGER:
-            luceneField = new org.apache.lucene.document.IntField(attributeName, (Integer) fieldValue, Store.YES);
+            luceneFields.add(new org.apache.lucene.document.IntField(attributeName, (Integer) fieldValue, Store.YES));
             break;
         case DOUBLE:
-            luceneField = new org.apache.lucene.document.DoubleField(attributeName, (Double) fieldValue, Store.YES);
+            luceneFields.add(new org.apache.lucene.document.DoubleField(attributeName, (Double) fieldValue, Store.YES));
             break;
         case DATE:
-            String dateString = fieldValue.toString();
-            luceneField = new org.apache.lucene.document.StringField(attributeName, dateString, Store.YES);
+            LocalDate date = (LocalDate) fieldValue;
+            luceneFields.add(new LongField(attributeName, getDateIndexValue(date), Store.NO));
+            luceneFields.add(new StoredField(attributeName, date.toString()));
             break;
         case DATETIME:
-            String dateTimeString = fieldValue.toString();
-            luceneField = new org.apache.lucene.document.StringField(attributeName, dateTimeString, Store.YES);
+            LocalDateTime dateTime = (LocalDateTime) fieldValue;
+            luceneFields.add(new LongField(attributeName, getDateTimeIndexValue(dateTime), Store.NO));
+            luceneFields.add(new StoredField(attributeName, dateTime.toString()));
             break;
         case TEXT:
             // By default we enable positional indexing in Lucene so that we can
@@ -90,13 +128,13 @@ public class StorageUtils {
             org.apache.lucene.document.FieldType luceneFieldType = new org.apache.lucene.document.FieldType();
             luceneFieldType.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
             luceneFieldType.setStored(true);
-            luceneFieldType.setStoreTermVectors(true);
-            luceneFieldType.setStoreTermVectorOffsets(true);
-            luceneFieldType.setStoreTermVectorPayloads(true);
-            luceneFieldType.setStoreTermVectorPositions(true);
+            luceneFieldType.setStoreTermVectors(storeTermVectors);
+            luceneFieldType.setStoreTermVectorOffsets(storeTermVectors);
+            luceneFieldType.setStoreTermVectorPayloads(storeTermVectors);
+            luceneFieldType.setStoreTermVectorPositions(storeTermVectors);
             luceneFieldType.setTokenized(true);
 
-            luceneField = new org.apache.lucene.document.Field(attributeName, (String) fieldValue, luceneFieldType);
+            luceneFields.add(new org.apache.lucene.document.Field(attributeName, (String) fieldValue, luceneFieldType));
 
             break;
         case LIST:
@@ -104,7 +142,22 @@ public class StorageUtils {
             // WARNING! This case should never be reached.
             break;
         }
-        return luceneField;
+        return luceneFields;
+    }
+    
+    /**
+     * Gets the numeric value used to index a DATE field, which is the epoch day of the date.
+     */
+    public static long getDateIndexValue(LocalDate date) {
+        return date.toEpochDay();
+    }
+    
+    /**
+     * Gets the numeric value used to index a DATETIME field, 
+     *   which is the epoch millisecond of the date time (interpreted in UTC).
+     */
+    public static long getDateTimeIndexValue(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
     }
     
     public static void deleteDirectory(String indexDir) throws StorageException {
@@ -1,16 +1,34 @@
 package edu.uci.ics.texera.storage;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IField;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
@@ -18,6 +36,7 @@ import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 public class DataWriterReaderTest {
     
     public static final String PEOPLE_TABLE = "data_writer_reader_test_people";
+    public static final String PEOPLE_NO_TERM_VECTORS_TABLE = "data_writer_reader_test_people_no_term_vectors";
 
     @BeforeClass
     public static void setUp() throws TexeraException {
@@ -33,12 +52,25 @@ public class DataWriterReaderTest {
             peopleDataWriter.insertTuple(tuple);
         }
         peopleDataWriter.close();
+        
+        // create the people table without term vectors and write tuples
+        relationManager.createTable(PEOPLE_NO_TERM_VECTORS_TABLE, 
+                TestUtils.getDefaultTestIndex().resolve(PEOPLE_NO_TERM_VECTORS_TABLE), 
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString(), 1, false);
+        
+        DataWriter noTermVectorsDataWriter = relationManager.getTableDataWriter(PEOPLE_NO_TERM_VECTORS_TABLE);
+        noTermVectorsDataWriter.open();
+        for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+            noTermVectorsDataWriter.insertTuple(tuple);
+        }
+        noTermVectorsDataWriter.close();
     }
     
     @AfterClass
     public static void cleanUp() throws TexeraException {
         RelationManager relationManager = RelationManager.getInstance();
         relationManager.deleteTable(PEOPLE_TABLE);
+        relationManager.deleteTable(PEOPLE_NO_TERM_VECTORS_TABLE);
     }
 
     @Test
@@ -57,5 +89,169 @@ public class DataWriterReaderTest {
         
         Assert.assertTrue(TestUtils.equals(TestConstants.getSamplePeopleTuples(), returnedTuples));
     }
+    
+    /*
+     * Test that a DataReader that prefetches the tuples returns the same tuples in the same order,
+     *   and can be closed before all the tuples are read.
+     */
+    @Test
+    public void testReadWithPrefetch() throws Exception {
+        List<Tuple> expectedTuples = new ArrayList<>();
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+        dataReader.setPayloadAdded(true);
+        dataReader.open();
+        Tuple nextTuple = null;
+        while ((nextTuple = dataReader.getNextTuple()) != null) {
+            expectedTuples.add(nextTuple);
+        }
+        dataReader.close();
+        
+        List<Tuple> returnedTuples = new ArrayList<>();
+        DataReader prefetchDataReader = RelationManager.getInstance().getTableDataReader(
+                PEOPLE_TABLE, new MatchAllDocsQuery());
+        prefetchDataReader.setPayloadAdded(true);
+        // the buffer is smaller than the number of tuples
+        prefetchDataReader.setPrefetchSize(2);
+        prefetchDataReader.open();
+        while ((nextTuple = prefetchDataReader.getNextTuple()) != null) {
+            returnedTuples.add(nextTuple);
+        }
+        Assert.assertNull(prefetchDataReader.getNextTuple());
+        prefetchDataReader.close();
+        
+        Assert.assertEquals(expectedTuples, returnedTuples);
+        
+        prefetchDataReader.open();
+        Assert.assertEquals(expectedTuples.get(0), prefetchDataReader.getNextTuple());
+        prefetchDataReader.close();
+    }
+    
+    /*
+     * Test that a DataReader that prefetches the tuples keeps throwing the exception of a failed prefetch,
+     *   instead of blocking after the exception is thrown once.
+     */
+    @Test(timeout = 10000)
+    public void testPrefetchFailure() throws Exception {
+        // the first names can't be read as integers
+        DataStore dataStore = new DataStore(RelationManager.getInstance().getTableDirectory(PEOPLE_TABLE),
+                new Schema(new Attribute(TestConstants.FIRST_NAME, AttributeType.INTEGER)));
+        DataReader dataReader = new DataReader(dataStore, new MatchAllDocsQuery());
+        dataReader.setPrefetchSize(2);
+        dataReader.open();
+        for (int i = 0; i < 2; i++) {
+            try {
+                dataReader.getNextTuple();
+                Assert.fail("Reading a first name as an integer should throw an exception");
+            } catch (StorageException e) {
+            }
+        }
+        dataReader.close();
+    }
+    
+    /*
+     * Test that the number of hits and the minimum and maximum values computed from the index
+     *   are the same as the ones of the tuples returned by the DataReader.
+     */
+    @Test
+    public void testIndexOnlyAggregates() throws Exception {
+        for (Query query : Arrays.asList(new MatchAllDocsQuery(), 
+                new TermQuery(new Term(TestConstants.DESCRIPTION, "angry")))) {
+            DataReader dataReader = RelationManager.getInstance().getTableDataReader(PEOPLE_TABLE, query);
+            dataReader.open();
+            int count = dataReader.countMatchingTuples();
+            IField minHeight = dataReader.getMinValue(TestConstants.HEIGHT);
+            IField maxAge = dataReader.getMaxValue(TestConstants.AGE);
+            IField minDateOfBirth = dataReader.getMinValue(TestConstants.DATE_OF_BIRTH);
+            List<Tuple> tuples = new ArrayList<>();
+            Tuple nextTuple;
+            while ((nextTuple = dataReader.getNextTuple()) != null) {
+                tuples.add(nextTuple);
+            }
+            dataReader.close();
+            
+            Assert.assertEquals(tuples.size(), count);
+            Assert.assertEquals(tuples.stream().map(tuple -> (Double) tuple.getField(TestConstants.HEIGHT).getValue())
+                    .min(Double::compare).get(), minHeight.getValue());
+            Assert.assertEquals(tuples.stream().map(tuple -> (Integer) tuple.getField(TestConstants.AGE).getValue())
+                    .max(Integer::compare).get(), maxAge.getValue());
+            Assert.assertEquals(tuples.stream().map(tuple -> (LocalDate) tuple.getField(TestConstants.DATE_OF_BIRTH).getValue())
+                    .min(LocalDate::compareTo).get(), minDateOfBirth.getValue());
+        }
+    }
+    
+    /*
+     * Test that a DataReader with projected attributes only returns the projected attributes.
+     */
+    @Test
+    public void testReadProjectedAttributes() throws Exception {
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(
+                PEOPLE_TABLE, new MatchAllDocsQuery());
+        dataReader.setProjectedAttributes(Arrays.asList(TestConstants.FIRST_NAME, TestConstants.DESCRIPTION));
+        dataReader.setPayloadAdded(true);
+        
+        Tuple nextTuple = null;
+        List<Tuple> returnedTuples = new ArrayList<Tuple>();
+        
+        dataReader.open();
+        while ((nextTuple = dataReader.getNextTuple()) != null) {
+            returnedTuples.add(nextTuple);
+        }
+        dataReader.close();
+        
+        Schema expectedSchema = new Schema(TestConstants.FIRST_NAME_ATTR, TestConstants.DESCRIPTION_ATTR, 
+                SchemaConstants.PAYLOAD_ATTRIBUTE);
+        Assert.assertEquals(expectedSchema, dataReader.getOutputSchema());
+        Assert.assertTrue(TestUtils.attributeEquals(TestConstants.getSamplePeopleTuples(), returnedTuples, 
+                Arrays.asList(TestConstants.FIRST_NAME, TestConstants.DESCRIPTION)));
+    }
+    
+    /*
+     * Test that the payload of a table without term vectors is built by re-analyzing the text,
+     *   and it's the same as the payload built from the term vectors.
+     */
+    @Test
+    public void testPayloadWithoutTermVectors() throws Exception {
+        Query query = new MatchAllDocsQuery();
+        Map<String, Set<Span>> expectedPayloads = readPayloadsByDescription(PEOPLE_TABLE, query);
+        Map<String, Set<Span>> payloads = readPayloadsByDescription(PEOPLE_NO_TERM_VECTORS_TABLE, query);
+        
+        Assert.assertFalse(RelationManager.getInstance().isTableTermVectorsStored(PEOPLE_NO_TERM_VECTORS_TABLE));
+        Assert.assertEquals(expectedPayloads, payloads);
+    }
+    
+    /*
+     * Test that the payload of a table without term vectors only contains the spans of the query terms
+     *   if the query has terms on the attribute.
+     */
+    @Test
+    public void testPayloadFromQueryTerms() throws Exception {
+        Query query = new TermQuery(new Term(TestConstants.DESCRIPTION, "tall"));
+        Map<String, Set<Span>> termVectorPayloads = readPayloadsByDescription(PEOPLE_TABLE, query);
+        Map<String, Set<Span>> payloads = readPayloadsByDescription(PEOPLE_NO_TERM_VECTORS_TABLE, query);
+        
+        Assert.assertEquals(termVectorPayloads.keySet(), payloads.keySet());
+        Assert.assertFalse(payloads.isEmpty());
+        for (String description : payloads.keySet()) {
+            Set<Span> expectedSpans = termVectorPayloads.get(description).stream()
+                    .filter(span -> span.getKey().equals("tall")).collect(Collectors.toSet());
+            Assert.assertEquals(expectedSpans, payloads.get(description));
+        }
+    }
+    
+    private static Map<String, Set<Span>> readPayloadsByDescription(String tableName, Query query) throws Exception {
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(tableName, query);
+        dataReader.setPayloadAdded(true);
+        
+        Map<String, Set<Span>> payloads = new HashMap<>();
+        Tuple nextTuple = null;
+        dataReader.open();
+        while ((nextTuple = dataReader.getNextTuple()) != null) {
+            ListField<Span> payloadField = nextTuple.getField(SchemaConstants.PAYLOAD);
+            payloads.put(nextTuple.getField(TestConstants.DESCRIPTION).getValue().toString(), 
+                    new HashSet<>(payloadField.getValue()));
+        }
+        dataReader.close();
+        return payloads;
+    }
 
 }
@@ -1,28 +1,55 @@
 package edu.uci.ics.texera.storage;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.LevenshteinAutomata;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.DateField;
 import edu.uci.ics.texera.api.field.IDField;
+import edu.uci.ics.texera.api.field.IntegerField;
 import edu.uci.ics.texera.api.field.StringField;
+import edu.uci.ics.texera.api.field.TextField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+import edu.uci.ics.texera.storage.utils.StorageUtils;
 
 public class RelationManagerTest {
     
@@ -429,4 +456,776 @@ public class RelationManagerTest {
 
         relationManager.deleteTable(tableName);
     }
+
+    /*
+     * Test that the statistics of a table are gathered by analyzeTable(), 
+     *   persisted in the catalog, and removed when the table is deleted.
+     */
+    @Test
+    public void test18() throws Exception {
+        String tableName = "relation_manager_test_table_18";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_18";
+        Schema tableSchema = new Schema(
+                new Attribute("city", AttributeType.STRING), 
+                new Attribute("description", AttributeType.TEXT),
+                new Attribute("age", AttributeType.INTEGER),
+                new Attribute("birthday", AttributeType.DATE));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        Assert.assertNull(relationManager.getTableStatistics(tableName));
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("irvine"), new TextField("a small city"), 
+                new IntegerField(20), new DateField("1990-01-01")));
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("irvine"), new TextField("a big campus"), 
+                new IntegerField(30), new DateField("1995-06-15")));
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("seattle"), new TextField("rain"), 
+                new IntegerField(40), new DateField("2000-12-31")));
+        dataWriter.close();
+        
+        TableStatistics tableStatistics = relationManager.analyzeTable(tableName);
+        Assert.assertEquals(3, tableStatistics.getNumDocuments());
+        Assert.assertEquals(4, tableStatistics.getAttributeStatistics().size());
+        
+        AttributeStatistics cityStatistics = tableStatistics.getAttributeStatistics("city");
+        Assert.assertEquals(3, cityStatistics.getDocCount());
+        Assert.assertEquals(2, cityStatistics.getDistinctCount());
+        Assert.assertEquals("irvine", cityStatistics.getMinValue());
+        Assert.assertEquals("seattle", cityStatistics.getMaxValue());
+        Assert.assertEquals(Integer.valueOf(2), cityStatistics.getTopTerms().get("irvine"));
+        
+        AttributeStatistics descriptionStatistics = tableStatistics.getAttributeStatistics("description");
+        Assert.assertEquals(3, descriptionStatistics.getDocCount());
+        // the stop word "a" is removed by the standard analyzer
+        Assert.assertEquals(5.0 / 3, descriptionStatistics.getAverageLength(), 1e-6);
+        
+        AttributeStatistics ageStatistics = tableStatistics.getAttributeStatistics("age");
+        Assert.assertEquals(3, ageStatistics.getDistinctCount());
+        Assert.assertEquals("20", ageStatistics.getMinValue());
+        Assert.assertEquals("40", ageStatistics.getMaxValue());
+        Assert.assertEquals(3, ageStatistics.getHistogram().stream().mapToLong(Long::longValue).sum());
+        
+        AttributeStatistics birthdayStatistics = tableStatistics.getAttributeStatistics("birthday");
+        Assert.assertEquals("1990-01-01", birthdayStatistics.getMinValue());
+        Assert.assertEquals("2000-12-31", birthdayStatistics.getMaxValue());
+        
+        // the statistics are read back from the catalog
+        TableStatistics persistedStatistics = relationManager.getTableStatistics(tableName);
+        Assert.assertEquals(tableStatistics.toString(), persistedStatistics.toString());
+        Assert.assertEquals(cityStatistics.getTopTerms(), persistedStatistics.getAttributeStatistics("city").getTopTerms());
+        Assert.assertEquals(ageStatistics.getHistogram(), persistedStatistics.getAttributeStatistics("age").getHistogram());
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+        Assert.assertNull(relationManager.getTableStatistics(tableName));
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that a sharded table distributes the tuples to its shards by _id,
+     *   and the tuples can be read, updated and deleted as in a table with one shard.
+     */
+    @Test
+    public void test19() throws Exception {
+        String tableName = "relation_manager_test_table_19";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_19";
+        Schema tableSchema = new Schema(
+                new Attribute("city", AttributeType.STRING), new Attribute("number", AttributeType.INTEGER));
+        int numShards = 4;
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString(), numShards);
+        
+        Assert.assertEquals(numShards, relationManager.getTableNumShards(tableName));
+        DataStore dataStore = relationManager.getTableDataStore(tableName);
+        Assert.assertEquals(numShards, dataStore.getShardDirectories().size());
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        List<IDField> idList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            idList.add(dataWriter.insertTuple(new Tuple(tableSchema, 
+                    new StringField(i % 2 == 0 ? "irvine" : "seattle"), new IntegerField(i))));
+        }
+        dataWriter.close();
+        
+        // every shard is a separate index that holds a part of the tuples
+        for (Path shardDirectory : dataStore.getShardDirectories()) {
+            Assert.assertTrue(DataReader.checkIndexExistence(shardDirectory));
+        }
+        
+        Query irvineQuery = new TermQuery(new Term("city", "irvine"));
+        DataReader dataReader = relationManager.getTableDataReader(tableName, irvineQuery);
+        dataReader.open();
+        List<Tuple> results = new ArrayList<>();
+        Tuple tuple;
+        while ((tuple = dataReader.getNextTuple()) != null) {
+            results.add(tuple);
+        }
+        dataReader.close();
+        
+        Assert.assertEquals(50, results.size());
+        Assert.assertTrue(results.stream().allMatch(t -> (int) t.getField("number").getValue() % 2 == 0));
+        
+        // update and delete by ID are routed to the shard of the tuple
+        dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.updateTuple(new Tuple(tableSchema, new StringField("seattle"), new IntegerField(1000)), idList.get(0));
+        dataWriter.deleteTupleByID(idList.get(1));
+        dataWriter.close();
+        
+        Tuple updatedTuple = relationManager.getTupleByID(tableName, idList.get(0));
+        Assert.assertEquals(1000, updatedTuple.getField("number").getValue());
+        Assert.assertNull(relationManager.getTupleByID(tableName, idList.get(1)));
+        Assert.assertEquals(99, relationManager.analyzeTable(tableName).getNumDocuments());
+        
+        relationManager.deleteTable(tableName);
+        Assert.assertFalse(relationManager.checkTableExistence(tableName));
+    }
+    
+    /*
+     * Test that multiple DataWriters of the same table can be open and write concurrently.
+     */
+    @Test
+    public void test20() throws Exception {
+        String tableName = "relation_manager_test_table_20";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_20";
+        Schema tableSchema = new Schema(new Attribute("number", AttributeType.INTEGER));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        int numWriters = 4;
+        int numTuplesPerWriter = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(numWriters);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numWriters; i++) {
+            int writerNumber = i;
+            futures.add(executor.submit(() -> {
+                DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+                dataWriter.open();
+                for (int j = 0; j < numTuplesPerWriter; j++) {
+                    dataWriter.insertTuple(new Tuple(tableSchema, new IntegerField(writerNumber * numTuplesPerWriter + j)));
+                }
+                dataWriter.close();
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        
+        Assert.assertEquals(numWriters * numTuplesPerWriter, relationManager.analyzeTable(tableName).getNumDocuments());
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the changes of an open DataWriter are visible to new DataReaders after it's flushed.
+     */
+    @Test
+    public void test21() throws Exception {
+        String tableName = "relation_manager_test_table_21";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_21";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test")));
+        dataWriter.flush();
+        
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField));
+        
+        dataWriter.close();
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the tuples written by an open DataWriter are visible to new DataReaders before they are committed.
+     */
+    @Test
+    public void test22() throws Exception {
+        String tableName = "relation_manager_test_table_22";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_22";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString(), 2);
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField1 = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test1")));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField1));
+        
+        IDField idField2 = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test2")));
+        dataWriter.deleteTupleByID(idField1);
+        Assert.assertNull(relationManager.getTupleByID(tableName, idField1));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField2));
+        
+        dataWriter.close();
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the tuples of a table are read correctly with the MMAP and RAM directory types,
+     *   and that the in-memory copy of a RAM table is reloaded after a new commit.
+     */
+    @Test
+    public void test23() throws Exception {
+        String tableName = "relation_manager_test_table_23";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_23";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString(), 2);
+        Assert.assertEquals(DirectoryType.FS, relationManager.getTableDirectoryType(tableName));
+        
+        relationManager.setTableDirectoryType(tableName, DirectoryType.RAM);
+        Assert.assertEquals(DirectoryType.RAM, relationManager.getTableDirectoryType(tableName));
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField1 = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test1")));
+        dataWriter.close();
+        // close the shared index writers so that the tuples are read from the in-memory copy
+        for (Path shardDirectory : dataWriter.getDataStore().getShardDirectories()) {
+            IndexWriterRegistry.closeWriter(shardDirectory);
+        }
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField1));
+        
+        dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField2 = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test2")));
+        dataWriter.close();
+        for (Path shardDirectory : dataWriter.getDataStore().getShardDirectories()) {
+            IndexWriterRegistry.closeWriter(shardDirectory);
+        }
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField1));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField2));
+        
+        relationManager.setTableDirectoryType(tableName, DirectoryType.MMAP);
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField1));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField2));
+        
+        relationManager.analyzeTable(tableName);
+        relationManager.warmUpTable(tableName);
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test the bulk deletion and the bulk updates of a sharded table.
+     */
+    @Test
+    public void test24() throws Exception {
+        String tableName = "relation_manager_test_table_24";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_24";
+        Schema tableSchema = new Schema(
+                new Attribute("number", AttributeType.INTEGER), new Attribute("content", AttributeType.STRING));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString(), 2);
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        List<IDField> idFields = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            idFields.add(dataWriter.insertTuple(new Tuple(tableSchema, new IntegerField(i), new StringField("old"))));
+        }
+        
+        // delete the tuples 0, 1, 2
+        dataWriter.deleteTuples(idFields.subList(0, 3));
+        
+        // update the tuples 3, 4
+        Map<IDField, Tuple> newTuples = new HashMap<>();
+        newTuples.put(idFields.get(3), new Tuple(tableSchema, new IntegerField(30), new StringField("updated")));
+        newTuples.put(idFields.get(4), new Tuple(tableSchema, new IntegerField(40), new StringField("updated")));
+        dataWriter.updateTuples(newTuples);
+        
+        // update the tuples 5 - 9
+        int numUpdated = dataWriter.updateTuples(new TermQuery(new Term("content", "old")), "content", 
+                field -> new StringField("new"));
+        dataWriter.close();
+        
+        Assert.assertEquals(5, numUpdated);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNull(relationManager.getTupleByID(tableName, idFields.get(i)));
+        }
+        Assert.assertEquals(new IntegerField(30), relationManager.getTupleByID(tableName, idFields.get(3)).getField("number"));
+        Assert.assertEquals(new StringField("updated"), 
+                relationManager.getTupleByID(tableName, idFields.get(4)).getField("content"));
+        for (int i = 5; i < 10; i++) {
+            Tuple tuple = relationManager.getTupleByID(tableName, idFields.get(i));
+            Assert.assertEquals(new IntegerField(i), tuple.getField("number"));
+            Assert.assertEquals(new StringField("new"), tuple.getField("content"));
+        }
+        Assert.assertEquals(7, relationManager.analyzeTable(tableName).getNumDocuments());
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the stored fields of a table are written with the compression mode of the table.
+     */
+    @Test
+    public void test25() throws Exception {
+        String tableName = "relation_manager_test_table_25";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_25";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.TEXT));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString(), 1, true, CompressionMode.BEST_COMPRESSION);
+        Assert.assertEquals(CompressionMode.BEST_COMPRESSION, relationManager.getTableCompressionMode(tableName));
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField = dataWriter.insertTuple(new Tuple(tableSchema, new TextField("archived abstract")));
+        dataWriter.close();
+        
+        Assert.assertEquals(new TextField("archived abstract"), 
+                relationManager.getTupleByID(tableName, idField).getField("content"));
+        try (Directory directory = FSDirectory.open(Paths.get(relationManager.getTableDirectory(tableName)))) {
+            for (SegmentCommitInfo segmentCommitInfo : SegmentInfos.readLatestCommit(directory)) {
+                Assert.assertEquals(Lucene50StoredFieldsFormat.Mode.BEST_COMPRESSION.name(), 
+                        segmentCommitInfo.info.getAttribute(Lucene50StoredFieldsFormat.MODE_KEY));
+            }
+        }
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the DataReaders in a snapshot see the version of the table when it's first read in the snapshot.
+     */
+    @Test
+    public void test26() throws Exception {
+        String tableName = "relation_manager_test_table_26";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_26";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test1")));
+        dataWriter.close();
+        
+        Snapshot snapshot = relationManager.openSnapshot();
+        DataReader snapshotReader1 = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery(), snapshot);
+        snapshotReader1.open();
+        
+        dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test2")));
+        dataWriter.close();
+        
+        // a DataReader created while the snapshot is bound to the thread is in the snapshot
+        DataReader snapshotReader2;
+        try (Snapshot.Binding binding = snapshot.bind()) {
+            snapshotReader2 = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        }
+        snapshotReader2.open();
+        snapshot.close();
+        
+        DataReader latestReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        latestReader.open();
+        
+        Assert.assertEquals(1, snapshotReader1.getLuceneIndexReader().numDocs());
+        Assert.assertSame(snapshotReader1.getLuceneIndexReader(), snapshotReader2.getLuceneIndexReader());
+        Assert.assertEquals(2, latestReader.getLuceneIndexReader().numDocs());
+        
+        snapshotReader1.close();
+        snapshotReader2.close();
+        latestReader.close();
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the tuples of a table with a companion trigram index can be found by the grams of a substring,
+     *   both for the tuples written before and after the trigram index is added.
+     */
+    @Test
+    public void test27() throws Exception {
+        String tableName = "relation_manager_test_table_27";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_27";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.TEXT));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(
+                tableName, Paths.get(tableDirectory), tableSchema, LuceneAnalyzerConstants.standardAnalyzerString());
+        Assert.assertTrue(relationManager.getTableGramAttributes(tableName).isEmpty());
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("Lin Clooney")));
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("George Lin Lin")));
+        dataWriter.close();
+        
+        relationManager.setTableGramAttributes(tableName, Arrays.asList("content"));
+        Assert.assertEquals(Arrays.asList("content"), relationManager.getTableGramAttributes(tableName));
+        
+        dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("Christian John Wayne")));
+        dataWriter.close();
+        
+        String gramField = DataStore.getGramFieldName("content");
+        DataReader dataReader = relationManager.getTableDataReader(tableName, 
+                new TermQuery(new Term(gramField, "oon")));
+        Assert.assertEquals(1, countTuples(dataReader));
+        dataReader = relationManager.getTableDataReader(tableName, new TermQuery(new Term(gramField, "way")));
+        Assert.assertEquals(1, countTuples(dataReader));
+        dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        Assert.assertEquals(3, countTuples(dataReader));
+        
+        // a trigram index can only be added to TEXT attributes
+        try {
+            relationManager.setTableGramAttributes(tableName, Arrays.asList("_id"));
+            Assert.fail("Setting a non-TEXT gram attribute should throw an exception");
+        } catch (StorageException e) {
+        }
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that a time-partitioned table writes the tuples to the partitions of their dates,
+     *   that a reader can skip the partitions outside of a date range, and that old partitions can be dropped.
+     */
+    @Test
+    public void test28() throws Exception {
+        String tableName = "relation_manager_test_table_28";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_28";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING), 
+                new Attribute("date", AttributeType.DATE));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createPartitionedTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString(), "date", PartitionGranularity.MONTH);
+        Assert.assertEquals("date", relationManager.getTablePartitionAttribute(tableName));
+        Assert.assertEquals(PartitionGranularity.MONTH, relationManager.getTablePartitionGranularity(tableName));
+        Assert.assertTrue(relationManager.getTablePartitions(tableName).isEmpty());
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test1"), new DateField("2017-01-15")));
+        dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test2"), new DateField("2017-02-01")));
+        IDField idField = dataWriter.insertTuple(
+                new Tuple(tableSchema, new StringField("test3"), new DateField("2017-02-28")));
+        dataWriter.close();
+        Assert.assertEquals(Arrays.asList("2017-01", "2017-02"), relationManager.getTablePartitions(tableName));
+        
+        // updating the partition attribute moves the tuple to another partition
+        dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.updateTuple(new Tuple(tableSchema, new StringField("test3"), new DateField("2017-03-02")), idField);
+        dataWriter.close();
+        Assert.assertEquals(Arrays.asList("2017-01", "2017-02", "2017-03"), relationManager.getTablePartitions(tableName));
+        
+        DataReader dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        Assert.assertEquals(3, countTuples(dataReader));
+        dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        dataReader.setPartitionRange(LocalDate.parse("2017-02-10"), null);
+        Assert.assertEquals(2, countTuples(dataReader));
+        dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        dataReader.setPartitionRange(null, LocalDate.parse("2016-12-31"));
+        Assert.assertEquals(0, countTuples(dataReader));
+        
+        // the partitions that end before the date are dropped
+        Assert.assertEquals(2, relationManager.dropTablePartitions(tableName, LocalDate.parse("2017-03-01")));
+        Assert.assertEquals(Arrays.asList("2017-03"), relationManager.getTablePartitions(tableName));
+        dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        Assert.assertEquals(1, countTuples(dataReader));
+        
+        // the partition attribute must be a date
+        try {
+            relationManager.createPartitionedTable(tableName + "_invalid", Paths.get(tableDirectory + "_invalid"), 
+                    tableSchema, LuceneAnalyzerConstants.standardAnalyzerString(), "content", PartitionGranularity.DAY);
+            Assert.fail("Partitioning on a non-date attribute should throw an exception");
+        } catch (StorageException e) {
+        }
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the terms of the attributes accepted by some automata are read from the terms dictionaries.
+     */
+    @Test
+    public void test29() throws Exception {
+        String tableName = "relation_manager_test_table_29";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_29";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.TEXT));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("aspirin and ibuprofen")));
+        dataWriter.insertTuple(new Tuple(tableSchema, new TextField("asprin or asperin")));
+        dataWriter.close();
+        
+        CompiledAutomaton automaton = new CompiledAutomaton(new LevenshteinAutomata("aspirin", true).toAutomaton(1));
+        CompiledAutomaton exactAutomaton = new CompiledAutomaton(new LevenshteinAutomata("ibuprofen", true).toAutomaton(0));
+        Map<String, List<List<String>>> matchingTermsMap = relationManager.getTableMatchingTerms(tableName, 
+                Arrays.asList("content", "no_such_attribute"), Arrays.asList(automaton, exactAutomaton));
+        Assert.assertEquals(Arrays.asList(Arrays.asList("asperin", "aspirin", "asprin"), Arrays.asList("ibuprofen")), 
+                matchingTermsMap.get("content"));
+        Assert.assertEquals(Arrays.asList(Arrays.asList(), Arrays.asList()), matchingTermsMap.get("no_such_attribute"));
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that a bulk change with more than COMMIT_BATCH_SIZE changes is committed only once, when it's completed.
+     */
+    @Test
+    public void test30() throws Exception {
+        Path indexDirectory = Paths.get("./index/test_table/relation_manager_test_table_30");
+        IndexWriterRegistry.closeWriter(indexDirectory);
+        StorageUtils.deleteDirectory(indexDirectory.toString());
+        
+        SharedIndexWriter sharedIndexWriter = IndexWriterRegistry.acquire(indexDirectory, 
+                new StandardAnalyzer(), DirectoryType.FS, CompressionMode.BEST_SPEED);
+        try {
+            sharedIndexWriter.getIndexWriter().commit();
+            int numChanges = SharedIndexWriter.COMMIT_BATCH_SIZE + 10;
+            sharedIndexWriter.applyInSingleCommit(() -> {
+                for (int i = 0; i < numChanges; i++) {
+                    sharedIndexWriter.getIndexWriter().addDocument(new Document());
+                    sharedIndexWriter.recordChanges(1);
+                }
+                // none of the changes is committed before the bulk change is completed
+                try (Directory directory = FSDirectory.open(indexDirectory);
+                        DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+                    Assert.assertEquals(0, directoryReader.numDocs());
+                }
+            });
+            Assert.assertFalse(sharedIndexWriter.hasUncommittedChanges());
+            try (Directory directory = FSDirectory.open(indexDirectory);
+                    DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+                Assert.assertEquals(numChanges, directoryReader.numDocs());
+            }
+        } finally {
+            IndexWriterRegistry.release(sharedIndexWriter);
+            IndexWriterRegistry.closeWriter(indexDirectory);
+            StorageUtils.deleteDirectory(indexDirectory.toString());
+        }
+    }
+    
+    /*
+     * Test that the bulk changes of a partitioned table cover the partitions created by other DataWriters,
+     *   and that the partitions that the updated tuples move to are committed with the bulk change.
+     */
+    @Test
+    public void test31() throws Exception {
+        String tableName = "relation_manager_test_table_31";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_31";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING), 
+                new Attribute("date", AttributeType.DATE));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createPartitionedTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString(), "date", PartitionGranularity.MONTH);
+        
+        DataWriter dataWriter1 = relationManager.getTableDataWriter(tableName);
+        dataWriter1.open();
+        dataWriter1.insertTuple(new Tuple(tableSchema, new StringField("old"), new DateField("2017-01-15")));
+        
+        // the partition 2017-02 is created after the second DataWriter is opened
+        DataWriter dataWriter2 = relationManager.getTableDataWriter(tableName);
+        dataWriter2.open();
+        IDField idField = dataWriter1.insertTuple(
+                new Tuple(tableSchema, new StringField("old"), new DateField("2017-02-15")));
+        dataWriter1.close();
+        
+        dataWriter2.deleteTuples(Arrays.asList(idField));
+        Assert.assertNull(relationManager.getTupleByID(tableName, idField));
+        
+        // the tuple moves to the new partition 2017-04, which is committed when the update returns
+        int numUpdated = dataWriter2.updateTuples(new TermQuery(new Term("content", "old")), "date", 
+                field -> new DateField("2017-04-01"));
+        Assert.assertEquals(1, numUpdated);
+        Path partitionDirectory = dataWriter2.getDataStore().getPartitionDirectory(LocalDate.parse("2017-04-01"));
+        try (Directory directory = FSDirectory.open(partitionDirectory);
+                DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+            Assert.assertEquals(1, directoryReader.numDocs());
+        }
+        dataWriter2.close();
+        
+        DataReader dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        Assert.assertEquals(1, countTuples(dataReader));
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that a table written before DATE attributes were indexed as numbers is reindexed,
+     *   and that its index version is updated afterwards.
+     */
+    @Test
+    public void test32() throws Exception {
+        String tableName = "relation_manager_test_table_32";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_32";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING), 
+                new Attribute("date", AttributeType.DATE));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema, 
+                LuceneAnalyzerConstants.standardAnalyzerString());
+        Assert.assertEquals(CatalogConstants.CURRENT_INDEX_VERSION, relationManager.getTableIndexVersion(tableName));
+        
+        // write a tuple the way the legacy index format did, with the date indexed as a string
+        Path indexDirectory = Paths.get(relationManager.getTableDirectory(tableName));
+        SharedIndexWriter sharedIndexWriter = IndexWriterRegistry.acquire(indexDirectory, 
+                new StandardAnalyzer(), DirectoryType.FS, CompressionMode.BEST_SPEED);
+        try {
+            Document document = new Document();
+            document.add(new org.apache.lucene.document.StringField(SchemaConstants._ID, "legacy", Store.YES));
+            document.add(new org.apache.lucene.document.StringField("content", "legacy content", Store.YES));
+            document.add(new org.apache.lucene.document.StringField("date", "2017-01-15", Store.YES));
+            sharedIndexWriter.getIndexWriter().addDocument(document);
+            sharedIndexWriter.recordChanges(1);
+            sharedIndexWriter.commit();
+        } finally {
+            IndexWriterRegistry.release(sharedIndexWriter);
+        }
+        relationManager.updateTableCatalogField(tableName, CatalogConstants.TABLE_INDEX_VERSION, 
+                new IntegerField(CatalogConstants.LEGACY_INDEX_VERSION));
+        
+        long epochDay = LocalDate.parse("2017-01-15").toEpochDay();
+        Query dateQuery = NumericRangeQuery.newLongRange("date", epochDay, epochDay, true, true);
+        Assert.assertEquals(0, countTuples(relationManager.getTableDataReader(tableName, dateQuery)));
+        
+        relationManager.reindexLegacyTables();
+        
+        Assert.assertEquals(CatalogConstants.CURRENT_INDEX_VERSION, relationManager.getTableIndexVersion(tableName));
+        DataReader dataReader = relationManager.getTableDataReader(tableName, dateQuery);
+        dataReader.open();
+        Tuple tuple = dataReader.getNextTuple();
+        Assert.assertEquals("legacy content", tuple.getField("content").getValue());
+        Assert.assertEquals(LocalDate.parse("2017-01-15"), tuple.getField("date").getValue());
+        Assert.assertNull(dataReader.getNextTuple());
+        dataReader.close();
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that changing the directory type of a table with open index writers closes the writers,
+     *   and that the writers opened afterwards use the new directory type.
+     */
+    @Test
+    public void test33() throws Exception {
+        String tableName = "relation_manager_test_table_33";
+        String tableDirectory = "./index/test_table/relation_manager_test_table_33";
+        Schema tableSchema = new Schema(new Attribute("content", AttributeType.STRING));
+        
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, Paths.get(tableDirectory), tableSchema,
+                LuceneAnalyzerConstants.standardAnalyzerString());
+        Path indexDirectory = Paths.get(relationManager.getTableDirectory(tableName));
+        
+        // the shared index writer stays open after the DataWriter is closed
+        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField1 = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test1")));
+        dataWriter.close();
+        DirectoryReader sharedReader = IndexWriterRegistry.acquireReader(indexDirectory);
+        Assert.assertNotNull(sharedReader);
+        sharedReader.decRef();
+        
+        relationManager.setTableDirectoryType(tableName, DirectoryType.MMAP);
+        Assert.assertNull(IndexWriterRegistry.acquireReader(indexDirectory));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField1));
+        
+        dataWriter = relationManager.getTableDataWriter(tableName);
+        dataWriter.open();
+        IDField idField2 = dataWriter.insertTuple(new Tuple(tableSchema, new StringField("test2")));
+        dataWriter.close();
+        SharedIndexWriter sharedIndexWriter = IndexWriterRegistry.acquire(indexDirectory,
+                new StandardAnalyzer(), DirectoryType.FS, CompressionMode.BEST_SPEED);
+        try {
+            Assert.assertTrue(sharedIndexWriter.getIndexWriter().getDirectory() instanceof MMapDirectory);
+        } finally {
+            IndexWriterRegistry.release(sharedIndexWriter);
+        }
+        
+        // the tuples committed with the MMAP writer are read from the in-memory copy
+        relationManager.setTableDirectoryType(tableName, DirectoryType.RAM);
+        Assert.assertNull(IndexWriterRegistry.acquireReader(indexDirectory));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField1));
+        Assert.assertNotNull(relationManager.getTupleByID(tableName, idField2));
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * Test that the periodic commits skip a shared index writer while it's acquired by a DataWriter,
+     *   and commit its changes after it's released.
+     */
+    @Test
+    public void test34() throws Exception {
+        Path indexDirectory = Paths.get("./index/test_table/relation_manager_test_table_34");
+        IndexWriterRegistry.closeWriter(indexDirectory);
+        StorageUtils.deleteDirectory(indexDirectory.toString());
+        
+        SharedIndexWriter sharedIndexWriter = IndexWriterRegistry.acquire(indexDirectory,
+                new StandardAnalyzer(), DirectoryType.FS, CompressionMode.BEST_SPEED);
+        try {
+            sharedIndexWriter.getIndexWriter().commit();
+            sharedIndexWriter.getIndexWriter().addDocument(new Document());
+            sharedIndexWriter.recordChanges(1);
+            
+            Thread.sleep(IndexWriterRegistry.COMMIT_INTERVAL_MILLIS * 3);
+            Assert.assertTrue(sharedIndexWriter.hasUncommittedChanges());
+            try (Directory directory = FSDirectory.open(indexDirectory);
+                    DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+                Assert.assertEquals(0, directoryReader.numDocs());
+            }
+            
+            IndexWriterRegistry.release(sharedIndexWriter);
+            long deadline = System.currentTimeMillis() + IndexWriterRegistry.COMMIT_INTERVAL_MILLIS * 10;
+            while (sharedIndexWriter.hasUncommittedChanges() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(IndexWriterRegistry.COMMIT_INTERVAL_MILLIS / 10);
+            }
+            try (Directory directory = FSDirectory.open(indexDirectory);
+                    DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+                Assert.assertEquals(1, directoryReader.numDocs());
+            }
+        } finally {
+            IndexWriterRegistry.closeWriter(indexDirectory);
+            StorageUtils.deleteDirectory(indexDirectory.toString());
+        }
+    }
+    
+    private static int countTuples(DataReader dataReader) {
+        int numTuples = 0;
+        dataReader.open();
+        while (dataReader.getNextTuple() != null) {
+            numTuples++;
+        }
+        dataReader.close();
+        return numTuples;
+    }
 }
@@ -6,6 +6,7 @@ import com.github.dirkraft.dropwizard.fileassets.FileAssetsBundle;
 
 import edu.uci.ics.texera.perftest.sample.SampleExtraction;
 import edu.uci.ics.texera.perftest.twitter.TwitterSample;
+import edu.uci.ics.texera.storage.RelationManager;
 import edu.uci.ics.texera.web.healthcheck.SampleHealthCheck;
 import edu.uci.ics.texera.web.resource.*;
 import io.dropwizard.Application;
@@ -71,6 +72,9 @@ public class TexeraWebApplication extends Application<TexeraWebConfiguration> {
         System.out.println("Writing twitter index");
         TwitterSample.writeTwitterIndex();
         System.out.println("Finished writing twitter index");
+        System.out.println("Warming up hot tables");
+        RelationManager.getInstance().warmUpTables();
+        System.out.println("Finished warming up hot tables");
         new TexeraWebApplication().run(args);
     }
 }
\ No newline at end of file
@@ -65,9 +65,14 @@ public class QueryPlanResource {
             // send response back to frontend
             if (sink instanceof TupleSink) {
                 TupleSink tupleSink = (TupleSink) sink;
-                tupleSink.open();
-                List<Tuple> results = tupleSink.collectAllTuples();
-                tupleSink.close();
+                List<Tuple> results;
+                try {
+                    tupleSink.open();
+                    results = tupleSink.collectAllTuples();
+                    tupleSink.close();
+                } finally {
+                    plan.close();
+                }
                 
                 // make sure result directory is created
                 if (Files.notExists(resultDirectory)) {